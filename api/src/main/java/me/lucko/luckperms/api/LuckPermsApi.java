@@ -26,6 +26,7 @@
 package me.lucko.luckperms.api;
 
 import me.lucko.luckperms.LuckPerms;
+import me.lucko.luckperms.api.caching.PermissionHandle;
 import me.lucko.luckperms.api.context.ContextCalculator;
 import me.lucko.luckperms.api.context.ContextManager;
 import me.lucko.luckperms.api.context.ContextSet;
@@ -228,6 +229,19 @@ public interface LuckPermsApi {
     @Nonnull
     MetaStackFactory getMetaStackFactory();
 
+    /**
+     * Gets a {@link PermissionHandle} for the given permission.
+     *
+     * <p>The same handle instance is returned for equal (case insensitive) permissions.</p>
+     *
+     * @param permission the permission
+     * @return a handle for the permission
+     * @throws NullPointerException if the permission is null
+     * @since 4.1
+     */
+    @Nonnull
+    PermissionHandle getPermissionHandle(@Nonnull String permission);
+
 
 
 
@@ -48,6 +48,31 @@ public interface PermissionData extends CachedDataContainer {
     @Nonnull
     Tristate getPermissionValue(@Nonnull String permission);
 
+    /**
+     * Gets a permission check result for the given permission handle.
+     *
+     * @param permission the permission handle
+     * @return a tristate result
+     * @throws NullPointerException if permission is null
+     * @since 4.1
+     */
+    @Nonnull
+    Tristate getPermissionValue(@Nonnull PermissionHandle permission);
+
+    /**
+     * Gets the permission check results for each of the permissions in the given query.
+     *
+     * <p>Results are cached against the query instance until the underlying data changes,
+     * so repeated calls with the same query are very cheap.</p>
+     *
+     * @param query the query
+     * @return the results
+     * @throws NullPointerException if query is null
+     * @since 4.1
+     */
+    @Nonnull
+    PermissionQueryResult getPermissionValues(@Nonnull PermissionQuery query);
+
     /**
      * Invalidates the underlying permission calculator cache.
      *
@@ -0,0 +1,111 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.api.caching;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collection;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * An ordered set of permissions which can be checked together using
+ * {@link PermissionData#getPermissionValues(PermissionQuery)}.
+ *
+ * <p>Queries should be created once and reused, as results are cached against
+ * the query instance.</p>
+ *
+ * @since 4.1
+ */
+public final class PermissionQuery {
+
+    /**
+     * Creates a new query for the given permissions.
+     *
+     * <p>The position of each permission in the collection is the index of its
+     * result in the returned {@link PermissionQueryResult}.</p>
+     *
+     * @param permissions the permissions to check
+     * @return a new query
+     * @throws NullPointerException if permissions, or any of its elements are null
+     */
+    @Nonnull
+    public static PermissionQuery of(@Nonnull Collection<String> permissions) {
+        Objects.requireNonNull(permissions, "permissions");
+        return new PermissionQuery(permissions);
+    }
+
+    /**
+     * Creates a new query for the given permissions.
+     *
+     * @param permissions the permissions to check
+     * @return a new query
+     * @throws NullPointerException if permissions, or any of its elements are null
+     */
+    @Nonnull
+    public static PermissionQuery of(@Nonnull String... permissions) {
+        Objects.requireNonNull(permissions, "permissions");
+        return new PermissionQuery(ImmutableList.copyOf(permissions));
+    }
+
+    private final ImmutableList<String> permissions;
+
+    private PermissionQuery(Collection<String> permissions) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (String permission : permissions) {
+            Objects.requireNonNull(permission, "permission");
+
+            // lookups are case insensitive, so do the conversion once now rather than on each check
+            builder.add(permission.toLowerCase().intern());
+        }
+        this.permissions = builder.build();
+    }
+
+    /**
+     * Gets the permissions in this query, in lowercase.
+     *
+     * @return the permissions
+     */
+    @Nonnull
+    public ImmutableList<String> getPermissions() {
+        return this.permissions;
+    }
+
+    /**
+     * Gets the number of permissions in this query
+     *
+     * @return the size of the query
+     */
+    public int size() {
+        return this.permissions.size();
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionQuery(permissions=" + this.permissions + ")";
+    }
+}
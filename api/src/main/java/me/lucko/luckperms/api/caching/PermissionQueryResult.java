@@ -0,0 +1,149 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.api.caching;
+
+import me.lucko.luckperms.api.Tristate;
+
+import java.util.BitSet;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The result of a {@link PermissionQuery}.
+ *
+ * <p>Results are indexed by the position of the permission in the query.</p>
+ *
+ * @since 4.1
+ */
+public final class PermissionQueryResult {
+
+    /**
+     * Creates a new result from the given tristates
+     *
+     * @param results the results, in query order
+     * @return a new result
+     */
+    @Nonnull
+    public static PermissionQueryResult of(@Nonnull Tristate[] results) {
+        Objects.requireNonNull(results, "results");
+
+        BitSet defined = new BitSet(results.length);
+        BitSet values = new BitSet(results.length);
+        for (int i = 0; i < results.length; i++) {
+            Tristate result = Objects.requireNonNull(results[i], "result");
+            if (result != Tristate.UNDEFINED) {
+                defined.set(i);
+                if (result.asBoolean()) {
+                    values.set(i);
+                }
+            }
+        }
+        return new PermissionQueryResult(results.length, defined, values);
+    }
+
+    private final int size;
+
+    // the indexes of results which are not undefined
+    private final BitSet defined;
+
+    // the indexes of results which are true
+    private final BitSet values;
+
+    private PermissionQueryResult(int size, BitSet defined, BitSet values) {
+        this.size = size;
+        this.defined = defined;
+        this.values = values;
+    }
+
+    /**
+     * Gets the number of results
+     *
+     * @return the number of results
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the result of the permission at the given index in the query
+     *
+     * @param index the index
+     * @return the result
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    @Nonnull
+    public Tristate get(int index) {
+        checkIndex(index);
+        if (!this.defined.get(index)) {
+            return Tristate.UNDEFINED;
+        }
+        return Tristate.fromBoolean(this.values.get(index));
+    }
+
+    /**
+     * Gets if the permission at the given index in the query resolved to true
+     *
+     * @param index the index
+     * @return if the permission was granted
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    public boolean has(int index) {
+        checkIndex(index);
+        return this.values.get(index);
+    }
+
+    /**
+     * Gets a bitset containing the indexes of the permissions which resolved to true
+     *
+     * @return a new bitset of the granted permissions
+     */
+    @Nonnull
+    public BitSet getGranted() {
+        return (BitSet) this.values.clone();
+    }
+
+    /**
+     * Gets a bitset containing the indexes of the permissions which were set to any value
+     *
+     * @return a new bitset of the defined permissions
+     */
+    @Nonnull
+    public BitSet getDefined() {
+        return (BitSet) this.defined.clone();
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PermissionQueryResult(size=" + this.size + ", defined=" + this.defined + ", granted=" + this.values + ")";
+    }
+}
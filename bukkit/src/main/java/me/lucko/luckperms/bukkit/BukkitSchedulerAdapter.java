@@ -27,10 +27,13 @@ package me.lucko.luckperms.bukkit;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
+import me.lucko.luckperms.common.plugin.RecalculationQueue;
 import me.lucko.luckperms.common.plugin.SchedulerAdapter;
+import me.lucko.luckperms.common.plugin.WorkloadExecutors;
 
 import org.bukkit.scheduler.BukkitTask;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -48,6 +51,7 @@ public class BukkitSchedulerAdapter implements SchedulerAdapter {
     private final Executor asyncBukkit;
     private final Executor sync;
     private final Executor async;
+    private final WorkloadExecutors workloads;
 
     private boolean useFallback = true;
 
@@ -60,6 +64,7 @@ public class BukkitSchedulerAdapter implements SchedulerAdapter {
         this.asyncFallback = new FallbackAsyncExecutor();
         this.asyncBukkit = new BukkitAsyncExecutor();
         this.async = new AsyncExecutor();
+        this.workloads = new WorkloadExecutors();
     }
 
     @Override
@@ -98,6 +103,8 @@ public class BukkitSchedulerAdapter implements SchedulerAdapter {
     public void shutdown() {
         this.tasks.forEach(BukkitTask::cancel);
 
+        this.workloads.shutdown();
+
         // wait for executor
         this.asyncFallback.shutdown();
         try {
@@ -126,6 +133,41 @@ public class BukkitSchedulerAdapter implements SchedulerAdapter {
         return this.async;
     }
 
+    @Override
+    public Executor storage() {
+        return this.workloads.storage();
+    }
+
+    @Override
+    public Executor calculation() {
+        return this.workloads.calculation();
+    }
+
+    @Override
+    public Executor messaging() {
+        return this.workloads.messaging();
+    }
+
+    @Override
+    public Executor background() {
+        return this.workloads.background();
+    }
+
+    @Override
+    public RecalculationQueue recalculationQueue() {
+        return this.workloads.recalculationQueue();
+    }
+
+    @Override
+    public void setCalculationThreads(int threads) {
+        this.workloads.setCalculationThreads(threads);
+    }
+
+    @Override
+    public Map<String, String> getExecutorStats() {
+        return this.workloads.getStats();
+    }
+
     public void setUseFallback(boolean useFallback) {
         this.useFallback = useFallback;
     }
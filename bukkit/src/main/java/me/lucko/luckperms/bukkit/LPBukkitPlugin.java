@@ -72,12 +72,16 @@ import me.lucko.luckperms.common.managers.UserManager;
 import me.lucko.luckperms.common.messaging.ExtendedMessagingService;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.DataSnapshot;
 import me.lucko.luckperms.common.storage.Storage;
 import me.lucko.luckperms.common.storage.StorageFactory;
 import me.lucko.luckperms.common.storage.StorageType;
 import me.lucko.luckperms.common.storage.dao.file.FileWatcher;
 import me.lucko.luckperms.common.tasks.CacheHousekeepingTask;
 import me.lucko.luckperms.common.tasks.ExpireTemporaryTask;
+import me.lucko.luckperms.common.tasks.ExpiryQueue;
+import me.lucko.luckperms.common.tasks.PreCalculateContextsTask;
+import me.lucko.luckperms.common.tasks.SnapshotReconcileTask;
 import me.lucko.luckperms.common.tasks.UpdateTask;
 import me.lucko.luckperms.common.treeview.PermissionVault;
 import me.lucko.luckperms.common.utils.LoginHelper;
@@ -130,6 +134,7 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
     private LocaleManager localeManager;
     private DependencyManager dependencyManager;
     private CachedStateManager cachedStateManager;
+    private ExpiryQueue expiryQueue;
     private ContextManager<Player> contextManager;
     private CalculatorFactory calculatorFactory;
     private BufferedRequest<Void> updateTaskBuffer;
@@ -185,13 +190,14 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
     private void enable() {
         this.startTime = System.currentTimeMillis();
         sendStartupBanner(getConsoleSender());
-        this.verboseHandler = new VerboseHandler(this.scheduler.asyncBukkit(), getVersion());
-        this.permissionVault = new PermissionVault(this.scheduler.asyncBukkit());
+        this.verboseHandler = new VerboseHandler(this.scheduler.background(), getVersion());
+        this.permissionVault = new PermissionVault(this.scheduler.background());
         this.logDispatcher = new LogDispatcher(this);
 
         getLog().info("Loading configuration...");
         this.configuration = new AbstractConfiguration(this, new BukkitConfigAdapter(this, resolveConfig("config.yml")));
         this.configuration.loadAll();
+        this.scheduler.setCalculationThreads(this.configuration.get(ConfigKeys.CALCULATION_THREADS));
 
         StorageFactory storageFactory = new StorageFactory(this);
         Set<StorageType> storageTypes = storageFactory.getRequiredTypes(StorageType.H2);
@@ -236,6 +242,7 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
 
         // load internal managers
         getLog().info("Loading internal permission managers...");
+        this.expiryQueue = new ExpiryQueue();
         this.uuidCache = new UuidCache(this);
         this.userManager = new GenericUserManager(this);
         this.groupManager = new GenericGroupManager(this);
@@ -244,7 +251,9 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
         this.cachedStateManager = new CachedStateManager();
 
         // setup context manager
-        this.contextManager = new BukkitContextManager(this);
+        BukkitContextManager contextManager = new BukkitContextManager(this);
+        getServer().getPluginManager().registerEvents(contextManager, this);
+        this.contextManager = contextManager;
         this.contextManager.registerCalculator(new WorldCalculator(this));
         this.contextManager.registerStaticCalculator(new LuckPermsCalculator(getConfiguration()));
 
@@ -274,20 +283,29 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
             long ticks = mins * 60 * 20;
             this.scheduler.asyncRepeating(() -> this.updateTaskBuffer.request(), ticks);
         }
-        this.scheduler.asyncLater(() -> this.updateTaskBuffer.request(), 40L);
 
-        // run an update instantly.
+        // run an update instantly, unless the group & track data could be loaded from the local
+        // snapshot, in which case the update reconciles it with the storage in the background.
         getLog().info("Performing initial data load...");
         try {
-            new UpdateTask(this, true).run();
+            // apply any changes which didn't make it to storage before the last shutdown
+            this.storage.replayJournal();
+
+            if (getConfiguration().get(ConfigKeys.WARM_START) && new DataSnapshot(this).load()) {
+                new SnapshotReconcileTask(this).schedule();
+            } else {
+                this.scheduler.asyncLater(() -> this.updateTaskBuffer.request(), 40L);
+                new UpdateTask(this, true).run();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
 
 
         // register tasks
-        this.scheduler.asyncRepeating(new ExpireTemporaryTask(this), 60L);
+        this.scheduler.asyncRepeating(new ExpireTemporaryTask(this), 20L);
         this.scheduler.asyncRepeating(new CacheHousekeepingTask(this), 2400L);
+        this.scheduler.asyncRepeating(new PreCalculateContextsTask(this), 1200L);
 
         // register permissions
         try {
@@ -312,7 +330,7 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
         for (Player player : getServer().getOnlinePlayers()) {
             this.scheduler.doAsync(() -> {
                 try {
-                    LoginHelper.loadUser(this, player.getUniqueId(), player.getName(), false);
+                    LoginHelper.loadUser(this, player.getUniqueId(), player.getName());
                     User user = getUserManager().getIfLoaded(getUuidCache().getUUID(player.getUniqueId()));
                     if (user != null) {
                         this.scheduler.doSync(() -> {
@@ -546,7 +564,7 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
         Map<String, Object> map = new LinkedHashMap<>();
         map.put("Vault Enabled", this.vaultHookManager != null);
         map.put("Bukkit Defaults count", this.defaultsProvider.size());
-        map.put("Bukkit Child Permissions count", this.childPermissionProvider.getPermissions().size());
+        map.put("Bukkit Child Permissions count", this.childPermissionProvider.size());
         return map;
     }
 
@@ -646,6 +664,11 @@ public class LPBukkitPlugin extends JavaPlugin implements LuckPermsPlugin {
         return this.cachedStateManager;
     }
 
+    @Override
+    public ExpiryQueue getExpiryQueue() {
+        return this.expiryQueue;
+    }
+
     @Override
     public ContextManager<Player> getContextManager() {
         return this.contextManager;
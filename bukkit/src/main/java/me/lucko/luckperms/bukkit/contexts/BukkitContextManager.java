@@ -27,15 +27,67 @@ package me.lucko.luckperms.bukkit.contexts;
 
 import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.api.context.ImmutableContextSet;
+import me.lucko.luckperms.api.context.MutableContextSet;
 import me.lucko.luckperms.bukkit.LPBukkitPlugin;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.contexts.AbstractContextManager;
 
+import org.bukkit.Bukkit;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldLoadEvent;
+import org.bukkit.event.world.WorldUnloadEvent;
+
+public class BukkitContextManager extends AbstractContextManager<Player> implements Listener {
+
+    // the name of the main world, read on the server thread as the world list isn't thread safe
+    private volatile String mainWorld = null;
 
-public class BukkitContextManager extends AbstractContextManager<Player> {
     public BukkitContextManager(LPBukkitPlugin plugin) {
         super(plugin, Player.class);
+        refreshMainWorld(null);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onWorldLoad(WorldLoadEvent e) {
+        refreshMainWorld(null);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onWorldUnload(WorldUnloadEvent e) {
+        // the world is still in the list whilst the event is being called
+        refreshMainWorld(e.getWorld());
+    }
+
+    private void refreshMainWorld(World unloading) {
+        String mainWorld = null;
+        for (World world : Bukkit.getWorlds()) {
+            if (!world.equals(unloading)) {
+                mainWorld = world.getName().toLowerCase();
+                break;
+            }
+        }
+        this.mainWorld = mainWorld;
+    }
+
+    @Override
+    public ImmutableContextSet getLoginContext() {
+        // players join into the main world, unless another plugin moves them
+        String world = this.mainWorld;
+        if (world == null) {
+            return getStaticContext();
+        }
+
+        // apply world rewrites in the same way as the WorldCalculator
+        MutableContextSet contextSet = MutableContextSet.fromSet(getStaticContext());
+        while (!contextSet.has(Contexts.WORLD_KEY, world)) {
+            contextSet.add(Contexts.WORLD_KEY, world);
+            world = this.plugin.getConfiguration().get(ConfigKeys.WORLD_REWRITES).getOrDefault(world, world).toLowerCase();
+        }
+        return contextSet.makeImmutable();
     }
 
     @Override
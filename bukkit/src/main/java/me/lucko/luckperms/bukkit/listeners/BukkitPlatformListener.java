@@ -28,6 +28,7 @@ package me.lucko.luckperms.bukkit.listeners;
 import me.lucko.luckperms.bukkit.LPBukkitPlugin;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.locale.Message;
+import me.lucko.luckperms.common.model.User;
 
 import org.bukkit.command.CommandSender;
 import org.bukkit.event.Cancellable;
@@ -36,6 +37,7 @@ import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
 import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.PluginDisableEvent;
 import org.bukkit.event.server.PluginEnableEvent;
 import org.bukkit.event.server.RemoteServerCommandEvent;
 import org.bukkit.event.server.ServerCommandEvent;
@@ -90,6 +92,25 @@ public class BukkitPlatformListener implements Listener {
         if (e.getPlugin().getName().equalsIgnoreCase("Vault")) {
             this.plugin.tryVaultHook(true);
         }
+
+        refreshChildPermissions();
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent e) {
+        refreshChildPermissions();
+    }
+
+    private void refreshChildPermissions() {
+        // permissions may have been registered or unregistered by the plugin
+        if (this.plugin.getChildPermissionProvider().refresh()) {
+            this.plugin.getCalculatorFactory().rebuildAll();
+            this.plugin.getScheduler().doAsync(() -> {
+                for (User user : this.plugin.getUserManager().getAll().values()) {
+                    user.getCachedData().reloadPermissions();
+                }
+            });
+        }
     }
 
     @EventHandler(priority = EventPriority.LOWEST)
@@ -80,7 +80,7 @@ public class LilyPadMessagingService extends AbstractMessagingService {
 
     @EventListener
     public void onMessage(MessageEvent event) {
-        this.plugin.getScheduler().doAsync(() -> {
+        this.plugin.getScheduler().messaging().execute(() -> {
             try {
                 String channel = event.getChannel();
 
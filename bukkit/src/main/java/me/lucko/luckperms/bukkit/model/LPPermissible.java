@@ -26,10 +26,12 @@
 package me.lucko.luckperms.bukkit.model;
 
 import me.lucko.luckperms.api.Contexts;
+import me.lucko.luckperms.api.Node;
 import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.bukkit.LPBukkitPlugin;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.node.ImmutableTransientNode;
 import me.lucko.luckperms.common.verbose.CheckOrigin;
 
 import org.bukkit.entity.Player;
@@ -39,8 +41,11 @@ import org.bukkit.permissions.PermissionAttachment;
 import org.bukkit.permissions.PermissionAttachmentInfo;
 import org.bukkit.plugin.Plugin;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -82,6 +87,15 @@ public class LPPermissible extends PermissibleBase {
     // this collection is only modified by the attachments themselves
     final Set<LPPermissionAttachment> attachments = ConcurrentHashMap.newKeySet();
 
+    // the attachments with changes which haven't been applied to the user yet
+    private final Set<LPPermissionAttachment> dirtyAttachments = ConcurrentHashMap.newKeySet();
+
+    // if a task to apply the pending attachment changes has been scheduled
+    private final AtomicBoolean attachmentUpdateScheduled = new AtomicBoolean(false);
+
+    // lock used to ensure attachment changes are applied in order
+    private final Object attachmentLock = new Object();
+
     public LPPermissible(Player player, User user, LPBukkitPlugin plugin) {
         super(player);
         this.user = Objects.requireNonNull(user, "user");
@@ -95,6 +109,8 @@ public class LPPermissible extends PermissibleBase {
             throw new NullPointerException("permission");
         }
 
+        applyAttachmentChanges();
+
         Tristate ts = this.user.getCachedData().getPermissionData(calculateContexts()).getPermissionValue(permission, CheckOrigin.PLATFORM_LOOKUP_CHECK);
         return ts != Tristate.UNDEFINED || Permission.DEFAULT_PERMISSION.getValue(isOp());
     }
@@ -105,6 +121,8 @@ public class LPPermissible extends PermissibleBase {
             throw new NullPointerException("permission");
         }
 
+        applyAttachmentChanges();
+
         Tristate ts = this.user.getCachedData().getPermissionData(calculateContexts()).getPermissionValue(permission.getName(), CheckOrigin.PLATFORM_LOOKUP_CHECK);
         if (ts != Tristate.UNDEFINED) {
             return true;
@@ -123,6 +141,8 @@ public class LPPermissible extends PermissibleBase {
             throw new NullPointerException("permission");
         }
 
+        applyAttachmentChanges();
+
         Tristate ts = this.user.getCachedData().getPermissionData(calculateContexts()).getPermissionValue(permission, CheckOrigin.PLATFORM_PERMISSION_CHECK);
         return ts != Tristate.UNDEFINED ? ts.asBoolean() : Permission.DEFAULT_PERMISSION.getValue(isOp());
     }
@@ -133,6 +153,8 @@ public class LPPermissible extends PermissibleBase {
             throw new NullPointerException("permission");
         }
 
+        applyAttachmentChanges();
+
         Tristate ts = this.user.getCachedData().getPermissionData(calculateContexts()).getPermissionValue(permission.getName(), CheckOrigin.PLATFORM_PERMISSION_CHECK);
         if (ts != Tristate.UNDEFINED) {
             return ts.asBoolean();
@@ -156,6 +178,74 @@ public class LPPermissible extends PermissibleBase {
         }
     }
 
+    /**
+     * Marks an attachment as having changes which need to be applied to the user.
+     *
+     * <p>Changes are applied on the next tick, or before the next permission check,
+     * so many changes made in quick succession only cause a single recalculation.</p>
+     *
+     * @param attachment the attachment
+     */
+    void markAttachmentDirty(LPPermissionAttachment attachment) {
+        this.dirtyAttachments.add(attachment);
+        if (this.attachmentUpdateScheduled.compareAndSet(false, true)) {
+            this.plugin.getScheduler().doSync(() -> {
+                this.attachmentUpdateScheduled.set(false);
+                applyAttachmentChanges();
+            });
+        }
+    }
+
+    /**
+     * Applies any pending attachment changes to the user.
+     */
+    public void applyAttachmentChanges() {
+        if (this.dirtyAttachments.isEmpty()) {
+            return;
+        }
+
+        synchronized (this.attachmentLock) {
+            Set<LPPermissionAttachment> changed = new HashSet<>();
+            List<Node> nodes = new ArrayList<>();
+
+            for (Iterator<LPPermissionAttachment> it = this.dirtyAttachments.iterator(); it.hasNext(); ) {
+                LPPermissionAttachment attachment = it.next();
+
+                // the changes will be applied when the batch completes
+                if (attachment.isBatching()) {
+                    continue;
+                }
+
+                it.remove();
+                changed.add(attachment);
+                attachment.collectTransientNodes(nodes);
+            }
+
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            // swap out the transient nodes owned by the changed attachments in one go
+            if (this.user.replaceTransientNodes(n -> n instanceof ImmutableTransientNode && changed.contains(((ImmutableTransientNode) n).getOwner()), nodes)) {
+                this.user.reloadCachedData();
+            }
+        }
+    }
+
+    /**
+     * Removes all of the permissions applied by an attachment from the user.
+     *
+     * @param attachment the attachment
+     */
+    void clearAttachment(LPPermissionAttachment attachment) {
+        synchronized (this.attachmentLock) {
+            this.dirtyAttachments.remove(attachment);
+            if (this.user.removeIfTransient(n -> n instanceof ImmutableTransientNode && ((ImmutableTransientNode) n).getOwner() == attachment)) {
+                this.user.reloadCachedData();
+            }
+        }
+    }
+
     /**
      * Obtains a {@link Contexts} instance for the player.
      * Values are determined using the plugins ContextManager.
@@ -173,6 +263,8 @@ public class LPPermissible extends PermissibleBase {
 
     @Override
     public Set<PermissionAttachmentInfo> getEffectivePermissions() {
+        applyAttachmentChanges();
+
         Set<Map.Entry<String, Boolean>> permissions = this.user.getCachedData().getPermissionData(calculateContexts()).getImmutableBacking().entrySet();
         Set<PermissionAttachmentInfo> ret = new HashSet<>(permissions.size());
 
@@ -28,8 +28,8 @@ package me.lucko.luckperms.bukkit.model;
 import com.google.common.base.Preconditions;
 
 import me.lucko.luckperms.api.Node;
+import me.lucko.luckperms.api.context.ImmutableContextSet;
 import me.lucko.luckperms.common.config.ConfigKeys;
-import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.node.ImmutableTransientNode;
 import me.lucko.luckperms.common.node.NodeFactory;
 
@@ -44,11 +44,17 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * PermissionAttachment for LuckPerms.
  *
  * Applies all permissions directly to the backing user instance via transient nodes.
+ *
+ * Changes are not applied to the user immediately - they are coalesced by the parent
+ * {@link LPPermissible} and applied together, either on the next tick or before the
+ * next permission check, whichever happens first.
  */
 public class LPPermissionAttachment extends PermissionAttachment {
 
@@ -87,7 +93,12 @@ public class LPPermissionAttachment extends PermissionAttachment {
     /**
      * If the attachment has been applied to the user
      */
-    private boolean hooked = false;
+    private volatile boolean hooked = false;
+
+    /**
+     * The number of batches currently being applied to the attachment
+     */
+    private final AtomicInteger batchDepth = new AtomicInteger(0);
 
     /**
      * Callback to run when the attachment is removed
@@ -149,58 +160,71 @@ public class LPPermissionAttachment extends PermissionAttachment {
     }
 
     /**
-     * Hooks this attachment with the parent {@link User} instance.
+     * Hooks this attachment with the parent {@link LPPermissible} instance.
      */
     public void hook() {
         this.hooked = true;
         this.permissible.attachments.add(this);
-        for (Map.Entry<String, Boolean> entry : this.perms.entrySet()) {
-            if (entry.getKey() == null || entry.getKey().isEmpty()) {
-                continue;
-            }
-            setPermissionInternal(entry.getKey(), entry.getValue());
-        }
+        markDirty();
     }
 
-    private void setPermissionInternal(String name, boolean value) {
-        if (!this.permissible.getPlugin().getConfiguration().get(ConfigKeys.APPLY_BUKKIT_ATTACHMENT_PERMISSIONS)) {
-            return;
+    /**
+     * Applies a batch of changes to the attachment.
+     *
+     * <p>None of the changes made by the action are applied to the user until it
+     * returns, at which point they are all applied together.</p>
+     *
+     * @param action the action making the changes
+     */
+    public void batch(Consumer<? super LPPermissionAttachment> action) {
+        this.batchDepth.incrementAndGet();
+        try {
+            action.accept(this);
+        } finally {
+            if (this.batchDepth.decrementAndGet() == 0 && this.hooked) {
+                this.permissible.applyAttachmentChanges();
+            }
         }
+    }
 
-        // construct a node for the permission being set
-        // we use the servers static context to *try* to ensure that the node will apply
-        Node node = NodeFactory.builder(name)
-                .setValue(value)
-                .withExtraContext(this.permissible.getPlugin().getContextManager().getStaticContext())
-                .build();
-
-        // convert the constructed node to a transient node instance to refer back to this attachment
-        ImmutableTransientNode transientNode = ImmutableTransientNode.of(node, this);
+    boolean isBatching() {
+        return this.batchDepth.get() != 0;
+    }
 
-        // set the transient node
-        User user = this.permissible.getUser();
-        if (user.setTransientPermission(transientNode).asBoolean()) {
-            user.reloadCachedData();
+    private void markDirty() {
+        if (this.hooked) {
+            this.permissible.markAttachmentDirty(this);
         }
     }
 
-    private void unsetPermissionInternal(String name) {
-        if (!this.permissible.getPlugin().getConfiguration().get(ConfigKeys.APPLY_BUKKIT_ATTACHMENT_PERMISSIONS)) {
+    /**
+     * Converts the permissions being applied by this attachment to transient nodes.
+     *
+     * @param accumulator the collection to add the nodes to
+     */
+    void collectTransientNodes(Collection<Node> accumulator) {
+        if (!this.hooked || !this.permissible.getPlugin().getConfiguration().get(ConfigKeys.APPLY_BUKKIT_ATTACHMENT_PERMISSIONS)) {
             return;
         }
 
-        // remove transient permissions from the holder which were added by this attachment & equal the permission
-        User user = this.permissible.getUser();
-        if (user.removeIfTransient(n -> n instanceof ImmutableTransientNode && ((ImmutableTransientNode) n).getOwner() == this && n.getPermission().equals(name))) {
-            user.reloadCachedData();
-        }
-    }
+        // we use the servers static context to *try* to ensure that the nodes will apply
+        ImmutableContextSet staticContext = this.permissible.getPlugin().getContextManager().getStaticContext();
 
-    private void clearInternal() {
-        // remove all transient permissions added by this attachment
-        User user = this.permissible.getUser();
-        if (user.removeIfTransient(n -> n instanceof ImmutableTransientNode && ((ImmutableTransientNode) n).getOwner() == this)) {
-            user.reloadCachedData();
+        synchronized (this.perms) {
+            for (Map.Entry<String, Boolean> entry : this.perms.entrySet()) {
+                if (entry.getKey() == null || entry.getKey().isEmpty()) {
+                    continue;
+                }
+
+                // construct a node for the permission being set
+                Node node = NodeFactory.builder(entry.getKey())
+                        .setValue(entry.getValue())
+                        .withExtraContext(staticContext)
+                        .build();
+
+                // convert the constructed node to a transient node instance to refer back to this attachment
+                accumulator.add(ImmutableTransientNode.of(node, this));
+            }
         }
     }
 
@@ -210,17 +234,17 @@ public class LPPermissionAttachment extends PermissionAttachment {
             return false;
         }
 
+        // unhook from the permissible
+        this.hooked = false;
+        this.permissible.attachments.remove(this);
+
         // clear the internal permissions
-        clearInternal();
+        this.permissible.clearAttachment(this);
 
         // run the callback
         if (this.removalCallback != null) {
             this.removalCallback.attachmentRemoved(this);
         }
-
-        // unhook from the permissible
-        this.hooked = false;
-        this.permissible.attachments.remove(this);
         return true;
     }
 
@@ -236,17 +260,8 @@ public class LPPermissionAttachment extends PermissionAttachment {
             return;
         }
 
-        // if we're not hooked, then don't actually apply the change
-        // it will get applied on hook - if that ever happens
-        if (!this.hooked) {
-            return;
-        }
-
-        if (previous != null) {
-            unsetPermissionInternal(permission);
-        }
-
-        setPermissionInternal(permission, value);
+        // if we're not hooked, then the change will get applied on hook - if that ever happens
+        markDirty();
     }
 
     @Override
@@ -261,13 +276,8 @@ public class LPPermissionAttachment extends PermissionAttachment {
             return;
         }
 
-        // if we're not hooked, then don't actually apply the change
-        // it will get applied on hook - if that ever happens
-        if (!this.hooked) {
-            return;
-        }
-
-        unsetPermissionInternal(permission);
+        // if we're not hooked, then the change will get applied on hook - if that ever happens
+        markDirty();
     }
 
     @Override
@@ -342,13 +352,11 @@ public class LPPermissionAttachment extends PermissionAttachment {
 
         @Override
         public void clear() {
-            // remove the permissions which have already been applied
-            if (LPPermissionAttachment.this.hooked) {
-                clearInternal();
-            }
-
             // clear the backing map
             LPPermissionAttachment.this.perms.clear();
+
+            // remove the permissions which have already been applied
+            markDirty();
         }
 
         @Override
@@ -25,83 +25,294 @@
 
 package me.lucko.luckperms.bukkit.processors;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 
 import org.bukkit.Bukkit;
 import org.bukkit.permissions.Permission;
 import org.bukkit.plugin.PluginManager;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Holds child permissions registered on the platform.
  *
  * The data stored in this class is pulled from the data in {@link PluginManager#getPermissions()}.
  *
- * The former method is not thread safe, so we populate this class when the server starts to get all of the data
- * in a form which is easily queryable & thread safe.
+ * The former method is not thread safe, so we populate this class on the main thread when the server starts,
+ * and again whenever a plugin is enabled or disabled, to get all of the data in a form which is easily
+ * queryable & thread safe.
  *
  * The data is resolved early, so the represented child permissions are a "deep" lookup of permissions.
+ * When refreshing, only the permissions whose children could have changed are resolved again.
  */
 public class ChildPermissionProvider {
 
-    // in the format:  permission+value  ===>  children (a map of child permissions)
-    private ImmutableMap<Map.Entry<String, Boolean>, ImmutableMap<String, Boolean>> permissions = ImmutableMap.of();
+    // the children of each registered permission, as of the last refresh
+    private final Map<String, Map<String, Boolean>> registered = new HashMap<>();
+
+    // permission  ===>  the permissions visited when resolving its children
+    private final Map<String, Set<String>> resolvedFrom = new HashMap<>();
+
+    // permission  ===>  the permissions whose resolved children depend on it (the reverse of the above)
+    private final Map<String, Set<String>> dependants = new HashMap<>();
+
+    // permission  ===>  children (a map of child permissions), for each value
+    private final Map<String, ImmutableMap<String, Boolean>> trueChildren = new HashMap<>();
+    private final Map<String, ImmutableMap<String, Boolean>> falseChildren = new HashMap<>();
+
+    // the current state, shared with the processors
+    private volatile Data data = new Data(ImmutableMap.of(), ImmutableMap.of());
 
     public void setup() {
-        ImmutableMap.Builder<Map.Entry<String, Boolean>, ImmutableMap<String, Boolean>> permissions = ImmutableMap.builder();
+        refresh();
+    }
 
-        // iterate all permissions registered on the platform & resolve.
+    /**
+     * Refreshes the data in this provider, resolving the children of any permissions which have changed.
+     *
+     * <p>Must be called from the server thread.</p>
+     *
+     * @return true if any child permissions changed
+     */
+    public synchronized boolean refresh() {
+        Map<String, Map<String, Boolean>> current = new HashMap<>();
         for (Permission permission : Bukkit.getServer().getPluginManager().getPermissions()) {
-            resolve(permissions, permission, true);
-            resolve(permissions, permission, false);
+            current.put(permission.getName().toLowerCase(), permission.getChildren());
+        }
+
+        // find the permissions which have been added, removed or changed since the last refresh
+        Set<String> changed = new HashSet<>();
+        for (Map.Entry<String, Map<String, Boolean>> e : current.entrySet()) {
+            if (!e.getValue().equals(this.registered.get(e.getKey()))) {
+                changed.add(e.getKey());
+            }
+        }
+        for (String name : this.registered.keySet()) {
+            if (!current.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+
+        if (changed.isEmpty()) {
+            return false;
+        }
+
+        // the changed permissions, and any permissions which resolved them as a child, need to be resolved again
+        Set<String> affected = new HashSet<>(changed);
+        for (String name : changed) {
+            affected.addAll(this.dependants.getOrDefault(name, Collections.emptySet()));
         }
 
-        this.permissions = permissions.build();
+        for (String name : changed) {
+            Map<String, Boolean> children = current.get(name);
+            if (children == null) {
+                this.registered.remove(name);
+            } else {
+                this.registered.put(name, ImmutableMap.copyOf(children));
+            }
+        }
+
+        for (String name : affected) {
+            unresolve(name);
+            if (this.registered.containsKey(name)) {
+                resolve(name);
+            }
+        }
+
+        this.data = new Data(ImmutableMap.copyOf(this.trueChildren), ImmutableMap.copyOf(this.falseChildren));
+        return true;
+    }
+
+    private void unresolve(String name) {
+        this.trueChildren.remove(name);
+        this.falseChildren.remove(name);
+
+        Set<String> visited = this.resolvedFrom.remove(name);
+        if (visited != null) {
+            for (String child : visited) {
+                Set<String> set = this.dependants.get(child);
+                if (set != null) {
+                    set.remove(name);
+                    if (set.isEmpty()) {
+                        this.dependants.remove(child);
+                    }
+                }
+            }
+        }
     }
 
-    private static void resolve(ImmutableMap.Builder<Map.Entry<String, Boolean>, ImmutableMap<String, Boolean>> accumulator, Permission permission, boolean value) {
+    private void resolve(String name) {
+        Map<String, Boolean> trueAccumulator = new HashMap<>();
+        resolveChildren(trueAccumulator, Collections.singletonMap(name, true), false);
 
-        // accumulator for the child permissions being looked up
-        Map<String, Boolean> children = new HashMap<>();
+        Map<String, Boolean> falseAccumulator = new HashMap<>();
+        resolveChildren(falseAccumulator, Collections.singletonMap(name, false), false);
 
-        // resolve children for the permission, so pass a map containing just the permission being looked up.
-        resolveChildren(children, Collections.singletonMap(permission.getName(), value), false);
+        // the same permissions are visited for both values
+        Set<String> visited = new HashSet<>(trueAccumulator.keySet());
+        this.resolvedFrom.put(name, visited);
+        for (String child : visited) {
+            this.dependants.computeIfAbsent(child, x -> new HashSet<>()).add(name);
+        }
 
         // remove self
-        children.remove(permission.getName(), value);
+        trueAccumulator.remove(name, true);
+        falseAccumulator.remove(name, false);
 
         // only register the children if there are any.
-        if (!children.isEmpty()) {
-            accumulator.put(Maps.immutableEntry(permission.getName().toLowerCase(), value), ImmutableMap.copyOf(children));
+        if (!trueAccumulator.isEmpty()) {
+            this.trueChildren.put(name, ImmutableMap.copyOf(trueAccumulator));
+        }
+        if (!falseAccumulator.isEmpty()) {
+            this.falseChildren.put(name, ImmutableMap.copyOf(falseAccumulator));
         }
     }
 
-    private static void resolveChildren(Map<String, Boolean> accumulator, Map<String, Boolean> children, boolean invert) {
+    private void resolveChildren(Map<String, Boolean> accumulator, Map<String, Boolean> children, boolean invert) {
         // iterate through the current known children.
         // the first time this method is called for a given permission, the children map will contain only the permission itself.
         for (Map.Entry<String, Boolean> e : children.entrySet()) {
-            if (accumulator.containsKey(e.getKey())) {
+            String name = e.getKey().toLowerCase();
+            if (accumulator.containsKey(name)) {
                 continue; // Prevent infinite loops
             }
 
             // xor the value using the parent (bukkit logic, not mine)
             boolean value = e.getValue() ^ invert;
-            accumulator.put(e.getKey().toLowerCase(), value);
+            accumulator.put(name, value);
 
             // lookup any deeper children & resolve if present
-            Permission perm = Bukkit.getServer().getPluginManager().getPermission(e.getKey());
-            if (perm != null) {
-                resolveChildren(accumulator, perm.getChildren(), !value);
+            Map<String, Boolean> deeper = this.registered.get(name);
+            if (deeper != null) {
+                resolveChildren(accumulator, deeper, !value);
             }
         }
     }
 
-    public ImmutableMap<Map.Entry<String, Boolean>, ImmutableMap<String, Boolean>> getPermissions() {
-        return this.permissions;
+    public Data getData() {
+        return this.data;
+    }
+
+    /**
+     * Gets the number of permissions with children held by the provider.
+     *
+     * @return the number of permissions held
+     */
+    public int size() {
+        Data data = this.data;
+        return data.trueChildren.size() + data.falseChildren.size();
+    }
+
+    /**
+     * An immutable view of the resolved child permissions.
+     */
+    public static final class Data {
+        private final ImmutableMap<String, ImmutableMap<String, Boolean>> trueChildren;
+        private final ImmutableMap<String, ImmutableMap<String, Boolean>> falseChildren;
+
+        // merged children maps, shared between processors holding the same parent permissions
+        private final LoadingCache<MergeKey, ImmutableMap<String, Boolean>> mergeCache = Caffeine.newBuilder()
+                .weakValues()
+                .build(MergeKey::merge);
+
+        private Data(ImmutableMap<String, ImmutableMap<String, Boolean>> trueChildren, ImmutableMap<String, ImmutableMap<String, Boolean>> falseChildren) {
+            this.trueChildren = trueChildren;
+            this.falseChildren = falseChildren;
+        }
+
+        /**
+         * Gets the resolved children of a permission
+         *
+         * @param permission the permission
+         * @param value the value of the permission
+         * @return the children, or null if the permission has none
+         */
+        public ImmutableMap<String, Boolean> getChildren(String permission, boolean value) {
+            return (value ? this.trueChildren : this.falseChildren).get(permission);
+        }
+
+        /**
+         * Merges the given children maps, obtained from {@link #getChildren(String, boolean)}.
+         *
+         * <p>Where the same parent permissions are held by more than one processor,
+         * the same merged instance is returned.</p>
+         *
+         * @param children the children maps
+         * @return the merged children
+         */
+        public ImmutableMap<String, Boolean> merge(List<ImmutableMap<String, Boolean>> children) {
+            switch (children.size()) {
+                case 0:
+                    return ImmutableMap.of();
+                case 1:
+                    return children.get(0);
+                default:
+                    //noinspection unchecked
+                    return this.mergeCache.get(new MergeKey(children.toArray(new ImmutableMap[children.size()])));
+            }
+        }
     }
 
+    /**
+     * A key for merged children maps.
+     *
+     * <p>The children maps held by a {@link Data} instance are canonical, so they are compared by identity.</p>
+     */
+    private static final class MergeKey {
+        private final ImmutableMap<String, Boolean>[] children;
+        private final int hashCode;
+
+        private MergeKey(ImmutableMap<String, Boolean>[] children) {
+            this.children = children;
+
+            int hashCode = 1;
+            for (ImmutableMap<String, Boolean> map : children) {
+                hashCode = 31 * hashCode + System.identityHashCode(map);
+            }
+            this.hashCode = hashCode;
+        }
+
+        private ImmutableMap<String, Boolean> merge() {
+            Map<String, Boolean> merged = new HashMap<>();
+            for (ImmutableMap<String, Boolean> map : this.children) {
+                merged.putAll(map);
+            }
+            return ImmutableMap.copyOf(merged);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof MergeKey)) return false;
+
+            ImmutableMap<String, Boolean>[] other = ((MergeKey) o).children;
+            if (other.length != this.children.length) {
+                return false;
+            }
+            for (int i = 0; i < other.length; i++) {
+                if (other[i] != this.children[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public String toString() {
+            return "MergeKey(" + Arrays.toString(this.children) + ")";
+        }
+    }
 }
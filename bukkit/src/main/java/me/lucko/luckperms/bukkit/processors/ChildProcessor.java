@@ -25,20 +25,21 @@
 
 package me.lucko.luckperms.bukkit.processors;
 
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableMap;
 
 import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.common.processors.PermissionProcessor;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Permission Processor for Bukkits "child" permission system.
  */
 public class ChildProcessor implements PermissionProcessor {
     private final ChildPermissionProvider provider;
-    private final Map<String, Boolean> childPermissions = new ConcurrentHashMap<>();
+    private volatile Map<String, Boolean> childPermissions = ImmutableMap.of();
 
     public ChildProcessor(ChildPermissionProvider provider) {
         this.provider = provider;
@@ -51,12 +52,17 @@ public class ChildProcessor implements PermissionProcessor {
 
     @Override
     public void updateBacking(Map<String, Boolean> map) {
-        this.childPermissions.clear();
+        ChildPermissionProvider.Data data = this.provider.getData();
+
+        // collect references to the shared children maps, rather than copying their contents
+        List<ImmutableMap<String, Boolean>> children = new ArrayList<>();
         for (Map.Entry<String, Boolean> e : map.entrySet()) {
-            Map<String, Boolean> children = this.provider.getPermissions().get(Maps.immutableEntry(e.getKey(), e.getValue()));
-            if (children != null) {
-                this.childPermissions.putAll(children);
+            ImmutableMap<String, Boolean> c = data.getChildren(e.getKey(), e.getValue());
+            if (c != null) {
+                children.add(c);
             }
         }
+
+        this.childPermissions = data.merge(children);
     }
 }
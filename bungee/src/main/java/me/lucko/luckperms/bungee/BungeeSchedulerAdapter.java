@@ -25,10 +25,13 @@
 
 package me.lucko.luckperms.bungee;
 
+import me.lucko.luckperms.common.plugin.RecalculationQueue;
 import me.lucko.luckperms.common.plugin.SchedulerAdapter;
+import me.lucko.luckperms.common.plugin.WorkloadExecutors;
 
 import net.md_5.bungee.api.scheduler.ScheduledTask;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -38,11 +41,13 @@ public class BungeeSchedulerAdapter implements SchedulerAdapter {
     private final LPBungeePlugin plugin;
 
     private final Executor asyncExecutor;
+    private final WorkloadExecutors workloads;
     private final Set<ScheduledTask> tasks = ConcurrentHashMap.newKeySet();
 
     public BungeeSchedulerAdapter(LPBungeePlugin plugin) {
         this.plugin = plugin;
         this.asyncExecutor = r -> plugin.getProxy().getScheduler().runAsync(plugin, r);
+        this.workloads = new WorkloadExecutors();
     }
 
     @Override
@@ -55,6 +60,41 @@ public class BungeeSchedulerAdapter implements SchedulerAdapter {
         return this.asyncExecutor;
     }
 
+    @Override
+    public Executor storage() {
+        return this.workloads.storage();
+    }
+
+    @Override
+    public Executor calculation() {
+        return this.workloads.calculation();
+    }
+
+    @Override
+    public Executor messaging() {
+        return this.workloads.messaging();
+    }
+
+    @Override
+    public Executor background() {
+        return this.workloads.background();
+    }
+
+    @Override
+    public RecalculationQueue recalculationQueue() {
+        return this.workloads.recalculationQueue();
+    }
+
+    @Override
+    public void setCalculationThreads(int threads) {
+        this.workloads.setCalculationThreads(threads);
+    }
+
+    @Override
+    public Map<String, String> getExecutorStats() {
+        return this.workloads.getStats();
+    }
+
     @Override
     public void doAsync(Runnable runnable) {
         this.asyncExecutor.execute(runnable);
@@ -91,5 +131,6 @@ public class BungeeSchedulerAdapter implements SchedulerAdapter {
     @Override
     public void shutdown() {
         this.tasks.forEach(ScheduledTask::cancel);
+        this.workloads.shutdown();
     }
 }
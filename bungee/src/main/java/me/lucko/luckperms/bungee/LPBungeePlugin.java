@@ -67,12 +67,16 @@ import me.lucko.luckperms.common.messaging.ExtendedMessagingService;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.plugin.SchedulerAdapter;
+import me.lucko.luckperms.common.storage.DataSnapshot;
 import me.lucko.luckperms.common.storage.Storage;
 import me.lucko.luckperms.common.storage.StorageFactory;
 import me.lucko.luckperms.common.storage.StorageType;
 import me.lucko.luckperms.common.storage.dao.file.FileWatcher;
 import me.lucko.luckperms.common.tasks.CacheHousekeepingTask;
 import me.lucko.luckperms.common.tasks.ExpireTemporaryTask;
+import me.lucko.luckperms.common.tasks.ExpiryQueue;
+import me.lucko.luckperms.common.tasks.PreCalculateContextsTask;
+import me.lucko.luckperms.common.tasks.SnapshotReconcileTask;
 import me.lucko.luckperms.common.tasks.UpdateTask;
 import me.lucko.luckperms.common.treeview.PermissionVault;
 import me.lucko.luckperms.common.utils.UuidCache;
@@ -114,6 +118,7 @@ public class LPBungeePlugin extends Plugin implements LuckPermsPlugin {
     private LocaleManager localeManager;
     private DependencyManager dependencyManager;
     private CachedStateManager cachedStateManager;
+    private ExpiryQueue expiryQueue;
     private ContextManager<ProxiedPlayer> contextManager;
     private CalculatorFactory calculatorFactory;
     private BufferedRequest<Void> updateTaskBuffer;
@@ -139,13 +144,14 @@ public class LPBungeePlugin extends Plugin implements LuckPermsPlugin {
     public void onEnable() {
         this.startTime = System.currentTimeMillis();
         sendStartupBanner(getConsoleSender());
-        this.verboseHandler = new VerboseHandler(this.scheduler.async(), getVersion());
-        this.permissionVault = new PermissionVault(this.scheduler.async());
+        this.verboseHandler = new VerboseHandler(this.scheduler.background(), getVersion());
+        this.permissionVault = new PermissionVault(this.scheduler.background());
         this.logDispatcher = new LogDispatcher(this);
 
         getLog().info("Loading configuration...");
         this.configuration = new AbstractConfiguration(this, new BungeeConfigAdapter(this, resolveConfig("config.yml")));
         this.configuration.loadAll();
+        this.scheduler.setCalculationThreads(this.configuration.get(ConfigKeys.CALCULATION_THREADS));
 
         StorageFactory storageFactory = new StorageFactory(this);
         Set<StorageType> storageTypes = storageFactory.getRequiredTypes(StorageType.H2);
@@ -182,6 +188,7 @@ public class LPBungeePlugin extends Plugin implements LuckPermsPlugin {
 
         // load internal managers
         getLog().info("Loading internal permission managers...");
+        this.expiryQueue = new ExpiryQueue();
         this.uuidCache = new UuidCache(this);
         this.userManager = new GenericUserManager(this);
         this.groupManager = new GenericGroupManager(this);
@@ -212,20 +219,29 @@ public class LPBungeePlugin extends Plugin implements LuckPermsPlugin {
             long ticks = mins * 60 * 20;
             this.scheduler.asyncRepeating(() -> this.updateTaskBuffer.request(), ticks);
         }
-        this.scheduler.asyncLater(() -> this.updateTaskBuffer.request(), 40L);
 
-        // run an update instantly.
+        // run an update instantly, unless the group & track data could be loaded from the local
+        // snapshot, in which case the update reconciles it with the storage in the background.
         getLog().info("Performing initial data load...");
         try {
-            new UpdateTask(this, true).run();
+            // apply any changes which didn't make it to storage before the last shutdown
+            this.storage.replayJournal();
+
+            if (getConfiguration().get(ConfigKeys.WARM_START) && new DataSnapshot(this).load()) {
+                new SnapshotReconcileTask(this).schedule();
+            } else {
+                this.scheduler.asyncLater(() -> this.updateTaskBuffer.request(), 40L);
+                new UpdateTask(this, true).run();
+            }
         } catch (Exception e) {
             e.printStackTrace();
         }
 
 
         // register tasks
-        this.scheduler.asyncRepeating(new ExpireTemporaryTask(this), 60L);
+        this.scheduler.asyncRepeating(new ExpireTemporaryTask(this), 20L);
         this.scheduler.asyncRepeating(new CacheHousekeepingTask(this), 2400L);
+        this.scheduler.asyncRepeating(new PreCalculateContextsTask(this), 1200L);
 
         getLog().info("Successfully enabled. (took " + (System.currentTimeMillis() - this.startTime) + "ms)");
     }
@@ -448,6 +464,11 @@ public class LPBungeePlugin extends Plugin implements LuckPermsPlugin {
         return this.cachedStateManager;
     }
 
+    @Override
+    public ExpiryQueue getExpiryQueue() {
+        return this.expiryQueue;
+    }
+
     @Override
     public ContextManager<ProxiedPlayer> getContextManager() {
         return this.contextManager;
@@ -82,7 +82,7 @@ public class BungeeConnectionListener implements Listener {
                - creating a user instance in the UserManager for this connection.
                - setting up cached data. */
             try {
-                User user = LoginHelper.loadUser(this.plugin, c.getUniqueId(), c.getName(), true);
+                User user = LoginHelper.loadUser(this.plugin, c.getUniqueId(), c.getName());
                 this.plugin.getEventFactory().handleUserLoginProcess(c.getUniqueId(), c.getName(), user);
             } catch (Exception ex) {
                 this.plugin.getLog().severe("Exception occured whilst loading data for " + c.getUniqueId() + " - " + c.getName());
@@ -90,7 +90,7 @@ public class BungeeMessagingService extends AbstractMessagingService implements
 
         onMessage(msg, u -> {
             // Forward to other servers
-            this.plugin.getScheduler().doAsync(() -> sendMessage(u));
+            this.plugin.getScheduler().messaging().execute(() -> sendMessage(u));
         });
     }
 }
@@ -29,6 +29,7 @@ import com.google.common.collect.ImmutableSortedSet;
 
 import me.lucko.luckperms.api.LogEntry;
 
+import java.util.List;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -72,7 +73,7 @@ public class Log {
     }
 
     private static int getMaxPages(int size, int entries) {
-        return (int) Math.ceil((double) size / (double) entries);
+        return LogPage.getMaxPages(size, entries);
     }
 
     private final SortedSet<ExtendedLogEntry> content;
@@ -181,6 +182,35 @@ public class Log {
                 .mapToInt(x -> 1).sum(), entriesPerPage);
     }
 
+    /**
+     * Gets a page of the entries in this log which match the given query.
+     *
+     * @param query the query
+     * @param pageNo the page number, or {@link LogPage#LATEST}
+     * @param entriesPerPage the number of entries per page
+     * @return the page
+     */
+    public LogPage getPage(LogQuery query, int pageNo, int entriesPerPage) {
+        List<ExtendedLogEntry> matching = this.content.stream()
+                .filter(query::test)
+                .collect(Collectors.toList());
+
+        int totalEntries = matching.size();
+        pageNo = LogPage.resolvePageNo(pageNo, totalEntries, entriesPerPage);
+        if (pageNo < 1 || pageNo > LogPage.getMaxPages(totalEntries, entriesPerPage)) {
+            return LogPage.empty(pageNo, totalEntries, entriesPerPage);
+        }
+
+        SortedMap<Integer, ExtendedLogEntry> out = new TreeMap<>();
+        int offset = LogPage.getOffset(pageNo, entriesPerPage);
+        int end = Math.min(offset + entriesPerPage, totalEntries);
+        for (int i = offset; i < end; i++) {
+            out.put(i + 1, matching.get(i));
+        }
+
+        return new LogPage(out, pageNo, totalEntries, entriesPerPage);
+    }
+
     public SortedSet<ExtendedLogEntry> getContent() {
         return this.content;
     }
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.actionlog;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+import java.util.SortedMap;
+
+/**
+ * A single page of action log entries matching a {@link LogQuery}.
+ *
+ * <p>Entries are numbered from 1 (the oldest matching entry) up to
+ * {@link #getTotalEntries()} (the most recent).</p>
+ */
+public final class LogPage {
+
+    /**
+     * Page number used to request the most recent page of results
+     */
+    public static final int LATEST = Integer.MIN_VALUE;
+
+    public static int getMaxPages(int totalEntries, int entriesPerPage) {
+        return (int) Math.ceil((double) totalEntries / (double) entriesPerPage);
+    }
+
+    /**
+     * Resolves the requested page number against the total number of entries.
+     *
+     * @param pageNo the requested page, or {@link #LATEST}
+     * @param totalEntries the total number of matching entries
+     * @param entriesPerPage the number of entries per page
+     * @return the resolved page number
+     */
+    public static int resolvePageNo(int pageNo, int totalEntries, int entriesPerPage) {
+        if (pageNo == LATEST) {
+            return getMaxPages(totalEntries, entriesPerPage);
+        }
+        return pageNo;
+    }
+
+    /**
+     * Gets the index of the first entry on the given page, starting from 0.
+     *
+     * @param pageNo the page
+     * @param entriesPerPage the number of entries per page
+     * @return the offset
+     */
+    public static int getOffset(int pageNo, int entriesPerPage) {
+        return (pageNo - 1) * entriesPerPage;
+    }
+
+    public static LogPage empty(int pageNo, int totalEntries, int entriesPerPage) {
+        return new LogPage(ImmutableSortedMap.of(), resolvePageNo(pageNo, totalEntries, entriesPerPage), totalEntries, entriesPerPage);
+    }
+
+    private final SortedMap<Integer, ExtendedLogEntry> entries;
+    private final int pageNo;
+    private final int totalEntries;
+    private final int entriesPerPage;
+
+    public LogPage(SortedMap<Integer, ExtendedLogEntry> entries, int pageNo, int totalEntries, int entriesPerPage) {
+        this.entries = ImmutableSortedMap.copyOfSorted(entries);
+        this.pageNo = pageNo;
+        this.totalEntries = totalEntries;
+        this.entriesPerPage = entriesPerPage;
+    }
+
+    /**
+     * Gets the entries on this page, keyed by their position in the full result set.
+     *
+     * <p>The map is empty if the page number was out of range.</p>
+     */
+    public SortedMap<Integer, ExtendedLogEntry> getEntries() {
+        return this.entries;
+    }
+
+    public int getPageNo() {
+        return this.pageNo;
+    }
+
+    public int getTotalEntries() {
+        return this.totalEntries;
+    }
+
+    public int getEntriesPerPage() {
+        return this.entriesPerPage;
+    }
+
+    public int getMaxPages() {
+        return getMaxPages(this.totalEntries, this.entriesPerPage);
+    }
+
+    public boolean isInRange() {
+        return this.pageNo >= 1 && this.pageNo <= getMaxPages();
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.actionlog;
+
+import me.lucko.luckperms.api.LogEntry;
+
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A filter over the action log, which storage implementations are able to
+ * execute natively against their backend.
+ *
+ * <p>All criteria are optional. An empty query matches every entry.</p>
+ */
+public final class LogQuery {
+    private static final LogQuery ALL = builder().build();
+
+    public static LogQuery all() {
+        return ALL;
+    }
+
+    public static LogQuery actor(UUID actor) {
+        return builder().actor(actor).build();
+    }
+
+    public static LogQuery userHistory(UUID uuid) {
+        return builder().type(LogEntry.Type.USER).acted(uuid).build();
+    }
+
+    public static LogQuery groupHistory(String name) {
+        return builder().type(LogEntry.Type.GROUP).actedName(name).build();
+    }
+
+    public static LogQuery trackHistory(String name) {
+        return builder().type(LogEntry.Type.TRACK).actedName(name).build();
+    }
+
+    public static LogQuery search(String query) {
+        return builder().search(query).build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final UUID actor;
+    private final LogEntry.Type type;
+    private final UUID acted;
+    private final String actedName;
+    private final long after;
+    private final long before;
+    private final String search;
+
+    private LogQuery(UUID actor, LogEntry.Type type, UUID acted, String actedName, long after, long before, String search) {
+        this.actor = actor;
+        this.type = type;
+        this.acted = acted;
+        this.actedName = actedName;
+        this.after = after;
+        this.before = before;
+        this.search = search;
+    }
+
+    /**
+     * Gets the actor filter, or null if the query doesn't filter by actor.
+     */
+    public UUID getActor() {
+        return this.actor;
+    }
+
+    /**
+     * Gets the entry type filter, or null if the query doesn't filter by type.
+     */
+    public LogEntry.Type getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the acted uuid filter, or null if the query doesn't filter by acted uuid.
+     */
+    public UUID getActed() {
+        return this.acted;
+    }
+
+    /**
+     * Gets the acted name filter, or null if the query doesn't filter by acted name.
+     */
+    public String getActedName() {
+        return this.actedName;
+    }
+
+    /**
+     * Gets the inclusive lower timestamp bound, or {@link Long#MIN_VALUE} if unbounded.
+     */
+    public long getAfter() {
+        return this.after;
+    }
+
+    /**
+     * Gets the inclusive upper timestamp bound, or {@link Long#MAX_VALUE} if unbounded.
+     */
+    public long getBefore() {
+        return this.before;
+    }
+
+    /**
+     * Gets the (lowercase) search string, or null if the query doesn't search.
+     */
+    public String getSearch() {
+        return this.search;
+    }
+
+    /**
+     * Tests an entry against this query.
+     *
+     * <p>This is used by storage implementations which can't execute the
+     * query natively.</p>
+     *
+     * @param entry the entry
+     * @return true if the entry matches the query
+     */
+    public boolean test(ExtendedLogEntry entry) {
+        if (this.actor != null && !this.actor.equals(entry.getActor())) {
+            return false;
+        }
+        if (this.type != null && this.type != entry.getType()) {
+            return false;
+        }
+        if (this.acted != null && !entry.getActed().map(this.acted::equals).orElse(false)) {
+            return false;
+        }
+        if (this.actedName != null && !this.actedName.equals(entry.getActedName())) {
+            return false;
+        }
+        if (entry.getTimestamp() < this.after || entry.getTimestamp() > this.before) {
+            return false;
+        }
+        return this.search == null || entry.matchesSearch(this.search);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) return true;
+        if (!(o instanceof LogQuery)) return false;
+        final LogQuery that = (LogQuery) o;
+
+        return Objects.equals(this.actor, that.actor) &&
+                this.type == that.type &&
+                Objects.equals(this.acted, that.acted) &&
+                Objects.equals(this.actedName, that.actedName) &&
+                this.after == that.after &&
+                this.before == that.before &&
+                Objects.equals(this.search, that.search);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.actor, this.type, this.acted, this.actedName, this.after, this.before, this.search);
+    }
+
+    @Override
+    public String toString() {
+        return "LogQuery(" +
+                "actor=" + this.actor + ", " +
+                "type=" + this.type + ", " +
+                "acted=" + this.acted + ", " +
+                "actedName=" + this.actedName + ", " +
+                "after=" + this.after + ", " +
+                "before=" + this.before + ", " +
+                "search=" + this.search + ")";
+    }
+
+    public static final class Builder {
+        private UUID actor = null;
+        private LogEntry.Type type = null;
+        private UUID acted = null;
+        private String actedName = null;
+        private long after = Long.MIN_VALUE;
+        private long before = Long.MAX_VALUE;
+        private String search = null;
+
+        private Builder() {
+
+        }
+
+        public Builder actor(UUID actor) {
+            this.actor = actor;
+            return this;
+        }
+
+        public Builder type(LogEntry.Type type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder acted(UUID acted) {
+            this.acted = acted;
+            return this;
+        }
+
+        public Builder actedName(String actedName) {
+            this.actedName = actedName;
+            return this;
+        }
+
+        public Builder after(long after) {
+            this.after = after;
+            return this;
+        }
+
+        public Builder before(long before) {
+            this.before = before;
+            return this;
+        }
+
+        public Builder search(String search) {
+            this.search = search == null ? null : search.toLowerCase();
+            return this;
+        }
+
+        public LogQuery build() {
+            return new LogQuery(this.actor, this.type, this.acted, this.actedName, this.after, this.before, this.search);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.actionlog;
+
+import me.lucko.luckperms.common.storage.Storage;
+
+import java.util.UUID;
+
+/**
+ * A lazily paged view of the action log.
+ *
+ * <p>Unlike {@link Log}, this doesn't hold any entries itself - each page is
+ * queried from the storage backend when requested.</p>
+ */
+public class PagedLog {
+    private final Storage storage;
+
+    public PagedLog(Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Queries a page of the log.
+     *
+     * @param query the query
+     * @param pageNo the page number, or {@link LogPage#LATEST}
+     * @param entriesPerPage the number of entries per page
+     * @return the page, or null if the log could not be loaded
+     */
+    public LogPage getPage(LogQuery query, int pageNo, int entriesPerPage) {
+        try {
+            return this.storage.getLogPage(query, pageNo, entriesPerPage).join();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    public LogPage getRecent(int pageNo, int entriesPerPage) {
+        return getPage(LogQuery.all(), pageNo, entriesPerPage);
+    }
+
+    public LogPage getRecent(int pageNo, UUID actor, int entriesPerPage) {
+        return getPage(LogQuery.actor(actor), pageNo, entriesPerPage);
+    }
+
+    public LogPage getUserHistory(int pageNo, UUID uuid, int entriesPerPage) {
+        return getPage(LogQuery.userHistory(uuid), pageNo, entriesPerPage);
+    }
+
+    public LogPage getGroupHistory(int pageNo, String name, int entriesPerPage) {
+        return getPage(LogQuery.groupHistory(name), pageNo, entriesPerPage);
+    }
+
+    public LogPage getTrackHistory(int pageNo, String name, int entriesPerPage) {
+        return getPage(LogQuery.trackHistory(name), pageNo, entriesPerPage);
+    }
+
+    public LogPage getSearch(int pageNo, String query, int entriesPerPage) {
+        return getPage(LogQuery.search(query), pageNo, entriesPerPage);
+    }
+}
@@ -32,6 +32,7 @@ import me.lucko.luckperms.api.MessagingService;
 import me.lucko.luckperms.api.NodeFactory;
 import me.lucko.luckperms.api.Storage;
 import me.lucko.luckperms.api.UuidCache;
+import me.lucko.luckperms.api.caching.PermissionHandle;
 import me.lucko.luckperms.api.context.ContextManager;
 import me.lucko.luckperms.api.event.EventBus;
 import me.lucko.luckperms.api.manager.GroupManager;
@@ -47,7 +48,9 @@ import me.lucko.luckperms.common.api.delegates.misc.ApiActionLogger;
 import me.lucko.luckperms.common.api.delegates.misc.ApiMetaStackFactory;
 import me.lucko.luckperms.common.api.delegates.misc.ApiNodeFactory;
 import me.lucko.luckperms.common.api.delegates.misc.ApiPlatformInfo;
+import me.lucko.luckperms.common.calculators.PermissionRegistry;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.tasks.UpdateTask;
 
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -109,7 +112,7 @@ public class LuckPermsApiProvider implements LuckPermsApi {
     @Nonnull
     @Override
     public CompletableFuture<Void> runUpdateTask() {
-        return this.plugin.getUpdateTaskBuffer().request();
+        return CompletableFuture.runAsync(new UpdateTask(this.plugin, false, true), this.plugin.getScheduler().async());
     }
 
     @Nonnull
@@ -164,4 +167,10 @@ public class LuckPermsApiProvider implements LuckPermsApi {
         return this.metaStackFactory;
     }
 
+    @Nonnull
+    @Override
+    public PermissionHandle getPermissionHandle(@Nonnull String permission) {
+        return PermissionRegistry.register(permission);
+    }
+
 }
@@ -139,7 +139,7 @@ public class ApiStorage implements Storage {
     @Nonnull
     @Override
     public CompletableFuture<Boolean> loadAllGroups() {
-        return this.handle.noBuffer().loadAllGroups().thenApply(x -> true);
+        return this.handle.noBuffer().loadAllGroups(true).thenApply(x -> true);
     }
 
     @Nonnull
@@ -183,7 +183,7 @@ public class ApiStorage implements Storage {
     @Nonnull
     @Override
     public CompletableFuture<Boolean> loadAllTracks() {
-        return this.handle.noBuffer().loadAllTracks().thenApply(x -> true);
+        return this.handle.noBuffer().loadAllTracks(true).thenApply(x -> true);
     }
 
     @Nonnull
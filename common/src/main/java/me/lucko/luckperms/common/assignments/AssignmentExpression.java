@@ -25,20 +25,24 @@
 
 package me.lucko.luckperms.common.assignments;
 
-import com.google.common.collect.ImmutableList;
-
 import me.lucko.luckperms.api.Node;
 import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.common.model.PermissionHolder;
 import me.lucko.luckperms.common.node.LegacyNodeFactory;
-import me.lucko.luckperms.common.utils.Scripting;
-
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
 
-import javax.script.ScriptEngine;
+import java.util.function.Function;
 
+/**
+ * A boolean expression over permission checks, used by {@link AssignmentRule}s.
+ *
+ * <p>Expressions are made up of permissions enclosed in angle brackets, joined
+ * using the <code>&amp;</code> (and), <code>|</code> (or) and <code>!</code> (not)
+ * operators and grouped using parentheses. For example:
+ * <code>&lt;some.permission&gt; &amp; (&lt;group.a&gt; | !&lt;group.b&gt;)</code>.</p>
+ *
+ * <p>Expressions are compiled into a tree when the rule is loaded, and evaluated
+ * directly against the holder with short-circuiting.</p>
+ */
 public class AssignmentExpression {
 
     public static AssignmentExpression compile(String expression) {
@@ -48,107 +52,242 @@ public class AssignmentExpression {
         return new AssignmentExpression(expression);
     }
 
-    private final List<Token> expression;
+    private final String source;
+    private final Expression root;
+    private final IllegalArgumentException error;
 
     private AssignmentExpression(String expression) {
-        this.expression = generateExpression(expression);
+        this.source = expression;
+
+        Expression root = null;
+        IllegalArgumentException error = null;
+        try {
+            root = new Parser(expression).parse();
+        } catch (IllegalArgumentException e) {
+            error = e;
+        }
+        this.root = root;
+        this.error = error;
     }
 
     public boolean parse(PermissionHolder holder, Tristate tristate) throws IllegalArgumentException {
-        ScriptEngine engine = Scripting.getScriptEngine();
-        if (engine == null) {
-            throw new NullPointerException("script engine");
-        }
+        return parse(holder::hasPermission, tristate);
+    }
 
-        Predicate<Node> checker = node -> holder.hasPermission(node) == tristate;
+    /**
+     * Evaluates the expression, using the given function to look up the holders
+     * value for each permission.
+     *
+     * @param lookup the permission lookup function
+     * @param tristate the value a permission must have to be considered present
+     * @return the result of the expression
+     * @throws IllegalArgumentException if the expression could not be compiled
+     */
+    public boolean parse(Function<Node, Tristate> lookup, Tristate tristate) throws IllegalArgumentException {
+        if (this.root == null) {
+            throw new IllegalArgumentException(this.source, this.error);
+        }
+        return this.root.eval(lookup, tristate);
+    }
 
-        String exp = this.expression.stream().map(t -> t.forExpression(checker)).collect(Collectors.joining())
-                .replace("&", "&&").replace("|", "||");
+    @Override
+    public String toString() {
+        return this.source;
+    }
 
-        try {
-            String result = engine.eval(exp).toString();
+    private interface Expression {
+        boolean eval(Function<Node, Tristate> lookup, Tristate tristate);
+    }
 
-            if (!result.equals("true") && !result.equals("false")) {
-                throw new IllegalArgumentException();
-            }
+    private static final class And implements Expression {
+        private final Expression left;
+        private final Expression right;
 
-            return Boolean.parseBoolean(result);
+        private And(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
 
-        } catch (Throwable t) {
-            throw new IllegalArgumentException(exp, t);
+        @Override
+        public boolean eval(Function<Node, Tristate> lookup, Tristate tristate) {
+            return this.left.eval(lookup, tristate) && this.right.eval(lookup, tristate);
         }
     }
 
-    private static List<Token> generateExpression(String input) {
-        ImmutableList.Builder<Token> exp = ImmutableList.builder();
-
-        while (true) {
-            int start = input.indexOf("<");
-            int end = input.indexOf(">");
-            if (start == -1 || end == -1) {
-                break;
-            }
+    private static final class Or implements Expression {
+        private final Expression left;
+        private final Expression right;
 
-            if (start != 0) {
-                Token before = new StringToken(input.substring(0, start));
-                exp.add(before);
-            }
+        private Or(Expression left, Expression right) {
+            this.left = left;
+            this.right = right;
+        }
 
-            String match = input.substring(start, end + 1);
-            String matchContent = match.substring(1, match.length() - 1);
+        @Override
+        public boolean eval(Function<Node, Tristate> lookup, Tristate tristate) {
+            return this.left.eval(lookup, tristate) || this.right.eval(lookup, tristate);
+        }
+    }
 
-            Token permission = new PermissionToken(matchContent);
-            exp.add(permission);
+    private static final class Not implements Expression {
+        private final Expression expression;
 
-            input = input.substring(end + 1);
+        private Not(Expression expression) {
+            this.expression = expression;
         }
 
-        if (!input.isEmpty()) {
-            exp.add(new StringToken(input));
+        @Override
+        public boolean eval(Function<Node, Tristate> lookup, Tristate tristate) {
+            return !this.expression.eval(lookup, tristate);
         }
-
-        return exp.build();
-    }
-
-    private interface Token {
-        String forExpression(Predicate<Node> checker);
     }
 
-    private static final class StringToken implements Token {
-        private final String string;
+    private static final class Constant implements Expression {
+        private static final Constant TRUE = new Constant(true);
+        private static final Constant FALSE = new Constant(false);
 
-        private StringToken(String string) {
-            this.string = string;
-        }
+        private final boolean value;
 
-        @Override
-        public String forExpression(Predicate<Node> checker) {
-            return this.string;
+        private Constant(boolean value) {
+            this.value = value;
         }
 
         @Override
-        public String toString() {
-            return this.string;
+        public boolean eval(Function<Node, Tristate> lookup, Tristate tristate) {
+            return this.value;
         }
     }
 
-    private static final class PermissionToken implements Token {
-        private final String permission;
+    private static final class Permission implements Expression {
         private final Node node;
 
-        private PermissionToken(String permission) {
-            this.permission = permission;
+        private Permission(String permission) {
             this.node = LegacyNodeFactory.fromLegacyString(permission, true);
         }
 
         @Override
-        public String forExpression(Predicate<Node> checker) {
-            return Boolean.toString(checker.test(this.node));
+        public boolean eval(Function<Node, Tristate> lookup, Tristate tristate) {
+            return lookup.apply(this.node) == tristate;
         }
+    }
 
-        @Override
-        public String toString() {
-            return "<" + this.permission + ">";
+    /**
+     * A recursive descent parser for assignment expressions.
+     *
+     * <pre>
+     * or      := and ( "|" and )*
+     * and     := unary ( "&amp;" unary )*
+     * unary   := "!" unary | primary
+     * primary := "(" or ")" | "&lt;" permission "&gt;" | "true" | "false"
+     * </pre>
+     *
+     * <p>The doubled <code>&amp;&amp;</code> and <code>||</code> operators are also accepted.</p>
+     */
+    private static final class Parser {
+        private final String input;
+        private int pos = 0;
+
+        private Parser(String input) {
+            this.input = input;
+        }
+
+        Expression parse() {
+            Expression expression = parseOr();
+            skipWhitespace();
+            if (this.pos != this.input.length()) {
+                throw error("Unexpected character '" + this.input.charAt(this.pos) + "'");
+            }
+            return expression;
+        }
+
+        private Expression parseOr() {
+            Expression expression = parseAnd();
+            while (consumeOperator('|')) {
+                expression = new Or(expression, parseAnd());
+            }
+            return expression;
+        }
+
+        private Expression parseAnd() {
+            Expression expression = parseUnary();
+            while (consumeOperator('&')) {
+                expression = new And(expression, parseUnary());
+            }
+            return expression;
+        }
+
+        private Expression parseUnary() {
+            skipWhitespace();
+            if (peek() == '!') {
+                this.pos++;
+                return new Not(parseUnary());
+            }
+            return parsePrimary();
+        }
+
+        private Expression parsePrimary() {
+            skipWhitespace();
+            char c = peek();
+
+            if (c == '(') {
+                this.pos++;
+                Expression expression = parseOr();
+                skipWhitespace();
+                if (peek() != ')') {
+                    throw error("Expected ')'");
+                }
+                this.pos++;
+                return expression;
+            }
+
+            if (c == '<') {
+                int end = this.input.indexOf('>', this.pos);
+                if (end == -1) {
+                    throw error("Expected '>'");
+                }
+                String permission = this.input.substring(this.pos + 1, end);
+                this.pos = end + 1;
+                return new Permission(permission);
+            }
+
+            if (this.input.startsWith("true", this.pos)) {
+                this.pos += 4;
+                return Constant.TRUE;
+            }
+            if (this.input.startsWith("false", this.pos)) {
+                this.pos += 5;
+                return Constant.FALSE;
+            }
+
+            throw error(c == 0 ? "Unexpected end of expression" : "Unexpected character '" + c + "'");
+        }
+
+        private boolean consumeOperator(char operator) {
+            skipWhitespace();
+            if (peek() != operator) {
+                return false;
+            }
+            this.pos++;
+
+            // accept doubled operators, as used in the previous script based syntax
+            if (peek() == operator) {
+                this.pos++;
+            }
+            return true;
+        }
+
+        private void skipWhitespace() {
+            while (this.pos < this.input.length() && Character.isWhitespace(this.input.charAt(this.pos))) {
+                this.pos++;
+            }
+        }
+
+        private char peek() {
+            return this.pos < this.input.length() ? this.input.charAt(this.pos) : 0;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + this.pos + " in expression: " + this.input);
         }
     }
 }
@@ -31,7 +31,10 @@ import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.node.LegacyNodeFactory;
 import me.lucko.luckperms.common.utils.ImmutableCollectors;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 public class AssignmentRule {
     private final AssignmentExpression hasTrueExpression;
@@ -52,9 +55,13 @@ public class AssignmentRule {
     }
 
     public boolean apply(User user) {
+        // each permission is only looked up once, even if it's used in more than one expression
+        Map<Node, Tristate> results = new HashMap<>();
+        Function<Node, Tristate> lookup = node -> results.computeIfAbsent(node, user::hasPermission);
+
         if (this.hasTrueExpression != null) {
             try {
-                boolean b = this.hasTrueExpression.parse(user, Tristate.TRUE);
+                boolean b = this.hasTrueExpression.parse(lookup, Tristate.TRUE);
                 if (!b) {
                     // The holder does not meet this requirement
                     return false;
@@ -68,7 +75,7 @@ public class AssignmentRule {
 
         if (this.hasFalseExpression != null) {
             try {
-                boolean b = this.hasFalseExpression.parse(user, Tristate.FALSE);
+                boolean b = this.hasFalseExpression.parse(lookup, Tristate.FALSE);
                 if (!b) {
                     // The holder does not meet this requirement
                     return false;
@@ -82,7 +89,7 @@ public class AssignmentRule {
 
         if (this.lacksExpression != null) {
             try {
-                boolean b = this.lacksExpression.parse(user, Tristate.UNDEFINED);
+                boolean b = this.lacksExpression.parse(lookup, Tristate.UNDEFINED);
                 if (!b) {
                     // The holder does not meet this requirement
                     return false;
@@ -56,7 +56,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 /**
  * Handles export operations
@@ -105,12 +104,8 @@ public class Exporter implements Runnable {
 
             AtomicInteger groupCount = new AtomicInteger(0);
 
-            List<? extends Group> groups = this.plugin.getGroupManager().getAll().values().stream()
-                    // export groups in order of weight
-                    .sorted((o1, o2) -> {
-                        int i = Integer.compare(o2.getWeight().orElse(0), o1.getWeight().orElse(0));
-                        return i != 0 ? i : o1.getName().compareToIgnoreCase(o2.getName());
-                    }).collect(Collectors.toList());
+            // export groups in order of weight
+            List<? extends Group> groups = this.plugin.getGroupManager().getByWeight();
 
             for (Group group : groups) {
                 if (!group.getName().equals(NodeFactory.DEFAULT_GROUP_NAME)) {
@@ -0,0 +1,194 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.backup;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import me.lucko.luckperms.common.commands.sender.Sender;
+import me.lucko.luckperms.common.commands.utils.CommandUtils;
+import me.lucko.luckperms.common.locale.Message;
+import me.lucko.luckperms.common.logging.ProgressLogger;
+import me.lucko.luckperms.common.model.Group;
+import me.lucko.luckperms.common.model.Track;
+import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.node.NodeModel;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.utils.Cycle;
+import me.lucko.luckperms.common.webeditor.WebEditorUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Handles export operations using the structured (gzipped json lines) format.
+ *
+ * <p>Each line of the file is a single json object, describing either the
+ * file header, a group, a track or a user. Groups and tracks are always
+ * written before users.</p>
+ */
+public class StructuredExporter implements Runnable {
+    public static final String FILE_EXTENSION = ".json.gz";
+    public static final int VERSION = 1;
+
+    public static boolean isStructuredFile(Path path) {
+        return path.getFileName().toString().endsWith(FILE_EXTENSION);
+    }
+
+    static JsonObject serializeGroup(Group group) {
+        JsonObject data = new JsonObject();
+        data.addProperty("type", "group");
+        data.addProperty("name", group.getName());
+        data.add("nodes", WebEditorUtils.serializePermissions(group.getEnduringNodes().values().stream().map(NodeModel::fromNode)));
+        return data;
+    }
+
+    static JsonObject serializeTrack(Track track) {
+        JsonObject data = new JsonObject();
+        data.addProperty("type", "track");
+        data.addProperty("name", track.getName());
+        JsonArray groups = new JsonArray();
+        for (String group : track.getGroups()) {
+            groups.add(group);
+        }
+        data.add("groups", groups);
+        return data;
+    }
+
+    static JsonObject serializeUser(User user) {
+        JsonObject data = new JsonObject();
+        data.addProperty("type", "user");
+        data.addProperty("uuid", user.getUuid().toString());
+        user.getName().ifPresent(name -> data.addProperty("username", name));
+        user.getPrimaryGroup().getStoredValue().ifPresent(pg -> data.addProperty("primaryGroup", pg));
+        data.add("nodes", WebEditorUtils.serializePermissions(user.getEnduringNodes().values().stream().map(NodeModel::fromNode)));
+        return data;
+    }
+
+    private final LuckPermsPlugin plugin;
+    private final Sender executor;
+    private final Path filePath;
+    private final ProgressLogger log;
+    private final Gson gson = new Gson();
+
+    public StructuredExporter(LuckPermsPlugin plugin, Sender executor, Path filePath) {
+        this.plugin = plugin;
+        this.executor = executor;
+        this.filePath = filePath;
+
+        this.log = new ProgressLogger(null, Message.EXPORT_LOG, Message.EXPORT_LOG_PROGRESS);
+        this.log.addListener(plugin.getConsoleSender());
+        this.log.addListener(executor);
+    }
+
+    private synchronized void write(BufferedWriter writer, JsonObject data) throws IOException {
+        writer.write(this.gson.toJson(data));
+        writer.newLine();
+    }
+
+    @Override
+    public void run() {
+        try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(this.filePath)), StandardCharsets.UTF_8))) {
+            this.log.log("Starting.");
+
+            JsonObject header = new JsonObject();
+            header.addProperty("type", "header");
+            header.addProperty("version", VERSION);
+            header.addProperty("generatedBy", this.executor.getNameWithLocation());
+            header.addProperty("generatedAt", System.currentTimeMillis());
+            write(writer, header);
+
+            // Export groups
+            this.log.log("Starting group export.");
+            AtomicInteger groupCount = new AtomicInteger(0);
+            for (Group group : this.plugin.getGroupManager().getAll().values()) {
+                write(writer, serializeGroup(group));
+                this.log.logAllProgress("Exported {} groups so far.", groupCount.incrementAndGet());
+            }
+            this.log.log("Exported " + groupCount.get() + " groups.");
+
+            // Export tracks
+            this.log.log("Starting track export.");
+            Collection<? extends Track> tracks = this.plugin.getTrackManager().getAll().values();
+            for (Track track : tracks) {
+                write(writer, serializeTrack(track));
+            }
+            this.log.log("Exported " + tracks.size() + " tracks.");
+
+            // Export users
+            this.log.log("Starting user export. Finding a list of unique users to export.");
+            Set<UUID> users = this.plugin.getStorage().getUniqueUsers().join();
+            this.log.log("Found " + users.size() + " unique users to export.");
+
+            // Users are loaded in parallel, and written as soon as they're ready.
+            Cycle<List<UUID>> userPools = new Cycle<>(CommandUtils.nInstances(32, ArrayList::new));
+            for (UUID uuid : users) {
+                userPools.next().add(uuid);
+            }
+
+            Set<CompletableFuture<Void>> futures = new HashSet<>();
+            AtomicInteger userCount = new AtomicInteger(0);
+            for (List<UUID> subList : userPools.getBacking()) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (UUID uuid : subList) {
+                        try {
+                            User user = this.plugin.getStorage().loadUser(uuid, null).join();
+                            write(writer, serializeUser(user));
+                            this.plugin.getUserManager().cleanup(user);
+
+                            this.log.logProgress("Exported {} users so far.", userCount.incrementAndGet());
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }, this.plugin.getScheduler().async()));
+            }
+
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()])).join();
+            this.log.log("Exported " + userCount.get() + " users.");
+
+            writer.flush();
+            this.log.getListeners().forEach(l -> Message.LOG_EXPORT_SUCCESS.send(l, this.filePath.toFile().getAbsolutePath()));
+
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+}
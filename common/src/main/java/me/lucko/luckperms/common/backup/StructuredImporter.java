@@ -0,0 +1,306 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.backup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import me.lucko.luckperms.api.Node;
+import me.lucko.luckperms.api.event.cause.CreationCause;
+import me.lucko.luckperms.common.commands.sender.Sender;
+import me.lucko.luckperms.common.locale.Message;
+import me.lucko.luckperms.common.logging.ProgressLogger;
+import me.lucko.luckperms.common.model.Group;
+import me.lucko.luckperms.common.model.Track;
+import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.node.NodeModel;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.webeditor.WebEditorUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Handles import operations using the structured (gzipped json lines) format
+ * written by the {@link StructuredExporter}.
+ *
+ * <p>Records are streamed from the file rather than read into memory. Users
+ * are written to the storage in batches, and the number of records processed is
+ * recorded in a progress file alongside the import, so an interrupted import
+ * can be resumed by running it again.</p>
+ */
+public class StructuredImporter implements Runnable {
+    private static final int USER_BATCH_SIZE = 1000;
+    private static final String PROGRESS_FILE_EXTENSION = ".progress";
+
+    private final LuckPermsPlugin plugin;
+    private final Path filePath;
+    private final Path progressPath;
+    private final ProgressLogger log;
+
+    private final AtomicInteger errors = new AtomicInteger(0);
+
+    public StructuredImporter(LuckPermsPlugin plugin, Sender executor, Path filePath) {
+        this.plugin = plugin;
+        this.filePath = filePath;
+        this.progressPath = filePath.resolveSibling(filePath.getFileName().toString() + PROGRESS_FILE_EXTENSION);
+
+        this.log = new ProgressLogger(null, Message.IMPORT_LOG, Message.IMPORT_LOG_PROGRESS);
+        this.log.addListener(plugin.getConsoleSender());
+        this.log.addListener(executor);
+    }
+
+    private static Set<Node> readNodes(JsonObject data) {
+        JsonElement nodes = data.get("nodes");
+        if (nodes == null || !nodes.isJsonArray()) {
+            return new HashSet<>();
+        }
+        return WebEditorUtils.deserializePermissions(nodes.getAsJsonArray()).stream()
+                .map(NodeModel::toNode)
+                .collect(Collectors.toSet());
+    }
+
+    @Override
+    public void run() {
+        long startTime = System.currentTimeMillis();
+        int resumeFrom = readProgress();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(this.filePath)), StandardCharsets.UTF_8))) {
+            if (resumeFrom > 0) {
+                this.log.log("Resuming previous import from record " + resumeFrom + ".");
+            } else {
+                this.log.log("Starting.");
+            }
+
+            JsonParser parser = new JsonParser();
+            List<JsonObject> userBatch = new ArrayList<>(USER_BATCH_SIZE);
+            int groupCount = 0;
+            int trackCount = 0;
+            int userCount = 0;
+
+            int index = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int current = index++;
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                // the header is always checked, even when resuming
+                if (current != 0 && current < resumeFrom) {
+                    continue;
+                }
+
+                JsonObject data = parser.parse(line).getAsJsonObject();
+                String type = data.get("type").getAsString();
+
+                if (!type.equals("user") && !userBatch.isEmpty()) {
+                    userCount += applyUsers(userBatch);
+                    writeProgress(current);
+                }
+
+                switch (type) {
+                    case "header":
+                        int version = data.get("version").getAsInt();
+                        if (version > StructuredExporter.VERSION) {
+                            this.log.logErr("Unsupported export file version: " + version);
+                            return;
+                        }
+                        break;
+                    case "group":
+                        applyGroup(data);
+                        this.log.logAllProgress("Imported {} groups so far.", ++groupCount);
+                        writeProgress(index);
+                        break;
+                    case "track":
+                        applyTrack(data);
+                        trackCount++;
+                        writeProgress(index);
+                        break;
+                    case "user":
+                        userBatch.add(data);
+                        if (userBatch.size() >= USER_BATCH_SIZE) {
+                            userCount += applyUsers(userBatch);
+                            writeProgress(index);
+                            this.log.logAllProgress("Imported {} users so far.", userCount);
+                        }
+                        break;
+                    default:
+                        this.log.logErr("Skipping record with unknown type: " + type);
+                        break;
+                }
+            }
+
+            if (!userBatch.isEmpty()) {
+                userCount += applyUsers(userBatch);
+            }
+
+            this.log.log("Imported " + groupCount + " groups, " + trackCount + " tracks and " + userCount + " users.");
+            Files.deleteIfExists(this.progressPath);
+
+            long endTime = System.currentTimeMillis();
+            double seconds = (endTime - startTime) / 1000.0;
+            int errors = this.errors.get();
+
+            for (Sender s : this.log.getListeners()) {
+                if (errors == 0) {
+                    Message.IMPORT_END_COMPLETE.send(s, seconds);
+                } else if (errors == 1) {
+                    Message.IMPORT_END_COMPLETE_ERR_SIN.send(s, seconds, errors);
+                } else {
+                    Message.IMPORT_END_COMPLETE_ERR.send(s, seconds, errors);
+                }
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            this.log.getListeners().forEach(Message.IMPORT_LOG_FAILURE::send);
+        }
+    }
+
+    private void applyGroup(JsonObject data) {
+        try {
+            String name = data.get("name").getAsString();
+            Group group = this.plugin.getStorage().createAndLoadGroup(name, CreationCause.INTERNAL).join();
+            group.setEnduringNodes(readNodes(data));
+            this.plugin.getStorage().noBuffer().saveGroup(group).join();
+        } catch (Exception e) {
+            this.errors.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    private void applyTrack(JsonObject data) {
+        try {
+            String name = data.get("name").getAsString();
+            List<String> groups = new ArrayList<>();
+            JsonArray groupsArray = data.getAsJsonArray("groups");
+            if (groupsArray != null) {
+                for (JsonElement group : groupsArray) {
+                    groups.add(group.getAsString());
+                }
+            }
+
+            Track track = this.plugin.getStorage().createAndLoadTrack(name, CreationCause.INTERNAL).join();
+            track.setGroups(groups);
+            this.plugin.getStorage().noBuffer().saveTrack(track).join();
+        } catch (Exception e) {
+            this.errors.incrementAndGet();
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Applies a batch of user records, and waits for them all to be saved
+     * before returning.
+     *
+     * <p>The users are built from the records in memory, and written to the
+     * storage in a single batch.</p>
+     *
+     * @param batch the batch of records, cleared once applied
+     * @return the number of users in the batch
+     */
+    private int applyUsers(List<JsonObject> batch) {
+        List<User> users = new ArrayList<>(batch.size());
+        for (JsonObject data : batch) {
+            try {
+                users.add(readUser(data));
+            } catch (Exception e) {
+                this.errors.incrementAndGet();
+                e.printStackTrace();
+            }
+        }
+
+        try {
+            this.plugin.getStorage().noBuffer().saveUsers(users).join();
+        } catch (Exception e) {
+            this.errors.addAndGet(users.size());
+            e.printStackTrace();
+        }
+
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    private User readUser(JsonObject data) {
+        UUID uuid = UUID.fromString(data.get("uuid").getAsString());
+        String username = data.has("username") ? data.get("username").getAsString() : null;
+
+        // users who are currently loaded are updated in place
+        User user = this.plugin.getUserManager().getIfLoaded(uuid);
+        if (user == null) {
+            user = new User(uuid, username, this.plugin);
+        } else {
+            user.setName(username, true);
+        }
+
+        user.setEnduringNodes(readNodes(data));
+        if (data.has("primaryGroup")) {
+            user.getPrimaryGroup().setStoredValue(data.get("primaryGroup").getAsString());
+        }
+        this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
+        return user;
+    }
+
+    private int readProgress() {
+        if (!Files.exists(this.progressPath)) {
+            return 0;
+        }
+        try {
+            List<String> lines = Files.readAllLines(this.progressPath, StandardCharsets.UTF_8);
+            return lines.isEmpty() ? 0 : Integer.parseInt(lines.get(0).trim());
+        } catch (IOException | NumberFormatException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    private void writeProgress(int processed) {
+        try {
+            Path tmp = this.progressPath.resolveSibling(this.progressPath.getFileName().toString() + ".tmp");
+            Files.write(tmp, Integer.toString(processed).getBytes(StandardCharsets.UTF_8));
+            Files.move(tmp, this.progressPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -46,7 +46,9 @@ import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import javax.annotation.Nonnull;
 
@@ -63,23 +65,69 @@ public abstract class HolderCachedData<T extends PermissionHolder> implements Ca
     /**
      * The cache used for {@link PermissionCache} instances.
      */
-    private final LoadingCache<Contexts, PermissionCache> permission = Caffeine.newBuilder()
-            .expireAfterAccess(2, TimeUnit.MINUTES)
-            .build(new PermissionCacheLoader());
+    private final LoadingCache<Contexts, PermissionCache> permission;
 
     /**
      * The cache used for {@link MetaCache} instances.
      */
-    private final LoadingCache<MetaContexts, MetaCache> meta = Caffeine.newBuilder()
-            .expireAfterAccess(2, TimeUnit.MINUTES)
-            .build(new MetaCacheLoader());
+    private final LoadingCache<MetaContexts, MetaCache> meta;
 
     public HolderCachedData(T holder) {
         this.holder = holder;
+
+        // use the plugins calculation executor for refreshes, instead of the common pool
+        Executor executor = holder.getPlugin().getScheduler().calculation();
+        this.permission = Caffeine.newBuilder()
+                .expireAfterAccess(2, TimeUnit.MINUTES)
+                .executor(executor)
+                .build(new PermissionCacheLoader());
+        this.meta = Caffeine.newBuilder()
+                .expireAfterAccess(2, TimeUnit.MINUTES)
+                .executor(executor)
+                .build(new MetaCacheLoader());
     }
 
     protected abstract String getHolderName();
 
+    /**
+     * Called when permission data is requested in contexts which haven't already been calculated.
+     *
+     * <p>Not called when data is pre-calculated.</p>
+     *
+     * @param contexts the contexts
+     */
+    protected void onPermissionDataRequested(Contexts contexts) {
+
+    }
+
+    /**
+     * Gets if reloads of this holders data should be prioritised over others.
+     *
+     * @return true if reloads should be prioritised
+     */
+    protected boolean isReloadPriority() {
+        return false;
+    }
+
+    /**
+     * Submits a reload to the plugins {@link me.lucko.luckperms.common.plugin.RecalculationQueue}.
+     *
+     * @param supplier the supplier performing the reload
+     * @param <R> the result type
+     * @return a future encapsulating the result of the reload
+     */
+    private <R> CompletableFuture<R> submitReload(Supplier<R> supplier) {
+        CompletableFuture<R> future = new CompletableFuture<>();
+        this.holder.getPlugin().getScheduler().recalculationQueue().submit(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, isReloadPriority());
+        return future;
+    }
+
     /**
      * Calculates a {@link PermissionCache} instance.
      *
@@ -203,7 +251,7 @@ public abstract class HolderCachedData<T extends PermissionHolder> implements Ca
         this.permission.invalidate(contexts);
 
         // repopulate the cache
-        return CompletableFuture.supplyAsync(() -> this.permission.get(contexts, c -> calculatePermissions(c, previous)));
+        return submitReload(() -> this.permission.get(contexts, c -> calculatePermissions(c, previous)));
     }
 
     @Nonnull
@@ -218,7 +266,7 @@ public abstract class HolderCachedData<T extends PermissionHolder> implements Ca
         this.meta.invalidate(contexts);
 
         // repopulate the cache
-        return CompletableFuture.supplyAsync(() -> this.meta.get(contexts, c -> calculateMeta(c, previous)));
+        return submitReload(() -> this.meta.get(contexts, c -> calculateMeta(c, previous)));
     }
 
     @Nonnull
@@ -260,7 +308,8 @@ public abstract class HolderCachedData<T extends PermissionHolder> implements Ca
 
         // pre-calculate just by requesting the data from this cache.
         // if the data isn't already loaded, it will be calculated.
-        getPermissionData(contexts);
+        // the permission cache loader is bypassed so the contexts aren't recorded as having been used.
+        this.permission.get(contexts, c -> calculatePermissions(c, null));
         getMetaData(contexts);
     }
 
@@ -300,6 +349,7 @@ public abstract class HolderCachedData<T extends PermissionHolder> implements Ca
     private final class PermissionCacheLoader implements CacheLoader<Contexts, PermissionCache> {
         @Override
         public PermissionCache load(@Nonnull Contexts contexts) {
+            onPermissionDataRequested(contexts);
             return calculatePermissions(contexts);
         }
 
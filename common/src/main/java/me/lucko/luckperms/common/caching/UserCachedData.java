@@ -25,6 +25,7 @@
 
 package me.lucko.luckperms.common.caching;
 
+import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.api.caching.UserData;
 import me.lucko.luckperms.common.model.User;
 
@@ -41,4 +42,15 @@ public class UserCachedData extends HolderCachedData<User> implements UserData {
     protected String getHolderName() {
         return this.holder.getFriendlyName();
     }
+
+    @Override
+    protected boolean isReloadPriority() {
+        // prioritise reloads for players who are online
+        return this.holder.getPlugin().getPlayer(this.holder) != null;
+    }
+
+    @Override
+    protected void onPermissionDataRequested(Contexts contexts) {
+        this.holder.getPlugin().getContextManager().getUsageTracker().recordUsage(this.holder.getUuid(), contexts);
+    }
 }
@@ -32,6 +32,7 @@ import me.lucko.luckperms.common.references.HolderReference;
 
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantLock;
 
 /**
@@ -43,6 +44,20 @@ public class CachedStateManager {
     private final Multimap<HolderReference, HolderReference> map = HashMultimap.create();
     private final ReentrantLock lock = new ReentrantLock();
 
+    // incremented each time the state of a group is declared
+    private final AtomicLong version = new AtomicLong(0);
+
+    /**
+     * Gets the current state version. The version changes whenever the state
+     * of any group changes, and can be used to validate values derived from
+     * group data.
+     *
+     * @return the current version
+     */
+    public long getVersion() {
+        return this.version.get();
+    }
+
     /**
      * Gets a set of holder names that inherit permissions (either directly or via other groups)
      * from the given holder name
@@ -96,6 +111,7 @@ public class CachedStateManager {
         } finally {
             this.lock.unlock();
         }
+        this.version.incrementAndGet();
     }
 
     /**
@@ -110,6 +126,7 @@ public class CachedStateManager {
         } finally {
             this.lock.unlock();
         }
+        this.version.incrementAndGet();
     }
 
 }
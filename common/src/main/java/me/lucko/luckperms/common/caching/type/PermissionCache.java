@@ -25,17 +25,23 @@
 
 package me.lucko.luckperms.common.caching.type;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableMap;
+
 import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.api.caching.PermissionData;
+import me.lucko.luckperms.api.caching.PermissionHandle;
+import me.lucko.luckperms.api.caching.PermissionQuery;
+import me.lucko.luckperms.api.caching.PermissionQueryResult;
 import me.lucko.luckperms.common.calculators.CalculatorFactory;
 import me.lucko.luckperms.common.calculators.PermissionCalculator;
 import me.lucko.luckperms.common.calculators.PermissionCalculatorMetadata;
+import me.lucko.luckperms.common.calculators.RegisteredPermission;
 import me.lucko.luckperms.common.verbose.CheckOrigin;
 
-import java.util.Collections;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 import javax.annotation.Nonnull;
 
@@ -50,29 +56,40 @@ public class PermissionCache implements PermissionData {
     private final Contexts contexts;
 
     /**
-     * The raw set of permission strings.
+     * The metadata of the holder this container belongs to
+     */
+    private final PermissionCalculatorMetadata metadata;
+
+    /**
+     * The factory used to obtain calculators
      */
-    private final Map<String, Boolean> permissions;
+    private final CalculatorFactory calculatorFactory;
 
     /**
-     * An immutable copy of {@link #permissions}
+     * The raw set of permission strings.
      */
-    private final Map<String, Boolean> permissionsUnmodifiable;
+    private volatile ImmutableMap<String, Boolean> permissions = ImmutableMap.of();
 
     /**
      * The calculator instance responsible for resolving the raw permission strings in the permission map.
      * This calculator will attempt to resolve all regex/wildcard permissions, as well as account for
      * defaults & attachment permissions (if applicable.)
+     *
+     * <p>The calculator is shared with any other holders which resolved an identical permission
+     * map, and is swapped for another instance when the permissions held by this container change.</p>
      */
-    private final PermissionCalculator calculator;
+    private volatile PermissionCalculator calculator;
+
+    /**
+     * Cached results of {@link PermissionQuery}s, created when first needed.
+     */
+    private volatile Cache<PermissionQuery, CachedQueryResult> queryResults = null;
 
     public PermissionCache(Contexts contexts, PermissionCalculatorMetadata metadata, CalculatorFactory calculatorFactory) {
         this.contexts = contexts;
-        this.permissions = new ConcurrentHashMap<>();
-        this.permissionsUnmodifiable = Collections.unmodifiableMap(this.permissions);
-
-        this.calculator = calculatorFactory.build(contexts, metadata);
-        this.calculator.updateBacking(this.permissions); // Initial setup.
+        this.metadata = metadata;
+        this.calculatorFactory = calculatorFactory;
+        this.calculator = calculatorFactory.getShared(contexts, metadata, this.permissions); // Initial setup.
     }
 
     @Override
@@ -81,14 +98,13 @@ public class PermissionCache implements PermissionData {
     }
 
     private void setPermissionsInternal(Map<String, Boolean> permissions) {
-        this.permissions.clear();
-        this.permissions.putAll(permissions);
-        this.calculator.updateBacking(this.permissions);
-        invalidateCache();
+        ImmutableMap<String, Boolean> copy = ImmutableMap.copyOf(permissions);
+        this.calculator = this.calculatorFactory.getShared(this.contexts, this.metadata, copy);
+        this.permissions = copy;
     }
 
     public void setPermissions(Map<String, Boolean> toApply) {
-        if (!this.permissions.equals(toApply)) {
+        if (this.calculator.isStale() || !this.permissions.equals(toApply)) {
             setPermissionsInternal(toApply);
         }
     }
@@ -96,7 +112,7 @@ public class PermissionCache implements PermissionData {
     @Nonnull
     @Override
     public Map<String, Boolean> getImmutableBacking() {
-        return this.permissionsUnmodifiable;
+        return this.permissions;
     }
 
     @Nonnull
@@ -105,14 +121,69 @@ public class PermissionCache implements PermissionData {
         if (permission == null) {
             throw new NullPointerException("permission");
         }
-        return this.calculator.getPermissionValue(permission, CheckOrigin.API);
+        return this.calculator.getPermissionValue(permission, CheckOrigin.API, this.metadata);
+    }
+
+    @Nonnull
+    @Override
+    public Tristate getPermissionValue(@Nonnull PermissionHandle permission) {
+        if (permission == null) {
+            throw new NullPointerException("permission");
+        }
+
+        // handles from other implementations can only be checked by string
+        if (!(permission instanceof RegisteredPermission)) {
+            return getPermissionValue(permission.getPermission());
+        }
+        return this.calculator.getPermissionValue((RegisteredPermission) permission, CheckOrigin.API, this.metadata);
+    }
+
+    @Nonnull
+    @Override
+    public PermissionQueryResult getPermissionValues(@Nonnull PermissionQuery query) {
+        if (query == null) {
+            throw new NullPointerException("query");
+        }
+
+        PermissionCalculator calculator = this.calculator;
+        if (!calculator.canCacheResults()) {
+            return PermissionQueryResult.of(calculator.getPermissionValues(query.getPermissions(), CheckOrigin.API, this.metadata));
+        }
+
+        Cache<PermissionQuery, CachedQueryResult> queryResults = getQueryResults();
+
+        // only reuse results computed by the current calculator, in its current generation
+        CachedQueryResult cached = queryResults.getIfPresent(query);
+        if (cached != null && cached.calculator == calculator && cached.generation == calculator.getGeneration()) {
+            return cached.result;
+        }
+
+        int generation = calculator.getGeneration();
+        PermissionQueryResult result = PermissionQueryResult.of(calculator.getPermissionValues(query.getPermissions(), CheckOrigin.API, this.metadata));
+        queryResults.put(query, new CachedQueryResult(calculator, generation, result));
+        return result;
+    }
+
+    private Cache<PermissionQuery, CachedQueryResult> getQueryResults() {
+        Cache<PermissionQuery, CachedQueryResult> queryResults = this.queryResults;
+        if (queryResults == null) {
+            synchronized (this) {
+                queryResults = this.queryResults;
+                if (queryResults == null) {
+                    // queries are compared by identity, and released when the caller discards them
+                    queryResults = Caffeine.newBuilder().weakKeys().maximumSize(64).build();
+                    this.queryResults = queryResults;
+                }
+            }
+        }
+        return queryResults;
     }
 
     public Tristate getPermissionValue(String permission, CheckOrigin origin) {
         if (permission == null) {
             throw new NullPointerException("permission");
         }
-        return this.calculator.getPermissionValue(permission, origin);
+        return this.calculator.getPermissionValue(permission, origin, this.metadata);
     }
 
     @Nonnull
@@ -120,4 +191,16 @@ public class PermissionCache implements PermissionData {
     public Contexts getContexts() {
         return this.contexts;
     }
+
+    private static final class CachedQueryResult {
+        private final PermissionCalculator calculator;
+        private final int generation;
+        private final PermissionQueryResult result;
+
+        private CachedQueryResult(PermissionCalculator calculator, int generation, PermissionQueryResult result) {
+            this.calculator = calculator;
+            this.generation = generation;
+            this.result = result;
+        }
+    }
 }
@@ -25,23 +25,80 @@
 
 package me.lucko.luckperms.common.calculators;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapMaker;
 
+import me.lucko.luckperms.api.Contexts;
+import me.lucko.luckperms.common.references.HolderType;
+
 import java.util.Collections;
 import java.util.Set;
 
 public abstract class AbstractCalculatorFactory implements CalculatorFactory {
     private final Set<PermissionCalculator> calculators = Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
 
+    // calculators shared between holders with identical resolved permissions
+    private final Cache<SharedKey, PermissionCalculator> sharedCalculators = Caffeine.newBuilder().weakValues().build();
+
     protected PermissionCalculator registerCalculator(PermissionCalculator calculator) {
         this.calculators.add(calculator);
         return calculator;
     }
 
+    @Override
+    public PermissionCalculator getShared(Contexts contexts, PermissionCalculatorMetadata metadata, ImmutableMap<String, Boolean> permissions) {
+        SharedKey key = new SharedKey(metadata.getHolderType(), contexts, permissions);
+        return this.sharedCalculators.get(key, k -> {
+            PermissionCalculator calculator = build(contexts, metadata);
+            calculator.updateBacking(permissions);
+            return calculator;
+        });
+    }
+
     @Override
     public void invalidateAll() {
         for (PermissionCalculator calculator : this.calculators) {
             calculator.invalidateCache();
         }
     }
+
+    @Override
+    public void rebuildAll() {
+        this.sharedCalculators.invalidateAll();
+        for (PermissionCalculator calculator : this.calculators) {
+            calculator.markStale();
+        }
+    }
+
+    private static final class SharedKey {
+        private final HolderType holderType;
+        private final Contexts contexts;
+        private final ImmutableMap<String, Boolean> permissions;
+        private final int hashCode;
+
+        private SharedKey(HolderType holderType, Contexts contexts, ImmutableMap<String, Boolean> permissions) {
+            this.holderType = holderType;
+            this.contexts = contexts;
+            this.permissions = permissions;
+            this.hashCode = 31 * (31 * holderType.hashCode() + contexts.hashCode()) + permissions.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof SharedKey)) return false;
+            final SharedKey other = (SharedKey) o;
+            return this.hashCode == other.hashCode &&
+                    this.holderType == other.holderType &&
+                    this.contexts.equals(other.contexts) &&
+                    this.permissions.equals(other.permissions);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
 }
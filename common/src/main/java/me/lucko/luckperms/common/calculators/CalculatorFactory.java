@@ -25,6 +25,8 @@
 
 package me.lucko.luckperms.common.calculators;
 
+import com.google.common.collect.ImmutableMap;
+
 import me.lucko.luckperms.api.Contexts;
 
 import java.util.List;
@@ -43,6 +45,21 @@ public interface CalculatorFactory {
      */
     PermissionCalculator build(Contexts contexts, PermissionCalculatorMetadata metadata);
 
+    /**
+     * Gets a PermissionCalculator backed by the given permissions, sharing
+     * the instance with any other holders of the same type which resolved an
+     * identical permission map in the same contexts.
+     *
+     * <p>The returned calculator is already populated, and must not be updated
+     * by the caller.</p>
+     *
+     * @param contexts the contexts to build the calculator in
+     * @param metadata the calculator metadata
+     * @param permissions the resolved permissions
+     * @return a permission calculator instance
+     */
+    PermissionCalculator getShared(Contexts contexts, PermissionCalculatorMetadata metadata, ImmutableMap<String, Boolean> permissions);
+
     /**
      * Gets the processors which are currently being added to built calculators
      *
@@ -55,4 +72,10 @@ public interface CalculatorFactory {
      */
     void invalidateAll();
 
+    /**
+     * Marks all calculators built by this factory as stale, so they are
+     * rebuilt when the owning holders next recalculate their permissions.
+     */
+    void rebuildAll();
+
 }
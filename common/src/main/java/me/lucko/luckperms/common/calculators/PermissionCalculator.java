@@ -34,8 +34,10 @@ import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.processors.PermissionProcessor;
 import me.lucko.luckperms.common.verbose.CheckOrigin;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nonnull;
 
@@ -50,6 +52,16 @@ public class PermissionCalculator implements CacheLoader<String, Tristate> {
     // caches lookup calls.
     private final LoadingCache<String, Tristate> lookupCache = Caffeine.newBuilder().build(this);
 
+    // if the processors need to be rebuilt before this calculator is reused
+    private volatile boolean stale = false;
+
+    // incremented each time the lookup cache is invalidated
+    private final AtomicInteger generation = new AtomicInteger(0);
+
+    // the results of lookups for registered permissions, indexed by their id.
+    // entries are null if the permission hasn't been looked up yet.
+    private volatile Tristate[] registeredResults = new Tristate[0];
+
     public PermissionCalculator(LuckPermsPlugin plugin, PermissionCalculatorMetadata metadata, List<PermissionProcessor> processors) {
         this.plugin = plugin;
         this.metadata = metadata;
@@ -58,9 +70,62 @@ public class PermissionCalculator implements CacheLoader<String, Tristate> {
 
     public void invalidateCache() {
         this.lookupCache.invalidateAll();
+
+        // replace the array under the same lock used to grow it, so a concurrent
+        // grow can't overwrite the replacement with a copy of the old results
+        synchronized (this) {
+            this.registeredResults = new Tristate[this.registeredResults.length];
+        }
+        this.generation.incrementAndGet();
+    }
+
+    /**
+     * Gets the current generation of the calculators lookup cache.
+     *
+     * <p>Results computed by the calculator are only valid while the generation is unchanged.</p>
+     *
+     * @return the generation
+     */
+    public int getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Gets if the results of lookups can be cached outside of this calculator.
+     *
+     * <p>This is false while the verbose handler is listening, so every check
+     * reaches the handler.</p>
+     *
+     * @return if results can be cached
+     */
+    public boolean canCacheResults() {
+        return !this.plugin.getVerboseHandler().isListening();
+    }
+
+    public boolean isStale() {
+        return this.stale;
+    }
+
+    public void markStale() {
+        this.stale = true;
     }
 
     public Tristate getPermissionValue(String permission, CheckOrigin origin) {
+        return getPermissionValue(permission, origin, this.metadata);
+    }
+
+    /**
+     * Performs a permission lookup, logging the check against the given metadata.
+     *
+     * <p>Calculators may be shared between holders, so the metadata of the holder
+     * performing the check is passed in, rather than using that of the calculator.</p>
+     *
+     * @param permission the permission to check
+     * @param origin the origin of the check
+     * @param metadata the metadata of the holder performing the check
+     * @return the result
+     */
+    public Tristate getPermissionValue(String permission, CheckOrigin origin, PermissionCalculatorMetadata metadata) {
 
         // convert the permission to lowercase, as all values in the backing map are also lowercase.
         // this allows fast case insensitive lookups
@@ -70,12 +135,77 @@ public class PermissionCalculator implements CacheLoader<String, Tristate> {
         Tristate result = this.lookupCache.get(permission);
 
         // log this permission lookup to the verbose handler
-        this.plugin.getVerboseHandler().offerCheckData(origin, this.metadata.getObjectName(), this.metadata.getContext(), permission, result);
+        this.plugin.getVerboseHandler().offerCheckData(origin, metadata.getObjectName(), metadata.getContext(), permission, result);
 
         // return the result
         return result;
     }
 
+    /**
+     * Performs a permission lookup for a registered permission.
+     *
+     * <p>Results are stored in an array indexed by the permissions id, so the
+     * permission string doesn't need to be normalised or hashed.</p>
+     *
+     * @param permission the permission to check
+     * @param origin the origin of the check
+     * @param metadata the metadata of the holder performing the check
+     * @return the result
+     */
+    public Tristate getPermissionValue(RegisteredPermission permission, CheckOrigin origin, PermissionCalculatorMetadata metadata) {
+        int id = permission.getId();
+
+        // read the array before performing the lookup, so results computed before an
+        // invalidation can't be written into the replacement array
+        Tristate[] results = this.registeredResults;
+        Tristate result = id < results.length ? results[id] : null;
+
+        if (result == null) {
+            result = this.lookupCache.get(permission.getPermission());
+            storeRegisteredResult(results, id, result);
+        }
+
+        this.plugin.getVerboseHandler().offerCheckData(origin, metadata.getObjectName(), metadata.getContext(), permission.getPermission(), result);
+        return result;
+    }
+
+    private void storeRegisteredResult(Tristate[] results, int id, Tristate result) {
+        if (id < results.length) {
+            results[id] = result;
+            return;
+        }
+
+        synchronized (this) {
+            // the array has been replaced since it was read - just drop the result
+            if (this.registeredResults != results) {
+                return;
+            }
+
+            Tristate[] grown = Arrays.copyOf(results, Math.max(id + 1, PermissionRegistry.size()));
+            grown[id] = result;
+            this.registeredResults = grown;
+        }
+    }
+
+    /**
+     * Performs a lookup for each of the given permissions.
+     *
+     * @param permissions the permissions to check, already in lowercase
+     * @param origin the origin of the checks
+     * @param metadata the metadata of the holder performing the checks
+     * @return the results, in the same order as the permissions
+     */
+    public Tristate[] getPermissionValues(List<String> permissions, CheckOrigin origin, PermissionCalculatorMetadata metadata) {
+        Tristate[] results = new Tristate[permissions.size()];
+        for (int i = 0; i < results.length; i++) {
+            String permission = permissions.get(i);
+            Tristate result = this.lookupCache.get(permission);
+            this.plugin.getVerboseHandler().offerCheckData(origin, metadata.getObjectName(), metadata.getContext(), permission, result);
+            results[i] = result;
+        }
+        return results;
+    }
+
     @Override
     public Tristate load(@Nonnull String permission) {
 
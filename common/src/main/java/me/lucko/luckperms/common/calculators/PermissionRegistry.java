@@ -0,0 +1,68 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.calculators;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assigns dense integer ids to permissions registered as {@link RegisteredPermission}s.
+ */
+public final class PermissionRegistry {
+
+    private static final Map<String, RegisteredPermission> REGISTERED = new ConcurrentHashMap<>();
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+
+    /**
+     * Gets the registered instance for the given permission, registering it if necessary.
+     *
+     * @param permission the permission
+     * @return the registered permission
+     */
+    public static RegisteredPermission register(String permission) {
+        if (permission == null) {
+            throw new NullPointerException("permission");
+        }
+
+        String key = permission.toLowerCase().intern();
+        return REGISTERED.computeIfAbsent(key, p -> new RegisteredPermission(NEXT_ID.getAndIncrement(), p));
+    }
+
+    /**
+     * Gets the number of permissions which have been registered
+     *
+     * @return the number of registered permissions
+     */
+    public static int size() {
+        return NEXT_ID.get();
+    }
+
+    private PermissionRegistry() {
+        throw new AssertionError();
+    }
+
+}
@@ -25,11 +25,6 @@
 
 package me.lucko.luckperms.common.commands.impl.generic.other;
 
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
-
 import me.lucko.luckperms.common.commands.ArgumentPermissions;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
@@ -68,30 +63,37 @@ public class HolderEditor<T extends PermissionHolder> extends SubCommand<T> {
 
         Message.EDITOR_START.send(sender);
 
-        // form the payload data
-        JsonObject payload = new JsonObject();
-        payload.addProperty("who", WebEditorUtils.getHolderIdentifier(holder));
-        payload.addProperty("whoFriendly", holder.getFriendlyName());
-        if (holder.getType().isUser()) {
-            payload.addProperty("whoUuid", ((User) holder).getUuid().toString());
-        }
-        payload.addProperty("cmdAlias", label);
-        payload.addProperty("uploadedBy", sender.getNameWithLocation());
-        payload.addProperty("uploadedByUuid", sender.getUuid().toString());
-        payload.addProperty("time", System.currentTimeMillis());
-
-        // attach the holders permissions
-        payload.add("nodes", WebEditorUtils.serializePermissions(holder.getEnduringNodes().values().stream().map(NodeModel::fromNode)));
-
-        // attach an array of all permissions known to the server, to use for tab completion in the editor
-        JsonArray knownPermsArray = new JsonArray();
-        for (String perm : plugin.getPermissionVault().rootAsList()) {
-            knownPermsArray.add(new JsonPrimitive(perm));
-        }
-        payload.add("knownPermissions", knownPermsArray);
-
-        // upload the payload data to gist
-        String gistId = WebEditorUtils.postToGist(new GsonBuilder().setPrettyPrinting().disableHtmlEscaping().create().toJson(payload));
+        String who = WebEditorUtils.getHolderIdentifier(holder);
+        String uploadedBy = sender.getNameWithLocation();
+        String uploadedByUuid = sender.getUuid().toString();
+        long time = System.currentTimeMillis();
+
+        // form the payload data, and stream it directly to gist
+        String gistId = WebEditorUtils.postToGist(writer -> {
+            writer.beginObject();
+            writer.name("who").value(who);
+            writer.name("whoFriendly").value(holder.getFriendlyName());
+            if (holder.getType().isUser()) {
+                writer.name("whoUuid").value(((User) holder).getUuid().toString());
+            }
+            writer.name("cmdAlias").value(label);
+            writer.name("uploadedBy").value(uploadedBy);
+            writer.name("uploadedByUuid").value(uploadedByUuid);
+            writer.name("time").value(time);
+
+            // attach the holders permissions
+            writer.name("nodes");
+            WebEditorUtils.writePermissions(writer, holder.getEnduringNodes().values().stream().map(NodeModel::fromNode));
+
+            // attach an array of all permissions known to the server, to use for tab completion in the editor
+            writer.name("knownPermissions").beginArray();
+            for (String perm : plugin.getPermissionVault().rootAsList()) {
+                writer.value(perm);
+            }
+            writer.endArray();
+
+            writer.endObject();
+        });
         if (gistId == null) {
             Message.EDITOR_UPLOAD_FAILURE.send(sender);
             return CommandResult.STATE_ERROR;
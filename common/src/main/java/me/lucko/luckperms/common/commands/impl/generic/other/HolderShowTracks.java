@@ -61,7 +61,7 @@ public class HolderShowTracks<T extends PermissionHolder> extends SubCommand<T>
         }
 
         try {
-            plugin.getStorage().loadAllTracks().get();
+            plugin.getStorage().loadAllTracks(false).get();
         } catch (Exception e) {
             e.printStackTrace();
             Message.TRACKS_LOAD_ERROR.send(sender);
@@ -56,7 +56,7 @@ public class ListGroups extends SingleCommand {
     public CommandResult execute(LuckPermsPlugin plugin, Sender sender, List<String> args, String label) {
 
         try {
-            plugin.getStorage().loadAllGroups().get();
+            plugin.getStorage().loadAllGroups(false).get();
         } catch (Exception e) {
             e.printStackTrace();
             Message.GROUPS_LOAD_ERROR.send(sender);
@@ -64,11 +64,7 @@ public class ListGroups extends SingleCommand {
         }
 
         Message.GROUPS_LIST.send(sender);
-        plugin.getGroupManager().getAll().values().stream()
-                .sorted((o1, o2) -> {
-                    int i = Integer.compare(o2.getWeight().orElse(0), o1.getWeight().orElse(0));
-                    return i != 0 ? i : o1.getName().compareToIgnoreCase(o2.getName());
-                })
+        plugin.getGroupManager().getByWeight()
                 .forEach(group -> {
                     List<String> tracks = plugin.getTrackManager().getAll().values().stream().filter(t -> t.containsGroup(group)).map(Track::getName).collect(Collectors.toList());
                     TextComponent component;
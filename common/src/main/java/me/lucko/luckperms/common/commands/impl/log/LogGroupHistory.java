@@ -26,7 +26,8 @@
 package me.lucko.luckperms.common.commands.impl.log;
 
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SubCommand;
@@ -41,9 +42,8 @@ import me.lucko.luckperms.common.utils.Predicates;
 
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
 
-public class LogGroupHistory extends SubCommand<Log> {
+public class LogGroupHistory extends SubCommand<PagedLog> {
     private static final int ENTRIES_PER_PAGE = 10;
 
     public LogGroupHistory(LocaleManager locale) {
@@ -51,9 +51,9 @@ public class LogGroupHistory extends SubCommand<Log> {
     }
 
     @Override
-    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, Log log, List<String> args, String label) {
+    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, PagedLog log, List<String> args, String label) {
         String group = args.get(0).toLowerCase();
-        int page = Integer.MIN_VALUE;
+        int page = LogPage.LATEST;
 
         if (args.size() == 2) {
             try {
@@ -70,27 +70,29 @@ public class LogGroupHistory extends SubCommand<Log> {
             return CommandResult.INVALID_ARGS;
         }
 
-        int maxPage = log.getGroupHistoryMaxPages(group, ENTRIES_PER_PAGE);
+        LogPage logPage = log.getGroupHistory(page, group, ENTRIES_PER_PAGE);
+        if (logPage == null) {
+            Message.LOG_LOAD_ERROR.send(sender);
+            return CommandResult.LOADING_ERROR;
+        }
+
+        int maxPage = logPage.getMaxPages();
         if (maxPage == 0) {
             Message.LOG_NO_ENTRIES.send(sender);
             return CommandResult.STATE_ERROR;
         }
 
-        if (page == Integer.MIN_VALUE) {
-            page = maxPage;
-        }
-
+        page = logPage.getPageNo();
         if (page < 1 || page > maxPage) {
             Message.LOG_INVALID_PAGE_RANGE.send(sender, maxPage);
             return CommandResult.INVALID_ARGS;
         }
 
-        SortedMap<Integer, ExtendedLogEntry> entries = log.getGroupHistory(page, group, ENTRIES_PER_PAGE);
-        String name = entries.values().stream().findAny().get().getActedName();
+        String name = logPage.getEntries().values().stream().findAny().get().getActedName();
         Message.LOG_HISTORY_GROUP_HEADER.send(sender, name, page, maxPage);
 
         long now = DateUtil.unixSecondsNow();
-        for (Map.Entry<Integer, ExtendedLogEntry> e : entries.entrySet()) {
+        for (Map.Entry<Integer, ExtendedLogEntry> e : logPage.getEntries().entrySet()) {
             long time = e.getValue().getTimestamp();
             Message.LOG_ENTRY.send(sender,
                     e.getKey(),
@@ -27,13 +27,12 @@ package me.lucko.luckperms.common.commands.impl.log;
 
 import com.google.common.collect.ImmutableList;
 
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.abstraction.Command;
 import me.lucko.luckperms.common.commands.abstraction.MainCommand;
 import me.lucko.luckperms.common.commands.sender.Sender;
 import me.lucko.luckperms.common.locale.CommandSpec;
 import me.lucko.luckperms.common.locale.LocaleManager;
-import me.lucko.luckperms.common.locale.Message;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 
 import java.util.Collections;
@@ -42,11 +41,11 @@ import java.util.Optional;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
-public class LogMainCommand extends MainCommand<Log, Object> {
+public class LogMainCommand extends MainCommand<PagedLog, Object> {
     private final ReentrantLock lock = new ReentrantLock();
 
     public LogMainCommand(LocaleManager locale) {
-        super(CommandSpec.LOG.spec(locale), "Log", 1, ImmutableList.<Command<Log, ?>>builder()
+        super(CommandSpec.LOG.spec(locale), "Log", 1, ImmutableList.<Command<PagedLog, ?>>builder()
                 .add(new LogRecent(locale))
                 .add(new LogSearch(locale))
                 .add(new LogNotify(locale))
@@ -68,18 +67,13 @@ public class LogMainCommand extends MainCommand<Log, Object> {
     }
 
     @Override
-    protected Log getTarget(Object target, LuckPermsPlugin plugin, Sender sender) {
-        Log log = plugin.getStorage().getLog().join();
-
-        if (log == null) {
-            Message.LOG_LOAD_ERROR.send(sender);
-        }
-
-        return log;
+    protected PagedLog getTarget(Object target, LuckPermsPlugin plugin, Sender sender) {
+        // entries are queried lazily by each sub command
+        return new PagedLog(plugin.getStorage());
     }
 
     @Override
-    protected void cleanup(Log log, LuckPermsPlugin plugin) {
+    protected void cleanup(PagedLog log, LuckPermsPlugin plugin) {
 
     }
 
@@ -90,7 +84,7 @@ public class LogMainCommand extends MainCommand<Log, Object> {
 
     @Override
     public List<String> tabComplete(LuckPermsPlugin plugin, Sender sender, List<String> args) {
-        final List<Command<Log, ?>> subs = getChildren().get().stream()
+        final List<Command<PagedLog, ?>> subs = getChildren().get().stream()
                 .filter(s -> s.isAuthorized(sender))
                 .collect(Collectors.toList());
 
@@ -107,7 +101,7 @@ public class LogMainCommand extends MainCommand<Log, Object> {
                     .collect(Collectors.toList());
         }
 
-        Optional<Command<Log, ?>> o = subs.stream()
+        Optional<Command<PagedLog, ?>> o = subs.stream()
                 .filter(s -> s.getName().equalsIgnoreCase(args.get(0)))
                 .limit(1)
                 .findAny();
@@ -26,7 +26,7 @@
 package me.lucko.luckperms.common.commands.impl.log;
 
 import me.lucko.luckperms.api.Node;
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SubCommand;
@@ -43,7 +43,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public class LogNotify extends SubCommand<Log> {
+public class LogNotify extends SubCommand<PagedLog> {
     public LogNotify(LocaleManager locale) {
         super(CommandSpec.LOG_NOTIFY.spec(locale), "notify", CommandPermission.LOG_NOTIFY, Predicates.notInRange(0, 1));
     }
@@ -81,7 +81,7 @@ public class LogNotify extends SubCommand<Log> {
     }
 
     @Override
-    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, Log log, List<String> args, String label) {
+    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, PagedLog log, List<String> args, String label) {
         if (sender.isConsole() || sender.isImport()) {
             Message.LOG_NOTIFY_CONSOLE.send(sender);
             return CommandResult.SUCCESS;
@@ -26,7 +26,8 @@
 package me.lucko.luckperms.common.commands.impl.log;
 
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SubCommand;
@@ -43,10 +44,9 @@ import me.lucko.luckperms.common.utils.Predicates;
 
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
 import java.util.UUID;
 
-public class LogRecent extends SubCommand<Log> {
+public class LogRecent extends SubCommand<PagedLog> {
     private static final int ENTRIES_PER_PAGE = 10;
     
     public LogRecent(LocaleManager locale) {
@@ -54,10 +54,10 @@ public class LogRecent extends SubCommand<Log> {
     }
 
     @Override
-    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, Log log, List<String> args, String label) {
+    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, PagedLog log, List<String> args, String label) {
         if (args.isEmpty()) {
             // No page or user
-            return showLog(log.getRecentMaxPages(ENTRIES_PER_PAGE), null, sender, log);
+            return showLog(LogPage.LATEST, null, sender, log);
         }
 
         if (args.size() == 1) {
@@ -103,7 +103,7 @@ public class LogRecent extends SubCommand<Log> {
 
         if (args.size() != 2) {
             // Just user
-            return showLog(log.getRecentMaxPages(uuid, ENTRIES_PER_PAGE), uuid, sender, log);
+            return showLog(LogPage.LATEST, uuid, sender, log);
         } else {
             try {
                 int p = Integer.parseInt(args.get(1));
@@ -116,21 +116,27 @@ public class LogRecent extends SubCommand<Log> {
         }
     }
 
-    private static CommandResult showLog(int page, UUID filter, Sender sender, Log log) {
-        int maxPage = (filter != null) ? log.getRecentMaxPages(filter, ENTRIES_PER_PAGE) : log.getRecentMaxPages(ENTRIES_PER_PAGE);
+    private static CommandResult showLog(int page, UUID filter, Sender sender, PagedLog log) {
+        LogPage logPage = (filter != null) ? log.getRecent(page, filter, ENTRIES_PER_PAGE) : log.getRecent(page, ENTRIES_PER_PAGE);
+        if (logPage == null) {
+            Message.LOG_LOAD_ERROR.send(sender);
+            return CommandResult.LOADING_ERROR;
+        }
+
+        int maxPage = logPage.getMaxPages();
         if (maxPage == 0) {
             Message.LOG_NO_ENTRIES.send(sender);
             return CommandResult.STATE_ERROR;
         }
 
+        page = logPage.getPageNo();
         if (page < 1 || page > maxPage) {
             Message.LOG_INVALID_PAGE_RANGE.send(sender, maxPage);
             return CommandResult.INVALID_ARGS;
         }
 
-        SortedMap<Integer, ExtendedLogEntry> entries = (filter != null) ? log.getRecent(page, filter, ENTRIES_PER_PAGE) : log.getRecent(page, ENTRIES_PER_PAGE);
         if (filter != null) {
-            String name = entries.values().stream().findAny().get().getActorName();
+            String name = logPage.getEntries().values().stream().findAny().get().getActorName();
             if (name.contains("@")) {
                 name = name.split("@")[0];
             }
@@ -140,7 +146,7 @@ public class LogRecent extends SubCommand<Log> {
         }
 
         long now = DateUtil.unixSecondsNow();
-        for (Map.Entry<Integer, ExtendedLogEntry> e : entries.entrySet()) {
+        for (Map.Entry<Integer, ExtendedLogEntry> e : logPage.getEntries().entrySet()) {
             long time = e.getValue().getTimestamp();
             Message.LOG_ENTRY.send(sender,
                     e.getKey(),
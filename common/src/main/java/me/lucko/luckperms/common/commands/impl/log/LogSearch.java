@@ -26,7 +26,8 @@
 package me.lucko.luckperms.common.commands.impl.log;
 
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SubCommand;
@@ -40,10 +41,9 @@ import me.lucko.luckperms.common.utils.Predicates;
 
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
 import java.util.stream.Collectors;
 
-public class LogSearch extends SubCommand<Log> {
+public class LogSearch extends SubCommand<PagedLog> {
     private static final int ENTRIES_PER_PAGE = 10;
 
     public LogSearch(LocaleManager locale) {
@@ -51,8 +51,8 @@ public class LogSearch extends SubCommand<Log> {
     }
 
     @Override
-    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, Log log, List<String> args, String label) {
-        int page = Integer.MIN_VALUE;
+    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, PagedLog log, List<String> args, String label) {
+        int page = LogPage.LATEST;
         if (args.size() > 1) {
             try {
                 page = Integer.parseInt(args.get(args.size() - 1));
@@ -63,26 +63,28 @@ public class LogSearch extends SubCommand<Log> {
 
         final String query = args.stream().collect(Collectors.joining(" "));
 
-        int maxPage = log.getSearchMaxPages(query, ENTRIES_PER_PAGE);
+        LogPage logPage = log.getSearch(page, query, ENTRIES_PER_PAGE);
+        if (logPage == null) {
+            Message.LOG_LOAD_ERROR.send(sender);
+            return CommandResult.LOADING_ERROR;
+        }
+
+        int maxPage = logPage.getMaxPages();
         if (maxPage == 0) {
             Message.LOG_NO_ENTRIES.send(sender);
             return CommandResult.STATE_ERROR;
         }
 
-        if (page == Integer.MIN_VALUE) {
-            page = maxPage;
-        }
-
+        page = logPage.getPageNo();
         if (page < 1 || page > maxPage) {
             Message.LOG_INVALID_PAGE_RANGE.send(sender, maxPage);
             return CommandResult.INVALID_ARGS;
         }
 
-        SortedMap<Integer, ExtendedLogEntry> entries = log.getSearch(page, query, ENTRIES_PER_PAGE);
         Message.LOG_SEARCH_HEADER.send(sender, query, page, maxPage);
 
         long now = DateUtil.unixSecondsNow();
-        for (Map.Entry<Integer, ExtendedLogEntry> e : entries.entrySet()) {
+        for (Map.Entry<Integer, ExtendedLogEntry> e : logPage.getEntries().entrySet()) {
             long time = e.getValue().getTimestamp();
             Message.LOG_ENTRY.send(sender,
                     e.getKey(),
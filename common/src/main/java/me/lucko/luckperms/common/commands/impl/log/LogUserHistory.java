@@ -26,7 +26,8 @@
 package me.lucko.luckperms.common.commands.impl.log;
 
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
-import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.PagedLog;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SubCommand;
@@ -43,10 +44,9 @@ import me.lucko.luckperms.common.utils.Predicates;
 
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
 import java.util.UUID;
 
-public class LogUserHistory extends SubCommand<Log> {
+public class LogUserHistory extends SubCommand<PagedLog> {
     private static final int ENTRIES_PER_PAGE = 10;
 
     public LogUserHistory(LocaleManager locale) {
@@ -54,16 +54,17 @@ public class LogUserHistory extends SubCommand<Log> {
     }
 
     @Override
-    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, Log log, List<String> args, String label) {
+    public CommandResult execute(LuckPermsPlugin plugin, Sender sender, PagedLog log, List<String> args, String label) {
         String target = args.get(0);
-        int page = Integer.MIN_VALUE;
+        int page = LogPage.LATEST;
 
         if (args.size() == 2) {
             try {
                 page = Integer.parseInt(args.get(1));
             } catch (NumberFormatException e) {
                 // invalid page
-                return showLog(-1, null, sender, log);
+                Message.LOG_INVALID_PAGE.send(sender);
+                return CommandResult.INVALID_ARGS;
             }
         }
 
@@ -96,31 +97,33 @@ public class LogUserHistory extends SubCommand<Log> {
             }
         }
 
-        if (page == Integer.MIN_VALUE) {
-            page = log.getUserHistoryMaxPages(uuid, ENTRIES_PER_PAGE);
-        }
-
         return showLog(page, uuid, sender, log);
     }
 
-    private static CommandResult showLog(int page, UUID user, Sender sender, Log log) {
-        int maxPage = log.getUserHistoryMaxPages(user, ENTRIES_PER_PAGE);
+    private static CommandResult showLog(int page, UUID user, Sender sender, PagedLog log) {
+        LogPage logPage = log.getUserHistory(page, user, ENTRIES_PER_PAGE);
+        if (logPage == null) {
+            Message.LOG_LOAD_ERROR.send(sender);
+            return CommandResult.LOADING_ERROR;
+        }
+
+        int maxPage = logPage.getMaxPages();
         if (maxPage == 0) {
             Message.LOG_NO_ENTRIES.send(sender);
             return CommandResult.STATE_ERROR;
         }
 
+        page = logPage.getPageNo();
         if (page < 1 || page > maxPage) {
             Message.LOG_INVALID_PAGE_RANGE.send(sender, maxPage);
             return CommandResult.INVALID_ARGS;
         }
 
-        SortedMap<Integer, ExtendedLogEntry> entries = log.getUserHistory(page, user, ENTRIES_PER_PAGE);
-        String name = entries.values().stream().findAny().get().getActedName();
+        String name = logPage.getEntries().values().stream().findAny().get().getActedName();
         Message.LOG_HISTORY_USER_HEADER.send(sender, name, page, maxPage);
 
         long now = DateUtil.unixSecondsNow();
-        for (Map.Entry<Integer, ExtendedLogEntry> e : entries.entrySet()) {
+        for (Map.Entry<Integer, ExtendedLogEntry> e : logPage.getEntries().entrySet()) {
             long time = e.getValue().getTimestamp();
             Message.LOG_ENTRY.send(sender,
                     e.getKey(),
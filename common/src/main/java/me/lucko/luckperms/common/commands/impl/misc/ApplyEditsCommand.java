@@ -26,7 +26,6 @@
 package me.lucko.luckperms.common.commands.impl.misc;
 
 import com.google.common.collect.Maps;
-import com.google.gson.JsonObject;
 
 import me.lucko.luckperms.api.Node;
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
@@ -45,6 +44,7 @@ import me.lucko.luckperms.common.node.NodeModel;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.utils.DateUtil;
 import me.lucko.luckperms.common.utils.Predicates;
+import me.lucko.luckperms.common.webeditor.WebEditorPayload;
 import me.lucko.luckperms.common.webeditor.WebEditorUtils;
 
 import java.util.HashSet;
@@ -68,19 +68,19 @@ public class ApplyEditsCommand extends SingleCommand {
             return CommandResult.INVALID_ARGS;
         }
 
-        JsonObject data = WebEditorUtils.getDataFromGist(code);
+        WebEditorPayload data = WebEditorUtils.getPayloadFromGist(code);
         if (data == null) {
             Message.APPLY_EDITS_UNABLE_TO_READ.send(sender, code);
             return CommandResult.FAILURE;
         }
 
         if (who == null) {
-            if (!data.has("who") || data.get("who").getAsString().isEmpty()) {
+            if (data.getWho() == null || data.getWho().isEmpty()) {
                 Message.APPLY_EDITS_NO_TARGET.send(sender);
                 return CommandResult.STATE_ERROR;
             }
 
-            who = data.get("who").getAsString();
+            who = data.getWho();
         }
 
         PermissionHolder holder = WebEditorUtils.getHolderFromIdentifier(plugin, sender, who);
@@ -98,10 +98,8 @@ public class ApplyEditsCommand extends SingleCommand {
                 .action("applyedits", code)
                 .build().submit(plugin, sender);
 
-        Set<NodeModel> rawNodes = WebEditorUtils.deserializePermissions(data.getAsJsonArray("nodes"));
-
         Set<Node> before = new HashSet<>(holder.getEnduringNodes().values());
-        Set<Node> nodes = rawNodes.stream().map(NodeModel::toNode).collect(Collectors.toSet());
+        Set<Node> nodes = data.getNodes().stream().map(NodeModel::toNode).collect(Collectors.toSet());
         holder.setEnduringNodes(nodes);
 
         Map.Entry<Set<Node>, Set<Node>> diff = diff(before, nodes);
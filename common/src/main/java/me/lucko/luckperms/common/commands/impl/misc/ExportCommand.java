@@ -26,6 +26,7 @@
 package me.lucko.luckperms.common.commands.impl.misc;
 
 import me.lucko.luckperms.common.backup.Exporter;
+import me.lucko.luckperms.common.backup.StructuredExporter;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SingleCommand;
@@ -83,7 +84,9 @@ public class ExportCommand extends SingleCommand {
             return CommandResult.STATE_ERROR;
         }
 
-        Exporter exporter = new Exporter(plugin, sender, path);
+        Runnable exporter = StructuredExporter.isStructuredFile(path)
+                ? new StructuredExporter(plugin, sender, path)
+                : new Exporter(plugin, sender, path);
 
         // Run the exporter in its own thread.
         plugin.getScheduler().doAsync(() -> {
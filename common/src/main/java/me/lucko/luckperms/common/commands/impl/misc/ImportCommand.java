@@ -26,6 +26,8 @@
 package me.lucko.luckperms.common.commands.impl.misc;
 
 import me.lucko.luckperms.common.backup.Importer;
+import me.lucko.luckperms.common.backup.StructuredExporter;
+import me.lucko.luckperms.common.backup.StructuredImporter;
 import me.lucko.luckperms.common.commands.CommandPermission;
 import me.lucko.luckperms.common.commands.CommandResult;
 import me.lucko.luckperms.common.commands.abstraction.SingleCommand;
@@ -71,6 +73,26 @@ public class ImportCommand extends SingleCommand {
             return CommandResult.FAILURE;
         }
 
+        if (StructuredExporter.isStructuredFile(path)) {
+            if (!this.running.compareAndSet(false, true)) {
+                Message.IMPORT_ALREADY_RUNNING.send(sender);
+                return CommandResult.STATE_ERROR;
+            }
+
+            StructuredImporter importer = new StructuredImporter(plugin, sender, path);
+
+            // Run the importer in its own thread.
+            plugin.getScheduler().doAsync(() -> {
+                try {
+                    importer.run();
+                } finally {
+                    this.running.set(false);
+                }
+            });
+
+            return CommandResult.SUCCESS;
+        }
+
         List<String> commands;
 
         try {
@@ -81,6 +81,19 @@ public class InfoCommand extends SingleCommand {
                 plugin.getCalculatorFactory().getActiveProcessors().stream().collect(Collectors.joining(", "))
         );
 
+        Message.EMPTY.send(sender, "&f-  &bExecutors:");
+        for (Map.Entry<String, String> e : plugin.getScheduler().getExecutorStats().entrySet()) {
+            Message.EMPTY.send(sender, "&f-     &3" + e.getKey() + ": &f" + e.getValue());
+        }
+
+        Map<String, String> handlerTimings = plugin.getEventFactory().getEventBus().getHandlerTimings();
+        if (!handlerTimings.isEmpty()) {
+            Message.EMPTY.send(sender, "&f-  &bEvent Handlers:");
+            for (Map.Entry<String, String> e : handlerTimings.entrySet()) {
+                Message.EMPTY.send(sender, "&f-     &3" + e.getKey() + ": " + formatValue(e.getValue()));
+            }
+        }
+
         Map<String, Object> platformInfo = plugin.getExtraInfo();
         if (!platformInfo.isEmpty()) {
             Message.EMPTY.send(sender, "&f-  &bPlatform Info:");
@@ -33,6 +33,7 @@ import me.lucko.luckperms.common.locale.CommandSpec;
 import me.lucko.luckperms.common.locale.LocaleManager;
 import me.lucko.luckperms.common.locale.Message;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.tasks.UpdateTask;
 import me.lucko.luckperms.common.utils.Predicates;
 
 import java.util.List;
@@ -45,7 +46,8 @@ public class SyncCommand extends SingleCommand {
     @Override
     public CommandResult execute(LuckPermsPlugin plugin, Sender sender, List<String> args, String label) {
         Message.UPDATE_TASK_REQUEST.send(sender);
-        plugin.getUpdateTaskBuffer().request().join();
+        // bypass the update buffer, which skips groups and tracks whose stored version is unchanged
+        new UpdateTask(plugin, false, true).run();
         Message.UPDATE_TASK_COMPLETE.send(sender);
         return CommandResult.SUCCESS;
     }
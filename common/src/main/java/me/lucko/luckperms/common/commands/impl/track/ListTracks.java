@@ -47,7 +47,7 @@ public class ListTracks extends SingleCommand {
     @Override
     public CommandResult execute(LuckPermsPlugin plugin, Sender sender, List<String> args, String label) {
         try {
-            plugin.getStorage().loadAllTracks().get();
+            plugin.getStorage().loadAllTracks(false).get();
         } catch (Exception e) {
             e.printStackTrace();
             Message.TRACKS_LOAD_ERROR.send(sender);
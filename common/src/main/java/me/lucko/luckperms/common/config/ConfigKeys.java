@@ -216,6 +216,11 @@ public class ConfigKeys {
      */
     public static final ConfigKey<Boolean> APPLYING_SHORTHAND = EnduringKey.wrap(BooleanKey.of("apply-shorthand", true));
 
+    /**
+     * The number of threads used to calculate cached data, or 0 to use the number of available processors
+     */
+    public static final ConfigKey<Integer> CALCULATION_THREADS = EnduringKey.wrap(IntegerKey.of("calculation-threads", 0));
+
     /**
      * If Bukkit child permissions are being applied. This setting is ignored on other platforms.
      */
@@ -408,6 +413,41 @@ public class ConfigKeys {
      */
     public static final ConfigKey<Boolean> WATCH_FILES = BooleanKey.of("watch-files", true);
 
+    /**
+     * The time in milliseconds saves are buffered for before being written to storage
+     */
+    public static final ConfigKey<Integer> WRITE_BUFFER_TIME = EnduringKey.wrap(IntegerKey.of("write-buffer-time", 250));
+
+    /**
+     * If pending saves should be recorded in an on-disk journal until they have been written to storage
+     */
+    public static final ConfigKey<Boolean> WRITE_JOURNAL = EnduringKey.wrap(BooleanKey.of("write-journal", false));
+
+    /**
+     * If group and track data should be loaded from a local snapshot at startup
+     */
+    public static final ConfigKey<Boolean> WARM_START = EnduringKey.wrap(BooleanKey.of("warm-start", false));
+
+    /**
+     * If the storage circuit breaker is enabled
+     */
+    public static final ConfigKey<Boolean> CIRCUIT_BREAKER_ENABLED = EnduringKey.wrap(BooleanKey.of("storage-circuit-breaker.enabled", false));
+
+    /**
+     * The number of consecutive failed or slow storage operations before the circuit breaker opens
+     */
+    public static final ConfigKey<Integer> CIRCUIT_BREAKER_FAILURE_THRESHOLD = EnduringKey.wrap(IntegerKey.of("storage-circuit-breaker.failure-threshold", 5));
+
+    /**
+     * The time in seconds the circuit breaker stays open before operations are retried
+     */
+    public static final ConfigKey<Integer> CIRCUIT_BREAKER_OPEN_SECONDS = EnduringKey.wrap(IntegerKey.of("storage-circuit-breaker.open-seconds", 15));
+
+    /**
+     * The time in milliseconds after which a storage operation is considered slow
+     */
+    public static final ConfigKey<Integer> CIRCUIT_BREAKER_SLOW_CALL_MILLIS = EnduringKey.wrap(IntegerKey.of("storage-circuit-breaker.slow-call-millis", 5000));
+
     /**
      * If split storage is being used
      */
@@ -75,6 +75,9 @@ public abstract class AbstractContextManager<T> implements ContextManager<T> {
     // the single key used in the static lookup cache
     private final Object staticCacheKey = new Object();
 
+    // records which contexts data is calculated in
+    private final ContextUsageTracker usageTracker = new ContextUsageTracker(this);
+
     protected AbstractContextManager(LuckPermsPlugin plugin, Class<T> subjectClass) {
         this.plugin = plugin;
         this.subjectClass = subjectClass;
@@ -116,6 +119,16 @@ public abstract class AbstractContextManager<T> implements ContextManager<T> {
         return this.staticLookupCache.get(this.staticCacheKey);
     }
 
+    @Override
+    public ImmutableContextSet getLoginContext() {
+        return getStaticContext();
+    }
+
+    @Override
+    public ContextUsageTracker getUsageTracker() {
+        return this.usageTracker;
+    }
+
     @Override
     public Optional<String> getStaticContextString() {
         Set<Map.Entry<String, String>> entries = getStaticContext().toSet();
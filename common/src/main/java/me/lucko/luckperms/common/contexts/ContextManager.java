@@ -77,6 +77,23 @@ public interface ContextManager<T> {
      */
     Contexts getStaticContexts();
 
+    /**
+     * Gets the context a subject is expected to be in when they first login.
+     *
+     * <p>This is used to calculate data for the subject before they have
+     * fully joined.</p>
+     *
+     * @return the expected login context
+     */
+    ImmutableContextSet getLoginContext();
+
+    /**
+     * Gets the tracker recording which contexts data is calculated in.
+     *
+     * @return the usage tracker
+     */
+    ContextUsageTracker getUsageTracker();
+
     /**
      * Returns a string form of the managers static context
      *
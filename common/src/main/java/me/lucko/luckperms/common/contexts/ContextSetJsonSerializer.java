@@ -27,42 +27,78 @@ package me.lucko.luckperms.common.contexts;
 
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
-import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
-import com.google.gson.JsonPrimitive;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 
 import me.lucko.luckperms.api.context.ContextSet;
 import me.lucko.luckperms.api.context.MutableContextSet;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.Collection;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
 public final class ContextSetJsonSerializer {
 
+    // adapts the streaming methods below for use with json trees, so the format is only defined once
+    private static final TypeAdapter<ContextSet> ADAPTER = new TypeAdapter<ContextSet>() {
+        @Override
+        public void write(JsonWriter out, ContextSet contextSet) throws IOException {
+            writeContextSet(out, contextSet);
+        }
+
+        @Override
+        public ContextSet read(JsonReader in) throws IOException {
+            return readContextSet(in);
+        }
+    };
+
     public static JsonObject serializeContextSet(ContextSet contextSet) {
-        JsonObject data = new JsonObject();
-        Map<String, Collection<String>> map = contextSet.toMultimap().asMap();
+        return ADAPTER.toJsonTree(contextSet).getAsJsonObject();
+    }
 
-        map.forEach((k, v) -> {
-            List<String> values = new ArrayList<>(v);
+    public static void writeContextSet(JsonWriter writer, ContextSet contextSet) throws IOException {
+        writer.beginObject();
+        for (Map.Entry<String, Collection<String>> e : contextSet.toMultimap().asMap().entrySet()) {
+            Collection<String> values = e.getValue();
             int size = values.size();
 
             if (size == 1) {
-                data.addProperty(k, values.get(0));
+                writer.name(e.getKey()).value(values.iterator().next());
             } else if (size > 1) {
-                JsonArray arr = new JsonArray();
+                writer.name(e.getKey()).beginArray();
                 for (String s : values) {
-                    arr.add(new JsonPrimitive(s));
+                    writer.value(s);
+                }
+                writer.endArray();
+            }
+        }
+        writer.endObject();
+    }
+
+    public static ContextSet readContextSet(JsonReader reader) throws IOException {
+        MutableContextSet map = MutableContextSet.create();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String k = reader.nextName();
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    map.add(k, reader.nextString());
                 }
-                data.add(k, arr);
+                reader.endArray();
+            } else {
+                map.add(k, reader.nextString());
             }
-        });
+        }
+        reader.endObject();
 
-        return data;
+        return map.isEmpty() ? ContextSet.empty() : map;
     }
 
     public static ContextSet deserializeContextSet(Gson gson, String json) {
@@ -81,27 +117,7 @@ public final class ContextSetJsonSerializer {
 
     public static ContextSet deserializeContextSet(JsonElement element) {
         Preconditions.checkArgument(element.isJsonObject());
-        JsonObject data = element.getAsJsonObject();
-
-        if (data.entrySet().isEmpty()) {
-            return ContextSet.empty();
-        }
-
-        MutableContextSet map = MutableContextSet.create();
-        for (Map.Entry<String, JsonElement> e : data.entrySet()) {
-            String k = e.getKey();
-            JsonElement v = e.getValue();
-            if (v.isJsonArray()) {
-                JsonArray values = v.getAsJsonArray();
-                for (JsonElement value : values) {
-                    map.add(k, value.getAsString());
-                }
-            } else {
-                map.add(k, v.getAsString());
-            }
-        }
-
-        return map;
+        return ADAPTER.fromJsonTree(element);
     }
 
     private ContextSetJsonSerializer() {}
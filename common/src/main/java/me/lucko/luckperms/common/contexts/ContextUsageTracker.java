@@ -0,0 +1,150 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.contexts;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.common.collect.Maps;
+
+import me.lucko.luckperms.api.Contexts;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Records the {@link Contexts} users have data calculated in, so the data
+ * can be calculated ahead of time when they are next likely to be needed.
+ */
+public class ContextUsageTracker {
+
+    /**
+     * The maximum number of contexts remembered for each user
+     */
+    private static final int MAX_RECENT_PER_USER = 4;
+
+    private final ContextManager<?> contextManager;
+
+    /**
+     * The most recently used contexts for each user, most recent first.
+     *
+     * Entries are kept after the user logs out, so they're available when they next join.
+     */
+    private final Cache<UUID, Deque<Contexts>> recent = Caffeine.newBuilder()
+            .maximumSize(10000)
+            .expireAfterAccess(1, TimeUnit.DAYS)
+            .build();
+
+    /**
+     * The number of times data has been calculated in each contexts, across all users
+     */
+    private final Cache<Contexts, LongAdder> popular = Caffeine.newBuilder()
+            .maximumSize(64)
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    public ContextUsageTracker(ContextManager<?> contextManager) {
+        this.contextManager = contextManager;
+    }
+
+    /**
+     * Records that data has been calculated for a user in the given contexts.
+     *
+     * @param uuid the users uuid
+     * @param contexts the contexts
+     */
+    public void recordUsage(UUID uuid, Contexts contexts) {
+        if (contexts == Contexts.allowAll()) {
+            return;
+        }
+
+        Deque<Contexts> recent = this.recent.get(uuid, u -> new ConcurrentLinkedDeque<>());
+        //noinspection ConstantConditions
+        recent.remove(contexts);
+        recent.addFirst(contexts);
+        while (recent.size() > MAX_RECENT_PER_USER) {
+            recent.pollLast();
+        }
+
+        //noinspection ConstantConditions
+        this.popular.get(contexts, c -> new LongAdder()).increment();
+    }
+
+    /**
+     * Gets the contexts a user is likely to have data requested in when they login.
+     *
+     * <p>This is the contexts they were last seen in, along with the contexts
+     * a new subject is expected to be in.</p>
+     *
+     * @param uuid the users uuid
+     * @return the likely contexts
+     */
+    public Set<Contexts> getLoginContexts(UUID uuid) {
+        Set<Contexts> ret = new LinkedHashSet<>();
+
+        Deque<Contexts> recent = this.recent.getIfPresent(uuid);
+        if (recent != null) {
+            ret.addAll(recent);
+        }
+
+        ret.add(this.contextManager.formContexts(this.contextManager.getLoginContext()));
+        return ret;
+    }
+
+    /**
+     * Gets the contexts which data is most frequently calculated in, across all users.
+     *
+     * @param limit the maximum number of contexts to return
+     * @return the most popular contexts, most popular first
+     */
+    public List<Contexts> getPopularContexts(int limit) {
+        Map<Contexts, LongAdder> popular = this.popular.asMap();
+        if (popular.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<Map.Entry<Contexts, Long>> counts = new ArrayList<>(popular.size());
+        for (Map.Entry<Contexts, LongAdder> e : popular.entrySet()) {
+            counts.add(Maps.immutableEntry(e.getKey(), e.getValue().sum()));
+        }
+
+        return counts.stream()
+                .sorted(Map.Entry.<Contexts, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
@@ -92,6 +92,10 @@ public final class EventFactory {
         return this.eventBus;
     }
 
+    private boolean shouldPost(Class<? extends LuckPermsEvent> eventClass) {
+        return this.eventBus.shouldPost(eventClass);
+    }
+
     private void fireEventAsync(LuckPermsEvent event) {
         this.eventBus.fireEventAsync(event);
     }
@@ -101,36 +105,64 @@ public final class EventFactory {
     }
 
     public void handleGroupCacheLoad(Group group, GroupData data) {
+        if (!shouldPost(EventGroupCacheLoad.class)) {
+            return;
+        }
+
         EventGroupCacheLoad event = new EventGroupCacheLoad(group.getDelegate(), data);
         fireEventAsync(event);
     }
 
     public void handleGroupCreate(Group group, CreationCause cause) {
+        if (!shouldPost(EventGroupCreate.class)) {
+            return;
+        }
+
         EventGroupCreate event = new EventGroupCreate(group.getDelegate(), cause);
         fireEventAsync(event);
     }
 
     public void handleGroupDataRecalculate(Group group, GroupData data) {
+        if (!shouldPost(EventGroupDataRecalculate.class)) {
+            return;
+        }
+
         EventGroupDataRecalculate event = new EventGroupDataRecalculate(group.getDelegate(), data);
         fireEventAsync(event);
     }
 
     public void handleGroupDelete(Group group, DeletionCause cause) {
+        if (!shouldPost(EventGroupDelete.class)) {
+            return;
+        }
+
         EventGroupDelete event = new EventGroupDelete(group.getName(), ImmutableSet.copyOf(group.getEnduringNodes().values()), cause);
         fireEventAsync(event);
     }
 
     public void handleGroupLoadAll() {
+        if (!shouldPost(EventGroupLoadAll.class)) {
+            return;
+        }
+
         EventGroupLoadAll event = new EventGroupLoadAll();
         fireEventAsync(event);
     }
 
     public void handleGroupLoad(Group group) {
+        if (!shouldPost(EventGroupLoad.class)) {
+            return;
+        }
+
         EventGroupLoad event = new EventGroupLoad(group.getDelegate());
         fireEventAsync(event);
     }
 
     public boolean handleLogBroadcast(boolean initialState, LogEntry entry, LogBroadcastEvent.Origin origin) {
+        if (!shouldPost(EventLogBroadcast.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventLogBroadcast event = new EventLogBroadcast(cancel, entry, origin);
         fireEvent(event);
@@ -138,6 +170,10 @@ public final class EventFactory {
     }
 
     public boolean handleLogPublish(boolean initialState, LogEntry entry) {
+        if (!shouldPost(EventLogPublish.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventLogPublish event = new EventLogPublish(cancel, entry);
         fireEvent(event);
@@ -145,6 +181,10 @@ public final class EventFactory {
     }
 
     public boolean handleLogNetworkPublish(boolean initialState, UUID id, LogEntry entry) {
+        if (!shouldPost(EventLogNetworkPublish.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventLogNetworkPublish event = new EventLogNetworkPublish(cancel, id, entry);
         fireEvent(event);
@@ -152,6 +192,10 @@ public final class EventFactory {
     }
 
     public boolean handleLogNotify(boolean initialState, LogEntry entry, LogBroadcastEvent.Origin origin, Sender sender) {
+        if (!shouldPost(EventLogNotify.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventLogNotify event = new EventLogNotify(cancel, entry, origin, sender);
         fireEvent(event);
@@ -159,36 +203,64 @@ public final class EventFactory {
     }
 
     public void handleLogReceive(UUID id, LogEntry entry) {
+        if (!shouldPost(EventLogReceive.class)) {
+            return;
+        }
+
         EventLogReceive event = new EventLogReceive(id, entry);
         fireEventAsync(event);
     }
 
     public void handleNodeAdd(Node node, PermissionHolder target, Collection<Node> before, Collection<Node> after) {
+        if (!shouldPost(EventNodeAdd.class)) {
+            return;
+        }
+
         EventNodeAdd event = new EventNodeAdd(node, target.getDelegate(), ImmutableSet.copyOf(before), ImmutableSet.copyOf(after));
         fireEventAsync(event);
     }
 
     public void handleNodeClear(PermissionHolder target, Collection<Node> before, Collection<Node> after) {
+        if (!shouldPost(EventNodeClear.class)) {
+            return;
+        }
+
         EventNodeClear event = new EventNodeClear(target.getDelegate(), ImmutableSet.copyOf(before), ImmutableSet.copyOf(after));
         fireEventAsync(event);
     }
 
     public void handleNodeRemove(Node node, PermissionHolder target, Collection<Node> before, Collection<Node> after) {
+        if (!shouldPost(EventNodeRemove.class)) {
+            return;
+        }
+
         EventNodeRemove event = new EventNodeRemove(node, target.getDelegate(), ImmutableSet.copyOf(before), ImmutableSet.copyOf(after));
         fireEventAsync(event);
     }
 
     public void handleConfigReload() {
+        if (!shouldPost(EventConfigReload.class)) {
+            return;
+        }
+
         EventConfigReload event = new EventConfigReload();
         fireEventAsync(event);
     }
 
     public void handlePostSync() {
+        if (!shouldPost(EventPostSync.class)) {
+            return;
+        }
+
         EventPostSync event = new EventPostSync();
         fireEventAsync(event);
     }
 
     public boolean handleNetworkPreSync(boolean initialState, UUID id) {
+        if (!shouldPost(EventPreNetworkSync.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventPreNetworkSync event = new EventPreNetworkSync(cancel, id);
         fireEvent(event);
@@ -196,6 +268,10 @@ public final class EventFactory {
     }
 
     public boolean handlePreSync(boolean initialState) {
+        if (!shouldPost(EventPreSync.class)) {
+            return initialState;
+        }
+
         AtomicBoolean cancel = new AtomicBoolean(initialState);
         EventPreSync event = new EventPreSync(cancel);
         fireEvent(event);
@@ -203,71 +279,127 @@ public final class EventFactory {
     }
 
     public void handleTrackCreate(Track track, CreationCause cause) {
+        if (!shouldPost(EventTrackCreate.class)) {
+            return;
+        }
+
         EventTrackCreate event = new EventTrackCreate(track.getDelegate(), cause);
         fireEventAsync(event);
     }
 
     public void handleTrackDelete(Track track, DeletionCause cause) {
+        if (!shouldPost(EventTrackDelete.class)) {
+            return;
+        }
+
         EventTrackDelete event = new EventTrackDelete(track.getName(), ImmutableList.copyOf(track.getGroups()), cause);
         fireEventAsync(event);
     }
 
     public void handleTrackLoadAll() {
+        if (!shouldPost(EventTrackLoadAll.class)) {
+            return;
+        }
+
         EventTrackLoadAll event = new EventTrackLoadAll();
         fireEventAsync(event);
     }
 
     public void handleTrackLoad(Track track) {
+        if (!shouldPost(EventTrackLoad.class)) {
+            return;
+        }
+
         EventTrackLoad event = new EventTrackLoad(track.getDelegate());
         fireEventAsync(event);
     }
 
     public void handleTrackAddGroup(Track track, String group, List<String> before, List<String> after) {
+        if (!shouldPost(EventTrackAddGroup.class)) {
+            return;
+        }
+
         EventTrackAddGroup event = new EventTrackAddGroup(group, track.getDelegate(), ImmutableList.copyOf(before), ImmutableList.copyOf(after));
         fireEventAsync(event);
     }
 
     public void handleTrackClear(Track track, List<String> before) {
+        if (!shouldPost(EventTrackClear.class)) {
+            return;
+        }
+
         EventTrackClear event = new EventTrackClear(track.getDelegate(), ImmutableList.copyOf(before), ImmutableList.of());
         fireEventAsync(event);
     }
 
     public void handleTrackRemoveGroup(Track track, String group, List<String> before, List<String> after) {
+        if (!shouldPost(EventTrackRemoveGroup.class)) {
+            return;
+        }
+
         EventTrackRemoveGroup event = new EventTrackRemoveGroup(group, track.getDelegate(), ImmutableList.copyOf(before), ImmutableList.copyOf(after));
         fireEventAsync(event);
     }
 
     public void handleUserCacheLoad(User user, UserData data) {
+        if (!shouldPost(EventUserCacheLoad.class)) {
+            return;
+        }
+
         EventUserCacheLoad event = new EventUserCacheLoad(user.getDelegate(), data);
         fireEventAsync(event);
     }
 
     public void handleUserDataRecalculate(User user, UserData data) {
+        if (!shouldPost(EventUserDataRecalculate.class)) {
+            return;
+        }
+
         EventUserDataRecalculate event = new EventUserDataRecalculate(user.getDelegate(), data);
         fireEventAsync(event);
     }
 
     public void handleUserFirstLogin(UUID uuid, String username) {
+        if (!shouldPost(EventUserFirstLogin.class)) {
+            return;
+        }
+
         EventUserFirstLogin event = new EventUserFirstLogin(uuid, username);
         fireEventAsync(event);
     }
 
     public void handleUserLoad(User user) {
+        if (!shouldPost(EventUserLoad.class)) {
+            return;
+        }
+
         EventUserLoad event = new EventUserLoad(user.getDelegate());
         fireEventAsync(event);
     }
 
     public void handleUserLoginProcess(UUID uuid, String username, User user) {
+        if (!shouldPost(EventUserLoginProcess.class)) {
+            return;
+        }
+
         EventUserLoginProcess event = new EventUserLoginProcess(uuid, username, user.getDelegate());
         fireEvent(event);
     }
 
     public void handleUserDemote(User user, Track track, String from, String to) {
+        if (!shouldPost(EventUserDemote.class)) {
+            return;
+        }
+
         EventUserDemote event = new EventUserDemote(track.getDelegate(), user.getDelegate(), from, to);
         fireEventAsync(event);
     }
 
     public void handleUserPromote(User user, Track track, String from, String to) {
+        if (!shouldPost(EventUserPromote.class)) {
+            return;
+        }
+
         EventUserPromote event = new EventUserPromote(track.getDelegate(), user.getDelegate(), from, to);
         fireEventAsync(event);
     }
@@ -25,6 +25,7 @@
 
 package me.lucko.luckperms.common.event;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
 import me.lucko.luckperms.api.event.Cancellable;
@@ -34,10 +35,13 @@ import me.lucko.luckperms.api.event.LuckPermsEvent;
 import me.lucko.luckperms.common.api.LuckPermsApiProvider;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -50,6 +54,16 @@ public class LuckPermsEventBus implements EventBus {
 
     private final Map<Class<? extends LuckPermsEvent>, Set<LuckPermsEventHandler<?>>> handlerMap = new ConcurrentHashMap<>();
 
+    /**
+     * The handlers to call for each concrete event class, including those registered
+     * against super interfaces. Entries are computed on demand, and the whole cache
+     * is cleared whenever a handler is registered or unregistered.
+     */
+    private final Map<Class<? extends LuckPermsEvent>, List<LuckPermsEventHandler<?>>> dispatchCache = new ConcurrentHashMap<>();
+
+    // guards modifications to the handler map & population of the dispatch cache
+    private final Object lock = new Object();
+
     public LuckPermsEventBus(LuckPermsPlugin plugin, LuckPermsApiProvider apiProvider) {
         this.plugin = plugin;
         this.apiProvider = apiProvider;
@@ -68,10 +82,11 @@ public class LuckPermsEventBus implements EventBus {
             throw new IllegalArgumentException("class " + eventClass.getName() + " does not implement LuckPermsEvent");
         }
 
-        Set<LuckPermsEventHandler<?>> handlers = this.handlerMap.computeIfAbsent(eventClass, c -> ConcurrentHashMap.newKeySet());
-
         LuckPermsEventHandler<T> eventHandler = new LuckPermsEventHandler<>(this, eventClass, handler);
-        handlers.add(eventHandler);
+        synchronized (this.lock) {
+            this.handlerMap.computeIfAbsent(eventClass, c -> ConcurrentHashMap.newKeySet()).add(eventHandler);
+            this.dispatchCache.clear();
+        }
 
         return eventHandler;
     }
@@ -94,23 +109,84 @@ public class LuckPermsEventBus implements EventBus {
     }
 
     public void unregisterHandler(LuckPermsEventHandler<?> handler) {
-        Set<LuckPermsEventHandler<?>> handlers = this.handlerMap.get(handler.getEventClass());
+        synchronized (this.lock) {
+            Set<LuckPermsEventHandler<?>> handlers = this.handlerMap.get(handler.getEventClass());
+            if (handlers != null) {
+                handlers.remove(handler);
+            }
+            this.dispatchCache.clear();
+        }
+    }
+
+    private List<LuckPermsEventHandler<?>> getDispatchList(Class<? extends LuckPermsEvent> eventClass) {
+        List<LuckPermsEventHandler<?>> handlers = this.dispatchCache.get(eventClass);
         if (handlers != null) {
-            handlers.remove(handler);
+            return handlers;
+        }
+
+        synchronized (this.lock) {
+            return this.dispatchCache.computeIfAbsent(eventClass, this::computeDispatchList);
         }
     }
 
-    public void fireEvent(LuckPermsEvent event) {
-        if (event instanceof AbstractEvent) {
-            ((AbstractEvent) event).setApi(this.apiProvider);
+    private List<LuckPermsEventHandler<?>> computeDispatchList(Class<? extends LuckPermsEvent> eventClass) {
+        ImmutableList.Builder<LuckPermsEventHandler<?>> handlers = ImmutableList.builder();
+        for (Map.Entry<Class<? extends LuckPermsEvent>, Set<LuckPermsEventHandler<?>>> ent : this.handlerMap.entrySet()) {
+            if (ent.getKey().isAssignableFrom(eventClass)) {
+                handlers.addAll(ent.getValue());
+            }
         }
+        return handlers.build();
+    }
+
+    /**
+     * Gets if there are any handlers which would be called for an event of the given class.
+     *
+     * <p>Used to avoid constructing events which nobody is listening for.</p>
+     *
+     * @param eventClass the concrete event class
+     * @return true if the event should be posted
+     */
+    public boolean shouldPost(Class<? extends LuckPermsEvent> eventClass) {
+        return !getDispatchList(eventClass).isEmpty();
+    }
 
+    /**
+     * Gets a summary of the time spent in handlers for each subscribed event type.
+     *
+     * @return the handler timings, keyed by event name
+     */
+    public Map<String, String> getHandlerTimings() {
+        Map<String, String> ret = new TreeMap<>();
         for (Map.Entry<Class<? extends LuckPermsEvent>, Set<LuckPermsEventHandler<?>>> ent : this.handlerMap.entrySet()) {
-            if (!ent.getKey().isAssignableFrom(event.getClass())) {
+            Set<LuckPermsEventHandler<?>> handlers = ent.getValue();
+            if (handlers.isEmpty()) {
                 continue;
             }
 
-            ent.getValue().forEach(h -> h.handle(event));
+            long calls = 0;
+            long totalTime = 0;
+            long maxTime = 0;
+            for (LuckPermsEventHandler<?> handler : handlers) {
+                calls += handler.getCallCount();
+                totalTime += handler.getTotalTime();
+                maxTime = Math.max(maxTime, handler.getMaxTime());
+            }
+
+            ret.put(ent.getKey().getSimpleName(), handlers.size() + " handlers, " + calls + " calls, " +
+                    TimeUnit.NANOSECONDS.toMillis(totalTime) + "ms total, " +
+                    TimeUnit.NANOSECONDS.toMillis(maxTime) + "ms max");
+        }
+        return ret;
+    }
+
+    public void fireEvent(LuckPermsEvent event) {
+        if (event instanceof AbstractEvent) {
+            ((AbstractEvent) event).setApi(this.apiProvider);
+        }
+
+        for (LuckPermsEventHandler<?> handler : getDispatchList(event.getClass())) {
+            handler.handle(event);
         }
     }
 
@@ -30,6 +30,8 @@ import me.lucko.luckperms.api.event.LuckPermsEvent;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
 import java.util.function.Consumer;
 
 import javax.annotation.Nonnull;
@@ -44,6 +46,10 @@ public class LuckPermsEventHandler<T extends LuckPermsEvent> implements EventHan
     private final AtomicBoolean active = new AtomicBoolean(true);
     private final AtomicInteger callCount = new AtomicInteger(0);
 
+    // timings, in nanoseconds
+    private final AtomicLong totalTime = new AtomicLong(0);
+    private final LongAccumulator maxTime = new LongAccumulator(Math::max, 0);
+
     public LuckPermsEventHandler(LuckPermsEventBus eventBus, Class<T> eventClass, Consumer<T> consumer) {
         this.eventBus = eventBus;
         this.eventClass = eventClass;
@@ -73,6 +79,7 @@ public class LuckPermsEventHandler<T extends LuckPermsEvent> implements EventHan
 
     @SuppressWarnings("unchecked") // we know that this method will never be called if the class doesn't match eventClass
     void handle(LuckPermsEvent event) {
+        long start = System.nanoTime();
         try {
             T t = (T) event;
             this.consumer.accept(t);
@@ -80,9 +87,31 @@ public class LuckPermsEventHandler<T extends LuckPermsEvent> implements EventHan
         } catch (Throwable t) {
             this.eventBus.getPlugin().getLog().warn("Unable to pass event " + event.getClass().getSimpleName() + " to handler " + this.consumer.getClass().getName());
             t.printStackTrace();
+        } finally {
+            long duration = System.nanoTime() - start;
+            this.totalTime.addAndGet(duration);
+            this.maxTime.accumulate(duration);
         }
     }
 
+    /**
+     * Gets the total time spent executing this handler, in nanoseconds.
+     *
+     * @return the total time
+     */
+    public long getTotalTime() {
+        return this.totalTime.get();
+    }
+
+    /**
+     * Gets the longest time taken by a single call to this handler, in nanoseconds.
+     *
+     * @return the max time
+     */
+    public long getMaxTime() {
+        return this.maxTime.get();
+    }
+
     @Nonnull
     @Override
     public Class<T> getEventClass() {
@@ -68,6 +68,8 @@ public enum Message {
     VERBOSE_LOG("&3VB &3&l> {}", true),
     EXPORT_LOG("&3EXPORT &3&l> &f{}", true),
     EXPORT_LOG_PROGRESS("&3EXPORT &3&l> &7{}", true),
+    IMPORT_LOG("&3IMPORT &3&l> &f{}", true),
+    IMPORT_LOG_PROGRESS("&3IMPORT &3&l> &7{}", true),
     MIGRATION_LOG("&3MIGRATION &7[&3{}&7] &3&l> &f{}", true),
     MIGRATION_LOG_PROGRESS("&3MIGRATION &7[&3{}&7] &3&l> &7{}", true),
 
@@ -28,10 +28,10 @@ package me.lucko.luckperms.common.managers;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import com.google.common.collect.ImmutableMap;
 
 import me.lucko.luckperms.common.references.Identifiable;
 
+import java.util.Collections;
 import java.util.Map;
 
 import javax.annotation.Nonnull;
@@ -59,7 +59,7 @@ public abstract class AbstractManager<I, T extends Identifiable<I>> implements M
 
     @Override
     public Map<I, T> getAll() {
-        return ImmutableMap.copyOf(this.objects.asMap());
+        return Collections.unmodifiableMap(this.objects.asMap());
     }
 
     @Override
@@ -28,8 +28,11 @@ package me.lucko.luckperms.common.managers;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 
+import java.util.List;
+
 public class GenericGroupManager extends AbstractManager<String, Group> implements GroupManager {
     private final LuckPermsPlugin plugin;
+    private final GroupIndex index = new GroupIndex(() -> getAll().values());
 
     public GenericGroupManager(LuckPermsPlugin plugin) {
         this.plugin = plugin;
@@ -37,7 +40,32 @@ public class GenericGroupManager extends AbstractManager<String, Group> implemen
 
     @Override
     public Group apply(String name) {
-        return new Group(name, this.plugin);
+        Group group = new Group(name, this.plugin);
+        this.index.track(group);
+        return group;
+    }
+
+    @Override
+    public Group getOrMake(String id) {
+        Group group = getIfLoaded(id);
+        if (group == null) {
+            group = super.getOrMake(id);
+            // invalidate once the group is in the map, so a concurrent rebuild can't miss it
+            this.index.invalidate();
+        }
+        return group;
+    }
+
+    @Override
+    public void unload(String id) {
+        super.unload(id);
+        this.index.invalidate();
+    }
+
+    @Override
+    public void unloadAll() {
+        super.unloadAll();
+        this.index.invalidate();
     }
 
     @Override
@@ -48,21 +76,13 @@ public class GenericGroupManager extends AbstractManager<String, Group> implemen
             return g;
         }
 
-        // then try exact display name matches
-        for (Group group : getAll().values()) {
-            if (group.getDisplayName().isPresent() && group.getDisplayName().get().equals(name)) {
-                return group;
-            }
-        }
-
-        // then try case insensitive name matches
-        for (Group group : getAll().values()) {
-            if (group.getDisplayName().isPresent() && group.getDisplayName().get().equalsIgnoreCase(name)) {
-                return group;
-            }
-        }
+        // then try display name matches
+        return this.index.getByDisplayName(name);
+    }
 
-        return null;
+    @Override
+    public List<Group> getByWeight() {
+        return this.index.getByWeight();
     }
 
     @Override
@@ -33,13 +33,14 @@ import me.lucko.luckperms.common.node.NodeFactory;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.references.UserIdentifier;
 
-import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 public class GenericUserManager extends AbstractManager<UserIdentifier, User> implements UserManager {
 
     private final LuckPermsPlugin plugin;
+    private final UsernameIndex<User> usernameIndex = new UsernameIndex<>(user -> getIfLoaded(user.getId()) == user);
 
     public GenericUserManager(LuckPermsPlugin plugin) {
         this.plugin = plugin;
@@ -51,9 +52,25 @@ public class GenericUserManager extends AbstractManager<UserIdentifier, User> im
         if (id.getUsername().isPresent()) {
             ret.setName(id.getUsername().get(), false);
         }
+        this.usernameIndex.add(ret);
         return ret;
     }
 
+    @Override
+    public void unload(UserIdentifier id) {
+        User user = id == null ? null : getIfLoaded(id);
+        super.unload(id);
+        if (user != null) {
+            this.usernameIndex.remove(user);
+        }
+    }
+
+    @Override
+    public void unloadAll() {
+        super.unloadAll();
+        this.usernameIndex.clear();
+    }
+
     @Override
     public User apply(UserIdentifier id) {
         return !id.getUsername().isPresent() ?
@@ -63,13 +80,14 @@ public class GenericUserManager extends AbstractManager<UserIdentifier, User> im
 
     @Override
     public User getByUsername(String name) {
-        for (User user : getAll().values()) {
-            Optional<String> n = user.getName();
-            if (n.isPresent() && n.get().equalsIgnoreCase(name)) {
-                return user;
-            }
+        return this.usernameIndex.get(name);
+    }
+
+    @Override
+    public void updateUsernameIndex(User user, String previousName) {
+        if (getIfLoaded(user.getId()) == user) {
+            this.usernameIndex.update(user, previousName);
         }
-        return null;
     }
 
     @Override
@@ -113,12 +131,12 @@ public class GenericUserManager extends AbstractManager<UserIdentifier, User> im
 
     @Override
     public CompletableFuture<Void> updateAllUsers() {
-        return CompletableFuture.runAsync(
+        return CompletableFuture.supplyAsync(
                 () -> this.plugin.getOnlinePlayers()
                         .map(u -> this.plugin.getUuidCache().getUUID(u))
-                        .forEach(u -> this.plugin.getStorage().loadUser(u, null).join()),
+                        .collect(Collectors.toSet()),
                 this.plugin.getScheduler().async()
-        );
+        ).thenCompose(uuids -> this.plugin.getStorage().loadUsers(uuids));
     }
 
     public static boolean giveDefaultIfNeeded(User user, boolean save, LuckPermsPlugin plugin) {
@@ -0,0 +1,137 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.managers;
+
+import com.google.common.collect.ImmutableList;
+
+import me.lucko.luckperms.common.model.Group;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Secondary indexes over the groups held by a {@link GroupManager}.
+ *
+ * <p>The indexes are rebuilt lazily, on the first lookup after a group is
+ * loaded, unloaded or changed.</p>
+ */
+public class GroupIndex {
+
+    /**
+     * Orders groups by weight (highest first), then by name
+     */
+    public static final Comparator<Group> WEIGHT_ORDER = (o1, o2) -> {
+        int i = Integer.compare(o2.getWeight().orElse(0), o1.getWeight().orElse(0));
+        return i != 0 ? i : o1.getName().compareToIgnoreCase(o2.getName());
+    };
+
+    private final Supplier<Collection<? extends Group>> groups;
+
+    // incremented each time the indexes are invalidated
+    private final AtomicInteger version = new AtomicInteger(0);
+    private volatile Data data = null;
+
+    public GroupIndex(Supplier<Collection<? extends Group>> groups) {
+        this.groups = groups;
+    }
+
+    /**
+     * Registers a newly created group with the index, so that changes to its
+     * data invalidate the index.
+     *
+     * <p>The index is not invalidated here, as the group is not yet held by
+     * the manager. Managers should call {@link #invalidate()} once the group
+     * has been inserted.</p>
+     *
+     * @param group the group
+     */
+    public void track(Group group) {
+        group.getStateListeners().add(this::invalidate);
+    }
+
+    public void invalidate() {
+        this.version.incrementAndGet();
+        this.data = null;
+    }
+
+    public Group getByDisplayName(String name) {
+        Data data = getData();
+
+        // try exact display name matches, then case insensitive matches
+        Group group = data.displayNames.get(name);
+        if (group == null) {
+            group = data.displayNamesLower.get(name.toLowerCase());
+        }
+        return group;
+    }
+
+    public List<Group> getByWeight() {
+        return getData().byWeight;
+    }
+
+    private Data getData() {
+        Data data = this.data;
+        if (data != null) {
+            return data;
+        }
+
+        int version = this.version.get();
+        data = new Data(this.groups.get());
+
+        // only publish if nothing changed whilst building
+        if (this.version.get() == version) {
+            this.data = data;
+        }
+        return data;
+    }
+
+    private static final class Data {
+        private final Map<String, Group> displayNames = new HashMap<>();
+        private final Map<String, Group> displayNamesLower = new HashMap<>();
+        private final List<Group> byWeight;
+
+        private Data(Collection<? extends Group> groups) {
+            List<Group> sorted = new ArrayList<>(groups);
+            sorted.sort(WEIGHT_ORDER);
+            this.byWeight = ImmutableList.copyOf(sorted);
+
+            for (Group group : sorted) {
+                Optional<String> displayName = group.getDisplayName();
+                if (displayName.isPresent()) {
+                    this.displayNames.putIfAbsent(displayName.get(), group);
+                    this.displayNamesLower.putIfAbsent(displayName.get().toLowerCase(), group);
+                }
+            }
+        }
+    }
+}
@@ -27,6 +27,8 @@ package me.lucko.luckperms.common.managers;
 
 import me.lucko.luckperms.common.model.Group;
 
+import java.util.List;
+
 public interface GroupManager extends Manager<String, Group> {
 
     /**
@@ -37,4 +39,11 @@ public interface GroupManager extends Manager<String, Group> {
      */
     Group getByDisplayName(String name);
 
+    /**
+     * Gets the loaded groups, ordered by weight (highest first) then by name
+     *
+     * @return the groups ordered by weight
+     */
+    List<Group> getByWeight();
+
 }
@@ -39,7 +39,10 @@ import java.util.function.Function;
 public interface Manager<I, T extends Identifiable<I>> extends Function<I, T> {
 
     /**
-     * Gets a map containing all cached instances held by this manager.
+     * Gets an unmodifiable view of all cached instances held by this manager.
+     *
+     * <p>The view is backed by the manager, and iteration over it is weakly
+     * consistent. Callers which need a stable snapshot should copy it.</p>
      *
      * @return all instances held in this manager
      */
@@ -50,6 +50,14 @@ public interface UserManager extends Manager<UserIdentifier, User> {
      */
     User getIfLoaded(UUID uuid);
 
+    /**
+     * Updates the username index after the name of a user has changed
+     *
+     * @param user the user
+     * @param previousName the previous name of the user, or null
+     */
+    void updateUsernameIndex(User user, String previousName);
+
     /**
      * Gives the user the default group if necessary.
      *
@@ -0,0 +1,84 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.managers;
+
+import me.lucko.luckperms.common.model.User;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * A case insensitive index of loaded users by username.
+ *
+ * <p>Entries are validated when read, so a stale mapping (left behind by a
+ * concurrent rename or unload) is never returned.</p>
+ *
+ * @param <T> the user type
+ */
+public class UsernameIndex<T extends User> {
+    private final Map<String, T> users = new ConcurrentHashMap<>();
+    private final Predicate<T> loadedTest;
+
+    public UsernameIndex(Predicate<T> loadedTest) {
+        this.loadedTest = loadedTest;
+    }
+
+    public T get(String name) {
+        String key = name.toLowerCase();
+        T user = this.users.get(key);
+        if (user == null) {
+            return null;
+        }
+
+        Optional<String> n = user.getName();
+        if (!n.isPresent() || !n.get().equalsIgnoreCase(name) || !this.loadedTest.test(user)) {
+            this.users.remove(key, user);
+            return null;
+        }
+        return user;
+    }
+
+    public void add(T user) {
+        user.getName().ifPresent(n -> this.users.put(n.toLowerCase(), user));
+    }
+
+    public void update(T user, String previousName) {
+        if (previousName != null) {
+            this.users.remove(previousName.toLowerCase(), user);
+        }
+        add(user);
+    }
+
+    public void remove(T user) {
+        user.getName().ifPresent(n -> this.users.remove(n.toLowerCase(), user));
+    }
+
+    public void clear() {
+        this.users.clear();
+    }
+}
@@ -177,7 +177,7 @@ public abstract class AbstractMessagingService implements ExtendedMessagingServi
 
     @Override
     public void pushUpdate() {
-        this.plugin.getScheduler().doAsync(() -> {
+        this.plugin.getScheduler().messaging().execute(() -> {
             UUID requestId = generatePingId();
             String strId = uuidToString(requestId);
 
@@ -188,7 +188,7 @@ public abstract class AbstractMessagingService implements ExtendedMessagingServi
 
     @Override
     public void pushUserUpdate(User user) {
-        this.plugin.getScheduler().doAsync(() -> {
+        this.plugin.getScheduler().messaging().execute(() -> {
             UUID requestId = generatePingId();
             String strId = uuidToString(requestId);
 
@@ -199,7 +199,7 @@ public abstract class AbstractMessagingService implements ExtendedMessagingServi
 
     @Override
     public void pushLog(LogEntry logEntry) {
-        this.plugin.getScheduler().doAsync(() -> {
+        this.plugin.getScheduler().messaging().execute(() -> {
             UUID requestId = generatePingId();
             String strId = uuidToString(requestId);
 
@@ -258,7 +258,7 @@ public abstract class AbstractMessagingService implements ExtendedMessagingServi
 
     private final class PushUpdateBuffer extends BufferedRequest<Void> {
         public PushUpdateBuffer(LuckPermsPlugin plugin) {
-            super(2000L, 200L, plugin.getScheduler().async());
+            super(2000L, 200L, plugin.getScheduler().messaging());
         }
 
         @Override
@@ -56,7 +56,7 @@ public class RedisMessagingService extends AbstractMessagingService {
             this.jedisPool = new JedisPool(new JedisPoolConfig(), host, port, 0, password);
         }
 
-        this.plugin.getScheduler().doAsync(() -> {
+        this.plugin.getScheduler().background().execute(() -> {
             this.sub = new LPSub(this);
             try (Jedis jedis = this.jedisPool.getResource()) {
                 jedis.subscribe(this.sub, CHANNEL);
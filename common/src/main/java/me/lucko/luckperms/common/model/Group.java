@@ -55,6 +55,11 @@ public class Group extends PermissionHolder implements Identifiable<String> {
 
     private final BufferedRequest<Void> refreshBuffer;
 
+    /**
+     * The version of this group's data in storage, or 0 if unknown
+     */
+    private volatile long version = 0L;
+
     public Group(String name, LuckPermsPlugin plugin) {
         super(name, plugin);
         this.name = name.toLowerCase();
@@ -71,6 +76,14 @@ public class Group extends PermissionHolder implements Identifiable<String> {
         return this.name;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     @Override
     public ApiGroup getDelegate() {
         return this.delegate;
@@ -248,6 +248,43 @@ public abstract class PermissionHolder {
 
         // Declare new state to the state manager
         declareState();
+
+        // Reschedule the next expiry check
+        this.plugin.getExpiryQueue().markChanged(this);
+    }
+
+    /**
+     * Calculates the time when the next temporary node held by this object expires.
+     *
+     * @return the unix time (in seconds) of the next expiry, or {@link Long#MAX_VALUE}
+     *         if no temporary nodes are held
+     */
+    public long calculateNextExpiry() {
+        long next = Long.MAX_VALUE;
+
+        this.nodesLock.lock();
+        try {
+            for (Node node : this.nodes.values()) {
+                if (node.isTemporary()) {
+                    next = Math.min(next, node.getExpiryUnixTime());
+                }
+            }
+        } finally {
+            this.nodesLock.unlock();
+        }
+
+        this.transientNodesLock.lock();
+        try {
+            for (Node node : this.transientNodes.values()) {
+                if (node.isTemporary()) {
+                    next = Math.min(next, node.getExpiryUnixTime());
+                }
+            }
+        } finally {
+            this.transientNodesLock.unlock();
+        }
+
+        return next;
     }
 
     protected void declareState() {
@@ -547,6 +584,37 @@ public abstract class PermissionHolder {
         return result;
     }
 
+    /**
+     * Removes the transient nodes matching the predicate, and adds the given nodes,
+     * as a single change to the holder.
+     *
+     * <p>Caches are only invalidated once, regardless of how many nodes were
+     * removed or added.</p>
+     *
+     * @param predicate the predicate to select which transient nodes to remove
+     * @param nodes the nodes to add
+     * @return true if any nodes were removed or added
+     */
+    public boolean replaceTransientNodes(Predicate<Node> predicate, Collection<? extends Node> nodes) {
+        boolean result;
+
+        this.transientNodesLock.lock();
+        try {
+            result = this.transientNodes.values().removeIf(predicate);
+            for (Node node : nodes) {
+                result |= this.transientNodes.put(node.getFullContexts().makeImmutable(), node);
+            }
+        } finally {
+            this.transientNodesLock.unlock();
+        }
+
+        if (result) {
+            invalidateCache();
+        }
+
+        return result;
+    }
+
     /**
      * Resolves inherited nodes and returns them
      *
@@ -608,6 +676,52 @@ public abstract class PermissionHolder {
         return resolveInheritances(null, null, context);
     }
 
+    /**
+     * Resolves the groups this holder inherits from in the given contexts.
+     *
+     * <p>Groups are resolved using the same rules and ordering as
+     * {@link #resolveInheritances(List, Set, Contexts)}, but without collecting
+     * the nodes held by each group.</p>
+     *
+     * @param context the contexts to resolve in
+     * @return the inherited groups, in the order they were resolved
+     */
+    public Set<Group> resolveInheritedGroups(Contexts context) {
+        Set<Group> accumulator = new LinkedHashSet<>();
+        resolveInheritedGroups(accumulator, context);
+        return accumulator;
+    }
+
+    protected void resolveInheritedGroups(Set<Group> accumulator, Contexts context) {
+        List<Group> resolvedGroups = new ArrayList<>();
+        Set<String> processedGroups = new HashSet<>();
+
+        for (Node n : filterNodes(context.getContexts())) {
+            if (!n.isGroupNode()) continue;
+            String groupName = n.getGroupName();
+
+            if (!processedGroups.add(groupName) || groupName.equalsIgnoreCase(getObjectName()) || !n.getValuePrimitive()) continue;
+
+            if (!((context.isApplyGlobalGroups() || n.isServerSpecific()) && (context.isApplyGlobalWorldGroups() || n.isWorldSpecific()))) {
+                continue;
+            }
+
+            Group g = this.plugin.getGroupManager().getIfLoaded(groupName);
+            if (g != null) {
+                resolvedGroups.add(g);
+            }
+        }
+
+        // sort the groups according to weight + other factors.
+        resolvedGroups.sort(this.inheritanceComparator);
+
+        for (Group g : resolvedGroups) {
+            if (accumulator.add(g)) {
+                g.resolveInheritedGroups(accumulator, context);
+            }
+        }
+    }
+
     public SortedSet<LocalizedNode> resolveInheritancesAlmostEqual(Contexts contexts) {
         List<LocalizedNode> nodes = resolveInheritances(new LinkedList<>(), null, contexts);
         NodeTools.removeAlmostEqual(nodes.iterator());
@@ -56,6 +56,11 @@ public final class Track implements Identifiable<String> {
 
     private final ApiTrack delegate = new ApiTrack(this);
 
+    /**
+     * The version of this track's data in storage, or 0 if unknown
+     */
+    private volatile long version = 0L;
+
     public Track(String name, LuckPermsPlugin plugin) {
         this.name = name;
         this.plugin = plugin;
@@ -69,6 +74,14 @@ public final class Track implements Identifiable<String> {
         return this.ioLock;
     }
 
+    public long getVersion() {
+        return this.version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public ApiTrack getDelegate() {
         return this.delegate;
     }
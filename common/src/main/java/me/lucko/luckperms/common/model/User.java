@@ -65,6 +65,11 @@ public class User extends PermissionHolder implements Identifiable<UserIdentifie
 
     private final BufferedRequest<Void> refreshBuffer;
 
+    /**
+     * If the users data was loaded from a local snapshot, and shouldn't be saved
+     */
+    private volatile boolean degraded = false;
+
     private final ApiUser delegate = new ApiUser(this);
 
     public User(UUID uuid, LuckPermsPlugin plugin) {
@@ -118,6 +123,22 @@ public class User extends PermissionHolder implements Identifiable<UserIdentifie
         return UserIdentifier.of(this.uuid, this.name);
     }
 
+    /**
+     * Gets if this users data was loaded from a local snapshot while the storage
+     * backend was unavailable.
+     *
+     * <p>Degraded users are read-only until their data has been loaded from storage.</p>
+     *
+     * @return true if the user is degraded
+     */
+    public boolean isDegraded() {
+        return this.degraded;
+    }
+
+    public void setDegraded(boolean degraded) {
+        this.degraded = degraded;
+    }
+
     public Optional<String> getName() {
         return Optional.ofNullable(this.name);
     }
@@ -130,6 +151,17 @@ public class User extends PermissionHolder implements Identifiable<UserIdentifie
      * @return true if a change was made
      */
     public boolean setName(String name, boolean weak) {
+        String previous = this.name;
+        boolean ret = setNameInternal(name, weak);
+
+        // keep the username index in the user manager up to date
+        if (previous != this.name && getPlugin().getUserManager() != null) {
+            getPlugin().getUserManager().updateUsernameIndex(this, previous);
+        }
+        return ret;
+    }
+
+    private boolean setNameInternal(String name, boolean weak) {
         if (name != null && name.length() > 16) {
             return false; // nope
         }
@@ -195,9 +227,13 @@ public class User extends PermissionHolder implements Identifiable<UserIdentifie
         this.refreshBuffer.requestDirectly();
 
         // pre-calc the allowall & global contexts
-        // since contexts change so frequently, it's not worth trying to calculate any more than this.
         this.cachedData.preCalculate(Contexts.allowAll());
         this.cachedData.preCalculate(Contexts.global());
+
+        // pre-calc the contexts the user is likely to be in once they've joined
+        for (Contexts contexts : getPlugin().getContextManager().getUsageTracker().getLoginContexts(getUuid())) {
+            this.cachedData.preCalculate(contexts);
+        }
     }
 
     public CompletableFuture<Void> reloadCachedData() {
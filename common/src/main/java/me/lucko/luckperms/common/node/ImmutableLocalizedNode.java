@@ -25,6 +25,9 @@
 
 package me.lucko.luckperms.common.node;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import me.lucko.luckperms.api.LocalizedNode;
 import me.lucko.luckperms.api.Node;
 import me.lucko.luckperms.api.Tristate;
@@ -42,10 +45,18 @@ import javax.annotation.Nonnull;
  * Holds a Node and where it was inherited from. All calls are passed onto the contained Node instance.
  */
 public final class ImmutableLocalizedNode implements LocalizedNode {
+
+    // interned instances, for nodes which are themselves interned
+    private static final Cache<Key, ImmutableLocalizedNode> CACHE = Caffeine.newBuilder().weakValues().build();
+
     public static ImmutableLocalizedNode of(Node node, String location) {
         Objects.requireNonNull(node, "node");
         Objects.requireNonNull(location, "location");
-        return new ImmutableLocalizedNode(node, location);
+
+        if (!(node instanceof ImmutableNode)) {
+            return new ImmutableLocalizedNode(node, location);
+        }
+        return CACHE.get(new Key(node, location), k -> new ImmutableLocalizedNode(node, location));
     }
 
     private final Node node;
@@ -280,4 +291,28 @@ public final class ImmutableLocalizedNode implements LocalizedNode {
     public String toString() {
         return "ImmutableLocalizedNode(node=" + this.getNode() + ", location=" + this.getLocation() + ")";
     }
+
+    private static final class Key {
+        private final Node node;
+        private final String location;
+
+        private Key(Node node, String location) {
+            this.node = node;
+            this.location = location;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) return true;
+            if (!(o instanceof Key)) return false;
+            final Key other = (Key) o;
+            // interned nodes can be compared by identity
+            return this.node == other.node && this.location.equals(other.location);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(this.node) + this.location.hashCode();
+        }
+    }
 }
@@ -26,6 +26,8 @@
 package me.lucko.luckperms.common.node;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 
 import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.api.Node;
@@ -55,11 +57,27 @@ public final class ImmutableNode implements Node {
     public static final char NODE_SEPARATOR = '.';
     public static final int NODE_SEPARATOR_CODE = Character.getNumericValue('.');
 
+    /**
+     * Pool of node instances, so identical nodes held by many holders (e.g. group.default)
+     * share a single instance and its cached state. Entries are weakly referenced.
+     */
+    private static final Interner<ImmutableNode> INTERNER = Interners.newWeakInterner();
+
+    /**
+     * Returns the canonical instance equal to the given node
+     *
+     * @param node the node
+     * @return the interned node
+     */
+    static ImmutableNode intern(ImmutableNode node) {
+        return INTERNER.intern(node);
+    }
+
     private final String permission;
 
     private final boolean value;
 
-    private boolean override;
+    private final boolean override;
 
     // nullable
     private final String server;
@@ -0,0 +1,288 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.plugin;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.Nonnull;
+
+/**
+ * A {@link ThreadPoolExecutor} which records queue wait and execution times for
+ * the tasks it runs.
+ *
+ * <p>When the executor is saturated, tasks are held in a bounded overflow
+ * queue, and are moved into the work queue as the pool catches up. Once the
+ * overflow queue is full, tasks are rejected with a {@link RejectedExecutionException}.
+ * Tasks are never ran by the submitting thread, which may be the server thread.</p>
+ *
+ * <p>Executors created using {@link #perTask(String, int, int, ThreadFactory)}
+ * start a new thread for each task, and limit the number of tasks running at
+ * once using a {@link Semaphore}. This is intended for use with virtual threads,
+ * which are cheap to create and to block.</p>
+ */
+public class InstrumentedExecutor extends ThreadPoolExecutor {
+
+    /**
+     * Creates a new thread factory producing daemon threads with the given name format
+     *
+     * @param nameFormat the name format, see {@link ThreadFactoryBuilder#setNameFormat(String)}
+     * @return a new thread factory
+     */
+    public static ThreadFactory daemonThreadFactory(String nameFormat) {
+        return new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build();
+    }
+
+    /**
+     * Creates a new executor which runs each task in a new thread obtained from the given factory
+     *
+     * @param name the name of the executor
+     * @param concurrency the maximum number of tasks to run at once
+     * @param maxPending the maximum number of tasks which can be waiting or running at once
+     * @param threadFactory the thread factory, usually producing virtual threads
+     * @return a new executor
+     */
+    public static InstrumentedExecutor perTask(String name, int concurrency, int maxPending, ThreadFactory threadFactory) {
+        return new InstrumentedExecutor(name, threadFactory, new Semaphore(concurrency), maxPending);
+    }
+
+    private final String name;
+
+    // the maximum number of tasks which can be held in the overflow queue, or pending in per-task mode
+    private final int maxOverflow;
+
+    // limits the number of tasks running at once in per-task mode, otherwise null
+    private final Semaphore permits;
+
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    // tasks which couldn't be queued because the work queue was full
+    private final ConcurrentLinkedDeque<Runnable> overflow = new ConcurrentLinkedDeque<>();
+
+    // the number of tasks in the overflow queue, or the number of tasks pending in per-task mode
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    public InstrumentedExecutor(String name, int coreThreads, int maxThreads, BlockingQueue<Runnable> queue, int maxOverflow, ThreadFactory threadFactory) {
+        super(coreThreads, maxThreads, 60L, TimeUnit.SECONDS, queue, threadFactory);
+        this.name = name;
+        this.maxOverflow = maxOverflow;
+        this.permits = null;
+        setRejectedExecutionHandler(new OverflowHandler());
+    }
+
+    private InstrumentedExecutor(String name, ThreadFactory threadFactory, Semaphore permits, int maxPending) {
+        super(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threadFactory);
+        this.name = name;
+        this.maxOverflow = maxPending;
+        this.permits = permits;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void execute(@Nonnull Runnable command) {
+        if (this.permits == null) {
+            super.execute(new TimedTask(command, System.nanoTime()));
+            return;
+        }
+
+        if (!tryReserve()) {
+            throw saturated();
+        }
+        try {
+            super.execute(new TimedTask(command, System.nanoTime()));
+        } catch (RejectedExecutionException e) {
+            this.overflowSize.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean tryReserve() {
+        if (this.overflowSize.incrementAndGet() > this.maxOverflow) {
+            this.overflowSize.decrementAndGet();
+            this.rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private RejectedExecutionException saturated() {
+        return new RejectedExecutionException("Executor " + this.name + " is saturated");
+    }
+
+    /**
+     * Gets the number of tasks which have finished executing
+     *
+     * @return the number of completed tasks
+     */
+    public long getCompleted() {
+        return this.completed.sum();
+    }
+
+    /**
+     * Gets the number of tasks which were held in the overflow queue due to the executor being saturated
+     *
+     * @return the number of overflowed tasks
+     */
+    public long getOverflowed() {
+        return this.overflowed.sum();
+    }
+
+    /**
+     * Gets the number of tasks which were rejected due to the executor being saturated
+     *
+     * @return the number of rejected tasks
+     */
+    public long getRejected() {
+        return this.rejected.sum();
+    }
+
+    @Override
+    protected void afterExecute(Runnable r, Throwable t) {
+        // there may now be space in the work queue
+        drainOverflow();
+    }
+
+    private void drainOverflow() {
+        Runnable next;
+        while ((next = this.overflow.pollFirst()) != null) {
+            if (!getQueue().offer(next)) {
+                this.overflow.offerFirst(next);
+                break;
+            }
+            this.overflowSize.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the average time tasks spent waiting in the queue, in milliseconds
+     *
+     * @return the average queue wait time
+     */
+    public double getAverageWaitMillis() {
+        return average(this.waitNanos.sum());
+    }
+
+    /**
+     * Gets the average time tasks spent executing, in milliseconds
+     *
+     * @return the average execution time
+     */
+    public double getAverageRunMillis() {
+        return average(this.runNanos.sum());
+    }
+
+    private double average(long totalNanos) {
+        long count = this.completed.sum();
+        return count == 0 ? 0 : (totalNanos / (double) count) / 1_000_000d;
+    }
+
+    /**
+     * Gets a short summary of the executors current state
+     *
+     * @return a summary of the executors metrics
+     */
+    public String getStats() {
+        return String.format("queued=%d, overflow=%d, active=%d, completed=%d, overflowed=%d, rejected=%d, avg-wait=%.2fms, avg-run=%.2fms",
+                getQueue().size(),
+                this.overflowSize.get(),
+                getActiveCount(),
+                getCompleted(),
+                getOverflowed(),
+                getRejected(),
+                getAverageWaitMillis(),
+                getAverageRunMillis()
+        );
+    }
+
+    private final class TimedTask implements Runnable {
+        private final Runnable delegate;
+        private final long submitTime;
+
+        private TimedTask(Runnable delegate, long submitTime) {
+            this.delegate = delegate;
+            this.submitTime = submitTime;
+        }
+
+        @Override
+        public void run() {
+            Semaphore permits = InstrumentedExecutor.this.permits;
+            if (permits != null) {
+                permits.acquireUninterruptibly();
+            }
+
+            long start = System.nanoTime();
+            InstrumentedExecutor.this.waitNanos.add(start - this.submitTime);
+            try {
+                this.delegate.run();
+            } finally {
+                InstrumentedExecutor.this.runNanos.add(System.nanoTime() - start);
+                InstrumentedExecutor.this.completed.increment();
+                if (permits != null) {
+                    permits.release();
+                    InstrumentedExecutor.this.overflowSize.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private final class OverflowHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Executor " + InstrumentedExecutor.this.name + " has been shutdown");
+            }
+            if (!tryReserve()) {
+                throw saturated();
+            }
+            InstrumentedExecutor.this.overflowed.increment();
+            InstrumentedExecutor.this.overflow.offerLast(r);
+
+            // the pool may have caught up since the task was rejected
+            drainOverflow();
+            if (getPoolSize() == 0) {
+                prestartCoreThread();
+            }
+        }
+    }
+}
@@ -49,6 +49,7 @@ import me.lucko.luckperms.common.messaging.ExtendedMessagingService;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.storage.Storage;
 import me.lucko.luckperms.common.storage.dao.file.FileWatcher;
+import me.lucko.luckperms.common.tasks.ExpiryQueue;
 import me.lucko.luckperms.common.treeview.PermissionVault;
 import me.lucko.luckperms.common.utils.UuidCache;
 import me.lucko.luckperms.common.verbose.VerboseHandler;
@@ -176,6 +177,13 @@ public interface LuckPermsPlugin {
      */
     CachedStateManager getCachedStateManager();
 
+    /**
+     * Gets the queue of holders with temporary nodes due to expire.
+     *
+     * @return the expiry queue
+     */
+    ExpiryQueue getExpiryQueue();
+
     /**
      * Gets the class responsible for constructing PermissionCalculators on this platform.
      *
@@ -0,0 +1,152 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.plugin;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Queues cache recalculation tasks, and runs them in batches on an executor.
+ *
+ * <p>Rather than submitting a task to the executor for each recalculation,
+ * a small number of "drainers" each run up to {@link #BATCH_SIZE} queued tasks
+ * before handing the thread back to the executor.</p>
+ *
+ * <p>Priority tasks (for example recalculations for online players) are always
+ * ran before other queued tasks.</p>
+ */
+public class RecalculationQueue {
+
+    /**
+     * The maximum number of tasks ran by each drainer before it is rescheduled
+     */
+    private static final int BATCH_SIZE = 32;
+
+    private final Executor executor;
+    private final IntSupplier maxDrainers;
+
+    private final Queue<Runnable> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+
+    // the number of tasks in the two queues
+    private final AtomicInteger queued = new AtomicInteger(0);
+
+    // the number of drainers currently scheduled or running
+    private final AtomicInteger drainers = new AtomicInteger(0);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public RecalculationQueue(Executor executor, IntSupplier maxDrainers) {
+        this.executor = executor;
+        this.maxDrainers = maxDrainers;
+    }
+
+    /**
+     * Submits a recalculation task to the queue
+     *
+     * @param task the task
+     * @param priority if the task should be ran before non-priority tasks
+     */
+    public void submit(Runnable task, boolean priority) {
+        (priority ? this.priorityQueue : this.queue).offer(task);
+        this.queued.incrementAndGet();
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        while (true) {
+            int current = this.drainers.get();
+
+            // the existing drainers will get around to the queued tasks
+            if (current >= this.maxDrainers.getAsInt() || (current != 0 && current * BATCH_SIZE >= this.queued.get())) {
+                return;
+            }
+
+            if (this.drainers.compareAndSet(current, current + 1)) {
+                this.executor.execute(new Drainer());
+                return;
+            }
+        }
+    }
+
+    private Runnable poll() {
+        Runnable task = this.priorityQueue.poll();
+        if (task == null) {
+            task = this.queue.poll();
+        }
+        if (task != null) {
+            this.queued.decrementAndGet();
+        }
+        return task;
+    }
+
+    /**
+     * Gets a short summary of the queues current state
+     *
+     * @return a summary of the queues metrics
+     */
+    public String getStats() {
+        long completed = this.completed.sum();
+        double averageRun = completed == 0 ? 0 : (this.runNanos.sum() / (double) completed) / 1_000_000d;
+        return String.format("queued=%d, drainers=%d, completed=%d, avg-run=%.2fms", this.queued.get(), this.drainers.get(), completed, averageRun);
+    }
+
+    private final class Drainer implements Runnable {
+        @Override
+        public void run() {
+            Runnable task;
+            for (int i = 0; i < BATCH_SIZE && (task = poll()) != null; i++) {
+                long start = System.nanoTime();
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                } finally {
+                    RecalculationQueue.this.runNanos.add(System.nanoTime() - start);
+                    RecalculationQueue.this.completed.increment();
+                }
+            }
+
+            // continue in a new task, so other work on the executor gets a turn
+            if (RecalculationQueue.this.queued.get() > 0) {
+                RecalculationQueue.this.executor.execute(this);
+                return;
+            }
+
+            RecalculationQueue.this.drainers.decrementAndGet();
+
+            // tasks may have been submitted since the check above
+            if (RecalculationQueue.this.queued.get() > 0) {
+                scheduleDrain();
+            }
+        }
+    }
+}
@@ -25,6 +25,7 @@
 
 package me.lucko.luckperms.common.plugin;
 
+import java.util.Map;
 import java.util.concurrent.Executor;
 
 /**
@@ -46,6 +47,57 @@ public interface SchedulerAdapter {
      */
     Executor sync();
 
+    /**
+     * Gets the executor used for storage I/O
+     *
+     * @return the storage executor
+     */
+    Executor storage();
+
+    /**
+     * Gets the executor used for cache calculations
+     *
+     * @return the calculation executor
+     */
+    Executor calculation();
+
+    /**
+     * Gets the executor used to send and receive messaging service updates
+     *
+     * @return the messaging executor
+     */
+    Executor messaging();
+
+    /**
+     * Gets the executor used for long running background loops.
+     *
+     * <p>Tasks submitted to this executor are each given their own thread.</p>
+     *
+     * @return the background executor
+     */
+    Executor background();
+
+    /**
+     * Gets the queue used to batch cache recalculations onto the {@link #calculation()} executor
+     *
+     * @return the recalculation queue
+     */
+    RecalculationQueue recalculationQueue();
+
+    /**
+     * Sets the number of threads used by the {@link #calculation()} executor
+     *
+     * @param threads the number of threads, or a value less than 1 to use the default
+     */
+    void setCalculationThreads(int threads);
+
+    /**
+     * Gets a summary of the metrics for each of the workload executors
+     *
+     * @return the executor stats, keyed by executor name
+     */
+    Map<String, String> getExecutorStats();
+
     /**
      * Executes a runnable async
      *
@@ -0,0 +1,184 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.plugin;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the dedicated executors used for each kind of plugin workload.
+ *
+ * <p>Keeping the workloads separate means slow storage I/O can't starve cache
+ * calculations or messaging, and vice versa.</p>
+ */
+public final class WorkloadExecutors {
+
+    /**
+     * System property which, when set to true, makes the storage executor run each
+     * task in a new virtual thread if the running JVM supports them
+     */
+    public static final String VIRTUAL_STORAGE_THREADS_PROPERTY = "luckperms.storage.virtual-threads";
+
+    private static final int STORAGE_THREADS = 8;
+    private static final int VIRTUAL_STORAGE_CONCURRENCY = 32;
+    private static final int STORAGE_QUEUE_SIZE = 4096;
+    private static final int STORAGE_OVERFLOW_SIZE = 16384;
+    private static final int CALCULATION_QUEUE_SIZE = 4096;
+    private static final int CALCULATION_OVERFLOW_SIZE = 65536;
+    private static final int MESSAGING_THREADS = 2;
+    private static final int MESSAGING_QUEUE_SIZE = 1024;
+    private static final int MESSAGING_OVERFLOW_SIZE = 8192;
+
+    private final InstrumentedExecutor storage;
+    private final InstrumentedExecutor calculation;
+    private final InstrumentedExecutor messaging;
+    private final InstrumentedExecutor background;
+    private final RecalculationQueue recalculationQueue;
+
+    public WorkloadExecutors() {
+        ThreadFactory virtualThreadFactory = null;
+        if (Boolean.getBoolean(VIRTUAL_STORAGE_THREADS_PROPERTY)) {
+            virtualThreadFactory = virtualThreadFactory("luckperms-storage-");
+        }
+
+        if (virtualThreadFactory != null) {
+            this.storage = InstrumentedExecutor.perTask("storage", VIRTUAL_STORAGE_CONCURRENCY, STORAGE_QUEUE_SIZE + STORAGE_OVERFLOW_SIZE, virtualThreadFactory);
+        } else {
+            this.storage = new InstrumentedExecutor("storage", STORAGE_THREADS, STORAGE_THREADS, new ArrayBlockingQueue<>(STORAGE_QUEUE_SIZE), STORAGE_OVERFLOW_SIZE, InstrumentedExecutor.daemonThreadFactory("luckperms-storage-%d"));
+            this.storage.allowCoreThreadTimeOut(true);
+        }
+
+        int calculationThreads = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+        this.calculation = new InstrumentedExecutor("calculation", calculationThreads, calculationThreads, new ArrayBlockingQueue<>(CALCULATION_QUEUE_SIZE), CALCULATION_OVERFLOW_SIZE, InstrumentedExecutor.daemonThreadFactory("luckperms-calculation-%d"));
+        this.messaging = new InstrumentedExecutor("messaging", MESSAGING_THREADS, MESSAGING_THREADS, new ArrayBlockingQueue<>(MESSAGING_QUEUE_SIZE), MESSAGING_OVERFLOW_SIZE, InstrumentedExecutor.daemonThreadFactory("luckperms-messaging-%d"));
+
+        // tasks submitted here loop until the plugin disables, so each one needs its own thread
+        this.background = new InstrumentedExecutor("background", 0, Integer.MAX_VALUE, new SynchronousQueue<>(), Integer.MAX_VALUE, InstrumentedExecutor.daemonThreadFactory("luckperms-background-%d"));
+
+        this.recalculationQueue = new RecalculationQueue(this.calculation, this.calculation::getMaximumPoolSize);
+
+        // allow idle threads to be reclaimed
+        this.calculation.allowCoreThreadTimeOut(true);
+        this.messaging.allowCoreThreadTimeOut(true);
+    }
+
+    public InstrumentedExecutor storage() {
+        return this.storage;
+    }
+
+    public InstrumentedExecutor calculation() {
+        return this.calculation;
+    }
+
+    public InstrumentedExecutor messaging() {
+        return this.messaging;
+    }
+
+    public InstrumentedExecutor background() {
+        return this.background;
+    }
+
+    public RecalculationQueue recalculationQueue() {
+        return this.recalculationQueue;
+    }
+
+    /**
+     * Sets the number of threads used for cache calculations
+     *
+     * @param threads the number of threads, or a value less than 1 to leave the default
+     */
+    public void setCalculationThreads(int threads) {
+        if (threads < 1) {
+            return;
+        }
+
+        // the maximum size must never be smaller than the core size
+        if (threads > this.calculation.getMaximumPoolSize()) {
+            this.calculation.setMaximumPoolSize(threads);
+            this.calculation.setCorePoolSize(threads);
+        } else {
+            this.calculation.setCorePoolSize(threads);
+            this.calculation.setMaximumPoolSize(threads);
+        }
+    }
+
+    /**
+     * Gets a summary of the metrics for each executor
+     *
+     * @return the executor stats, keyed by executor name
+     */
+    public Map<String, String> getStats() {
+        Map<String, String> stats = new LinkedHashMap<>();
+        for (InstrumentedExecutor executor : new InstrumentedExecutor[]{this.storage, this.calculation, this.messaging, this.background}) {
+            stats.put(executor.getName(), executor.getStats());
+        }
+        stats.put("recalculation", this.recalculationQueue.getStats());
+        return ImmutableMap.copyOf(stats);
+    }
+
+    /**
+     * Shuts down the executors, waiting for queued storage and messaging tasks to complete.
+     */
+    public void shutdown() {
+        this.background.shutdownNow();
+        this.calculation.shutdown();
+        this.messaging.shutdown();
+        this.storage.shutdown();
+
+        try {
+            this.messaging.awaitTermination(10, TimeUnit.SECONDS);
+            this.storage.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Attempts to obtain a virtual thread factory, returning null if the JVM doesn't support them.
+     *
+     * <p>Reflection is used as the plugin still targets Java 8.</p>
+     *
+     * @param namePrefix the prefix for thread names
+     * @return a virtual thread factory, or null
+     */
+    private static ThreadFactory virtualThreadFactory(String namePrefix) {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+}
@@ -29,10 +29,6 @@ import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.User;
 
-import java.util.AbstractList;
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.List;
 import java.util.Set;
 
 public class AllParentsByWeightHolder extends CachedPrimaryGroupHolder {
@@ -41,23 +37,8 @@ public class AllParentsByWeightHolder extends CachedPrimaryGroupHolder {
     }
 
     @Override
-    protected String calculateValue() {
-        Contexts contexts = this.user.getPlugin().getContextForUser(this.user);
-        if (contexts == null) {
-            contexts = this.user.getPlugin().getContextManager().getStaticContexts();
-        }
-
-        // hack to get a list of groups the holder is inheriting from
-        Set<String> groupNames = new LinkedHashSet<>();
-        this.user.resolveInheritances(new NoopList<>(), groupNames, contexts);
-
-        List<Group> groups = new ArrayList<>();
-        for (String groupName : groupNames) {
-            Group group = this.user.getPlugin().getGroupManager().getIfLoaded(groupName);
-            if (group != null) {
-                groups.add(group);
-            }
-        }
+    protected String calculateValue(Contexts contexts) {
+        Set<Group> groups = this.user.resolveInheritedGroups(contexts);
 
         Group bestGroup = null;
 
@@ -74,22 +55,4 @@ public class AllParentsByWeightHolder extends CachedPrimaryGroupHolder {
 
         return bestGroup == null ? null : bestGroup.getName();
     }
-
-    private static final class NoopList<E> extends AbstractList<E> implements List<E> {
-
-        @Override
-        public boolean add(E e) {
-            return true;
-        }
-
-        @Override
-        public E get(int index) {
-            return null;
-        }
-
-        @Override
-        public int size() {
-            return 0;
-        }
-    }
 }
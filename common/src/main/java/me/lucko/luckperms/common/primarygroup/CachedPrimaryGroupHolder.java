@@ -25,40 +25,76 @@
 
 package me.lucko.luckperms.common.primarygroup;
 
-import me.lucko.luckperms.common.buffers.Cache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.common.caching.handlers.StateListener;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.node.NodeFactory;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Abstract implementation of {@link StateListener} which caches all lookups.
+ *
+ * <p>Values are cached per set of contexts, and are invalidated when the user
+ * changes, or when the state of any group changes.</p>
  */
 public abstract class CachedPrimaryGroupHolder extends StoredHolder implements StateListener {
 
     // cache lookups
-    private final Cache<String> cache = new Cache<String>() {
-        @Override
-        protected String supply() {
-            return calculateValue();
-        }
-    };
+    private final Cache<Contexts, CachedValue> cache = Caffeine.newBuilder()
+            .expireAfterAccess(10, TimeUnit.MINUTES)
+            .build();
+
+    // incremented each time the state of the user changes
+    private final AtomicLong userVersion = new AtomicLong(0);
 
     public CachedPrimaryGroupHolder(User user) {
         super(user);
         user.getStateListeners().add(this);
     }
 
-    protected abstract String calculateValue();
+    protected abstract String calculateValue(Contexts contexts);
 
     @Override
     public String getValue() {
-        String s = this.cache.get();
+        Contexts contexts = this.user.getPlugin().getContextForUser(this.user);
+        if (contexts == null) {
+            contexts = this.user.getPlugin().getContextManager().getStaticContexts();
+        }
+
+        long userVersion = this.userVersion.get();
+        long groupVersion = this.user.getPlugin().getCachedStateManager().getVersion();
+
+        CachedValue value = this.cache.getIfPresent(contexts);
+        if (value == null || value.userVersion != userVersion || value.groupVersion != groupVersion) {
+            value = new CachedValue(calculateValue(contexts), userVersion, groupVersion);
+            this.cache.put(contexts, value);
+        }
+
+        String s = value.value;
         return s != null ? s : getStoredValue().orElse(NodeFactory.DEFAULT_GROUP_NAME);
     }
 
     @Override
     public void onStateChange() {
-        this.cache.invalidate();
+        this.userVersion.incrementAndGet();
+        this.cache.invalidateAll();
+    }
+
+    private static final class CachedValue {
+        private final String value;
+        private final long userVersion;
+        private final long groupVersion;
+
+        private CachedValue(String value, long userVersion, long groupVersion) {
+            this.value = value;
+            this.userVersion = userVersion;
+            this.groupVersion = groupVersion;
+        }
     }
 
 }
@@ -39,12 +39,7 @@ public class ParentsByWeightHolder extends CachedPrimaryGroupHolder {
     }
 
     @Override
-    protected String calculateValue() {
-        Contexts contexts = this.user.getPlugin().getContextForUser(this.user);
-        if (contexts == null) {
-            contexts = this.user.getPlugin().getContextManager().getStaticContexts();
-        }
-
+    protected String calculateValue(Contexts contexts) {
         Set<Group> groups = new LinkedHashSet<>();
         for (Node node : this.user.filterNodes(contexts.getContexts())) {
             if (!node.getValuePrimitive() || !node.isGroupNode()) {
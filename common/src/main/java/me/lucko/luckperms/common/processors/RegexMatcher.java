@@ -0,0 +1,210 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.processors;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import me.lucko.luckperms.api.Tristate;
+import me.lucko.luckperms.common.utils.PatternCache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Matches permissions against a set of regex permission nodes.
+ *
+ * <p>The literal prefix of each pattern is extracted when the matcher is built,
+ * and patterns are indexed by the first character of their prefix. A lookup only
+ * runs the patterns whose prefix the permission starts with, plus any patterns
+ * which don't have a literal prefix.</p>
+ *
+ * <p>Instances are immutable, and are shared between all processors holding the
+ * same set of regex nodes.</p>
+ */
+public final class RegexMatcher {
+    public static final RegexMatcher EMPTY = new RegexMatcher(ImmutableMap.of());
+
+    private static final LoadingCache<Map<String, Boolean>, RegexMatcher> CACHE = Caffeine.newBuilder()
+            .weakValues()
+            .build(RegexMatcher::new);
+
+    /**
+     * Gets a matcher for the given regex nodes
+     *
+     * @param regexPermissions the regex patterns (without the "r=" prefix), mapped to their value
+     * @return a matcher
+     */
+    public static RegexMatcher of(Map<String, Boolean> regexPermissions) {
+        if (regexPermissions.isEmpty()) {
+            return EMPTY;
+        }
+        return CACHE.get(ImmutableMap.copyOf(regexPermissions));
+    }
+
+    // patterns with a literal prefix, indexed by the first character of the prefix
+    private final Map<Character, List<Entry>> prefixed;
+
+    // patterns without a literal prefix, which have to be checked for every permission
+    private final List<Entry> unprefixed;
+
+    private RegexMatcher(Map<String, Boolean> regexPermissions) {
+        Map<Character, List<Entry>> prefixed = new HashMap<>();
+        List<Entry> unprefixed = new ArrayList<>();
+
+        for (Map.Entry<String, Boolean> e : regexPermissions.entrySet()) {
+            Pattern pattern = PatternCache.compile(e.getKey());
+            if (pattern == null) {
+                continue;
+            }
+
+            String prefix = literalPrefix(e.getKey());
+            Entry entry = new Entry(prefix, pattern, Tristate.fromBoolean(e.getValue()));
+
+            if (prefix.isEmpty()) {
+                unprefixed.add(entry);
+            } else {
+                prefixed.computeIfAbsent(prefix.charAt(0), c -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        ImmutableMap.Builder<Character, List<Entry>> builder = ImmutableMap.builder();
+        for (Map.Entry<Character, List<Entry>> e : prefixed.entrySet()) {
+            builder.put(e.getKey(), ImmutableList.copyOf(e.getValue()));
+        }
+        this.prefixed = builder.build();
+        this.unprefixed = ImmutableList.copyOf(unprefixed);
+    }
+
+    public Tristate hasPermission(String permission) {
+        if (!permission.isEmpty()) {
+            List<Entry> candidates = this.prefixed.get(permission.charAt(0));
+            if (candidates != null) {
+                for (Entry entry : candidates) {
+                    if (permission.startsWith(entry.prefix) && entry.pattern.matcher(permission).matches()) {
+                        return entry.value;
+                    }
+                }
+            }
+        }
+
+        for (Entry entry : this.unprefixed) {
+            if (entry.pattern.matcher(permission).matches()) {
+                return entry.value;
+            }
+        }
+
+        return Tristate.UNDEFINED;
+    }
+
+    /**
+     * Extracts the literal string that any input matching the given regex must start with.
+     *
+     * <p>The extraction is conservative - an empty string is returned for anything
+     * which isn't a simple sequence of literal characters.</p>
+     *
+     * @param regex the regex
+     * @return the literal prefix
+     */
+    static String literalPrefix(String regex) {
+        // a top level alternation means there's no common prefix
+        if (hasTopLevelAlternation(regex)) {
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        int i = regex.startsWith("^") ? 1 : 0;
+
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int lengthBefore = sb.length();
+
+            if (c == '\\' && i + 1 < regex.length() && !Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                // escaped literal
+                sb.append(regex.charAt(i + 1));
+                i += 2;
+            } else if ("\\^$.?*+()[]{}".indexOf(c) == -1) {
+                sb.append(c);
+                i++;
+            } else {
+                break;
+            }
+
+            // the character we just added is optional
+            if (i < regex.length()) {
+                char next = regex.charAt(i);
+                if (next == '?' || next == '*' || next == '{') {
+                    sb.setLength(lengthBefore);
+                    break;
+                }
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private static boolean hasTopLevelAlternation(String regex) {
+        int depth = 0;
+        boolean inClass = false;
+
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (inClass) {
+                if (c == ']') {
+                    inClass = false;
+                }
+            } else if (c == '[') {
+                inClass = true;
+            } else if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            } else if (c == '|' && depth == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class Entry {
+        private final String prefix;
+        private final Pattern pattern;
+        private final Tristate value;
+
+        private Entry(String prefix, Pattern pattern, Tristate value) {
+            this.prefix = prefix;
+            this.pattern = pattern;
+            this.value = value;
+        }
+    }
+}
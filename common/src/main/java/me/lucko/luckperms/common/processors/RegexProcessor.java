@@ -26,42 +26,29 @@
 package me.lucko.luckperms.common.processors;
 
 import me.lucko.luckperms.api.Tristate;
-import me.lucko.luckperms.common.utils.PatternCache;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Pattern;
 
 public class RegexProcessor implements PermissionProcessor {
-    private final Map<Pattern, Boolean> regexPermissions = new ConcurrentHashMap<>();
+    private volatile RegexMatcher matcher = RegexMatcher.EMPTY;
 
     @Override
     public Tristate hasPermission(String permission) {
-        for (Map.Entry<Pattern, Boolean> e : this.regexPermissions.entrySet()) {
-            if (e.getKey().matcher(permission).matches()) {
-                return Tristate.fromBoolean(e.getValue());
-            }
-        }
-
-        return Tristate.UNDEFINED;
+        return this.matcher.hasPermission(permission);
     }
 
     @Override
     public void updateBacking(Map<String, Boolean> map) {
-        this.regexPermissions.clear();
+        Map<String, Boolean> regexPermissions = new HashMap<>();
         for (Map.Entry<String, Boolean> e : map.entrySet()) {
             if (!e.getKey().startsWith("r=") && !e.getKey().startsWith("R=")) {
                 continue;
             }
 
-            String pattern = e.getKey().substring(2);
-            Pattern p = PatternCache.compile(pattern);
-
-            if (p == null) {
-                continue;
-            }
-
-            this.regexPermissions.put(p, e.getValue());
+            regexPermissions.put(e.getKey().substring(2), e.getValue());
         }
+
+        this.matcher = RegexMatcher.of(regexPermissions);
     }
 }
@@ -26,14 +26,18 @@
 package me.lucko.luckperms.common.storage;
 
 import com.google.common.base.Throwables;
+import com.google.gson.JsonObject;
 
 import me.lucko.luckperms.api.HeldPermission;
 import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.api.event.cause.CreationCause;
 import me.lucko.luckperms.api.event.cause.DeletionCause;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.api.delegates.model.ApiStorage;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
+import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
@@ -41,7 +45,11 @@ import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.storage.dao.AbstractDao;
 import me.lucko.luckperms.common.storage.wrappings.BufferedOutputStorage;
 import me.lucko.luckperms.common.storage.wrappings.PhasedStorage;
+import me.lucko.luckperms.common.storage.wrappings.WriteJournal;
 
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -50,13 +58,34 @@ import java.util.UUID;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Converts a {@link AbstractDao} to use {@link CompletableFuture}s
  */
 public class AbstractStorage implements Storage {
     public static Storage create(LuckPermsPlugin plugin, AbstractDao backing) {
-        BufferedOutputStorage bufferedDs = BufferedOutputStorage.wrap(PhasedStorage.wrap(new AbstractStorage(plugin, backing)), 250L);
+        WriteJournal journal = null;
+        if (plugin.getConfiguration().get(ConfigKeys.WRITE_JOURNAL)) {
+            journal = new WriteJournal(plugin, new File(plugin.getDataDirectory(), "journal.jsonl"));
+        }
+
+        CircuitBreaker breaker = null;
+        UserSnapshotStore snapshots = null;
+        if (plugin.getConfiguration().get(ConfigKeys.CIRCUIT_BREAKER_ENABLED)) {
+            breaker = new CircuitBreaker(plugin.getLog(),
+                    plugin.getConfiguration().get(ConfigKeys.CIRCUIT_BREAKER_FAILURE_THRESHOLD),
+                    TimeUnit.SECONDS.toMillis(plugin.getConfiguration().get(ConfigKeys.CIRCUIT_BREAKER_OPEN_SECONDS)),
+                    plugin.getConfiguration().get(ConfigKeys.CIRCUIT_BREAKER_SLOW_CALL_MILLIS)
+            );
+            snapshots = new UserSnapshotStore(plugin, new File(plugin.getDataDirectory(), "snapshots"));
+        }
+
+        long flushTime = plugin.getConfiguration().get(ConfigKeys.WRITE_BUFFER_TIME);
+        AbstractStorage storage = new AbstractStorage(plugin, backing, breaker, snapshots);
+        BufferedOutputStorage bufferedDs = BufferedOutputStorage.wrap(PhasedStorage.wrap(storage), flushTime, journal);
         plugin.getScheduler().asyncRepeating(bufferedDs, 2L);
         return bufferedDs;
     }
@@ -66,32 +95,83 @@ public class AbstractStorage implements Storage {
 
     private final ApiStorage delegate;
 
-    private AbstractStorage(LuckPermsPlugin plugin, AbstractDao dao) {
+    // the circuit breaker guarding the dao, or null if disabled
+    private final CircuitBreaker breaker;
+
+    // local copies of user data used to process logins while the dao is unavailable, or null if disabled
+    private final UserSnapshotStore snapshots;
+
+    private AbstractStorage(LuckPermsPlugin plugin, AbstractDao dao, CircuitBreaker breaker, UserSnapshotStore snapshots) {
         this.plugin = plugin;
         this.dao = dao;
         this.delegate = new ApiStorage(plugin, this);
+        this.breaker = breaker;
+        this.snapshots = snapshots;
+    }
+
+    private <T> T call(Callable<T> supplier, boolean timed) throws Exception {
+        if (this.breaker == null) {
+            return supplier.call();
+        }
+
+        if (!this.breaker.tryAcquire()) {
+            throw new StorageUnavailableException("Storage is currently unavailable");
+        }
+
+        long start = System.nanoTime();
+        try {
+            T result = supplier.call();
+            this.breaker.onSuccess(System.nanoTime() - start, timed);
+            return result;
+        } catch (Exception e) {
+            this.breaker.onFailure(System.nanoTime() - start);
+            throw e;
+        }
     }
 
     private <T> CompletableFuture<T> makeFuture(Callable<T> supplier) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                return supplier.call();
-            } catch (Exception e) {
-                Throwables.propagateIfPossible(e);
-                throw new CompletionException(e);
-            }
-        }, this.dao.getPlugin().getScheduler().async());
+        return makeFuture(supplier, true);
     }
 
     private CompletableFuture<Void> makeFuture(ThrowingRunnable runnable) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                runnable.run();
-            } catch (Exception e) {
-                Throwables.propagateIfPossible(e);
-                throw new CompletionException(e);
-            }
-        }, this.dao.getPlugin().getScheduler().async());
+        return makeFuture(runnable, true);
+    }
+
+    // bulk operations aren't timed by the circuit breaker, they are expected to be slow
+    private <T> CompletableFuture<T> makeBulkFuture(Callable<T> supplier) {
+        return makeFuture(supplier, false);
+    }
+
+    private CompletableFuture<Void> makeBulkFuture(ThrowingRunnable runnable) {
+        return makeFuture(runnable, false);
+    }
+
+    private <T> CompletableFuture<T> makeFuture(Callable<T> supplier, boolean timed) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return call(supplier, timed);
+                } catch (Exception e) {
+                    Throwables.propagateIfPossible(e);
+                    throw new CompletionException(e);
+                }
+            }, this.plugin.getScheduler().storage());
+        } catch (RejectedExecutionException e) {
+            return saturated();
+        }
+    }
+
+    private CompletableFuture<Void> makeFuture(ThrowingRunnable runnable, boolean timed) {
+        return makeFuture(() -> {
+            runnable.run();
+            return null;
+        }, timed);
+    }
+
+    private static <T> CompletableFuture<T> saturated() {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(new StorageUnavailableException("Storage executor is saturated"));
+        return future;
     }
 
     @Override
@@ -121,6 +201,10 @@ public class AbstractStorage implements Storage {
             this.plugin.getLog().severe("Failed to init storage dao");
             e.printStackTrace();
         }
+
+        if (this.snapshots != null) {
+            this.plugin.getScheduler().background().execute(this.snapshots::cleanup);
+        }
     }
 
     @Override
@@ -133,9 +217,20 @@ public class AbstractStorage implements Storage {
         }
     }
 
+    @Override
+    public void replayJournal() {
+        // no journal at this level
+    }
+
     @Override
     public Map<String, String> getMeta() {
-        return this.dao.getMeta();
+        if (this.breaker == null) {
+            return this.dao.getMeta();
+        }
+
+        Map<String, String> meta = new LinkedHashMap<>(this.dao.getMeta());
+        meta.put("Circuit Breaker", this.breaker.toString());
+        return meta;
     }
 
     @Override
@@ -145,12 +240,17 @@ public class AbstractStorage implements Storage {
 
     @Override
     public CompletableFuture<Log> getLog() {
-        return makeFuture(this.dao::getLog);
+        return makeBulkFuture(this.dao::getLog);
+    }
+
+    @Override
+    public CompletableFuture<LogPage> getLogPage(LogQuery query, int pageNo, int entriesPerPage) {
+        return makeBulkFuture(() -> this.dao.getLogPage(query, pageNo, entriesPerPage));
     }
 
     @Override
     public CompletableFuture<Void> applyBulkUpdate(BulkUpdate bulkUpdate) {
-        return makeFuture(() -> this.dao.applyBulkUpdate(bulkUpdate));
+        return makeBulkFuture(() -> this.dao.applyBulkUpdate(bulkUpdate));
     }
 
     @Override
@@ -164,19 +264,146 @@ public class AbstractStorage implements Storage {
         });
     }
 
+    @Override
+    public CompletableFuture<Void> loadUsers(Set<UUID> uuids) {
+        return makeBulkFuture(() -> {
+            for (User user : this.dao.loadUsers(uuids)) {
+                this.plugin.getEventFactory().handleUserLoad(user);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<LoginResult> loginUser(UUID uuid, String username, boolean lookupUuid) {
+        CompletableFuture<LoginResult> future = makeFuture(() -> {
+            LoginResult result = this.dao.loginUser(uuid, username, lookupUuid);
+            this.plugin.getEventFactory().handleUserLoad(result.getUser());
+            return result;
+        });
+
+        if (this.snapshots == null) {
+            return future;
+        }
+
+        // claimed by whichever of the backend or the snapshot completes the login first
+        AtomicBoolean claimed = new AtomicBoolean(false);
+        CompletableFuture<LoginResult> result = new CompletableFuture<>();
+        future.whenComplete((r, ex) -> {
+            if (ex == null) {
+                if (claimed.compareAndSet(false, true)) {
+                    this.snapshots.save(uuid, r.getUser());
+                    result.complete(r);
+                } else {
+                    // the snapshot may have been applied over the data which was just loaded,
+                    // so load the user again once it has been served
+                    result.thenAccept(degraded -> reloadDegraded(degraded.getUser()));
+                }
+                return;
+            }
+
+            if (!degradedLogin(claimed, result, uuid, username) && claimed.compareAndSet(false, true)) {
+                result.completeExceptionally(ex);
+            }
+        });
+
+        // don't keep the player waiting on a backend which isn't responding
+        long ticks = Math.max(1L, this.breaker.getSlowCallMillis() / 50L);
+        this.plugin.getScheduler().asyncLater(() -> degradedLogin(claimed, result, uuid, username), ticks);
+
+        return result;
+    }
+
+    private boolean degradedLogin(AtomicBoolean claimed, CompletableFuture<LoginResult> result, UUID uuid, String username) {
+        if (claimed.get()) {
+            return false;
+        }
+
+        // read before claiming the login, so the backend can still complete it if there's no snapshot
+        JsonObject snapshot = this.snapshots.read(uuid);
+        if (snapshot == null || !claimed.compareAndSet(false, true)) {
+            return false;
+        }
+
+        User user = this.snapshots.apply(uuid, snapshot, username);
+        this.plugin.getLog().warn("Storage is unavailable - loaded " + username + " from their local snapshot. " +
+                "Changes to their data will not be saved until storage is available again.");
+        this.plugin.getEventFactory().handleUserLoad(user);
+        result.complete(LoginResult.of(user, false));
+        scheduleReload(user);
+        return true;
+    }
+
+    private void scheduleReload(User user) {
+        long ticks = Math.max(1L, this.breaker.getOpenMillis() / 50L);
+        this.plugin.getScheduler().asyncLater(() -> reloadDegraded(user), ticks);
+    }
+
+    /**
+     * Loads a user who was served from their snapshot from storage, retrying
+     * until it succeeds or the user is unloaded.
+     *
+     * @param user the degraded user
+     */
+    private void reloadDegraded(User user) {
+        if (!user.isDegraded() || this.plugin.getUserManager().getIfLoaded(user.getUuid()) != user) {
+            return;
+        }
+
+        String username = user.getName().orElse(null);
+        loadUser(user.getUuid(), username).whenComplete((loaded, ex) -> {
+            if (ex != null || loaded == null) {
+                scheduleReload(user);
+                return;
+            }
+
+            loaded.setDegraded(false);
+            this.snapshots.update(loaded);
+            this.plugin.getLog().info("Storage is available again - reloaded " + loaded.getFriendlyName() + " from storage.");
+        });
+    }
+
     @Override
     public CompletableFuture<Void> saveUser(User user) {
-        return makeFuture(() -> this.dao.saveUser(user));
+        if (user.isDegraded()) {
+            return degradedSave(user);
+        }
+
+        return makeFuture(() -> {
+            this.dao.saveUser(user);
+            if (this.snapshots != null) {
+                this.snapshots.update(user);
+            }
+        });
+    }
+
+    /**
+     * Rejects a save of a user whose data was loaded from a local snapshot.
+     *
+     * <p>Their data may be out of date, so must not be written over the data held in storage.</p>
+     *
+     * @param user the user
+     * @return a future completed exceptionally
+     */
+    public static CompletableFuture<Void> degradedSave(User user) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        future.completeExceptionally(new StorageUnavailableException("The data for " + user.getFriendlyName() +
+                " was loaded from a local snapshot, and can't be saved until storage is available again"));
+        return future;
+    }
+
+    @Override
+    public CompletableFuture<Void> saveUsers(Collection<User> users) {
+        return makeBulkFuture(() -> this.dao.saveUsers(users));
     }
 
     @Override
     public CompletableFuture<Set<UUID>> getUniqueUsers() {
-        return makeFuture(this.dao::getUniqueUsers);
+        return makeBulkFuture(this.dao::getUniqueUsers);
     }
 
     @Override
     public CompletableFuture<List<HeldPermission<UUID>>> getUsersWithPermission(String permission) {
-        return makeFuture(() -> this.dao.getUsersWithPermission(permission));
+        return makeBulkFuture(() -> this.dao.getUsersWithPermission(permission));
     }
 
     @Override
@@ -202,9 +429,9 @@ public class AbstractStorage implements Storage {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllGroups() {
-        return makeFuture(() -> {
-            this.dao.loadAllGroups();
+    public CompletableFuture<Void> loadAllGroups(boolean force) {
+        return makeBulkFuture(() -> {
+            this.dao.loadAllGroups(force);
             this.plugin.getEventFactory().handleGroupLoadAll();
         });
     }
@@ -224,7 +451,7 @@ public class AbstractStorage implements Storage {
 
     @Override
     public CompletableFuture<List<HeldPermission<String>>> getGroupsWithPermission(String permission) {
-        return makeFuture(() -> this.dao.getGroupsWithPermission(permission));
+        return makeBulkFuture(() -> this.dao.getGroupsWithPermission(permission));
     }
 
     @Override
@@ -250,9 +477,9 @@ public class AbstractStorage implements Storage {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllTracks() {
-        return makeFuture(() -> {
-            this.dao.loadAllTracks();
+    public CompletableFuture<Void> loadAllTracks(boolean force) {
+        return makeBulkFuture(() -> {
+            this.dao.loadAllTracks(force);
             this.plugin.getEventFactory().handleTrackLoadAll();
         });
     }
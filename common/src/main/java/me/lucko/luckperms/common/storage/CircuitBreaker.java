@@ -0,0 +1,169 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.storage;
+
+import me.lucko.luckperms.common.logging.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A circuit breaker for storage operations.
+ *
+ * <p>After a number of consecutive failed (or overly slow) operations the breaker opens, and
+ * further operations are rejected immediately instead of waiting on a backend which is known to
+ * be unavailable. Once the open period has elapsed, a single trial operation is let through - if
+ * it succeeds the breaker closes again.</p>
+ *
+ * <p>Only latency sensitive operations are timed. Bulk operations are expected to take a while,
+ * and so only count towards the breaker when they fail outright.</p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final Logger logger;
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final long slowCallNanos;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt = 0L;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+    private final AtomicBoolean trialInFlight = new AtomicBoolean(false);
+
+    // exponentially weighted moving average of operation latency
+    private volatile long averageNanos = 0L;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+
+    public CircuitBreaker(Logger logger, int failureThreshold, long openMillis, long slowCallMillis) {
+        this.logger = logger;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMillis);
+    }
+
+    /**
+     * Gets if an operation should be allowed to proceed.
+     *
+     * <p>If this returns true, the caller must report the outcome using
+     * {@link #onSuccess(long, boolean)} or {@link #onFailure(long)}.</p>
+     *
+     * @return true if the operation can proceed
+     */
+    public boolean tryAcquire() {
+        State state = this.state;
+        if (state == State.CLOSED) {
+            return true;
+        }
+
+        if (state == State.OPEN && System.nanoTime() - this.openedAt >= this.openNanos) {
+            this.state = State.HALF_OPEN;
+        }
+
+        if (this.state == State.HALF_OPEN && this.trialInFlight.compareAndSet(false, true)) {
+            return true;
+        }
+
+        this.rejections.increment();
+        return false;
+    }
+
+    public void onSuccess(long durationNanos, boolean timed) {
+        if (timed) {
+            record(durationNanos);
+        } else {
+            this.calls.increment();
+        }
+
+        if (timed && durationNanos > this.slowCallNanos) {
+            // the backend responded, but too slowly to be relied upon
+            onFailure0();
+            return;
+        }
+
+        this.consecutiveFailures.set(0);
+        if (this.state != State.CLOSED) {
+            this.state = State.CLOSED;
+            this.trialInFlight.set(false);
+            this.logger.info("Storage is responding again - circuit breaker closed.");
+        }
+    }
+
+    public void onFailure(long durationNanos) {
+        record(durationNanos);
+        onFailure0();
+    }
+
+    private void onFailure0() {
+        this.failures.increment();
+        int failures = this.consecutiveFailures.incrementAndGet();
+
+        if (this.state == State.HALF_OPEN || (this.state == State.CLOSED && failures >= this.failureThreshold)) {
+            this.openedAt = System.nanoTime();
+            this.state = State.OPEN;
+            this.trialInFlight.set(false);
+            this.logger.severe("Storage circuit breaker opened after " + failures + " consecutive failed or slow operations. " +
+                    "Operations will fail fast for the next " + TimeUnit.NANOSECONDS.toSeconds(this.openNanos) + " seconds.");
+        }
+    }
+
+    private void record(long durationNanos) {
+        this.calls.increment();
+        long avg = this.averageNanos;
+        this.averageNanos = avg == 0L ? durationNanos : avg + ((durationNanos - avg) >> 3);
+    }
+
+    public State getState() {
+        return this.state;
+    }
+
+    public boolean isOpen() {
+        return this.state != State.CLOSED;
+    }
+
+    public long getOpenMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.openNanos);
+    }
+
+    public long getSlowCallMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.slowCallNanos);
+    }
+
+    @Override
+    public String toString() {
+        return this.state + " (avg " + TimeUnit.NANOSECONDS.toMillis(this.averageNanos) + "ms, " +
+                this.calls.sum() + " calls, " + this.failures.sum() + " failures, " + this.rejections.sum() + " rejected)";
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.storage;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import me.lucko.luckperms.api.Node;
+import me.lucko.luckperms.common.model.Group;
+import me.lucko.luckperms.common.model.Track;
+import me.lucko.luckperms.common.node.NodeModel;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.webeditor.WebEditorUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A local on-disk snapshot of all group and track data.
+ *
+ * <p>The snapshot is written after each successful sync with the storage, and loaded at
+ * startup so the plugin can serve permission checks without waiting for a full load from
+ * the (potentially remote) backend. The full load then runs in the background to reconcile
+ * the snapshot with the storage.</p>
+ *
+ * <p>The stored version of each group and track is kept alongside its data, so the background
+ * load only needs to fetch the holders which have changed since the snapshot was taken.</p>
+ *
+ * <p>The snapshot as a whole is stamped with a hash of its content. The stamp is stored
+ * uncompressed in the header, so an unchanged dataset can be detected without re-writing or
+ * decompressing the file.</p>
+ */
+public class DataSnapshot {
+    private static final Gson GSON = new Gson();
+
+    private static final int MAGIC = 0x4C505353; // LPSS
+    private static final int FORMAT_VERSION = 2;
+
+    // magic, format version, dataset stamp, creation time and body length
+    private static final int HEADER_LENGTH = 4 + 4 + 8 + 8 + 4;
+    // body checksum
+    private static final int FOOTER_LENGTH = 8;
+
+    // the maximum delay before reconciling a warm started snapshot with the storage.
+    // spreads out the load placed on the storage when many servers are started at once.
+    private static final long MAX_RECONCILE_DELAY_TICKS = 200L;
+
+    public static long reconcileDelay() {
+        return 1L + ThreadLocalRandom.current().nextLong(MAX_RECONCILE_DELAY_TICKS);
+    }
+
+    private final LuckPermsPlugin plugin;
+    private final File file;
+
+    public DataSnapshot(LuckPermsPlugin plugin) {
+        this.plugin = plugin;
+        this.file = new File(plugin.getDataDirectory(), "snapshots" + File.separator + "groups-tracks.dat");
+    }
+
+    /**
+     * Loads the groups and tracks contained in the snapshot.
+     *
+     * @return true if the snapshot was loaded
+     */
+    public boolean load() {
+        if (!this.file.exists()) {
+            return false;
+        }
+
+        JsonObject data;
+        long createdAt;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.file.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                this.plugin.getLog().warn("Ignoring local data snapshot - unknown format.");
+                return false;
+            }
+
+            in.readLong(); // dataset stamp
+            createdAt = in.readLong();
+
+            // check the length against the file before allocating, in case the header is corrupt
+            int length = in.readInt();
+            if (length < 0 || length != this.file.length() - HEADER_LENGTH - FOOTER_LENGTH) {
+                this.plugin.getLog().warn("Ignoring local data snapshot - length mismatch.");
+                return false;
+            }
+
+            byte[] body = new byte[length];
+            in.readFully(body);
+
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if (crc.getValue() != in.readLong()) {
+                this.plugin.getLog().warn("Ignoring local data snapshot - checksum mismatch.");
+                return false;
+            }
+
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(new ByteArrayInputStream(body)), StandardCharsets.UTF_8)) {
+                data = GSON.fromJson(reader, JsonObject.class);
+            }
+        } catch (Exception e) {
+            this.plugin.getLog().warn("Unable to read local data snapshot: " + e.getMessage());
+            return false;
+        }
+
+        JsonArray groups = data.getAsJsonArray("groups");
+        for (JsonElement element : groups) {
+            JsonObject object = element.getAsJsonObject();
+            Group group = this.plugin.getGroupManager().getOrMake(object.get("name").getAsString());
+
+            Set<Node> nodes = WebEditorUtils.deserializePermissions(object.getAsJsonArray("nodes")).stream()
+                    .map(NodeModel::toNode)
+                    .collect(Collectors.toSet());
+
+            group.getIoLock().lock();
+            try {
+                group.setEnduringNodes(nodes);
+                group.setVersion(object.get("version").getAsLong());
+            } finally {
+                group.getIoLock().unlock();
+            }
+        }
+
+        JsonArray tracks = data.getAsJsonArray("tracks");
+        for (JsonElement element : tracks) {
+            JsonObject object = element.getAsJsonObject();
+            Track track = this.plugin.getTrackManager().getOrMake(object.get("name").getAsString());
+
+            List<String> trackGroups = new ArrayList<>();
+            for (JsonElement group : object.getAsJsonArray("groups")) {
+                trackGroups.add(group.getAsString());
+            }
+
+            track.getIoLock().lock();
+            try {
+                track.setGroups(trackGroups);
+                track.setVersion(object.get("version").getAsLong());
+            } finally {
+                track.getIoLock().unlock();
+            }
+        }
+
+        this.plugin.getEventFactory().handleGroupLoadAll();
+        this.plugin.getEventFactory().handleTrackLoadAll();
+
+        long age = TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - createdAt);
+        this.plugin.getLog().info("Loaded " + groups.size() + " groups and " + tracks.size() + " tracks from the local data snapshot (taken " + age + " minutes ago).");
+        return true;
+    }
+
+    /**
+     * Captures the currently loaded groups and tracks, and writes them to the snapshot
+     * asynchronously if they have changed since the snapshot was last written.
+     */
+    public void save() {
+        Hasher datasetHasher = Hashing.murmur3_128().newHasher();
+
+        JsonArray groups = new JsonArray();
+        List<Group> loadedGroups = new ArrayList<>(this.plugin.getGroupManager().getAll().values());
+        loadedGroups.sort(Comparator.comparing(Group::getName));
+        for (Group group : loadedGroups) {
+            JsonArray nodes = WebEditorUtils.serializePermissions(group.getEnduringNodes().values().stream().map(NodeModel::fromNode));
+            long version = group.getVersion();
+            hash(datasetHasher, group.getName(), version, nodes);
+
+            JsonObject object = new JsonObject();
+            object.addProperty("name", group.getName());
+            object.addProperty("version", version);
+            object.add("nodes", nodes);
+            groups.add(object);
+        }
+
+        JsonArray tracks = new JsonArray();
+        List<Track> loadedTracks = new ArrayList<>(this.plugin.getTrackManager().getAll().values());
+        loadedTracks.sort(Comparator.comparing(Track::getName));
+        for (Track track : loadedTracks) {
+            JsonArray trackGroups = new JsonArray();
+            for (String group : track.getGroups()) {
+                trackGroups.add(new JsonPrimitive(group));
+            }
+            long version = track.getVersion();
+            hash(datasetHasher, track.getName(), version, trackGroups);
+
+            JsonObject object = new JsonObject();
+            object.addProperty("name", track.getName());
+            object.addProperty("version", version);
+            object.add("groups", trackGroups);
+            tracks.add(object);
+        }
+
+        JsonObject data = new JsonObject();
+        data.add("groups", groups);
+        data.add("tracks", tracks);
+        long datasetStamp = datasetHasher.hash().asLong();
+
+        this.plugin.getScheduler().background().execute(() -> {
+            try {
+                if (readDatasetStamp() == datasetStamp) {
+                    return;
+                }
+                write(data, datasetStamp);
+            } catch (Exception e) {
+                this.plugin.getLog().warn("Unable to write local data snapshot: " + e.getMessage());
+            }
+        });
+    }
+
+    private static void hash(Hasher hasher, String name, long version, JsonArray content) {
+        hasher.putString(name, StandardCharsets.UTF_8)
+                .putLong(version)
+                .putString(content.toString(), StandardCharsets.UTF_8);
+    }
+
+    private long readDatasetStamp() {
+        if (!this.file.exists()) {
+            return 0L;
+        }
+
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(this.file.toPath()))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return 0L;
+            }
+            return in.readLong();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private void write(JsonObject data, long datasetStamp) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(bytes), StandardCharsets.UTF_8)) {
+            GSON.toJson(data, writer);
+        }
+        byte[] body = bytes.toByteArray();
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+
+        this.file.getParentFile().mkdirs();
+
+        // unique to this write, as saves from overlapping syncs may be written at the same time
+        Path tmp = Files.createTempFile(this.file.getParentFile().toPath(), this.file.getName() + ".", ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(datasetStamp);
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(body.length);
+                out.write(body);
+                out.writeLong(crc.getValue());
+            }
+            Files.move(tmp, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.storage;
+
+import me.lucko.luckperms.common.model.User;
+
+/**
+ * The result of a {@link Storage#loginUser(java.util.UUID, String, boolean)} operation.
+ */
+public final class LoginResult {
+    public static LoginResult of(User user, boolean firstLogin) {
+        return new LoginResult(user, firstLogin);
+    }
+
+    /**
+     * The loaded user
+     */
+    private final User user;
+
+    /**
+     * If no uuid data was held for the user before this login
+     */
+    private final boolean firstLogin;
+
+    private LoginResult(User user, boolean firstLogin) {
+        this.user = user;
+        this.firstLogin = firstLogin;
+    }
+
+    public User getUser() {
+        return this.user;
+    }
+
+    public boolean isFirstLogin() {
+        return this.firstLogin;
+    }
+
+    @Override
+    public String toString() {
+        return "LoginResult(user=" + this.user + ", firstLogin=" + this.firstLogin + ")";
+    }
+}
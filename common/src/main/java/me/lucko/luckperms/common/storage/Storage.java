@@ -30,12 +30,15 @@ import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.api.event.cause.CreationCause;
 import me.lucko.luckperms.api.event.cause.DeletionCause;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.api.delegates.model.ApiStorage;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -58,18 +61,44 @@ public interface Storage {
 
     void shutdown();
 
+    /**
+     * Replays any saves which were recorded in the write journal, but not written to
+     * storage before the plugin last stopped.
+     */
+    void replayJournal();
+
     Map<String, String> getMeta();
 
     CompletableFuture<Void> logAction(LogEntry entry);
 
     CompletableFuture<Log> getLog();
 
+    CompletableFuture<LogPage> getLogPage(LogQuery query, int pageNo, int entriesPerPage);
+
     CompletableFuture<Void> applyBulkUpdate(BulkUpdate bulkUpdate);
 
     CompletableFuture<User> loadUser(UUID uuid, String username);
 
+    /**
+     * Loads (or reloads) the data for a number of users at once.
+     *
+     * @param uuids the uuids of the users to load
+     * @return a future which completes once all of the users have been loaded
+     */
+    CompletableFuture<Void> loadUsers(Set<UUID> uuids);
+
     CompletableFuture<Void> saveUser(User user);
 
+    /**
+     * Saves the data for a number of users at once, along with their usernames.
+     *
+     * <p>Used by bulk operations such as imports. The saves aren't buffered.</p>
+     *
+     * @param users the users to save
+     * @return a future which completes once all of the users have been saved
+     */
+    CompletableFuture<Void> saveUsers(Collection<User> users);
+
     CompletableFuture<Set<UUID>> getUniqueUsers();
 
     CompletableFuture<List<HeldPermission<UUID>>> getUsersWithPermission(String permission);
@@ -78,7 +107,13 @@ public interface Storage {
 
     CompletableFuture<Optional<Group>> loadGroup(String name);
 
-    CompletableFuture<Void> loadAllGroups();
+    /**
+     * Loads all groups.
+     *
+     * @param force if groups whose loaded version matches the stored version should be reloaded too
+     * @return a future which completes when the groups have been loaded
+     */
+    CompletableFuture<Void> loadAllGroups(boolean force);
 
     CompletableFuture<Void> saveGroup(Group group);
 
@@ -90,7 +125,13 @@ public interface Storage {
 
     CompletableFuture<Optional<Track>> loadTrack(String name);
 
-    CompletableFuture<Void> loadAllTracks();
+    /**
+     * Loads all tracks.
+     *
+     * @param force if tracks whose loaded version matches the stored version should be reloaded too
+     * @return a future which completes when the tracks have been loaded
+     */
+    CompletableFuture<Void> loadAllTracks(boolean force);
 
     CompletableFuture<Void> saveTrack(Track track);
 
@@ -101,4 +142,17 @@ public interface Storage {
     CompletableFuture<UUID> getUUID(String username);
 
     CompletableFuture<String> getName(UUID uuid);
+
+    /**
+     * Processes the storage side of a login as one operation. The uuid
+     * mapping for the player is resolved, their uuid data is saved, and
+     * the user is loaded.
+     *
+     * @param uuid the uuid of the connecting player
+     * @param username the username of the connecting player
+     * @param lookupUuid if an existing uuid should be looked up for the username,
+     *                   instead of using the given uuid as is
+     * @return the result of the login
+     */
+    CompletableFuture<LoginResult> loginUser(UUID uuid, String username, boolean lookupUuid);
 }
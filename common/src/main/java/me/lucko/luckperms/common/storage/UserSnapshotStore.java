@@ -0,0 +1,221 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.storage;
+
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.Striped;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+import me.lucko.luckperms.api.Node;
+import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.node.NodeModel;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.references.UserIdentifier;
+import me.lucko.luckperms.common.webeditor.WebEditorUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a local on-disk copy of the last known data for each user who has logged in.
+ *
+ * <p>Used to process logins while the storage backend is unavailable. Snapshots are
+ * refreshed while the user is loaded, and are deleted once they haven't been written to
+ * for {@link #EXPIRY_DAYS} days.</p>
+ */
+public class UserSnapshotStore {
+    private static final Gson GSON = new Gson();
+
+    // snapshots of users who haven't logged in for this long are deleted
+    private static final int EXPIRY_DAYS = 30;
+
+    private final LuckPermsPlugin plugin;
+    private final File directory;
+
+    // the uuid each loaded user connected with. entries are dropped once the user is unloaded and collected
+    private final Map<User, UUID> keys = new MapMaker().weakKeys().makeMap();
+
+    // the latest data waiting to be written for each key
+    private final Map<UUID, JsonObject> pending = new ConcurrentHashMap<>();
+
+    // serialises the writes for each key, so an older snapshot can't replace a newer one
+    private final Striped<Lock> writeLocks = Striped.lock(16);
+
+    public UserSnapshotStore(LuckPermsPlugin plugin, File directory) {
+        this.plugin = plugin;
+        this.directory = directory;
+    }
+
+    /**
+     * Deletes snapshots which haven't been written to for {@link #EXPIRY_DAYS} days.
+     */
+    public void cleanup() {
+        File[] files = this.directory.listFiles((dir, name) -> name.endsWith(".json") || name.endsWith(".json.tmp"));
+        if (files == null) {
+            return;
+        }
+
+        long cutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(EXPIRY_DAYS);
+        int deleted = 0;
+        for (File file : files) {
+            if (file.lastModified() < cutoff && file.delete()) {
+                deleted++;
+            }
+        }
+
+        if (deleted != 0) {
+            this.plugin.getLog().info("Deleted " + deleted + " expired user snapshot(s).");
+        }
+    }
+
+    /**
+     * Records a snapshot of the given user.
+     *
+     * <p>The user's data is captured immediately, but written to disk asynchronously.</p>
+     *
+     * @param key the uuid the user connects with
+     * @param user the user
+     */
+    public void save(UUID key, User user) {
+        this.keys.put(user, key);
+
+        JsonObject data = new JsonObject();
+        data.addProperty("uuid", user.getUuid().toString());
+        user.getName().ifPresent(name -> data.addProperty("name", name));
+        user.getPrimaryGroup().getStoredValue().ifPresent(group -> data.addProperty("primaryGroup", group));
+        data.add("nodes", WebEditorUtils.serializePermissions(user.getEnduringNodes().values().stream().map(NodeModel::fromNode)));
+
+        // only schedule a write if one isn't already waiting - it will pick up the latest data
+        if (this.pending.put(key, data) == null) {
+            this.plugin.getScheduler().background().execute(() -> write(key));
+        }
+    }
+
+    private void write(UUID key) {
+        Lock lock = this.writeLocks.get(key);
+        lock.lock();
+        try {
+            JsonObject data = this.pending.remove(key);
+            if (data == null) {
+                return;
+            }
+
+            this.directory.mkdirs();
+            Path file = new File(this.directory, key.toString() + ".json").toPath();
+            Path tmp = new File(this.directory, key.toString() + ".json.tmp").toPath();
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                GSON.toJson(data, writer);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (Exception e) {
+            this.plugin.getLog().warn("Unable to write user snapshot for " + key + ": " + e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Refreshes the snapshot of a user after their data has been saved.
+     *
+     * <p>Only users who have logged in since they were loaded have a snapshot kept.</p>
+     *
+     * @param user the user
+     */
+    public void update(User user) {
+        UUID key = this.keys.get(user);
+        if (key != null) {
+            save(key, user);
+        }
+    }
+
+    /**
+     * Reads the snapshot of a user, without applying it.
+     *
+     * @param key the uuid the user connects with
+     * @return the snapshot, or null if there is no snapshot for them
+     */
+    public JsonObject read(UUID key) {
+        File file = new File(this.directory, key.toString() + ".json");
+        if (!file.exists()) {
+            return null;
+        }
+
+        JsonObject data;
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            data = GSON.fromJson(reader, JsonObject.class);
+        } catch (Exception e) {
+            this.plugin.getLog().warn("Unable to read user snapshot for " + key + ": " + e.getMessage());
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * Loads a user from their snapshot.
+     *
+     * <p>The user is marked as {@link User#isDegraded() degraded}.</p>
+     *
+     * @param key the uuid the user connects with
+     * @param data the snapshot, as returned by {@link #read(UUID)}
+     * @param username the username of the user
+     * @return the user
+     */
+    public User apply(UUID key, JsonObject data, String username) {
+        UUID uuid = UUID.fromString(data.get("uuid").getAsString());
+        User user = this.plugin.getUserManager().getOrMake(UserIdentifier.of(uuid, username));
+        this.keys.put(user, key);
+        user.getIoLock().lock();
+        try {
+            user.setDegraded(true);
+            if (data.has("primaryGroup")) {
+                user.getPrimaryGroup().setStoredValue(data.get("primaryGroup").getAsString());
+            }
+
+            Set<Node> nodes = WebEditorUtils.deserializePermissions(data.getAsJsonArray("nodes")).stream()
+                    .map(NodeModel::toNode)
+                    .collect(Collectors.toSet());
+            user.setEnduringNodes(nodes);
+            user.setName(username, true);
+        } finally {
+            user.getIoLock().unlock();
+        }
+        user.getRefreshBuffer().requestDirectly();
+        return user;
+    }
+}
@@ -28,21 +28,32 @@ package me.lucko.luckperms.common.storage.dao;
 import me.lucko.luckperms.api.HeldPermission;
 import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
+import me.lucko.luckperms.common.managers.GroupManager;
+import me.lucko.luckperms.common.managers.TrackManager;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.LoginResult;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public abstract class AbstractDao {
 
+    // the maximum number of users loaded concurrently by the default #loadUsers implementation
+    private static final int LOAD_USERS_PARALLELISM = 4;
+
     protected final LuckPermsPlugin plugin;
     public final String name;
 
@@ -71,12 +82,87 @@ public abstract class AbstractDao {
 
     public abstract Log getLog() throws Exception;
 
+    /**
+     * Gets a page of log entries matching the given query.
+     *
+     * <p>The default implementation loads the full log and filters it in
+     * memory. Implementations should override this to execute the query
+     * natively where possible.</p>
+     *
+     * @param query the query
+     * @param pageNo the page number, or {@link LogPage#LATEST}
+     * @param entriesPerPage the number of entries per page
+     * @return the page
+     * @throws Exception if an error occurs
+     */
+    public LogPage getLogPage(LogQuery query, int pageNo, int entriesPerPage) throws Exception {
+        return getLog().getPage(query, pageNo, entriesPerPage);
+    }
+
     public abstract void applyBulkUpdate(BulkUpdate bulkUpdate) throws Exception;
 
     public abstract User loadUser(UUID uuid, String username) throws Exception;
 
+    /**
+     * Loads the data for a number of users.
+     *
+     * <p>The default implementation calls {@link #loadUser(UUID, String)} for each
+     * user, spread across a bounded number of async tasks. Implementations should
+     * override this to fetch the data for many users in a single query where possible.</p>
+     *
+     * @param uuids the uuids of the users to load
+     * @return the loaded users
+     * @throws Exception if an error occurs
+     */
+    public List<User> loadUsers(Set<UUID> uuids) throws Exception {
+        List<UUID> toLoad = new ArrayList<>(uuids);
+        int parallelism = Math.min(LOAD_USERS_PARALLELISM, toLoad.size());
+
+        List<CompletableFuture<List<User>>> futures = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            List<UUID> partition = toLoad.subList(i * toLoad.size() / parallelism, (i + 1) * toLoad.size() / parallelism);
+            futures.add(CompletableFuture.supplyAsync(() -> {
+                List<User> users = new ArrayList<>(partition.size());
+                for (UUID uuid : partition) {
+                    try {
+                        users.add(loadUser(uuid, null));
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+                return users;
+            }, this.plugin.getScheduler().async()));
+        }
+
+        List<User> users = new ArrayList<>(toLoad.size());
+        for (CompletableFuture<List<User>> future : futures) {
+            users.addAll(future.join());
+        }
+        return users;
+    }
+
     public abstract void saveUser(User user) throws Exception;
 
+    /**
+     * Saves the data for a number of users, along with their usernames.
+     *
+     * <p>The default implementation calls {@link #saveUser(User)} and
+     * {@link #saveUUIDData(UUID, String)} for each user. Implementations should
+     * override this to write the data for many users in a single batch where possible.</p>
+     *
+     * @param users the users to save
+     * @throws Exception if an error occurs
+     */
+    public void saveUsers(Collection<User> users) throws Exception {
+        for (User user : users) {
+            saveUser(user);
+            Optional<String> name = user.getName();
+            if (name.isPresent()) {
+                saveUUIDData(user.getUuid(), name.get());
+            }
+        }
+    }
+
     public abstract Set<UUID> getUniqueUsers() throws Exception;
 
     public abstract List<HeldPermission<UUID>> getUsersWithPermission(String permission) throws Exception;
@@ -85,7 +171,55 @@ public abstract class AbstractDao {
 
     public abstract Optional<Group> loadGroup(String name) throws Exception;
 
-    public abstract void loadAllGroups() throws Exception;
+    /**
+     * Gets the stored version of every group.
+     *
+     * <p>A version increases each time the group is saved, and is cheap to
+     * fetch relative to the group's data. A version of 0 means the version
+     * is unknown.</p>
+     *
+     * @return the versions, keyed by group name
+     * @throws Exception if an error occurs
+     */
+    public abstract Map<String, Long> getGroupVersions() throws Exception;
+
+    /**
+     * Loads all groups.
+     *
+     * <p>Unless forced, groups whose loaded version matches the version held
+     * in storage are skipped. Explicit syncs force a full reload, so data
+     * changed without its version being updated is still picked up.</p>
+     *
+     * @param force if every group should be loaded
+     * @throws Exception if an error occurs
+     */
+    public void loadAllGroups(boolean force) throws Exception {
+        Map<String, Long> versions = getGroupVersions();
+        GroupManager gm = this.plugin.getGroupManager();
+
+        boolean success = true;
+        for (Map.Entry<String, Long> e : versions.entrySet()) {
+            Group loaded = gm.getIfLoaded(e.getKey());
+            if (!force && loaded != null && e.getValue() != 0L && loaded.getVersion() == e.getValue()) {
+                continue;
+            }
+
+            try {
+                loadGroup(e.getKey());
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                success = false;
+            }
+        }
+
+        if (!success) {
+            throw new RuntimeException("Exception occurred whilst loading a group");
+        }
+
+        gm.getAll().values().stream()
+                .filter(g -> !versions.containsKey(g.getName()))
+                .forEach(gm::unload);
+    }
 
     public abstract void saveGroup(Group group) throws Exception;
 
@@ -97,7 +231,52 @@ public abstract class AbstractDao {
 
     public abstract Optional<Track> loadTrack(String name) throws Exception;
 
-    public abstract void loadAllTracks() throws Exception;
+    /**
+     * Gets the stored version of every track.
+     *
+     * @return the versions, keyed by track name
+     * @throws Exception if an error occurs
+     * @see #getGroupVersions()
+     */
+    public abstract Map<String, Long> getTrackVersions() throws Exception;
+
+    /**
+     * Loads all tracks.
+     *
+     * <p>Unless forced, tracks whose loaded version matches the version held
+     * in storage are skipped. Explicit syncs force a full reload, so data
+     * changed without its version being updated is still picked up.</p>
+     *
+     * @param force if every track should be loaded
+     * @throws Exception if an error occurs
+     */
+    public void loadAllTracks(boolean force) throws Exception {
+        Map<String, Long> versions = getTrackVersions();
+        TrackManager tm = this.plugin.getTrackManager();
+
+        boolean success = true;
+        for (Map.Entry<String, Long> e : versions.entrySet()) {
+            Track loaded = tm.getIfLoaded(e.getKey());
+            if (!force && loaded != null && e.getValue() != 0L && loaded.getVersion() == e.getValue()) {
+                continue;
+            }
+
+            try {
+                loadTrack(e.getKey());
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                success = false;
+            }
+        }
+
+        if (!success) {
+            throw new RuntimeException("Exception occurred whilst loading a track");
+        }
+
+        tm.getAll().values().stream()
+                .filter(t -> !versions.containsKey(t.getName()))
+                .forEach(tm::unload);
+    }
 
     public abstract void saveTrack(Track track) throws Exception;
 
@@ -109,4 +288,37 @@ public abstract class AbstractDao {
 
     public abstract String getName(UUID uuid) throws Exception;
 
+    /**
+     * Processes the storage side of a login.
+     *
+     * <p>The default implementation performs each step as a separate
+     * operation. Implementations should override this to share a single
+     * connection or round-trip between the steps where possible.</p>
+     *
+     * @param uuid the uuid of the connecting player
+     * @param username the username of the connecting player
+     * @param lookupUuid if an existing uuid should be looked up for the username
+     * @return the result of the login
+     * @throws Exception if an error occurs
+     */
+    public LoginResult loginUser(UUID uuid, String username, boolean lookupUuid) throws Exception {
+        UUID internalUuid = uuid;
+        boolean firstLogin;
+
+        if (lookupUuid) {
+            UUID existing = getUUID(username);
+            firstLogin = existing == null;
+            if (firstLogin) {
+                saveUUIDData(uuid, username);
+            } else {
+                internalUuid = existing;
+            }
+        } else {
+            firstLogin = getName(uuid) == null;
+            saveUUIDData(uuid, username);
+        }
+
+        return LoginResult.of(loadUser(internalUuid, username), firstLogin);
+    }
+
 }
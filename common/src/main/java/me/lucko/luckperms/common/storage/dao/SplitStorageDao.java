@@ -30,11 +30,14 @@ import com.google.common.collect.ImmutableMap;
 import me.lucko.luckperms.api.HeldPermission;
 import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.LoginResult;
 import me.lucko.luckperms.common.storage.SplitStorageType;
 import me.lucko.luckperms.common.storage.StorageType;
 
@@ -102,6 +105,11 @@ public class SplitStorageDao extends AbstractDao {
         return this.backing.get(this.types.get(SplitStorageType.LOG)).getLog();
     }
 
+    @Override
+    public LogPage getLogPage(LogQuery query, int pageNo, int entriesPerPage) throws Exception {
+        return this.backing.get(this.types.get(SplitStorageType.LOG)).getLogPage(query, pageNo, entriesPerPage);
+    }
+
     @Override
     public void applyBulkUpdate(BulkUpdate bulkUpdate) throws Exception {
         StorageType userType = this.types.get(SplitStorageType.USER);
@@ -120,6 +128,11 @@ public class SplitStorageDao extends AbstractDao {
         return this.backing.get(this.types.get(SplitStorageType.USER)).loadUser(uuid, username);
     }
 
+    @Override
+    public List<User> loadUsers(Set<UUID> uuids) throws Exception {
+        return this.backing.get(this.types.get(SplitStorageType.USER)).loadUsers(uuids);
+    }
+
     @Override
     public void saveUser(User user) throws Exception {
         this.backing.get(this.types.get(SplitStorageType.USER)).saveUser(user);
@@ -146,8 +159,13 @@ public class SplitStorageDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllGroups() throws Exception {
-        this.backing.get(this.types.get(SplitStorageType.GROUP)).loadAllGroups();
+    public Map<String, Long> getGroupVersions() throws Exception {
+        return this.backing.get(this.types.get(SplitStorageType.GROUP)).getGroupVersions();
+    }
+
+    @Override
+    public void loadAllGroups(boolean force) throws Exception {
+        this.backing.get(this.types.get(SplitStorageType.GROUP)).loadAllGroups(force);
     }
 
     @Override
@@ -176,8 +194,13 @@ public class SplitStorageDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllTracks() throws Exception {
-        this.backing.get(this.types.get(SplitStorageType.TRACK)).loadAllTracks();
+    public Map<String, Long> getTrackVersions() throws Exception {
+        return this.backing.get(this.types.get(SplitStorageType.TRACK)).getTrackVersions();
+    }
+
+    @Override
+    public void loadAllTracks(boolean force) throws Exception {
+        this.backing.get(this.types.get(SplitStorageType.TRACK)).loadAllTracks(force);
     }
 
     @Override
@@ -204,4 +227,15 @@ public class SplitStorageDao extends AbstractDao {
     public String getName(UUID uuid) throws Exception {
         return this.backing.get(this.types.get(SplitStorageType.UUID)).getName(uuid);
     }
+
+    @Override
+    public LoginResult loginUser(UUID uuid, String username, boolean lookupUuid) throws Exception {
+        StorageType userType = this.types.get(SplitStorageType.USER);
+
+        // the backend can only process the login in one go if it holds both the uuid and user data
+        if (userType == this.types.get(SplitStorageType.UUID)) {
+            return this.backing.get(userType).loginUser(uuid, username, lookupUuid);
+        }
+        return super.loginUser(uuid, username, lookupUuid);
+    }
 }
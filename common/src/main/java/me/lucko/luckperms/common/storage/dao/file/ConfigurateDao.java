@@ -38,8 +38,6 @@ import me.lucko.luckperms.common.commands.CommandManager;
 import me.lucko.luckperms.common.commands.utils.CommandUtils;
 import me.lucko.luckperms.common.contexts.ContextSetConfigurateSerializer;
 import me.lucko.luckperms.common.managers.GenericUserManager;
-import me.lucko.luckperms.common.managers.GroupManager;
-import me.lucko.luckperms.common.managers.TrackManager;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
@@ -61,12 +59,15 @@ import ninja.leaping.configurate.loader.ConfigurationLoader;
 import java.io.File;
 import java.io.FilenameFilter;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -75,6 +76,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.FileHandler;
 import java.util.logging.Formatter;
 import java.util.logging.Level;
@@ -130,6 +132,40 @@ public abstract class ConfigurateDao extends AbstractDao {
         saveFile(file, node);
     }
 
+    private long getVersion(StorageLocation location, String name) {
+        return getVersion(new File(getDirectory(location), name + this.fileExtension));
+    }
+
+    // the version of a file-backed holder is derived from the full resolution last modified time and
+    // the length of its file, so it can be read without parsing the file, and changes made to the file
+    // by hand are picked up too. the length catches most changes made within the timestamp resolution.
+    private static long getVersion(File file) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        } catch (IOException e) {
+            return 0L;
+        }
+
+        long version = attributes.lastModifiedTime().to(TimeUnit.MICROSECONDS) * 31L + attributes.size();
+        return version == 0L ? 1L : version;
+    }
+
+    private Map<String, Long> getVersions(StorageLocation location) throws IOException {
+        File directory = getDirectory(location);
+        String[] fileNames = directory.list(getFileTypeFilter());
+        if (fileNames == null) {
+            throw new IOException("Not a directory");
+        }
+
+        Map<String, Long> versions = new HashMap<>();
+        for (String fileName : fileNames) {
+            String name = fileName.substring(0, fileName.length() - this.fileExtension.length());
+            versions.put(name, getVersion(new File(directory, fileName)));
+        }
+        return versions;
+    }
+
     private void saveFile(File file, ConfigurationNode node) throws IOException {
         if (node == null) {
             if (file.exists()) {
@@ -294,7 +330,7 @@ public abstract class ConfigurateDao extends AbstractDao {
 
                 String trackName = s.substring(0, s.length() - this.fileExtension.length());
                 this.plugin.getLog().info("[FileWatcher] Refreshing track " + trackName);
-                this.plugin.getStorage().loadAllTracks();
+                this.plugin.getStorage().loadAllTracks(false);
             });
         });
     }
@@ -481,11 +517,13 @@ public abstract class ConfigurateDao extends AbstractDao {
         Group group = this.plugin.getGroupManager().getOrMake(name);
         group.getIoLock().lock();
         try {
+            long version = getVersion(StorageLocation.GROUP, name);
             ConfigurationNode object = readFile(StorageLocation.GROUP, name);
 
             if (object != null) {
                 Set<Node> nodes = readNodes(object).stream().map(NodeModel::toNode).collect(Collectors.toSet());
                 group.setEnduringNodes(nodes);
+                group.setVersion(version);
             } else {
                 ConfigurationNode data = SimpleConfigurationNode.root();
                 data.getNode("name").setValue(group.getName());
@@ -494,6 +532,7 @@ public abstract class ConfigurateDao extends AbstractDao {
                 writeNodes(data, nodes);
 
                 saveFile(StorageLocation.GROUP, name, data);
+                group.setVersion(getVersion(StorageLocation.GROUP, name));
             }
         } catch (Exception e) {
             throw reportException(name, e);
@@ -512,6 +551,7 @@ public abstract class ConfigurateDao extends AbstractDao {
         }
 
         try {
+            long version = getVersion(StorageLocation.GROUP, name);
             ConfigurationNode object = readFile(StorageLocation.GROUP, name);
 
             if (object == null) {
@@ -526,6 +566,7 @@ public abstract class ConfigurateDao extends AbstractDao {
             Set<NodeModel> data = readNodes(object);
             Set<Node> nodes = data.stream().map(NodeModel::toNode).collect(Collectors.toSet());
             group.setEnduringNodes(nodes);
+            group.setVersion(version);
 
         } catch (Exception e) {
             throw reportException(name, e);
@@ -539,33 +580,8 @@ public abstract class ConfigurateDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllGroups() throws IOException {
-        String[] fileNames = this.groupsDirectory.list(getFileTypeFilter());
-        if (fileNames == null) {
-            throw new IOException("Not a directory");
-        }
-        List<String> groups = Arrays.stream(fileNames)
-                .map(s -> s.substring(0, s.length() - this.fileExtension.length()))
-                .collect(Collectors.toList());
-
-        boolean success = true;
-        for (String g : groups) {
-            try {
-                loadGroup(g);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a group");
-        }
-
-        GroupManager gm = this.plugin.getGroupManager();
-        gm.getAll().values().stream()
-                .filter(g -> !groups.contains(g.getName()))
-                .forEach(gm::unload);
+    public Map<String, Long> getGroupVersions() throws IOException {
+        return getVersions(StorageLocation.GROUP);
     }
 
     @Override
@@ -579,6 +595,7 @@ public abstract class ConfigurateDao extends AbstractDao {
             writeNodes(data, nodes);
 
             saveFile(StorageLocation.GROUP, group.getName(), data);
+            group.setVersion(getVersion(StorageLocation.GROUP, group.getName()));
         } catch (Exception e) {
             throw reportException(group.getName(), e);
         } finally {
@@ -636,6 +653,7 @@ public abstract class ConfigurateDao extends AbstractDao {
         Track track = this.plugin.getTrackManager().getOrMake(name);
         track.getIoLock().lock();
         try {
+            long version = getVersion(StorageLocation.TRACK, name);
             ConfigurationNode object = readFile(StorageLocation.TRACK, name);
 
             if (object != null) {
@@ -644,11 +662,13 @@ public abstract class ConfigurateDao extends AbstractDao {
                         .collect(ImmutableCollectors.toList());
 
                 track.setGroups(groups);
+                track.setVersion(version);
             } else {
                 ConfigurationNode data = SimpleConfigurationNode.root();
                 data.getNode("name").setValue(name);
                 data.getNode("groups").setValue(track.getGroups());
                 saveFile(StorageLocation.TRACK, name, data);
+                track.setVersion(getVersion(StorageLocation.TRACK, name));
             }
 
         } catch (Exception e) {
@@ -667,6 +687,7 @@ public abstract class ConfigurateDao extends AbstractDao {
         }
 
         try {
+            long version = getVersion(StorageLocation.TRACK, name);
             ConfigurationNode object = readFile(StorageLocation.TRACK, name);
 
             if (object == null) {
@@ -683,6 +704,7 @@ public abstract class ConfigurateDao extends AbstractDao {
                     .collect(ImmutableCollectors.toList());
 
             track.setGroups(groups);
+            track.setVersion(version);
 
         } catch (Exception e) {
             throw reportException(name, e);
@@ -695,33 +717,8 @@ public abstract class ConfigurateDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllTracks() throws IOException {
-        String[] fileNames = this.tracksDirectory.list(getFileTypeFilter());
-        if (fileNames == null) {
-            throw new IOException("Not a directory");
-        }
-        List<String> tracks = Arrays.stream(fileNames)
-                .map(s -> s.substring(0, s.length() - this.fileExtension.length()))
-                .collect(Collectors.toList());
-
-        boolean success = true;
-        for (String t : tracks) {
-            try {
-                loadTrack(t);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a track");
-        }
-
-        TrackManager tm = this.plugin.getTrackManager();
-        tm.getAll().values().stream()
-                .filter(t -> !tracks.contains(t.getName()))
-                .forEach(tm::unload);
+    public Map<String, Long> getTrackVersions() throws IOException {
+        return getVersions(StorageLocation.TRACK);
     }
 
     @Override
@@ -732,6 +729,7 @@ public abstract class ConfigurateDao extends AbstractDao {
             data.getNode("name").setValue(track.getName());
             data.getNode("groups").setValue(track.getGroups());
             saveFile(StorageLocation.TRACK, track.getName(), data);
+            track.setVersion(getVersion(StorageLocation.TRACK, track.getName()));
         } catch (Exception e) {
             throw reportException(track.getName(), e);
         } finally {
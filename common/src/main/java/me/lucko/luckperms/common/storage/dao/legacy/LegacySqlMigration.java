@@ -220,7 +220,7 @@ public class LegacySqlMigration implements Runnable {
             String permsJson = e.getValue();
 
             try (Connection c = this.backing.getProvider().getConnection()) {
-                try (PreparedStatement ps = c.prepareStatement(this.backing.getPrefix().apply("INSERT INTO {prefix}groups VALUES(?)"))) {
+                try (PreparedStatement ps = c.prepareStatement(this.backing.getPrefix().apply("INSERT INTO {prefix}groups (name) VALUES(?)"))) {
                     ps.setString(1, name);
                     ps.execute();
                 }
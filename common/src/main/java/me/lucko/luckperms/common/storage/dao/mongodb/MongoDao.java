@@ -28,12 +28,23 @@ package me.lucko.luckperms.common.storage.dao.mongodb;
 import com.google.common.base.Strings;
 import com.google.common.collect.ImmutableList;
 import com.mongodb.MongoClient;
+import com.mongodb.MongoCommandException;
 import com.mongodb.MongoCredential;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndReplaceOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 
 import me.lucko.luckperms.api.HeldPermission;
 import me.lucko.luckperms.api.LogEntry;
@@ -43,10 +54,10 @@ import me.lucko.luckperms.api.context.ImmutableContextSet;
 import me.lucko.luckperms.api.context.MutableContextSet;
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.managers.GenericUserManager;
-import me.lucko.luckperms.common.managers.GroupManager;
-import me.lucko.luckperms.common.managers.TrackManager;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
@@ -56,13 +67,17 @@ import me.lucko.luckperms.common.node.NodeHeldPermission;
 import me.lucko.luckperms.common.node.NodeModel;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.references.UserIdentifier;
+import me.lucko.luckperms.common.storage.LoginResult;
 import me.lucko.luckperms.common.storage.StorageCredentials;
 import me.lucko.luckperms.common.storage.dao.AbstractDao;
 
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -70,11 +85,17 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class MongoDao extends AbstractDao {
 
+    // the error code returned when a write would duplicate a unique key
+    private static final int DUPLICATE_KEY_ERROR = 11000;
+
     private final StorageCredentials configuration;
     private MongoClient mongoClient;
     private MongoDatabase database;
@@ -109,6 +130,13 @@ public class MongoDao extends AbstractDao {
         }
 
         this.database = this.mongoClient.getDatabase(this.configuration.getDatabase());
+
+        // indexes used by the paginated log queries
+        MongoCollection<Document> actions = this.database.getCollection(this.prefix + "action");
+        actions.createIndex(Indexes.ascending("timestamp"));
+        actions.createIndex(Indexes.ascending("actor", "timestamp"));
+        actions.createIndex(Indexes.ascending("acted", "timestamp"));
+        actions.createIndex(Indexes.ascending("actedName", "timestamp"));
     }
 
     @Override
@@ -165,27 +193,99 @@ public class MongoDao extends AbstractDao {
         MongoCollection<Document> c = this.database.getCollection(this.prefix + "action");
         try (MongoCursor<Document> cursor = c.find().iterator()) {
             while (cursor.hasNext()) {
-                Document d = cursor.next();
+                log.add(readLogEntry(cursor.next()));
+            }
+        }
+        return log.build();
+    }
 
-                UUID actedUuid = null;
-                if (d.containsKey("acted")) {
-                    actedUuid = d.get("acted", UUID.class);
-                }
+    @Override
+    public LogPage getLogPage(LogQuery query, int pageNo, int entriesPerPage) {
+        MongoCollection<Document> c = this.database.getCollection(this.prefix + "action");
+        Bson filter = buildLogFilter(query);
 
-                ExtendedLogEntry e = ExtendedLogEntry.build()
-                        .timestamp(d.getLong("timestamp"))
-                        .actor(d.get("actor", UUID.class))
-                        .actorName(d.getString("actorName"))
-                        .type(LogEntry.Type.valueOf(d.getString("type").toCharArray()[0]))
-                        .acted(actedUuid)
-                        .actedName(d.getString("actedName"))
-                        .action(d.getString("action"))
-                        .build();
-
-                log.add(e);
+        int totalEntries = (int) c.count(filter);
+        pageNo = LogPage.resolvePageNo(pageNo, totalEntries, entriesPerPage);
+        if (pageNo < 1 || pageNo > LogPage.getMaxPages(totalEntries, entriesPerPage)) {
+            return LogPage.empty(pageNo, totalEntries, entriesPerPage);
+        }
+
+        int offset = LogPage.getOffset(pageNo, entriesPerPage);
+        int limit = Math.min(entriesPerPage, totalEntries - offset);
+
+        // most lookups are for recent entries - when the page is closer to the end
+        // of the log, scan backwards from the most recent entry instead.
+        boolean reverse = offset > totalEntries / 2;
+        Bson sort = reverse ? Sorts.descending("timestamp", "_id") : Sorts.ascending("timestamp", "_id");
+
+        List<ExtendedLogEntry> entries = new ArrayList<>(limit);
+        try (MongoCursor<Document> cursor = c.find(filter).sort(sort).skip(reverse ? totalEntries - offset - limit : offset).limit(limit).iterator()) {
+            while (cursor.hasNext()) {
+                entries.add(readLogEntry(cursor.next()));
             }
         }
-        return log.build();
+
+        if (reverse) {
+            Collections.reverse(entries);
+        }
+
+        SortedMap<Integer, ExtendedLogEntry> out = new TreeMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            out.put(offset + i + 1, entries.get(i));
+        }
+        return new LogPage(out, pageNo, totalEntries, entriesPerPage);
+    }
+
+    private static Bson buildLogFilter(LogQuery query) {
+        List<Bson> filters = new ArrayList<>();
+        if (query.getActor() != null) {
+            filters.add(Filters.eq("actor", query.getActor()));
+        }
+        if (query.getType() != null) {
+            filters.add(Filters.eq("type", Character.toString(query.getType().getCode())));
+        }
+        if (query.getActed() != null) {
+            filters.add(Filters.eq("acted", query.getActed()));
+        }
+        if (query.getActedName() != null) {
+            filters.add(Filters.eq("actedName", query.getActedName()));
+        }
+        if (query.getAfter() != Long.MIN_VALUE) {
+            filters.add(Filters.gte("timestamp", query.getAfter()));
+        }
+        if (query.getBefore() != Long.MAX_VALUE) {
+            filters.add(Filters.lte("timestamp", query.getBefore()));
+        }
+        if (query.getSearch() != null) {
+            Pattern pattern = Pattern.compile(Pattern.quote(query.getSearch()), Pattern.CASE_INSENSITIVE);
+            filters.add(Filters.or(
+                    Filters.regex("actorName", pattern),
+                    Filters.regex("actedName", pattern),
+                    Filters.regex("action", pattern)
+            ));
+        }
+
+        if (filters.isEmpty()) {
+            return new Document();
+        }
+        return Filters.and(filters);
+    }
+
+    private static ExtendedLogEntry readLogEntry(Document d) {
+        UUID actedUuid = null;
+        if (d.containsKey("acted")) {
+            actedUuid = d.get("acted", UUID.class);
+        }
+
+        return ExtendedLogEntry.build()
+                .timestamp(d.getLong("timestamp"))
+                .actor(d.get("actor", UUID.class))
+                .actorName(d.getString("actorName"))
+                .type(LogEntry.Type.valueOf(d.getString("type").toCharArray()[0]))
+                .acted(actedUuid)
+                .actedName(d.getString("actedName"))
+                .action(d.getString("action"))
+                .build();
     }
 
     @Override
@@ -220,21 +320,34 @@ public class MongoDao extends AbstractDao {
             try (MongoCursor<Document> cursor = c.find().iterator()) {
                 while (cursor.hasNext()) {
                     Document d = cursor.next();
-
                     String holder = d.getString("_id");
-                    Set<NodeModel> nodes = new HashSet<>(nodesFromDoc(d));
-                    Set<NodeModel> results = nodes.stream()
-                            .map(bulkUpdate::apply)
-                            .filter(Objects::nonNull)
-                            .collect(Collectors.toSet());
 
-                    if (!nodes.equals(results)) {
+                    // the write only applies if the group hasn't been saved since it was read.
+                    // otherwise, the update is applied again to the latest copy of the group.
+                    while (d != null) {
+                        Set<NodeModel> nodes = new HashSet<>(nodesFromDoc(d));
+                        Set<NodeModel> results = nodes.stream()
+                                .map(bulkUpdate::apply)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toSet());
+
+                        if (nodes.equals(results)) {
+                            break;
+                        }
+
                         List<Document> newNodes = results.stream()
                                 .map(MongoDao::nodeToDoc)
                                 .collect(Collectors.toList());
 
-                        d.append("permissions", newNodes).remove("perms");
-                        c.replaceOne(new Document("_id", holder), d);
+                        Bson filter = Filters.and(Filters.eq("_id", holder), versionFilter(d));
+                        Document update = new Document("$set", new Document("permissions", newNodes))
+                                .append("$inc", new Document("version", 1L))
+                                .append("$unset", new Document("perms", ""));
+
+                        if (c.updateOne(filter, update).getMatchedCount() != 0) {
+                            break;
+                        }
+                        d = c.find(new Document("_id", holder)).first();
                     }
                 }
             }
@@ -248,32 +361,7 @@ public class MongoDao extends AbstractDao {
         try {
             MongoCollection<Document> c = this.database.getCollection(this.prefix + "users");
             try (MongoCursor<Document> cursor = c.find(new Document("_id", user.getUuid())).iterator()) {
-                if (cursor.hasNext()) {
-                    // User exists, let's load.
-                    Document d = cursor.next();
-
-                    String name = d.getString("name");
-                    user.getPrimaryGroup().setStoredValue(d.getString("primaryGroup"));
-
-                    Set<Node> nodes = nodesFromDoc(d).stream().map(NodeModel::toNode).collect(Collectors.toSet());
-                    user.setEnduringNodes(nodes);
-                    user.setName(name, true);
-
-                    boolean save = this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
-                    if (user.getName().isPresent() && (name == null || !user.getName().get().equalsIgnoreCase(name))) {
-                        save = true;
-                    }
-
-                    if (save) {
-                        c.replaceOne(new Document("_id", user.getUuid()), userToDoc(user));
-                    }
-                } else {
-                    if (GenericUserManager.shouldSave(user)) {
-                        user.clearNodes();
-                        user.getPrimaryGroup().setStoredValue(null);
-                        this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
-                    }
-                }
+                applyUserData(c, user, cursor.hasNext() ? cursor.next() : null);
             }
         } finally {
             user.getIoLock().unlock();
@@ -282,6 +370,61 @@ public class MongoDao extends AbstractDao {
         return user;
     }
 
+    @Override
+    public List<User> loadUsers(Set<UUID> uuids) {
+        MongoCollection<Document> c = this.database.getCollection(this.prefix + "users");
+
+        Map<UUID, Document> documents = new HashMap<>();
+        try (MongoCursor<Document> cursor = c.find(Filters.in("_id", uuids)).iterator()) {
+            while (cursor.hasNext()) {
+                Document d = cursor.next();
+                documents.put(d.get("_id", UUID.class), d);
+            }
+        }
+
+        List<User> users = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            User user = this.plugin.getUserManager().getOrMake(UserIdentifier.of(uuid, null));
+            user.getIoLock().lock();
+            try {
+                applyUserData(c, user, documents.get(uuid));
+            } finally {
+                user.getIoLock().unlock();
+            }
+            user.getRefreshBuffer().requestDirectly();
+            users.add(user);
+        }
+        return users;
+    }
+
+    // applies a loaded document (or null if the user has no data) to a user. the user's io lock must be held by the caller.
+    private void applyUserData(MongoCollection<Document> c, User user, Document d) {
+        if (d != null) {
+            // User exists, let's load.
+            String name = d.getString("name");
+            user.getPrimaryGroup().setStoredValue(d.getString("primaryGroup"));
+
+            Set<Node> nodes = nodesFromDoc(d).stream().map(NodeModel::toNode).collect(Collectors.toSet());
+            user.setEnduringNodes(nodes);
+            user.setName(name, true);
+
+            boolean save = this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
+            if (user.getName().isPresent() && (name == null || !user.getName().get().equalsIgnoreCase(name))) {
+                save = true;
+            }
+
+            if (save) {
+                c.replaceOne(new Document("_id", user.getUuid()), userToDoc(user));
+            }
+        } else {
+            if (GenericUserManager.shouldSave(user)) {
+                user.clearNodes();
+                user.getPrimaryGroup().setStoredValue(null);
+                this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
+            }
+        }
+    }
+
     @Override
     public void saveUser(User user) {
         user.getIoLock().lock();
@@ -297,6 +440,38 @@ public class MongoDao extends AbstractDao {
         }
     }
 
+    @Override
+    public void saveUsers(Collection<User> users) {
+        List<WriteModel<Document>> userWrites = new ArrayList<>(users.size());
+        List<WriteModel<Document>> uuidWrites = new ArrayList<>(users.size());
+
+        for (User user : users) {
+            user.getIoLock().lock();
+            try {
+                Document id = new Document("_id", user.getUuid());
+                if (!GenericUserManager.shouldSave(user)) {
+                    userWrites.add(new DeleteOneModel<>(id));
+                } else {
+                    userWrites.add(new ReplaceOneModel<>(id, userToDoc(user), new UpdateOptions().upsert(true)));
+                }
+
+                user.getName().ifPresent(name -> uuidWrites.add(new ReplaceOneModel<>(id,
+                        new Document("_id", user.getUuid()).append("name", name.toLowerCase()),
+                        new UpdateOptions().upsert(true)
+                )));
+            } finally {
+                user.getIoLock().unlock();
+            }
+        }
+
+        if (!userWrites.isEmpty()) {
+            this.database.getCollection(this.prefix + "users").bulkWrite(userWrites, new BulkWriteOptions().ordered(false));
+        }
+        if (!uuidWrites.isEmpty()) {
+            this.database.getCollection(this.prefix + "uuid").bulkWrite(uuidWrites, new BulkWriteOptions().ordered(false));
+        }
+    }
+
     @Override
     public Set<UUID> getUniqueUsers() {
         Set<UUID> uuids = new HashSet<>();
@@ -342,8 +517,11 @@ public class MongoDao extends AbstractDao {
                     Document d = cursor.next();
                     Set<Node> nodes = nodesFromDoc(d).stream().map(NodeModel::toNode).collect(Collectors.toSet());
                     group.setEnduringNodes(nodes);
+                    group.setVersion(versionFromDoc(d));
                 } else {
-                    c.insertOne(groupToDoc(group));
+                    long version = System.currentTimeMillis();
+                    c.insertOne(groupToDoc(group).append("version", version));
+                    group.setVersion(version);
                 }
             }
         } finally {
@@ -374,6 +552,7 @@ public class MongoDao extends AbstractDao {
                 Document d = cursor.next();
                 Set<Node> nodes = nodesFromDoc(d).stream().map(NodeModel::toNode).collect(Collectors.toSet());
                 group.setEnduringNodes(nodes);
+                group.setVersion(versionFromDoc(d));
             }
         } finally {
             if (group != null) {
@@ -385,34 +564,8 @@ public class MongoDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllGroups() {
-        List<String> groups = new ArrayList<>();
-        MongoCollection<Document> c = this.database.getCollection(this.prefix + "groups");
-        try (MongoCursor<Document> cursor = c.find().iterator()) {
-            while (cursor.hasNext()) {
-                String name = cursor.next().getString("_id");
-                groups.add(name);
-            }
-        }
-
-        boolean success = true;
-        for (String g : groups) {
-            try {
-                loadGroup(g);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a group");
-        }
-
-        GroupManager gm = this.plugin.getGroupManager();
-        gm.getAll().values().stream()
-                .filter(g -> !groups.contains(g.getName()))
-                .forEach(gm::unload);
+    public Map<String, Long> getGroupVersions() {
+        return getVersions(this.database.getCollection(this.prefix + "groups"));
     }
 
     @Override
@@ -420,7 +573,12 @@ public class MongoDao extends AbstractDao {
         group.getIoLock().lock();
         try {
             MongoCollection<Document> c = this.database.getCollection(this.prefix + "groups");
-            c.replaceOne(new Document("_id", group.getName()), groupToDoc(group), new UpdateOptions().upsert(true));
+            Document update = new Document("$set", new Document("permissions", groupToDoc(group).get("permissions")))
+                    .append("$inc", new Document("version", 1L))
+                    .append("$unset", new Document("perms", ""));
+
+            Document d = c.findOneAndUpdate(new Document("_id", group.getName()), update, new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+            group.setVersion(nextVersion(d, group.getVersion()));
         } finally {
             group.getIoLock().unlock();
         }
@@ -466,11 +624,14 @@ public class MongoDao extends AbstractDao {
             MongoCollection<Document> c = this.database.getCollection(this.prefix + "tracks");
             try (MongoCursor<Document> cursor = c.find(new Document("_id", track.getName())).iterator()) {
                 if (!cursor.hasNext()) {
-                    c.insertOne(trackToDoc(track));
+                    long version = System.currentTimeMillis();
+                    c.insertOne(trackToDoc(track).append("version", version));
+                    track.setVersion(version);
                 } else {
                     Document d = cursor.next();
                     //noinspection unchecked
                     track.setGroups((List<String>) d.get("groups"));
+                    track.setVersion(versionFromDoc(d));
                 }
             }
         } finally {
@@ -501,6 +662,7 @@ public class MongoDao extends AbstractDao {
                 Document d = cursor.next();
                 //noinspection unchecked
                 track.setGroups((List<String>) d.get("groups"));
+                track.setVersion(versionFromDoc(d));
             }
         } finally {
             if (track != null) {
@@ -511,34 +673,8 @@ public class MongoDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllTracks() {
-        List<String> tracks = new ArrayList<>();
-        MongoCollection<Document> c = this.database.getCollection(this.prefix + "tracks");
-        try (MongoCursor<Document> cursor = c.find().iterator()) {
-            while (cursor.hasNext()) {
-                String name = cursor.next().getString("_id");
-                tracks.add(name);
-            }
-        }
-
-        boolean success = true;
-        for (String t : tracks) {
-            try {
-                loadTrack(t);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a track");
-        }
-
-        TrackManager tm = this.plugin.getTrackManager();
-        tm.getAll().values().stream()
-                .filter(t -> !tracks.contains(t.getName()))
-                .forEach(tm::unload);
+    public Map<String, Long> getTrackVersions() {
+        return getVersions(this.database.getCollection(this.prefix + "tracks"));
     }
 
     @Override
@@ -546,7 +682,11 @@ public class MongoDao extends AbstractDao {
         track.getIoLock().lock();
         try {
             MongoCollection<Document> c = this.database.getCollection(this.prefix + "tracks");
-            c.replaceOne(new Document("_id", track.getName()), trackToDoc(track));
+            Document update = new Document("$set", new Document("groups", track.getGroups()))
+                    .append("$inc", new Document("version", 1L));
+
+            Document d = c.findOneAndUpdate(new Document("_id", track.getName()), update, new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+            track.setVersion(nextVersion(d, track.getVersion()));
         } finally {
             track.getIoLock().unlock();
         }
@@ -591,6 +731,44 @@ public class MongoDao extends AbstractDao {
         return null;
     }
 
+    @Override
+    public LoginResult loginUser(UUID uuid, String username, boolean lookupUuid) {
+        MongoCollection<Document> c = this.database.getCollection(this.prefix + "uuid");
+        Document uuidDoc = new Document("_id", uuid).append("name", username.toLowerCase());
+
+        UUID internalUuid = uuid;
+        boolean firstLogin;
+
+        if (lookupUuid) {
+            // look up the uuid for the username, inserting the connecting uuid if there isn't
+            // one already, in a single round-trip
+            FindOneAndUpdateOptions options = new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.BEFORE);
+            Document existing;
+            try {
+                existing = c.findOneAndUpdate(new Document("name", uuidDoc.getString("name")), new Document("$setOnInsert", new Document("_id", uuid)), options);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() != DUPLICATE_KEY_ERROR) {
+                    throw e;
+                }
+
+                // the connecting uuid is already stored with a different name
+                c.replaceOne(new Document("_id", uuid), uuidDoc);
+                existing = null;
+            }
+
+            firstLogin = existing == null;
+            if (!firstLogin) {
+                internalUuid = existing.get("_id", UUID.class);
+            }
+        } else {
+            // upsert the uuid data and read the previous value in a single round-trip
+            FindOneAndReplaceOptions options = new FindOneAndReplaceOptions().upsert(true).returnDocument(ReturnDocument.BEFORE);
+            firstLogin = c.findOneAndReplace(new Document("_id", uuid), uuidDoc, options) == null;
+        }
+
+        return LoginResult.of(loadUser(internalUuid, username), firstLogin);
+    }
+
     private static Document userToDoc(User user) {
         List<Document> nodes = user.getEnduringNodes().values().stream()
                 .map(NodeModel::fromNode)
@@ -642,6 +820,38 @@ public class MongoDao extends AbstractDao {
         return new Document("_id", track.getName()).append("groups", track.getGroups());
     }
 
+    private static Map<String, Long> getVersions(MongoCollection<Document> c) {
+        Map<String, Long> versions = new HashMap<>();
+        try (MongoCursor<Document> cursor = c.find().projection(new Document("version", 1)).iterator()) {
+            while (cursor.hasNext()) {
+                Document d = cursor.next();
+                versions.put(d.getString("_id"), versionFromDoc(d));
+            }
+        }
+        return versions;
+    }
+
+    private static long versionFromDoc(Document d) {
+        Object version = d.get("version");
+        return version instanceof Number ? ((Number) version).longValue() : 0L;
+    }
+
+    private static Bson versionFilter(Document d) {
+        Object version = d.get("version");
+        return version == null ? Filters.exists("version", false) : Filters.eq("version", version);
+    }
+
+    /**
+     * Gets the local version of a holder after it has been incremented.
+     *
+     * <p>If another writer has saved the holder in the meantime, the local
+     * data is no longer in sync with storage, so the local version is left
+     * unchanged and the holder will be reloaded by the next sync.</p>
+     */
+    private static long nextVersion(Document d, long previous) {
+        return d != null && versionFromDoc(d) == previous + 1 ? previous + 1 : previous;
+    }
+
     private static Document nodeToDoc(NodeModel node) {
         Document document = new Document();
 
@@ -26,6 +26,8 @@
 package me.lucko.luckperms.common.storage.dao.sql;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
@@ -35,11 +37,11 @@ import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.api.Node;
 import me.lucko.luckperms.common.actionlog.ExtendedLogEntry;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.contexts.ContextSetJsonSerializer;
 import me.lucko.luckperms.common.managers.GenericUserManager;
-import me.lucko.luckperms.common.managers.GroupManager;
-import me.lucko.luckperms.common.managers.TrackManager;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
@@ -48,6 +50,7 @@ import me.lucko.luckperms.common.node.NodeHeldPermission;
 import me.lucko.luckperms.common.node.NodeModel;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 import me.lucko.luckperms.common.references.UserIdentifier;
+import me.lucko.luckperms.common.storage.LoginResult;
 import me.lucko.luckperms.common.storage.dao.AbstractDao;
 import me.lucko.luckperms.common.storage.dao.legacy.LegacySqlMigration;
 import me.lucko.luckperms.common.storage.dao.sql.connection.AbstractConnectionFactory;
@@ -65,11 +68,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
@@ -79,7 +89,11 @@ import java.util.stream.Collectors;
 public class SqlDao extends AbstractDao {
     private static final Type LIST_STRING_TYPE = new TypeToken<List<String>>(){}.getType();
 
+    // the maximum number of users fetched by a single query in #loadUsers
+    private static final int LOAD_USERS_BATCH_SIZE = 500;
+
     private static final String USER_PERMISSIONS_SELECT = "SELECT permission, value, server, world, expiry, contexts FROM {prefix}user_permissions WHERE uuid=?";
+    private static final String USER_PERMISSIONS_SELECT_MULTIPLE = "SELECT uuid, permission, value, server, world, expiry, contexts FROM {prefix}user_permissions WHERE uuid IN ({params})";
     private static final String USER_PERMISSIONS_DELETE_SPECIFIC = "DELETE FROM {prefix}user_permissions WHERE uuid=? AND permission=? AND value=? AND server=? AND world=? AND expiry=? AND contexts=?";
     private static final String USER_PERMISSIONS_DELETE = "DELETE FROM {prefix}user_permissions WHERE uuid=?";
     private static final String USER_PERMISSIONS_INSERT = "INSERT INTO {prefix}user_permissions(uuid, permission, value, server, world, expiry, contexts) VALUES(?, ?, ?, ?, ?, ?, ?)";
@@ -87,6 +101,7 @@ public class SqlDao extends AbstractDao {
     private static final String USER_PERMISSIONS_SELECT_PERMISSION = "SELECT uuid, value, server, world, expiry, contexts FROM {prefix}user_permissions WHERE permission=?";
 
     private static final String PLAYER_SELECT = "SELECT username, primary_group FROM {prefix}players WHERE uuid=?";
+    private static final String PLAYER_SELECT_MULTIPLE = "SELECT uuid, username, primary_group FROM {prefix}players WHERE uuid IN ({params})";
     private static final String PLAYER_SELECT_UUID = "SELECT uuid FROM {prefix}players WHERE username=? LIMIT 1";
     private static final String PLAYER_SELECT_USERNAME = "SELECT username FROM {prefix}players WHERE uuid=? LIMIT 1";
     private static final String PLAYER_SELECT_PRIMARY_GROUP = "SELECT primary_group FROM {prefix}players WHERE uuid=? LIMIT 1";
@@ -101,21 +116,44 @@ public class SqlDao extends AbstractDao {
     private static final String GROUP_PERMISSIONS_INSERT = "INSERT INTO {prefix}group_permissions(name, permission, value, server, world, expiry, contexts) VALUES(?, ?, ?, ?, ?, ?, ?)";
     private static final String GROUP_PERMISSIONS_SELECT_PERMISSION = "SELECT name, value, server, world, expiry, contexts FROM {prefix}group_permissions WHERE permission=?";
 
-    private static final String GROUP_SELECT_ALL = "SELECT name FROM {prefix}groups";
+    private static final String GROUP_SELECT_ALL = "SELECT name, version FROM {prefix}groups";
+    private static final String GROUP_SELECT_VERSION = "SELECT version FROM {prefix}groups WHERE name=?";
+    private static final String GROUP_SEED_VERSION = "UPDATE {prefix}groups SET version=? WHERE name=? AND version=0";
+    private static final String GROUP_INCREMENT_VERSION = "UPDATE {prefix}groups SET version=version+1 WHERE name=?";
+    private static final String GROUP_INCREMENT_VERSION_ALL = "UPDATE {prefix}groups SET version=version+1";
     private static final String MYSQL_GROUP_INSERT = "INSERT INTO {prefix}groups (name) VALUES(?) ON DUPLICATE KEY UPDATE name=name";
     private static final String H2_GROUP_INSERT = "MERGE INTO {prefix}groups (name) VALUES(?)";
     private static final String SQLITE_GROUP_INSERT = "INSERT OR IGNORE INTO {prefix}groups (name) VALUES(?)";
     private static final String POSTGRESQL_GROUP_INSERT = "INSERT INTO {prefix}groups (name) VALUES(?) ON CONFLICT (name) DO NOTHING";
     private static final String GROUP_DELETE = "DELETE FROM {prefix}groups WHERE name=?";
 
-    private static final String TRACK_INSERT = "INSERT INTO {prefix}tracks VALUES(?, ?)";
-    private static final String TRACK_SELECT = "SELECT groups FROM {prefix}tracks WHERE name=?";
-    private static final String TRACK_SELECT_ALL = "SELECT * FROM {prefix}tracks";
-    private static final String TRACK_UPDATE = "UPDATE {prefix}tracks SET groups=? WHERE name=?";
+    private static final String TRACK_INSERT = "INSERT INTO {prefix}tracks (name, groups, version) VALUES(?, ?, ?)";
+    private static final String TRACK_SELECT = "SELECT groups, version FROM {prefix}tracks WHERE name=?";
+    private static final String TRACK_SELECT_ALL = "SELECT name, version FROM {prefix}tracks";
+    private static final String TRACK_SELECT_VERSION = "SELECT version FROM {prefix}tracks WHERE name=?";
+    private static final String TRACK_UPDATE = "UPDATE {prefix}tracks SET groups=?, version=version+1 WHERE name=?";
     private static final String TRACK_DELETE = "DELETE FROM {prefix}tracks WHERE name=?";
 
     private static final String ACTION_INSERT = "INSERT INTO {prefix}actions(time, actor_uuid, actor_name, type, acted_uuid, acted_name, action) VALUES(?, ?, ?, ?, ?, ?, ?)";
     private static final String ACTION_SELECT_ALL = "SELECT * FROM {prefix}actions";
+    private static final String ACTION_SELECT_COUNT = "SELECT COUNT(*) FROM {prefix}actions";
+    private static final String ACTION_SELECT_PAGE = "SELECT time, actor_uuid, actor_name, type, acted_uuid, acted_name, action FROM {prefix}actions";
+    private static final String ACTION_ORDER_ASC = " ORDER BY time ASC, id ASC LIMIT ? OFFSET ?";
+    private static final String ACTION_ORDER_DESC = " ORDER BY time DESC, id DESC LIMIT ? OFFSET ?";
+
+    // indexes used by the paginated log queries
+    private static final Map<String, String> ACTION_INDEXES = ImmutableMap.of(
+            "{prefix}actions_time", "CREATE INDEX {prefix}actions_time ON {prefix}actions (time)",
+            "{prefix}actions_actor_uuid", "CREATE INDEX {prefix}actions_actor_uuid ON {prefix}actions (actor_uuid, time)",
+            "{prefix}actions_acted_uuid", "CREATE INDEX {prefix}actions_acted_uuid ON {prefix}actions (acted_uuid, time)",
+            "{prefix}actions_acted_name", "CREATE INDEX {prefix}actions_acted_name ON {prefix}actions (acted_name, time)"
+    );
+
+    // version columns used to skip unchanged groups & tracks when reloading
+    private static final Map<String, String> VERSION_COLUMNS = ImmutableMap.of(
+            "{prefix}groups", "ALTER TABLE {prefix}groups ADD COLUMN version BIGINT NOT NULL DEFAULT 0",
+            "{prefix}tracks", "ALTER TABLE {prefix}tracks ADD COLUMN version BIGINT NOT NULL DEFAULT 0"
+    );
 
 
     private final Gson gson;
@@ -156,6 +194,100 @@ public class SqlDao extends AbstractDao {
         }
     }
 
+    // gets the name of a table as it is stored by the database, which may differ in case
+    private static String getStoredTableName(Connection connection, String table) throws SQLException {
+        Set<String> patterns = new LinkedHashSet<>(Arrays.asList(table, table.toUpperCase(), table.toLowerCase()));
+        for (String pattern : patterns) {
+            try (ResultSet rs = connection.getMetaData().getTables(connection.getCatalog(), null, pattern, null)) {
+                while (rs.next()) {
+                    if (rs.getString("TABLE_NAME").equalsIgnoreCase(table)) {
+                        return rs.getString("TABLE_NAME");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private interface SqlFunction<T> {
+        T apply(Connection connection) throws SQLException;
+    }
+
+    // runs an action in a single transaction, using the current isolation level of the connection
+    private static <T> T transaction(Connection connection, SqlFunction<T> action) throws SQLException {
+        return transaction(connection, connection.getTransactionIsolation(), action);
+    }
+
+    /**
+     * Runs an action in a single transaction on the given connection.
+     *
+     * <p>The previous auto commit mode and isolation level of the connection
+     * are restored afterwards, as file based connections are shared.</p>
+     *
+     * @param connection the connection
+     * @param isolation the isolation level to use, if supported by the database
+     * @param action the action
+     * @param <T> the result type
+     * @return the result of the action
+     * @throws SQLException if the action fails
+     */
+    private static <T> T transaction(Connection connection, int isolation, SqlFunction<T> action) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        int previousIsolation = connection.getTransactionIsolation();
+        boolean setIsolation = previousIsolation != isolation && connection.getMetaData().supportsTransactionIsolationLevel(isolation);
+
+        if (setIsolation) {
+            connection.setTransactionIsolation(isolation);
+        }
+        connection.setAutoCommit(false);
+        try {
+            T result = action.apply(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            if (setIsolation) {
+                connection.setTransactionIsolation(previousIsolation);
+            }
+        }
+    }
+
+    private static boolean indexExists(Connection connection, String table, String index) throws SQLException {
+        String storedTable = getStoredTableName(connection, table);
+        if (storedTable == null) {
+            return false;
+        }
+
+        try (ResultSet rs = connection.getMetaData().getIndexInfo(null, null, storedTable, false, false)) {
+            while (rs.next()) {
+                String name = rs.getString("INDEX_NAME");
+                if (name != null && name.equalsIgnoreCase(index)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        String storedTable = getStoredTableName(connection, table);
+        if (storedTable == null) {
+            return false;
+        }
+
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, storedTable, null)) {
+            while (rs.next()) {
+                if (rs.getString("COLUMN_NAME").equalsIgnoreCase(column)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
     @Override
     public void init() {
         try {
@@ -216,6 +348,38 @@ public class SqlDao extends AbstractDao {
                 }
             }
 
+            // add indexes to the actions table for existing installs
+            try (Connection connection = this.provider.getConnection()) {
+                String table = this.prefix.apply("{prefix}actions");
+                for (Map.Entry<String, String> index : ACTION_INDEXES.entrySet()) {
+                    if (indexExists(connection, table, this.prefix.apply(index.getKey()))) {
+                        continue;
+                    }
+
+                    try (Statement s = connection.createStatement()) {
+                        s.execute(this.prefix.apply(index.getValue()));
+                    } catch (SQLException e) {
+                        this.plugin.getLog().warn("Unable to create index " + this.prefix.apply(index.getKey()) + ": " + e.getMessage());
+                    }
+                }
+            }
+
+            // add version columns to the groups & tracks tables for existing installs
+            try (Connection connection = this.provider.getConnection()) {
+                for (Map.Entry<String, String> column : VERSION_COLUMNS.entrySet()) {
+                    String table = this.prefix.apply(column.getKey());
+                    if (columnExists(connection, table, "version")) {
+                        continue;
+                    }
+
+                    try (Statement s = connection.createStatement()) {
+                        s.execute(this.prefix.apply(column.getValue()));
+                    } catch (SQLException e) {
+                        this.plugin.getLog().warn("Unable to add the version column to " + table + ": " + e.getMessage());
+                    }
+                }
+            }
+
         } catch (Exception e) {
             this.plugin.getLog().severe("Error occurred whilst initialising the database.");
             e.printStackTrace();
@@ -259,18 +423,7 @@ public class SqlDao extends AbstractDao {
             try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(ACTION_SELECT_ALL))) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        final String actedUuid = rs.getString("acted_uuid");
-                        ExtendedLogEntry e = ExtendedLogEntry.build()
-                                .timestamp(rs.getLong("time"))
-                                .actor(UUID.fromString(rs.getString("actor_uuid")))
-                                .actorName(rs.getString("actor_name"))
-                                .type(LogEntry.Type.valueOf(rs.getString("type").toCharArray()[0]))
-                                .acted(actedUuid.equals("null") ? null : UUID.fromString(actedUuid))
-                                .actedName(rs.getString("acted_name"))
-                                .action(rs.getString("action"))
-                                .build();
-                        
-                        log.add(e);
+                        log.add(readLogEntry(rs));
                     }
                 }
             }
@@ -278,6 +431,120 @@ public class SqlDao extends AbstractDao {
         return log.build();
     }
 
+    @Override
+    public LogPage getLogPage(LogQuery query, int pageNo, int entriesPerPage) throws SQLException {
+        List<Object> params = new ArrayList<>();
+        String where = buildLogWhereClause(query, params);
+
+        // the entries are counted and the page is read in one transaction, so the
+        // total always agrees with the contents of the page
+        try (Connection connection = this.provider.getConnection()) {
+            return transaction(connection, Connection.TRANSACTION_REPEATABLE_READ, c -> {
+                int totalEntries;
+                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(ACTION_SELECT_COUNT + where))) {
+                    for (int i = 0; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        totalEntries = rs.next() ? rs.getInt(1) : 0;
+                    }
+                }
+
+                int page = LogPage.resolvePageNo(pageNo, totalEntries, entriesPerPage);
+                if (page < 1 || page > LogPage.getMaxPages(totalEntries, entriesPerPage)) {
+                    return LogPage.empty(page, totalEntries, entriesPerPage);
+                }
+
+                int offset = LogPage.getOffset(page, entriesPerPage);
+                int limit = Math.min(entriesPerPage, totalEntries - offset);
+
+                // most lookups are for recent entries - when the page is closer to the end
+                // of the log, scan backwards from the most recent entry instead.
+                boolean reverse = offset > totalEntries / 2;
+                String order = reverse ? ACTION_ORDER_DESC : ACTION_ORDER_ASC;
+
+                List<ExtendedLogEntry> entries = new ArrayList<>(limit);
+                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(ACTION_SELECT_PAGE + where + order))) {
+                    int i = 0;
+                    for (; i < params.size(); i++) {
+                        ps.setObject(i + 1, params.get(i));
+                    }
+                    ps.setInt(i + 1, limit);
+                    ps.setInt(i + 2, reverse ? totalEntries - offset - limit : offset);
+
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            entries.add(readLogEntry(rs));
+                        }
+                    }
+                }
+
+                if (reverse) {
+                    Collections.reverse(entries);
+                }
+
+                SortedMap<Integer, ExtendedLogEntry> out = new TreeMap<>();
+                for (int i = 0; i < entries.size(); i++) {
+                    out.put(offset + i + 1, entries.get(i));
+                }
+                return new LogPage(out, page, totalEntries, entriesPerPage);
+            });
+        }
+    }
+
+    private static String buildLogWhereClause(LogQuery query, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (query.getActor() != null) {
+            conditions.add("actor_uuid=?");
+            params.add(query.getActor().toString());
+        }
+        if (query.getType() != null) {
+            conditions.add("type=?");
+            params.add(Character.toString(query.getType().getCode()));
+        }
+        if (query.getActed() != null) {
+            conditions.add("acted_uuid=?");
+            params.add(query.getActed().toString());
+        }
+        if (query.getActedName() != null) {
+            conditions.add("acted_name=?");
+            params.add(query.getActedName());
+        }
+        if (query.getAfter() != Long.MIN_VALUE) {
+            conditions.add("time>=?");
+            params.add(query.getAfter());
+        }
+        if (query.getBefore() != Long.MAX_VALUE) {
+            conditions.add("time<=?");
+            params.add(query.getBefore());
+        }
+        if (query.getSearch() != null) {
+            String pattern = "%" + query.getSearch().replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+            conditions.add("(LOWER(actor_name) LIKE ? ESCAPE '!' OR LOWER(acted_name) LIKE ? ESCAPE '!' OR LOWER(action) LIKE ? ESCAPE '!')");
+            params.add(pattern);
+            params.add(pattern);
+            params.add(pattern);
+        }
+
+        if (conditions.isEmpty()) {
+            return "";
+        }
+        return " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static ExtendedLogEntry readLogEntry(ResultSet rs) throws SQLException {
+        final String actedUuid = rs.getString("acted_uuid");
+        return ExtendedLogEntry.build()
+                .timestamp(rs.getLong("time"))
+                .actor(UUID.fromString(rs.getString("actor_uuid")))
+                .actorName(rs.getString("actor_name"))
+                .type(LogEntry.Type.valueOf(rs.getString("type").toCharArray()[0]))
+                .acted(actedUuid.equals("null") ? null : UUID.fromString(actedUuid))
+                .actedName(rs.getString("acted_name"))
+                .action(rs.getString("action"))
+                .build();
+    }
+
     @Override
     public void applyBulkUpdate(BulkUpdate bulkUpdate) throws SQLException {
         String queryString = bulkUpdate.buildAsSql();
@@ -294,6 +561,7 @@ public class SqlDao extends AbstractDao {
                 String table = this.prefix.apply("{prefix}group_permissions");
                 try (Statement s = c.createStatement()) {
                     s.execute(queryString.replace("{table}", table));
+                    s.execute(this.prefix.apply(GROUP_INCREMENT_VERSION_ALL));
                 }
             }
         }
@@ -304,77 +572,148 @@ public class SqlDao extends AbstractDao {
         User user = this.plugin.getUserManager().getOrMake(UserIdentifier.of(uuid, username));
         user.getIoLock().lock();
         try {
-            List<NodeModel> data = new ArrayList<>();
-            AtomicReference<String> primaryGroup = new AtomicReference<>(null);
-            AtomicReference<String> userName = new AtomicReference<>(null);
+            boolean save;
+            try (Connection c = this.provider.getConnection()) {
+                save = loadUserData(c, user);
+            }
+
+            // Save back to the store if data was changed
+            if (save) {
+                // This should be fine, as the lock will be acquired by the same thread.
+                saveUser(user);
+            }
+        } finally {
+            user.getIoLock().unlock();
+        }
+        user.getRefreshBuffer().requestDirectly();
+        return user;
+    }
+
+    // loads a user's data using the given connection. the user's io lock must be held by the caller.
+    // returns true if the user's data was changed, and needs to be saved back to the store.
+    private boolean loadUserData(Connection c, User user) throws SQLException {
+        List<NodeModel> data = new ArrayList<>();
+        String primaryGroup = null;
+        String userName = null;
+
+        // Collect user permissions
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(USER_PERMISSIONS_SELECT))) {
+            ps.setString(1, user.getUuid().toString());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    String permission = rs.getString("permission");
+                    boolean value = rs.getBoolean("value");
+                    String server = rs.getString("server");
+                    String world = rs.getString("world");
+                    long expiry = rs.getLong("expiry");
+                    String contexts = rs.getString("contexts");
+                    data.add(deserializeNode(permission, value, server, world, expiry, contexts));
+                }
+            }
+        }
+
+        // Collect user meta (username & primary group)
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT))) {
+            ps.setString(1, user.getUuid().toString());
+
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    userName = rs.getString("username");
+                    primaryGroup = rs.getString("primary_group");
+                }
+            }
+        }
+
+        return applyUserData(user, data, primaryGroup, userName);
+    }
+
+    @Override
+    public List<User> loadUsers(Set<UUID> uuids) throws SQLException {
+        List<User> users = new ArrayList<>(uuids.size());
+        for (List<UUID> batch : Lists.partition(new ArrayList<>(uuids), LOAD_USERS_BATCH_SIZE)) {
+            Map<String, List<NodeModel>> data = new HashMap<>();
+            Map<String, String[]> players = new HashMap<>();
+            String params = String.join(",", Collections.nCopies(batch.size(), "?"));
 
-            // Collect user permissions
             try (Connection c = this.provider.getConnection()) {
-                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(USER_PERMISSIONS_SELECT))) {
-                    ps.setString(1, user.getUuid().toString());
+                // Collect user permissions
+                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(USER_PERMISSIONS_SELECT_MULTIPLE.replace("{params}", params)))) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        ps.setString(i + 1, batch.get(i).toString());
+                    }
 
                     try (ResultSet rs = ps.executeQuery()) {
                         while (rs.next()) {
+                            String uuid = rs.getString("uuid");
                             String permission = rs.getString("permission");
                             boolean value = rs.getBoolean("value");
                             String server = rs.getString("server");
                             String world = rs.getString("world");
                             long expiry = rs.getLong("expiry");
                             String contexts = rs.getString("contexts");
-                            data.add(deserializeNode(permission, value, server, world, expiry, contexts));
+                            data.computeIfAbsent(uuid, u -> new ArrayList<>()).add(deserializeNode(permission, value, server, world, expiry, contexts));
                         }
                     }
                 }
-            }
 
-            // Collect user meta (username & primary group)
-            try (Connection c = this.provider.getConnection()) {
-                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT))) {
-                    ps.setString(1, user.getUuid().toString());
+                // Collect user meta (username & primary group)
+                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_MULTIPLE.replace("{params}", params)))) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        ps.setString(i + 1, batch.get(i).toString());
+                    }
 
                     try (ResultSet rs = ps.executeQuery()) {
-                        if (rs.next()) {
-                            userName.set(rs.getString("username"));
-                            primaryGroup.set(rs.getString("primary_group"));
+                        while (rs.next()) {
+                            players.put(rs.getString("uuid"), new String[]{rs.getString("username"), rs.getString("primary_group")});
                         }
                     }
                 }
             }
 
-            // update username & primary group
-            String pg = primaryGroup.get();
-            if (pg == null) {
-                pg = NodeFactory.DEFAULT_GROUP_NAME;
+            for (UUID uuid : batch) {
+                User user = this.plugin.getUserManager().getOrMake(UserIdentifier.of(uuid, null));
+                String[] player = players.get(uuid.toString());
+
+                user.getIoLock().lock();
+                try {
+                    if (applyUserData(user, data.getOrDefault(uuid.toString(), Collections.emptyList()), player == null ? null : player[1], player == null ? null : player[0])) {
+                        saveUser(user);
+                    }
+                } finally {
+                    user.getIoLock().unlock();
+                }
+                user.getRefreshBuffer().requestDirectly();
+                users.add(user);
             }
-            user.getPrimaryGroup().setStoredValue(pg);
+        }
+        return users;
+    }
 
-            // Update their username to what was in the storage if the one in the local instance is null
-            user.setName(userName.get(), true);
+    // applies loaded data to a user. the user's io lock must be held by the caller.
+    // returns true if the data was changed, and needs to be saved back to the store.
+    private boolean applyUserData(User user, List<NodeModel> data, String primaryGroup, String userName) {
+        // update username & primary group
+        user.getPrimaryGroup().setStoredValue(primaryGroup == null ? NodeFactory.DEFAULT_GROUP_NAME : primaryGroup);
 
-            // If the user has any data in storage
-            if (!data.isEmpty()) {
-                Set<Node> nodes = data.stream().map(NodeModel::toNode).collect(Collectors.toSet());
-                user.setEnduringNodes(nodes);
+        // Update their username to what was in the storage if the one in the local instance is null
+        user.setName(userName, true);
 
-                // Save back to the store if data was changed
-                if (this.plugin.getUserManager().giveDefaultIfNeeded(user, false)) {
-                    // This should be fine, as the lock will be acquired by the same thread.
-                    saveUser(user);
-                }
+        // If the user has any data in storage
+        if (!data.isEmpty()) {
+            Set<Node> nodes = data.stream().map(NodeModel::toNode).collect(Collectors.toSet());
+            user.setEnduringNodes(nodes);
+            return this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
 
-            } else {
-                // User has no data in storage.
-                if (GenericUserManager.shouldSave(user)) {
-                    user.clearNodes();
-                    user.getPrimaryGroup().setStoredValue(null);
-                    this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
-                }
+        } else {
+            // User has no data in storage.
+            if (GenericUserManager.shouldSave(user)) {
+                user.clearNodes();
+                user.getPrimaryGroup().setStoredValue(null);
+                this.plugin.getUserManager().giveDefaultIfNeeded(user, false);
             }
-        } finally {
-            user.getIoLock().unlock();
+            return false;
         }
-        user.getRefreshBuffer().requestDirectly();
-        return user;
     }
 
     @Override
@@ -493,6 +832,104 @@ public class SqlDao extends AbstractDao {
         }
     }
 
+    @Override
+    public void saveUsers(Collection<User> users) throws SQLException {
+        for (List<User> batch : Lists.partition(new ArrayList<>(users), LOAD_USERS_BATCH_SIZE)) {
+            try (Connection connection = this.provider.getConnection()) {
+                transaction(connection, c -> {
+                    saveUsers(c, batch);
+                    return null;
+                });
+            }
+        }
+    }
+
+    // writes a batch of users using a single round trip for each statement
+    private void saveUsers(Connection c, List<User> batch) throws SQLException {
+        // find which of the users already have a row in the players table
+        Set<String> existing = new HashSet<>();
+        String params = String.join(",", Collections.nCopies(batch.size(), "?"));
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_MULTIPLE.replace("{params}", params)))) {
+            for (int i = 0; i < batch.size(); i++) {
+                ps.setString(i + 1, batch.get(i).getUuid().toString());
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("uuid"));
+                }
+            }
+        }
+
+        try (PreparedStatement deletePermissions = c.prepareStatement(this.prefix.apply(USER_PERMISSIONS_DELETE));
+             PreparedStatement insertPermissions = c.prepareStatement(this.prefix.apply(USER_PERMISSIONS_INSERT));
+             PreparedStatement deletePlayers = c.prepareStatement(this.prefix.apply(PLAYER_DELETE));
+             PreparedStatement updateUsernames = c.prepareStatement(this.prefix.apply(PLAYER_UPDATE));
+             PreparedStatement updatePrimaryGroups = c.prepareStatement(this.prefix.apply(PLAYER_UPDATE_PRIMARY_GROUP));
+             PreparedStatement insertPlayers = c.prepareStatement(this.prefix.apply(PLAYER_INSERT))) {
+
+            for (User user : batch) {
+                String uuid = user.getUuid().toString();
+                String primaryGroup;
+                String username;
+
+                user.getIoLock().lock();
+                try {
+                    deletePermissions.setString(1, uuid);
+                    deletePermissions.addBatch();
+
+                    if (GenericUserManager.shouldSave(user)) {
+                        for (NodeModel nd : user.getEnduringNodes().values().stream().map(NodeModel::fromNode).collect(Collectors.toSet())) {
+                            insertPermissions.setString(1, uuid);
+                            insertPermissions.setString(2, nd.getPermission());
+                            insertPermissions.setBoolean(3, nd.getValue());
+                            insertPermissions.setString(4, nd.getServer());
+                            insertPermissions.setString(5, nd.getWorld());
+                            insertPermissions.setLong(6, nd.getExpiry());
+                            insertPermissions.setString(7, this.gson.toJson(ContextSetJsonSerializer.serializeContextSet(nd.getContexts())));
+                            insertPermissions.addBatch();
+                        }
+                        primaryGroup = user.getPrimaryGroup().getStoredValue().orElse(NodeFactory.DEFAULT_GROUP_NAME);
+                    } else {
+                        primaryGroup = NodeFactory.DEFAULT_GROUP_NAME;
+                    }
+                    username = user.getName().map(String::toLowerCase).orElse(null);
+                } finally {
+                    user.getIoLock().unlock();
+                }
+
+                if (username != null) {
+                    // cleanup any old values
+                    deletePlayers.setString(1, username);
+                    deletePlayers.setString(2, uuid);
+                    deletePlayers.addBatch();
+                }
+
+                if (existing.contains(uuid)) {
+                    if (username != null) {
+                        updateUsernames.setString(1, username);
+                        updateUsernames.setString(2, uuid);
+                        updateUsernames.addBatch();
+                    }
+                    updatePrimaryGroups.setString(1, primaryGroup);
+                    updatePrimaryGroups.setString(2, uuid);
+                    updatePrimaryGroups.addBatch();
+                } else {
+                    insertPlayers.setString(1, uuid);
+                    insertPlayers.setString(2, username == null ? "null" : username);
+                    insertPlayers.setString(3, primaryGroup);
+                    insertPlayers.addBatch();
+                }
+            }
+
+            deletePermissions.executeBatch();
+            insertPermissions.executeBatch();
+            deletePlayers.executeBatch();
+            updateUsernames.executeBatch();
+            updatePrimaryGroups.executeBatch();
+            insertPlayers.executeBatch();
+        }
+    }
+
     @Override
     public Set<UUID> getUniqueUsers() throws SQLException {
         Set<UUID> uuids = new HashSet<>();
@@ -556,6 +993,14 @@ public class SqlDao extends AbstractDao {
                 ps.setString(1, name);
                 ps.execute();
             }
+
+            // seed the version of new groups with the current time, so a group
+            // which is deleted and then recreated never reuses an old version
+            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(GROUP_SEED_VERSION))) {
+                ps.setLong(1, System.currentTimeMillis());
+                ps.setString(2, name);
+                ps.execute();
+            }
         }
 
         return loadGroup(name).get();
@@ -563,21 +1008,18 @@ public class SqlDao extends AbstractDao {
 
     @Override
     public Optional<Group> loadGroup(String name) throws SQLException {
-        // Check the group actually exists
-        List<String> groups = new ArrayList<>();
+        // Check the group actually exists, and read its version
+        long version;
         try (Connection c = this.provider.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(GROUP_SELECT_ALL))) {
+            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(GROUP_SELECT_VERSION))) {
+                ps.setString(1, name);
                 try (ResultSet rs = ps.executeQuery()) {
-                    while (rs.next()) {
-                        groups.add(rs.getString("name").toLowerCase());
+                    if (!rs.next()) {
+                        return Optional.empty();
                     }
+                    version = rs.getLong("version");
                 }
             }
-
-        }
-
-        if (!groups.contains(name)) {
-            return Optional.empty();
         }
 
         Group group = this.plugin.getGroupManager().getOrMake(name);
@@ -609,6 +1051,7 @@ public class SqlDao extends AbstractDao {
             } else {
                 group.clearNodes();
             }
+            group.setVersion(version);
         } finally {
             group.getIoLock().unlock();
         }
@@ -617,36 +1060,18 @@ public class SqlDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllGroups() throws SQLException {
-        List<String> groups = new ArrayList<>();
+    public Map<String, Long> getGroupVersions() throws SQLException {
+        Map<String, Long> versions = new HashMap<>();
         try (Connection c = this.provider.getConnection()) {
             try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(GROUP_SELECT_ALL))) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        groups.add(rs.getString("name").toLowerCase());
+                        versions.put(rs.getString("name").toLowerCase(), rs.getLong("version"));
                     }
                 }
             }
         }
-
-        boolean success = true;
-        for (String g : groups) {
-            try {
-                loadGroup(g);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a group");
-        }
-
-        GroupManager gm = this.plugin.getGroupManager();
-        gm.getAll().values().stream()
-                .filter(g -> !groups.contains(g.getName()))
-                .forEach(gm::unload);
+        return versions;
     }
 
     @Override
@@ -660,6 +1085,7 @@ public class SqlDao extends AbstractDao {
                         ps.setString(1, group.getName());
                         ps.execute();
                     }
+                    incrementGroupVersion(c, group);
                 }
                 return;
             }
@@ -726,11 +1152,44 @@ public class SqlDao extends AbstractDao {
                     }
                 }
             }
+
+            if (!toAdd.isEmpty() || !toRemove.isEmpty()) {
+                try (Connection c = this.provider.getConnection()) {
+                    incrementGroupVersion(c, group);
+                }
+            }
         } finally {
             group.getIoLock().unlock();
         }
     }
 
+    private void incrementGroupVersion(Connection c, Group group) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(GROUP_INCREMENT_VERSION))) {
+            ps.setString(1, group.getName());
+            ps.execute();
+        }
+        group.setVersion(nextVersion(c, GROUP_SELECT_VERSION, group.getName(), group.getVersion()));
+    }
+
+    /**
+     * Reads back the version of a holder after it has been incremented.
+     *
+     * <p>If another writer has saved the holder in the meantime, the local
+     * data is no longer in sync with storage, so the local version is left
+     * unchanged and the holder will be reloaded by the next sync.</p>
+     */
+    private long nextVersion(Connection c, String query, String name, long previous) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(query))) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getLong("version") == previous + 1) {
+                    return previous + 1;
+                }
+            }
+        }
+        return previous;
+    }
+
     @Override
     public void deleteGroup(Group group) throws SQLException {
         group.getIoLock().lock();
@@ -784,6 +1243,7 @@ public class SqlDao extends AbstractDao {
         try {
             AtomicBoolean exists = new AtomicBoolean(false);
             AtomicReference<String> groups = new AtomicReference<>(null);
+            long version = 0L;
 
             try (Connection c = this.provider.getConnection()) {
                 try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(TRACK_SELECT))) {
@@ -792,6 +1252,7 @@ public class SqlDao extends AbstractDao {
                         if (rs.next()) {
                             exists.set(true);
                             groups.set(rs.getString("groups"));
+                            version = rs.getLong("version");
                         }
                     }
                 }
@@ -802,14 +1263,17 @@ public class SqlDao extends AbstractDao {
                 track.setGroups(this.gson.fromJson(groups.get(), LIST_STRING_TYPE));
             } else {
                 String json = this.gson.toJson(track.getGroups());
+                version = System.currentTimeMillis();
                 try (Connection c = this.provider.getConnection()) {
                     try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(TRACK_INSERT))) {
                         ps.setString(1, track.getName());
                         ps.setString(2, json);
+                        ps.setLong(3, version);
                         ps.execute();
                     }
                 }
             }
+            track.setVersion(version);
         } finally {
             track.getIoLock().unlock();
         }
@@ -824,6 +1288,7 @@ public class SqlDao extends AbstractDao {
         }
         try {
             AtomicReference<String> groups = new AtomicReference<>(null);
+            long version;
 
             try (Connection c = this.provider.getConnection()) {
                 try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(TRACK_SELECT))) {
@@ -831,6 +1296,7 @@ public class SqlDao extends AbstractDao {
                     try (ResultSet rs = ps.executeQuery()) {
                         if (rs.next()) {
                             groups.set(rs.getString("groups"));
+                            version = rs.getLong("version");
                         } else {
                             return Optional.empty();
                         }
@@ -844,6 +1310,7 @@ public class SqlDao extends AbstractDao {
             }
 
             track.setGroups(this.gson.fromJson(groups.get(), LIST_STRING_TYPE));
+            track.setVersion(version);
             return Optional.of(track);
 
         } finally {
@@ -854,36 +1321,18 @@ public class SqlDao extends AbstractDao {
     }
 
     @Override
-    public void loadAllTracks() throws SQLException {
-        List<String> tracks = new ArrayList<>();
+    public Map<String, Long> getTrackVersions() throws SQLException {
+        Map<String, Long> versions = new HashMap<>();
         try (Connection c = this.provider.getConnection()) {
             try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(TRACK_SELECT_ALL))) {
                 try (ResultSet rs = ps.executeQuery()) {
                     while (rs.next()) {
-                        tracks.add(rs.getString("name").toLowerCase());
+                        versions.put(rs.getString("name").toLowerCase(), rs.getLong("version"));
                     }
                 }
             }
         }
-
-        boolean success = true;
-        for (String t : tracks) {
-            try {
-                loadTrack(t);
-            } catch (Exception e) {
-                e.printStackTrace();
-                success = false;
-            }
-        }
-
-        if (!success) {
-            throw new RuntimeException("Exception occurred whilst loading a track");
-        }
-
-        TrackManager tm = this.plugin.getTrackManager();
-        tm.getAll().values().stream()
-                .filter(t -> !tracks.contains(t.getName()))
-                .forEach(tm::unload);
+        return versions;
     }
 
     @Override
@@ -897,6 +1346,7 @@ public class SqlDao extends AbstractDao {
                     ps.setString(2, track.getName());
                     ps.execute();
                 }
+                track.setVersion(nextVersion(c, TRACK_SELECT_VERSION, track.getName(), track.getVersion()));
             }
         } finally {
             track.getIoLock().unlock();
@@ -923,89 +1373,122 @@ public class SqlDao extends AbstractDao {
     @Override
     public void saveUUIDData(UUID uuid, String username) throws SQLException {
         final String u = username.toLowerCase();
-        AtomicReference<String> remoteUserName = new AtomicReference<>(null);
 
-        // cleanup any old values
         try (Connection c = this.provider.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_DELETE))) {
-                ps.setString(1, u);
-                ps.setString(2, uuid.toString());
-                ps.execute();
-            }
+            saveUUIDData(c, uuid, u, selectUsername(c, uuid));
         }
+    }
 
+    @Override
+    public UUID getUUID(String username) throws SQLException {
         try (Connection c = this.provider.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_USERNAME))) {
-                ps.setString(1, uuid.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        remoteUserName.set(rs.getString("username"));
-                    }
-                }
-            }
+            return selectUuid(c, username.toLowerCase());
         }
+    }
 
-        if (remoteUserName.get() != null) {
-            // the value is already correct
-            if (remoteUserName.get().equals(u)) {
-                return;
-            }
-
-            try (Connection c = this.provider.getConnection()) {
-                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_UPDATE))) {
-                    ps.setString(1, u);
-                    ps.setString(2, uuid.toString());
-                    ps.execute();
-                }
-            }
-        } else {
-            // first time we've seen this uuid
-            try (Connection c = this.provider.getConnection()) {
-                try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_INSERT))) {
-                    ps.setString(1, uuid.toString());
-                    ps.setString(2, u);
-                    ps.setString(3, NodeFactory.DEFAULT_GROUP_NAME);
-                    ps.execute();
-                }
-            }
+    @Override
+    public String getName(UUID uuid) throws SQLException {
+        try (Connection c = this.provider.getConnection()) {
+            return selectUsername(c, uuid);
         }
     }
 
     @Override
-    public UUID getUUID(String username) throws SQLException {
+    public LoginResult loginUser(UUID uuid, String username, boolean lookupUuid) throws SQLException {
         final String u = username.toLowerCase();
-        final AtomicReference<UUID> uuid = new AtomicReference<>(null);
+        AtomicBoolean firstLogin = new AtomicBoolean(false);
+        AtomicBoolean save = new AtomicBoolean(false);
 
-        try (Connection c = this.provider.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_UUID))) {
-                ps.setString(1, u);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        uuid.set(UUID.fromString(rs.getString("uuid")));
+        // resolve and update the uuid data, and load the user's data, in a single transaction
+        User user;
+        try (Connection connection = this.provider.getConnection()) {
+            user = transaction(connection, c -> {
+                UUID internalUuid = uuid;
+                if (lookupUuid) {
+                    UUID existing = selectUuid(c, u);
+                    firstLogin.set(existing == null);
+                    if (existing == null) {
+                        saveUUIDData(c, uuid, u, selectUsername(c, uuid));
+                    } else {
+                        internalUuid = existing;
                     }
+                } else {
+                    String remoteUserName = selectUsername(c, uuid);
+                    firstLogin.set(remoteUserName == null);
+                    saveUUIDData(c, uuid, u, remoteUserName);
                 }
-            }
+
+                User loaded = this.plugin.getUserManager().getOrMake(UserIdentifier.of(internalUuid, username));
+                loaded.getIoLock().lock();
+                try {
+                    save.set(loadUserData(c, loaded));
+                } finally {
+                    loaded.getIoLock().unlock();
+                }
+                return loaded;
+            });
         }
 
-        return uuid.get();
+        // saved once the transaction has been committed, as the save uses a separate connection
+        if (save.get()) {
+            saveUser(user);
+        }
+        user.getRefreshBuffer().requestDirectly();
+        return LoginResult.of(user, firstLogin.get());
     }
 
-    @Override
-    public String getName(UUID uuid) throws SQLException {
-        final AtomicReference<String> name = new AtomicReference<>(null);
+    private void saveUUIDData(Connection c, UUID uuid, String u, String remoteUserName) throws SQLException {
+        // the value is already correct
+        if (remoteUserName != null && remoteUserName.equals(u)) {
+            return;
+        }
 
-        try (Connection c = this.provider.getConnection()) {
-            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_USERNAME))) {
+        // cleanup any old values
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_DELETE))) {
+            ps.setString(1, u);
+            ps.setString(2, uuid.toString());
+            ps.execute();
+        }
+
+        if (remoteUserName != null) {
+            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_UPDATE))) {
+                ps.setString(1, u);
+                ps.setString(2, uuid.toString());
+                ps.execute();
+            }
+        } else {
+            // first time we've seen this uuid
+            try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_INSERT))) {
                 ps.setString(1, uuid.toString());
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        name.set(rs.getString("username"));
-                    }
+                ps.setString(2, u);
+                ps.setString(3, NodeFactory.DEFAULT_GROUP_NAME);
+                ps.execute();
+            }
+        }
+    }
+
+    private UUID selectUuid(Connection c, String u) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_UUID))) {
+            ps.setString(1, u);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return UUID.fromString(rs.getString("uuid"));
                 }
             }
         }
+        return null;
+    }
 
-        return name.get();
+    private String selectUsername(Connection c, UUID uuid) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement(this.prefix.apply(PLAYER_SELECT_USERNAME))) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getString("username");
+                }
+            }
+        }
+        return null;
     }
 
     /**
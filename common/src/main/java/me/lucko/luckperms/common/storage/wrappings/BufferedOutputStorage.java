@@ -30,37 +30,48 @@ import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.api.event.cause.CreationCause;
 import me.lucko.luckperms.api.event.cause.DeletionCause;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.api.delegates.model.ApiStorage;
 import me.lucko.luckperms.common.buffers.Buffer;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.storage.AbstractStorage;
+import me.lucko.luckperms.common.storage.LoginResult;
 import me.lucko.luckperms.common.storage.Storage;
+import me.lucko.luckperms.common.storage.StorageUnavailableException;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 public class BufferedOutputStorage implements Storage, Runnable {
-    public static BufferedOutputStorage wrap(Storage storage, long flushTime) {
-        return new BufferedOutputStorage(storage, flushTime);
+    public static BufferedOutputStorage wrap(Storage storage, long flushTime, WriteJournal journal) {
+        return new BufferedOutputStorage(storage, flushTime, journal);
     }
 
     private final Storage delegate;
 
     private final long flushTime;
 
+    // the journal of pending saves, or null if journalling is disabled
+    private final WriteJournal journal;
+
     private final Buffer<User, Void> userOutputBuffer = Buffer.of(user -> BufferedOutputStorage.this.delegate.saveUser(user).join());
     private final Buffer<Group, Void> groupOutputBuffer = Buffer.of(group -> BufferedOutputStorage.this.delegate.saveGroup(group).join());
     private final Buffer<Track, Void> trackOutputBuffer = Buffer.of(track -> BufferedOutputStorage.this.delegate.saveTrack(track).join());
 
-    private BufferedOutputStorage(Storage delegate, long flushTime) {
+    private BufferedOutputStorage(Storage delegate, long flushTime, WriteJournal journal) {
         this.delegate = delegate;
         this.flushTime = flushTime;
+        this.journal = journal;
     }
 
     @Override
@@ -73,9 +84,20 @@ public class BufferedOutputStorage implements Storage, Runnable {
     }
 
     public void flush(long flushTime) {
-        this.userOutputBuffer.flush(flushTime);
-        this.groupOutputBuffer.flush(flushTime);
-        this.trackOutputBuffer.flush(flushTime);
+        flush(this.userOutputBuffer, flushTime);
+        flush(this.groupOutputBuffer, flushTime);
+        flush(this.trackOutputBuffer, flushTime);
+    }
+
+    private static void flush(Buffer<?, ?> buffer, long flushTime) {
+        try {
+            buffer.flush(flushTime);
+        } catch (CompletionException e) {
+            if (!(e.getCause() instanceof StorageUnavailableException)) {
+                throw e;
+            }
+            // the storage is unavailable - the remaining saves stay in the buffer and are retried on the next flush
+        }
     }
 
     @Override
@@ -85,23 +107,50 @@ public class BufferedOutputStorage implements Storage, Runnable {
 
     @Override
     public void shutdown() {
+        // make sure every journalled save has reached the buffers before the final flush
+        if (this.journal != null) {
+            this.journal.awaitRecorded();
+        }
         forceFlush();
+        if (this.journal != null) {
+            this.journal.close();
+        }
         this.delegate.shutdown();
     }
 
+    @Override
+    public void replayJournal() {
+        if (this.journal != null) {
+            this.journal.replay(this.delegate);
+        }
+    }
+
     @Override
     public CompletableFuture<Void> saveUser(User user) {
-        return this.userOutputBuffer.enqueue(user);
+        // refused before being buffered or journalled, so the snapshot data can't be replayed later
+        if (user.isDegraded()) {
+            return AbstractStorage.degradedSave(user);
+        }
+        if (this.journal == null) {
+            return this.userOutputBuffer.enqueue(user);
+        }
+        return this.journal.record("user", user.getUuid().toString(), () -> WriteJournal.user(user), () -> this.userOutputBuffer.enqueue(user));
     }
 
     @Override
     public CompletableFuture<Void> saveGroup(Group group) {
-        return this.groupOutputBuffer.enqueue(group);
+        if (this.journal == null) {
+            return this.groupOutputBuffer.enqueue(group);
+        }
+        return this.journal.record("group", group.getName(), () -> WriteJournal.group(group), () -> this.groupOutputBuffer.enqueue(group));
     }
 
     @Override
     public CompletableFuture<Void> saveTrack(Track track) {
-        return this.trackOutputBuffer.enqueue(track);
+        if (this.journal == null) {
+            return this.trackOutputBuffer.enqueue(track);
+        }
+        return this.journal.record("track", track.getName(), () -> WriteJournal.track(track), () -> this.trackOutputBuffer.enqueue(track));
     }
 
     // delegate
@@ -148,6 +197,9 @@ public class BufferedOutputStorage implements Storage, Runnable {
 
     @Override
     public CompletableFuture<Void> deleteGroup(Group group, DeletionCause cause) {
+        if (this.journal != null) {
+            return this.journal.record("group", group.getName(), () -> WriteJournal.deletion("group", group.getName(), group.getVersion()), () -> this.delegate.deleteGroup(group, cause));
+        }
         return this.delegate.deleteGroup(group, cause);
     }
 
@@ -161,6 +213,21 @@ public class BufferedOutputStorage implements Storage, Runnable {
         return this.delegate.loadUser(uuid, username);
     }
 
+    @Override
+    public CompletableFuture<Void> loadUsers(Set<UUID> uuids) {
+        return this.delegate.loadUsers(uuids);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveUsers(Collection<User> users) {
+        return this.delegate.saveUsers(users);
+    }
+
+    @Override
+    public CompletableFuture<LoginResult> loginUser(UUID uuid, String username, boolean lookupUuid) {
+        return this.delegate.loginUser(uuid, username, lookupUuid);
+    }
+
     @Override
     public CompletableFuture<Track> createAndLoadTrack(String name, CreationCause cause) {
         return this.delegate.createAndLoadTrack(name, cause);
@@ -171,6 +238,11 @@ public class BufferedOutputStorage implements Storage, Runnable {
         return this.delegate.getLog();
     }
 
+    @Override
+    public CompletableFuture<LogPage> getLogPage(LogQuery query, int pageNo, int entriesPerPage) {
+        return this.delegate.getLogPage(query, pageNo, entriesPerPage);
+    }
+
     @Override
     public ApiStorage getDelegate() {
         return this.delegate.getDelegate();
@@ -187,8 +259,8 @@ public class BufferedOutputStorage implements Storage, Runnable {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllTracks() {
-        return this.delegate.loadAllTracks();
+    public CompletableFuture<Void> loadAllTracks(boolean force) {
+        return this.delegate.loadAllTracks(force);
     }
 
     @Override
@@ -198,6 +270,9 @@ public class BufferedOutputStorage implements Storage, Runnable {
 
     @Override
     public CompletableFuture<Void> deleteTrack(Track track, DeletionCause cause) {
+        if (this.journal != null) {
+            return this.journal.record("track", track.getName(), () -> WriteJournal.deletion("track", track.getName(), track.getVersion()), () -> this.delegate.deleteTrack(track, cause));
+        }
         return this.delegate.deleteTrack(track, cause);
     }
 
@@ -207,8 +282,8 @@ public class BufferedOutputStorage implements Storage, Runnable {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllGroups() {
-        return this.delegate.loadAllGroups();
+    public CompletableFuture<Void> loadAllGroups(boolean force) {
+        return this.delegate.loadAllGroups(force);
     }
 
     @Override
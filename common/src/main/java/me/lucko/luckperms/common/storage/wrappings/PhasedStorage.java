@@ -30,13 +30,17 @@ import me.lucko.luckperms.api.LogEntry;
 import me.lucko.luckperms.api.event.cause.CreationCause;
 import me.lucko.luckperms.api.event.cause.DeletionCause;
 import me.lucko.luckperms.common.actionlog.Log;
+import me.lucko.luckperms.common.actionlog.LogPage;
+import me.lucko.luckperms.common.actionlog.LogQuery;
 import me.lucko.luckperms.common.api.delegates.model.ApiStorage;
 import me.lucko.luckperms.common.bulkupdate.BulkUpdate;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.model.Track;
 import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.storage.LoginResult;
 import me.lucko.luckperms.common.storage.Storage;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -94,6 +98,11 @@ public class PhasedStorage implements Storage {
         this.delegate.shutdown();
     }
 
+    @Override
+    public void replayJournal() {
+        this.delegate.replayJournal();
+    }
+
     @Override
     public Map<String, String> getMeta() {
         return this.delegate.getMeta();
@@ -119,6 +128,16 @@ public class PhasedStorage implements Storage {
         }
     }
 
+    @Override
+    public CompletableFuture<LogPage> getLogPage(LogQuery query, int pageNo, int entriesPerPage) {
+        this.phaser.register();
+        try {
+            return this.delegate.getLogPage(query, pageNo, entriesPerPage);
+        } finally {
+            this.phaser.arriveAndDeregister();
+        }
+    }
+
     @Override
     public CompletableFuture<Void> applyBulkUpdate(BulkUpdate bulkUpdate) {
         this.phaser.register();
@@ -129,6 +148,16 @@ public class PhasedStorage implements Storage {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> loadUsers(Set<UUID> uuids) {
+        this.phaser.register();
+        try {
+            return this.delegate.loadUsers(uuids);
+        } finally {
+            this.phaser.arriveAndDeregister();
+        }
+    }
+
     @Override
     public CompletableFuture<User> loadUser(UUID uuid, String username) {
         this.phaser.register();
@@ -149,6 +178,16 @@ public class PhasedStorage implements Storage {
         }
     }
 
+    @Override
+    public CompletableFuture<Void> saveUsers(Collection<User> users) {
+        this.phaser.register();
+        try {
+            return this.delegate.saveUsers(users);
+        } finally {
+            this.phaser.arriveAndDeregister();
+        }
+    }
+
     @Override
     public CompletableFuture<Set<UUID>> getUniqueUsers() {
         this.phaser.register();
@@ -190,10 +229,10 @@ public class PhasedStorage implements Storage {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllGroups() {
+    public CompletableFuture<Void> loadAllGroups(boolean force) {
         this.phaser.register();
         try {
-            return this.delegate.loadAllGroups();
+            return this.delegate.loadAllGroups(force);
         } finally {
             this.phaser.arriveAndDeregister();
         }
@@ -250,10 +289,10 @@ public class PhasedStorage implements Storage {
     }
 
     @Override
-    public CompletableFuture<Void> loadAllTracks() {
+    public CompletableFuture<Void> loadAllTracks(boolean force) {
         this.phaser.register();
         try {
-            return this.delegate.loadAllTracks();
+            return this.delegate.loadAllTracks(force);
         } finally {
             this.phaser.arriveAndDeregister();
         }
@@ -308,4 +347,14 @@ public class PhasedStorage implements Storage {
             this.phaser.arriveAndDeregister();
         }
     }
+
+    @Override
+    public CompletableFuture<LoginResult> loginUser(UUID uuid, String username, boolean lookupUuid) {
+        this.phaser.register();
+        try {
+            return this.delegate.loginUser(uuid, username, lookupUuid);
+        } finally {
+            this.phaser.arriveAndDeregister();
+        }
+    }
 }
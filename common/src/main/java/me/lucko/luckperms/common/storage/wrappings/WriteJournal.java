@@ -0,0 +1,597 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.storage.wrappings;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import me.lucko.luckperms.api.Node;
+import me.lucko.luckperms.api.event.cause.CreationCause;
+import me.lucko.luckperms.api.event.cause.DeletionCause;
+import me.lucko.luckperms.common.model.Group;
+import me.lucko.luckperms.common.model.PermissionHolder;
+import me.lucko.luckperms.common.model.Track;
+import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.node.NodeModel;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.Storage;
+import me.lucko.luckperms.common.webeditor.WebEditorUtils;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * An append-only on-disk journal of the saves held in a {@link BufferedOutputStorage}.
+ *
+ * <p>A snapshot of each user, group or track is appended to the journal when it is saved or
+ * deleted. Each entry is given a sequence number, and is marked as applied once the save or
+ * deletion it was recorded for has completed. The journal is compacted to just the entries which
+ * are still pending as it grows, and is truncated when nothing is pending. Anything left in the
+ * journal at startup (i.e. after a crash) is replayed into storage before the initial data load.</p>
+ *
+ * <p>Entries are serialized and written by a single journal thread, which also processes
+ * completions. Writes are only handed to the buffer once their entry has been forced to disk,
+ * so an entry is always durable before it can be marked as applied. Entries appended together
+ * share a single force.</p>
+ *
+ * <p>Group and track entries record the stored version the change was based on. When an entry
+ * is replayed, it is skipped if the object has been changed in storage since, either by another
+ * server, or because the recorded save did complete before the server stopped.</p>
+ */
+public class WriteJournal {
+    private static final Gson GSON = new Gson();
+
+    // the journal isn't compacted until it is at least this large
+    private static final long COMPACT_MIN_SIZE = 1024 * 1024;
+
+    private final LuckPermsPlugin plugin;
+    private final File file;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("luckperms-journal")
+            .setDaemon(true)
+            .build()
+    );
+
+    private final AtomicLong nextSequence = new AtomicLong(0);
+
+    // the following fields are only accessed by the journal thread
+
+    // the latest entry for each object which hasn't yet reached storage, keyed by type/id
+    private final Map<String, PendingEntry> pending = new HashMap<>();
+    private long pendingBytes = 0;
+
+    private FileChannel channel = null;
+    private boolean dirty = false;
+
+    // actions waiting for their entries to be forced to disk
+    private final List<Runnable> awaitingSync = new ArrayList<>();
+
+    // entries left from a previous run mustn't be compacted away until they have been replayed
+    private boolean replayed = false;
+
+    public WriteJournal(LuckPermsPlugin plugin, File file) {
+        this.plugin = plugin;
+        this.file = file;
+    }
+
+    /**
+     * Records a save or deletion in the journal, and then performs it.
+     *
+     * <p>The entry is serialized and written on the journal thread, and the
+     * action is performed once it has been forced to disk. It is marked as
+     * applied once the future returned by the action completes successfully.</p>
+     *
+     * @param type the type of the object
+     * @param id the id of the object
+     * @param entry a supplier of the journal entry
+     * @param action the action which buffers or performs the write
+     * @param <T> the result type
+     * @return the future returned by the action
+     */
+    public <T> CompletableFuture<T> record(String type, String id, Supplier<JsonObject> entry, Supplier<CompletableFuture<T>> action) {
+        String key = type + "/" + id;
+        long sequence = this.nextSequence.incrementAndGet();
+        CompletableFuture<T> result = new CompletableFuture<>();
+
+        this.executor.execute(() -> {
+            append(key, sequence, entry.get());
+
+            // the first entry since the last force schedules the next one
+            if (this.awaitingSync.isEmpty()) {
+                this.executor.execute(this::syncAndRelease);
+            }
+            this.awaitingSync.add(() -> {
+                CompletableFuture<T> future;
+                try {
+                    future = action.get();
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                    return;
+                }
+
+                future.whenComplete((r, ex) -> {
+                    if (ex == null) {
+                        this.executor.execute(() -> applied(key, sequence));
+                        result.complete(r);
+                    } else {
+                        result.completeExceptionally(ex);
+                    }
+                });
+            });
+        });
+
+        return result;
+    }
+
+    /**
+     * Waits for the actions of any recorded entries to be performed.
+     */
+    public void awaitRecorded() {
+        CompletableFuture.runAsync(this::syncAndRelease, this.executor).join();
+    }
+
+    // forces the entries appended since the last call to disk, and then performs their actions
+    private void syncAndRelease() {
+        if (this.dirty && this.channel != null) {
+            try {
+                this.channel.force(false);
+                this.dirty = false;
+            } catch (IOException e) {
+                this.plugin.getLog().severe("Unable to sync the write journal");
+                e.printStackTrace();
+            }
+        }
+
+        List<Runnable> actions = new ArrayList<>(this.awaitingSync);
+        this.awaitingSync.clear();
+        for (Runnable action : actions) {
+            action.run();
+        }
+    }
+
+    private void append(String key, long sequence, JsonObject entry) {
+        byte[] line = (GSON.toJson(entry) + "\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            ensureOpen();
+
+            ByteBuffer buf = ByteBuffer.wrap(line);
+            while (buf.hasRemaining()) {
+                this.channel.write(buf);
+            }
+            this.dirty = true;
+
+            PendingEntry previous = this.pending.put(key, new PendingEntry(sequence, line));
+            if (previous != null) {
+                this.pendingBytes -= previous.line.length;
+            }
+            this.pendingBytes += line.length;
+        } catch (IOException e) {
+            this.plugin.getLog().severe("Unable to append to the write journal");
+            e.printStackTrace();
+        }
+    }
+
+    private void applied(String key, long sequence) {
+        PendingEntry entry = this.pending.get(key);
+
+        // a newer entry has been recorded for the object - it is still pending
+        if (entry == null || entry.sequence != sequence) {
+            return;
+        }
+
+        this.pending.remove(key);
+        this.pendingBytes -= entry.line.length;
+        compactIfNeeded();
+    }
+
+    private void compactIfNeeded() {
+        if (!this.replayed) {
+            return;
+        }
+
+        try {
+            if (this.channel == null) {
+                return;
+            }
+
+            if (this.pending.isEmpty()) {
+                if (this.channel.size() != 0) {
+                    this.channel.truncate(0);
+                    this.channel.force(false);
+                    this.dirty = false;
+                }
+                return;
+            }
+
+            long size = this.channel.size();
+            if (size >= COMPACT_MIN_SIZE && size > this.pendingBytes * 2) {
+                compact();
+            }
+        } catch (IOException e) {
+            this.plugin.getLog().severe("Unable to compact the write journal");
+            e.printStackTrace();
+        }
+    }
+
+    // rewrites the journal with only the entries which are still pending
+    private void compact() throws IOException {
+        List<PendingEntry> entries = new ArrayList<>(this.pending.values());
+        entries.sort(Comparator.comparingLong(e -> e.sequence));
+
+        File tmp = new File(this.file.getParentFile(), this.file.getName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (PendingEntry entry : entries) {
+                ByteBuffer buf = ByteBuffer.wrap(entry.line);
+                while (buf.hasRemaining()) {
+                    out.write(buf);
+                }
+            }
+            out.force(false);
+        }
+
+        this.channel.close();
+        this.channel = null;
+        Files.move(tmp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ensureOpen();
+        this.dirty = false;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.channel == null) {
+            this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+    }
+
+    public void close() {
+        this.executor.execute(() -> {
+            if (this.channel == null) {
+                return;
+            }
+
+            try {
+                this.channel.force(false);
+                this.channel.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            this.channel = null;
+        });
+        this.executor.shutdown();
+
+        try {
+            this.executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Replays any entries left in the journal into the given storage.
+     *
+     * <p>Entries which can't be replayed are kept in the journal, and will be
+     * retried on the next startup.</p>
+     *
+     * @param storage the storage to write to
+     */
+    public void replay(Storage storage) {
+        Map<String, JsonObject> failed;
+        try {
+            failed = replayEntries(storage);
+        } catch (IOException e) {
+            // leave the journal as it is - it won't be compacted until it can be replayed
+            this.plugin.getLog().severe("Unable to read the write journal");
+            e.printStackTrace();
+            return;
+        }
+
+        CompletableFuture.runAsync(() -> {
+            // keep any failed entries pending, unless they have been superseded since
+            for (Map.Entry<String, JsonObject> e : failed.entrySet()) {
+                if (!this.pending.containsKey(e.getKey())) {
+                    byte[] line = (GSON.toJson(e.getValue()) + "\n").getBytes(StandardCharsets.UTF_8);
+                    this.pending.put(e.getKey(), new PendingEntry(this.nextSequence.incrementAndGet(), line));
+                    this.pendingBytes += line.length;
+                }
+            }
+
+            // drop the replayed entries from the journal
+            this.replayed = true;
+            try {
+                if (this.channel != null || this.file.exists()) {
+                    ensureOpen();
+                    compact();
+                }
+            } catch (IOException e) {
+                this.plugin.getLog().severe("Unable to compact the write journal");
+                e.printStackTrace();
+            }
+        }, this.executor).join();
+    }
+
+    private Map<String, JsonObject> replayEntries(Storage storage) throws IOException {
+        Map<String, JsonObject> failed = new LinkedHashMap<>();
+        if (!this.file.exists()) {
+            return failed;
+        }
+
+        // only the latest entry for each object needs to be applied
+        Map<String, JsonObject> entries = new LinkedHashMap<>();
+        int lines = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(this.file.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+
+                JsonObject entry;
+                try {
+                    entry = GSON.fromJson(line, JsonObject.class);
+                } catch (Exception e) {
+                    // most likely a partially written line from when the server stopped
+                    this.plugin.getLog().warn("Skipping unreadable write journal entry: " + line);
+                    continue;
+                }
+
+                if (entry == null || !entry.has("type") || !entry.has("id")) {
+                    continue;
+                }
+
+                String key = entry.get("type").getAsString() + "/" + entry.get("id").getAsString();
+                entries.remove(key);
+                entries.put(key, entry);
+                lines++;
+            }
+        }
+
+        if (entries.isEmpty()) {
+            return failed;
+        }
+
+        this.plugin.getLog().info("Replaying " + entries.size() + " unsaved change(s) from the write journal (" + lines + " entries)...");
+
+        for (Map.Entry<String, JsonObject> entry : entries.entrySet()) {
+            try {
+                apply(storage, entry.getValue());
+            } catch (Exception e) {
+                this.plugin.getLog().severe("Unable to replay write journal entry: " + entry.getValue());
+                e.printStackTrace();
+                failed.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            this.plugin.getLog().severe("Some changes in the write journal could not be replayed. They will be retried on the next startup.");
+        }
+        return failed;
+    }
+
+    private void apply(Storage storage, JsonObject entry) {
+        String id = entry.get("id").getAsString();
+        boolean deleted = entry.has("deleted") && entry.get("deleted").getAsBoolean();
+
+        if (deleted) {
+            // deletions are written straight through, but may not have completed
+            switch (entry.get("type").getAsString()) {
+                case "group":
+                    storage.loadGroup(id).join()
+                            .filter(group -> !isStale(entry, group.getVersion()))
+                            .ifPresent(group -> storage.deleteGroup(group, DeletionCause.INTERNAL).join());
+                    break;
+                case "track":
+                    storage.loadTrack(id).join()
+                            .filter(track -> !isStale(entry, track.getVersion()))
+                            .ifPresent(track -> storage.deleteTrack(track, DeletionCause.INTERNAL).join());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown entry type: " + entry.get("type").getAsString());
+            }
+            return;
+        }
+
+        switch (entry.get("type").getAsString()) {
+            case "user": {
+                String name = entry.has("name") ? entry.get("name").getAsString() : null;
+                User user = storage.loadUser(UUID.fromString(id), name).join();
+                if (user == null) {
+                    throw new IllegalStateException("Unable to load user " + id);
+                }
+                if (entry.has("primaryGroup")) {
+                    user.getPrimaryGroup().setStoredValue(entry.get("primaryGroup").getAsString());
+                }
+                user.setEnduringNodes(readNodes(entry));
+                storage.saveUser(user).join();
+                break;
+            }
+            case "group": {
+                Group group;
+                if (recordedVersion(entry) != 0L) {
+                    // the group existed when the entry was recorded
+                    group = storage.loadGroup(id).join().orElse(null);
+                    if (group == null) {
+                        skipped(entry, "it has since been deleted");
+                        return;
+                    }
+                    if (isStale(entry, group.getVersion())) {
+                        return;
+                    }
+                } else {
+                    group = storage.createAndLoadGroup(id, CreationCause.INTERNAL).join();
+                    if (group == null) {
+                        throw new IllegalStateException("Unable to load group " + id);
+                    }
+                }
+                group.setEnduringNodes(readNodes(entry));
+                storage.saveGroup(group).join();
+                break;
+            }
+            case "track": {
+                Track track;
+                if (recordedVersion(entry) != 0L) {
+                    // the track existed when the entry was recorded
+                    track = storage.loadTrack(id).join().orElse(null);
+                    if (track == null) {
+                        skipped(entry, "it has since been deleted");
+                        return;
+                    }
+                    if (isStale(entry, track.getVersion())) {
+                        return;
+                    }
+                } else {
+                    track = storage.createAndLoadTrack(id, CreationCause.INTERNAL).join();
+                    if (track == null) {
+                        throw new IllegalStateException("Unable to load track " + id);
+                    }
+                }
+                List<String> groups = new ArrayList<>();
+                for (JsonElement e : entry.getAsJsonArray("groups")) {
+                    groups.add(e.getAsString());
+                }
+                track.setGroups(groups);
+                storage.saveTrack(track).join();
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("Unknown entry type: " + entry.get("type").getAsString());
+        }
+    }
+
+    private static long recordedVersion(JsonObject entry) {
+        return entry.has("version") ? entry.get("version").getAsLong() : 0L;
+    }
+
+    /**
+     * Gets whether the object has been changed in storage since the entry was recorded,
+     * logging that the entry is being skipped if so.
+     *
+     * <p>Users don't have a stored version, so their entries are never stale.</p>
+     *
+     * @param entry the entry
+     * @param storedVersion the version currently held in storage
+     * @return true if the entry should be skipped
+     */
+    private boolean isStale(JsonObject entry, long storedVersion) {
+        long recorded = recordedVersion(entry);
+        if (recorded == 0L || storedVersion == 0L || recorded == storedVersion) {
+            return false;
+        }
+
+        skipped(entry, "it was recorded against version " + recorded + ", but storage holds version " + storedVersion);
+        return true;
+    }
+
+    private void skipped(JsonObject entry, String reason) {
+        this.plugin.getLog().warn("Skipping write journal entry for " + entry.get("type").getAsString() + " " +
+                entry.get("id").getAsString() + " as " + reason + ". It was either saved before the server stopped, or has been changed elsewhere.");
+    }
+
+    public static JsonObject user(User user) {
+        JsonObject entry = holder("user", user.getUuid().toString(), user);
+        user.getName().ifPresent(name -> entry.addProperty("name", name));
+        user.getPrimaryGroup().getStoredValue().ifPresent(group -> entry.addProperty("primaryGroup", group));
+        return entry;
+    }
+
+    public static JsonObject group(Group group) {
+        JsonObject entry = holder("group", group.getName(), group);
+        entry.addProperty("version", group.getVersion());
+        return entry;
+    }
+
+    public static JsonObject track(Track track) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("type", "track");
+        entry.addProperty("id", track.getName());
+        entry.addProperty("version", track.getVersion());
+        JsonArray groups = new JsonArray();
+        for (String group : track.getGroups()) {
+            groups.add(new JsonPrimitive(group));
+        }
+        entry.add("groups", groups);
+        return entry;
+    }
+
+    public static JsonObject deletion(String type, String id, long version) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("type", type);
+        entry.addProperty("id", id);
+        entry.addProperty("version", version);
+        entry.addProperty("deleted", true);
+        return entry;
+    }
+
+    private static JsonObject holder(String type, String id, PermissionHolder holder) {
+        JsonObject entry = new JsonObject();
+        entry.addProperty("type", type);
+        entry.addProperty("id", id);
+        entry.add("nodes", WebEditorUtils.serializePermissions(holder.getEnduringNodes().values().stream().map(NodeModel::fromNode)));
+        return entry;
+    }
+
+    private static Set<Node> readNodes(JsonObject entry) {
+        return WebEditorUtils.deserializePermissions(entry.getAsJsonArray("nodes")).stream()
+                .map(NodeModel::toNode)
+                .collect(Collectors.toSet());
+    }
+
+    private static final class PendingEntry {
+        private final long sequence;
+        private final byte[] line;
+
+        private PendingEntry(long sequence, byte[] line) {
+            this.sequence = sequence;
+            this.line = line;
+        }
+    }
+}
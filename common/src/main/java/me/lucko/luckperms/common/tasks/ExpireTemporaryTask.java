@@ -26,9 +26,17 @@
 package me.lucko.luckperms.common.tasks;
 
 import me.lucko.luckperms.common.model.Group;
+import me.lucko.luckperms.common.model.PermissionHolder;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.utils.DateUtil;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Audits the holders in the {@link ExpiryQueue} which have temporary nodes due to expire.
+ */
 public class ExpireTemporaryTask implements Runnable {
     private final LuckPermsPlugin plugin;
 
@@ -38,25 +46,48 @@ public class ExpireTemporaryTask implements Runnable {
 
     @Override
     public void run() {
-        boolean groupChanges = false;
-        for (Group group : this.plugin.getGroupManager().getAll().values()) {
-            if (group.auditTemporaryPermissions()) {
-                this.plugin.getStorage().saveGroup(group);
-                groupChanges = true;
-            }
+        List<PermissionHolder> expired = this.plugin.getExpiryQueue().pollExpired(DateUtil.unixSecondsNow());
+        if (expired.isEmpty()) {
+            return;
         }
 
-        for (User user : this.plugin.getUserManager().getAll().values()) {
-            if (user.auditTemporaryPermissions()) {
-                this.plugin.getStorage().saveUser(user);
-                if (!groupChanges) {
-                    user.getRefreshBuffer().request();
+        boolean groupChanges = false;
+        List<User> userChanges = new ArrayList<>();
+
+        for (PermissionHolder holder : expired) {
+            if (holder.getType().isGroup()) {
+                Group group = (Group) holder;
+
+                // only audit groups which are still loaded
+                if (this.plugin.getGroupManager().getIfLoaded(group.getName()) != group) {
+                    continue;
+                }
+
+                if (group.auditTemporaryPermissions()) {
+                    this.plugin.getStorage().saveGroup(group);
+                    groupChanges = true;
+                }
+            } else {
+                User user = (User) holder;
+
+                // only audit users which are still loaded
+                if (this.plugin.getUserManager().getIfLoaded(user.getUuid()) != user) {
+                    continue;
+                }
+
+                if (user.auditTemporaryPermissions()) {
+                    this.plugin.getStorage().saveUser(user);
+                    userChanges.add(user);
                 }
             }
         }
 
         if (groupChanges) {
             this.plugin.getUpdateTaskBuffer().request();
+        } else {
+            for (User user : userChanges) {
+                user.getRefreshBuffer().request();
+            }
         }
     }
-}
\ No newline at end of file
+}
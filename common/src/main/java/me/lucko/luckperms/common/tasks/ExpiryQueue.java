@@ -0,0 +1,159 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.tasks;
+
+import com.google.common.collect.MapMaker;
+
+import me.lucko.luckperms.common.model.PermissionHolder;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A queue of permission holders, ordered by the time their next temporary node expires.
+ *
+ * <p>Holders mark themselves as changed whenever their nodes are modified. Their next
+ * expiry time is only recalculated when the queue is next polled, so a holder which is
+ * modified many times in between is only scanned once. Each holder has at most one
+ * entry in the queue, which is replaced when its expiry time changes.</p>
+ */
+public class ExpiryQueue {
+
+    /**
+     * How often (in polls) entries for holders which have been collected are purged
+     */
+    private static final int PURGE_INTERVAL = 60;
+
+    private final ConcurrentSkipListSet<Entry> queue = new ConcurrentSkipListSet<>(Comparator.comparingLong(Entry::getExpiry).thenComparingLong(Entry::getId));
+
+    // the entry currently queued for each holder
+    private final Map<PermissionHolder, Entry> entries = new MapMaker().weakKeys().makeMap();
+
+    // the holders which have changed since the last poll
+    private final Set<PermissionHolder> changed = ConcurrentHashMap.newKeySet();
+
+    private long nextId = 0;
+    private int polls = 0;
+
+    /**
+     * Marks that the nodes held by the holder have changed, and that its next
+     * expiry time should be recalculated.
+     *
+     * @param holder the holder
+     */
+    public void markChanged(PermissionHolder holder) {
+        this.changed.add(holder);
+    }
+
+    /**
+     * Removes and returns the holders with a node which has expired before the given time
+     *
+     * @param now the current unix time (in seconds)
+     * @return the holders with expired nodes
+     */
+    public synchronized List<PermissionHolder> pollExpired(long now) {
+        // recalculate the expiry time of the holders which have changed since the last poll
+        for (Iterator<PermissionHolder> it = this.changed.iterator(); it.hasNext(); ) {
+            PermissionHolder holder = it.next();
+            it.remove();
+            schedule(holder, holder.calculateNextExpiry());
+        }
+
+        if (++this.polls >= PURGE_INTERVAL) {
+            this.polls = 0;
+            this.queue.removeIf(e -> e.getHolder() == null);
+        }
+
+        List<PermissionHolder> expired = new ArrayList<>();
+
+        Entry entry;
+        while ((entry = this.queue.pollFirst()) != null) {
+            if (entry.getExpiry() >= now) {
+                // not due yet, put it back.
+                this.queue.add(entry);
+                break;
+            }
+
+            PermissionHolder holder = entry.getHolder();
+
+            // skip entries for holders which have since been collected
+            if (holder != null && this.entries.remove(holder, entry)) {
+                expired.add(holder);
+            }
+        }
+
+        return expired;
+    }
+
+    private void schedule(PermissionHolder holder, long expiry) {
+        Entry previous = this.entries.get(holder);
+        if (previous != null) {
+            if (previous.getExpiry() == expiry) {
+                return;
+            }
+
+            this.entries.remove(holder);
+            this.queue.remove(previous);
+        }
+
+        if (expiry != Long.MAX_VALUE) {
+            Entry entry = new Entry(holder, expiry, this.nextId++);
+            this.entries.put(holder, entry);
+            this.queue.add(entry);
+        }
+    }
+
+    private static final class Entry {
+        private final WeakReference<PermissionHolder> holder;
+        private final long expiry;
+        private final long id;
+
+        private Entry(PermissionHolder holder, long expiry, long id) {
+            this.holder = new WeakReference<>(holder);
+            this.expiry = expiry;
+            this.id = id;
+        }
+
+        public PermissionHolder getHolder() {
+            return this.holder.get();
+        }
+
+        public long getExpiry() {
+            return this.expiry;
+        }
+
+        public long getId() {
+            return this.id;
+        }
+    }
+}
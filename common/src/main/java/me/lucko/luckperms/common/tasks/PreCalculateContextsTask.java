@@ -0,0 +1,72 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.tasks;
+
+import me.lucko.luckperms.api.Contexts;
+import me.lucko.luckperms.common.model.User;
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Calculates data for online users in the contexts most frequently used by other users,
+ * so it is already available if the user moves into them.
+ */
+public class PreCalculateContextsTask implements Runnable {
+
+    /**
+     * The number of popular contexts to calculate data in
+     */
+    private static final int POPULAR_CONTEXTS_LIMIT = 4;
+
+    private final LuckPermsPlugin plugin;
+
+    public PreCalculateContextsTask(LuckPermsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    @Override
+    public void run() {
+        List<Contexts> popular = this.plugin.getContextManager().getUsageTracker().getPopularContexts(POPULAR_CONTEXTS_LIMIT);
+        if (popular.isEmpty()) {
+            return;
+        }
+
+        this.plugin.getOnlinePlayers().forEach(uuid -> this.plugin.getScheduler().calculation().execute(() -> preCalculate(uuid, popular)));
+    }
+
+    private void preCalculate(UUID uuid, List<Contexts> contexts) {
+        User user = this.plugin.getUserManager().getIfLoaded(uuid);
+        if (user == null) {
+            return;
+        }
+
+        for (Contexts c : contexts) {
+            user.getCachedData().preCalculate(c);
+        }
+    }
+}
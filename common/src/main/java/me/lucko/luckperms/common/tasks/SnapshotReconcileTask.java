@@ -0,0 +1,64 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.tasks;
+
+import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.DataSnapshot;
+
+/**
+ * Reconciles the group and track data loaded from the local {@link DataSnapshot}
+ * with the storage, retrying with an increasing delay until it succeeds.
+ */
+public class SnapshotReconcileTask implements Runnable {
+    private static final long INITIAL_RETRY_DELAY_TICKS = 100L;
+    private static final long MAX_RETRY_DELAY_TICKS = 6000L;
+
+    private final LuckPermsPlugin plugin;
+    private long retryDelay = INITIAL_RETRY_DELAY_TICKS;
+
+    public SnapshotReconcileTask(LuckPermsPlugin plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Schedules the first attempt, after a random delay
+     */
+    public void schedule() {
+        this.plugin.getScheduler().asyncLater(this, DataSnapshot.reconcileDelay());
+    }
+
+    @Override
+    public void run() {
+        try {
+            new UpdateTask(this.plugin, true).run();
+        } catch (Exception e) {
+            this.plugin.getLog().warn("Unable to reconcile the local data snapshot with the storage - retrying in " +
+                    (this.retryDelay / 20L) + " seconds: " + e.getMessage());
+            this.plugin.getScheduler().asyncLater(this, this.retryDelay);
+            this.retryDelay = Math.min(this.retryDelay * 2, MAX_RETRY_DELAY_TICKS);
+        }
+    }
+}
@@ -28,6 +28,7 @@ package me.lucko.luckperms.common.tasks;
 import me.lucko.luckperms.api.event.cause.CreationCause;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.DataSnapshot;
 
 import java.util.concurrent.CompletableFuture;
 
@@ -44,9 +45,19 @@ public class UpdateTask implements Runnable {
      */
     private final boolean initialUpdate;
 
+    /**
+     * If groups and tracks should be reloaded even if their stored version hasn't changed
+     */
+    private final boolean forceReload;
+
     public UpdateTask(LuckPermsPlugin plugin, boolean initialUpdate) {
+        this(plugin, initialUpdate, false);
+    }
+
+    public UpdateTask(LuckPermsPlugin plugin, boolean initialUpdate, boolean forceReload) {
         this.plugin = plugin;
         this.initialUpdate = initialUpdate;
+        this.forceReload = forceReload;
     }
 
     /**
@@ -61,14 +72,14 @@ public class UpdateTask implements Runnable {
         }
 
         // Reload all groups
-        this.plugin.getStorage().loadAllGroups().join();
+        this.plugin.getStorage().loadAllGroups(this.forceReload).join();
         String defaultGroup = this.plugin.getConfiguration().get(ConfigKeys.DEFAULT_GROUP_NAME);
         if (!this.plugin.getGroupManager().isLoaded(defaultGroup)) {
             this.plugin.getStorage().createAndLoadGroup(defaultGroup, CreationCause.INTERNAL).join();
         }
 
         // Reload all tracks
-        this.plugin.getStorage().loadAllTracks().join();
+        this.plugin.getStorage().loadAllTracks(this.forceReload).join();
 
         // Refresh all online users.
         CompletableFuture<Void> userUpdateFut = this.plugin.getUserManager().updateAllUsers();
@@ -76,6 +87,11 @@ public class UpdateTask implements Runnable {
             userUpdateFut.join();
         }
 
+        // now the data is consistent with the storage, update the local snapshot
+        if (this.plugin.getConfiguration().get(ConfigKeys.WARM_START)) {
+            new DataSnapshot(this.plugin).save();
+        }
+
         this.plugin.onPostUpdate();
 
         this.plugin.getEventFactory().handlePostSync();
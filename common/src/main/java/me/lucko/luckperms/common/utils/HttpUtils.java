@@ -0,0 +1,102 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.utils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared helpers for the (small number of) outgoing HTTP requests made by the plugin.
+ *
+ * <p>Request bodies are streamed straight onto the connection using chunked transfer encoding,
+ * and responses are requested gzip compressed and decompressed as they are read, so payloads
+ * never need to be held in memory in their entirety.</p>
+ */
+public final class HttpUtils {
+
+    /**
+     * The base url of the GitHub gist api.
+     *
+     * <p>Can be overridden using the "luckperms.gist-api" system property, e.g. to point at a local stand-in.</p>
+     */
+    public static final String GIST_API_URL = System.getProperty("luckperms.gist-api", "https://api.github.com/gists");
+
+    private static final int CHUNK_SIZE = 8192;
+
+    public static HttpURLConnection open(String url, String method) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestProperty("User-Agent", "luckperms");
+        connection.setRequestProperty("Accept-Encoding", "gzip");
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    /**
+     * Prepares the connection for a streamed json request body, and returns a writer for it.
+     *
+     * @param connection the connection
+     * @return a writer which writes directly to the connection
+     * @throws IOException if an io error occurs
+     */
+    public static Writer openJsonBody(HttpURLConnection connection) throws IOException {
+        connection.setRequestProperty("Content-Type", "application/json; charset=utf-8");
+        connection.setDoOutput(true);
+        connection.setChunkedStreamingMode(CHUNK_SIZE);
+        return new BufferedWriter(new OutputStreamWriter(connection.getOutputStream(), StandardCharsets.UTF_8), CHUNK_SIZE);
+    }
+
+    /**
+     * Checks the response code of the connection, and returns a reader for the response body.
+     *
+     * @param connection the connection
+     * @return a reader for the (decompressed) response body
+     * @throws IOException if an io error occurs
+     */
+    public static Reader openResponse(HttpURLConnection connection) throws IOException {
+        if (connection.getResponseCode() >= 400) {
+            throw new RuntimeException("Connection returned response code: " + connection.getResponseCode() + " - " + connection.getResponseMessage());
+        }
+
+        InputStream inputStream = connection.getInputStream();
+        if ("gzip".equalsIgnoreCase(connection.getContentEncoding())) {
+            inputStream = new GZIPInputStream(inputStream, CHUNK_SIZE);
+        }
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private HttpUtils() {}
+
+}
@@ -29,66 +29,54 @@ import me.lucko.luckperms.common.assignments.AssignmentRule;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.storage.LoginResult;
 
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * Utilities for use in platform listeners
  */
 public final class LoginHelper {
 
-    public static User loadUser(LuckPermsPlugin plugin, UUID u, String username, boolean joinUuidSave) {
+    public static User loadUser(LuckPermsPlugin plugin, UUID u, String username) {
         final long startTime = System.currentTimeMillis();
 
-        final UuidCache cache = plugin.getUuidCache();
-        if (!plugin.getConfiguration().get(ConfigKeys.USE_SERVER_UUIDS)) {
-            UUID uuid = plugin.getStorage().noBuffer().getUUID(username).join();
-            if (uuid != null) {
-                cache.addToCache(u, uuid);
-            } else {
-                // No previous data for this player
-                plugin.getEventFactory().handleUserFirstLogin(u, username);
-                cache.addToCache(u, u);
-                CompletableFuture<Void> future = plugin.getStorage().noBuffer().saveUUIDData(u, username);
-                if (joinUuidSave) {
-                    future.join();
-                }
-            }
-        } else {
-            String name = plugin.getStorage().noBuffer().getName(u).join();
-            if (name == null) {
-                plugin.getEventFactory().handleUserFirstLogin(u, username);
-            }
+        // When server uuids are not in use, the uuid previously stored for this username is used instead.
+        // The uuid lookup, uuid data save and user load are processed as one storage operation.
+        final boolean lookupUuid = !plugin.getConfiguration().get(ConfigKeys.USE_SERVER_UUIDS);
+        LoginResult result = plugin.getStorage().noBuffer().loginUser(u, username, lookupUuid).join();
 
-            // Online mode, no cache needed. This is just for name -> uuid lookup.
-            CompletableFuture<Void> future = plugin.getStorage().noBuffer().saveUUIDData(u, username);
-            if (joinUuidSave) {
-                future.join();
-            }
-        }
-
-        User user = plugin.getStorage().noBuffer().loadUser(cache.getUUID(u), username).join();
+        User user = result.getUser();
         if (user == null) {
             throw new NullPointerException("User is null");
-        } else {
-            // Setup defaults for the user
-            boolean save = false;
-            for (AssignmentRule rule : plugin.getConfiguration().get(ConfigKeys.DEFAULT_ASSIGNMENTS)) {
-                if (rule.apply(user)) {
-                    save = true;
-                }
-            }
+        }
 
-            // If they were given a default, persist the new assignments back to the storage.
-            if (save) {
-                plugin.getStorage().noBuffer().saveUser(user).join();
+        if (lookupUuid) {
+            plugin.getUuidCache().addToCache(u, user.getUuid());
+        }
+
+        if (result.isFirstLogin()) {
+            // No previous data for this player
+            plugin.getEventFactory().handleUserFirstLogin(u, username);
+        }
+
+        // Setup defaults for the user
+        boolean save = false;
+        for (AssignmentRule rule : plugin.getConfiguration().get(ConfigKeys.DEFAULT_ASSIGNMENTS)) {
+            if (rule.apply(user)) {
+                save = true;
             }
+        }
 
-            // Does some minimum pre-calculations to (maybe) speed things up later.
-            user.preCalculateData();
+        // If they were given a default, persist the new assignments back to the storage.
+        // This goes through the buffered storage, so the login doesn't wait for the write.
+        if (save) {
+            plugin.getStorage().saveUser(user);
         }
 
+        // Does some minimum pre-calculations to (maybe) speed things up later.
+        user.preCalculateData();
+
         final long time = System.currentTimeMillis() - startTime;
         if (time >= 1000) {
             plugin.getLog().warn("Processing login for " + username + " took " + time + "ms.");
@@ -25,15 +25,10 @@
 
 package me.lucko.luckperms.common.utils;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.StringWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
@@ -44,7 +39,6 @@ import java.util.Map;
  * Uploads content to GitHub's GIST service.
  */
 public class PasteUtils {
-    private static final String GIST_API = "https://api.github.com/gists";
     private static final String SHORTEN_API = "https://git.io";
 
     /**
@@ -57,16 +51,10 @@ public class PasteUtils {
     public static String paste(String desc, List<Map.Entry<String, String>> files) {
         HttpURLConnection connection = null;
         try {
-            connection = (HttpURLConnection) new URL(GIST_API).openConnection();
-            connection.setRequestProperty("User-Agent", "luckperms");
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            
-            try (OutputStream os = connection.getOutputStream()) {
-                StringWriter sw = new StringWriter();
+            connection = HttpUtils.open(HttpUtils.GIST_API_URL, "POST");
 
-                JsonWriter jw = new JsonWriter(sw)
-                        .beginObject()
+            try (JsonWriter jw = new JsonWriter(HttpUtils.openJsonBody(connection))) {
+                jw.beginObject()
                         .name("description").value(desc)
                         .name("public").value(false)
                         .name("files")
@@ -77,21 +65,23 @@ public class PasteUtils {
                 }
 
                 jw.endObject().endObject();
-                os.write(sw.toString().getBytes(StandardCharsets.UTF_8));
             }
 
-            if (connection.getResponseCode() >= 400) {
-                throw new RuntimeException("Connection returned response code: " + connection.getResponseCode() + " - " + connection.getResponseMessage());
-            }
-
-            String pasteUrl;
-            try (InputStream inputStream = connection.getInputStream()) {
-                try (InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-                    try (BufferedReader reader = new BufferedReader(inputStreamReader)) {
-                        JsonObject response = new Gson().fromJson(reader, JsonObject.class);
-                        pasteUrl = response.get("html_url").getAsString();
+            String pasteUrl = null;
+            try (JsonReader reader = new JsonReader(HttpUtils.openResponse(connection))) {
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("html_url") && pasteUrl == null) {
+                        pasteUrl = reader.nextString();
+                    } else {
+                        reader.skipValue();
                     }
                 }
+                reader.endObject();
+            }
+
+            if (pasteUrl == null) {
+                throw new RuntimeException("No html_url returned in the gist response");
             }
 
             connection.disconnect();
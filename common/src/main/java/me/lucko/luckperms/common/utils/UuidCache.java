@@ -25,15 +25,13 @@
 
 package me.lucko.luckperms.common.utils;
 
-import com.google.common.collect.BiMap;
-import com.google.common.collect.HashBiMap;
-import com.google.common.collect.Maps;
-
 import me.lucko.luckperms.common.api.delegates.misc.ApiUuidCache;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
 
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @see me.lucko.luckperms.api.UuidCache for docs
@@ -42,7 +40,11 @@ public class UuidCache {
     private final LuckPermsPlugin plugin;
 
     // External UUID --> Internal UUID
-    private final BiMap<UUID, UUID> cache = Maps.synchronizedBiMap(HashBiMap.create());
+    // reads are lock-free, writes are synchronized to keep both directions consistent
+    private final Map<UUID, UUID> cache = new ConcurrentHashMap<>();
+
+    // Internal UUID --> External UUID
+    private final Map<UUID, UUID> inverse = new ConcurrentHashMap<>();
 
     private final ApiUuidCache delegate = new ApiUuidCache(this);
 
@@ -55,17 +57,32 @@ public class UuidCache {
     }
 
     public UUID getExternalUUID(UUID internal) {
-        return inUse() ? internal : this.cache.inverse().getOrDefault(internal, internal);
+        return inUse() ? internal : this.inverse.getOrDefault(internal, internal);
     }
 
     public void addToCache(UUID external, UUID internal) {
         if (inUse()) return;
-        this.cache.forcePut(external, internal);
+        synchronized (this) {
+            UUID previousInternal = this.cache.put(external, internal);
+            if (previousInternal != null) {
+                this.inverse.remove(previousInternal, external);
+            }
+
+            UUID previousExternal = this.inverse.put(internal, external);
+            if (previousExternal != null && !previousExternal.equals(external)) {
+                this.cache.remove(previousExternal, internal);
+            }
+        }
     }
 
     public void clearCache(UUID external) {
         if (inUse()) return;
-        this.cache.remove(external);
+        synchronized (this) {
+            UUID internal = this.cache.remove(external);
+            if (internal != null) {
+                this.inverse.remove(internal, external);
+            }
+        }
     }
 
     public int getSize() {
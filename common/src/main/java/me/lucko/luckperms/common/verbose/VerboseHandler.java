@@ -147,6 +147,15 @@ public class VerboseHandler implements Runnable {
         }
     }
 
+    /**
+     * Gets if any listeners are registered with the handler
+     *
+     * @return true if checks are being listened to
+     */
+    public boolean isListening() {
+        return this.listening;
+    }
+
     public void shutdown() {
         this.shutdown = true;
     }
@@ -0,0 +1,262 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.webeditor;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * A minimal forward-only JSON scanner.
+ *
+ * <p>Unlike {@link com.google.gson.stream.JsonReader}, the scanner never reads ahead
+ * of the current token, so a string value can be decoded directly from the
+ * underlying reader using {@link #openString()}, without being materialised.</p>
+ */
+final class JsonScanner {
+    private static final int NONE = -2;
+
+    private final Reader in;
+
+    // the next character, if it has already been read from the underlying reader
+    private int peeked = NONE;
+
+    JsonScanner(Reader in) {
+        this.in = in;
+    }
+
+    private int read() throws IOException {
+        if (this.peeked != NONE) {
+            int c = this.peeked;
+            this.peeked = NONE;
+            return c;
+        }
+        return this.in.read();
+    }
+
+    /**
+     * Returns the next non-whitespace character without consuming it
+     *
+     * @return the next character, or -1 at the end of the input
+     * @throws IOException if the underlying reader throws
+     */
+    private int peek() throws IOException {
+        while (this.peeked == NONE || this.peeked == ' ' || this.peeked == '\t' || this.peeked == '\n' || this.peeked == '\r') {
+            this.peeked = this.in.read();
+        }
+        return this.peeked;
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw new IOException("Expected '" + expected + "' but found " + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        this.peeked = NONE;
+    }
+
+    public void beginObject() throws IOException {
+        expect('{');
+    }
+
+    public void endObject() throws IOException {
+        expect('}');
+    }
+
+    /**
+     * Returns whether the current object or array has another element, consuming
+     * the separating comma if present
+     *
+     * @return true if there is another element
+     * @throws IOException if the underlying reader throws
+     */
+    public boolean hasNext() throws IOException {
+        int c = peek();
+        if (c == ',') {
+            this.peeked = NONE;
+            return true;
+        }
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    public boolean peekString() throws IOException {
+        return peek() == '"';
+    }
+
+    public String nextName() throws IOException {
+        String name = nextString();
+        expect(':');
+        return name;
+    }
+
+    public String nextString() throws IOException {
+        expect('"');
+        StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = nextStringChar()) != -1) {
+            sb.append((char) c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Reads a number, boolean or null literal
+     *
+     * @return the literal
+     * @throws IOException if the underlying reader throws
+     */
+    public String nextLiteral() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c = peek();
+        while (c != -1 && c != ',' && c != '}' && c != ']' && c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+            sb.append((char) c);
+            this.peeked = NONE;
+            c = read();
+        }
+        this.peeked = c == -1 ? NONE : c;
+        if (sb.length() == 0) {
+            throw new IOException("Expected a value");
+        }
+        return sb.toString();
+    }
+
+    public void skipValue() throws IOException {
+        int c = peek();
+        switch (c) {
+            case '"':
+                expect('"');
+                while (nextStringChar() != -1) {
+                    // skip
+                }
+                break;
+            case '{':
+                expect('{');
+                while (hasNext()) {
+                    nextName();
+                    skipValue();
+                }
+                expect('}');
+                break;
+            case '[':
+                expect('[');
+                while (hasNext()) {
+                    skipValue();
+                }
+                expect(']');
+                break;
+            default:
+                nextLiteral();
+                break;
+        }
+    }
+
+    /**
+     * Opens a reader over the decoded contents of the next string value.
+     *
+     * <p>The scanner must not be used again until the returned reader has been
+     * read to the end.</p>
+     *
+     * @return a reader over the string
+     * @throws IOException if the underlying reader throws
+     */
+    public Reader openString() throws IOException {
+        expect('"');
+        return new Reader() {
+            private boolean done = false;
+
+            @Override
+            public int read(char[] buf, int off, int len) throws IOException {
+                if (this.done) {
+                    return -1;
+                }
+
+                int n = 0;
+                while (n < len) {
+                    int c = nextStringChar();
+                    if (c == -1) {
+                        this.done = true;
+                        break;
+                    }
+                    buf[off + n++] = (char) c;
+                }
+                return n == 0 && this.done ? -1 : n;
+            }
+
+            @Override
+            public void close() {
+                // the underlying reader is closed by the owner of the scanner
+            }
+        };
+    }
+
+    /**
+     * Reads and decodes the next character of a string value
+     *
+     * @return the character, or -1 at the closing quote
+     * @throws IOException if the underlying reader throws, or the string is malformed
+     */
+    private int nextStringChar() throws IOException {
+        int c = read();
+        if (c == '"') {
+            return -1;
+        }
+        if (c == -1) {
+            throw new EOFException("Unterminated string");
+        }
+        if (c != '\\') {
+            return c;
+        }
+
+        c = read();
+        switch (c) {
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(read(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Malformed unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                return value;
+            case -1:
+                throw new EOFException("Unterminated string");
+            default:
+                // \" \\ and \/
+                return c;
+        }
+    }
+}
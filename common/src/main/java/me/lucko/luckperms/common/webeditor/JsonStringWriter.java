@@ -0,0 +1,104 @@
+/*
+ * This file is part of LuckPerms, licensed under the MIT License.
+ *
+ *  Copyright (c) lucko (Luck) <luck@lucko.me>
+ *  Copyright (c) contributors
+ *
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy
+ *  of this software and associated documentation files (the "Software"), to deal
+ *  in the Software without restriction, including without limitation the rights
+ *  to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ *  copies of the Software, and to permit persons to whom the Software is
+ *  furnished to do so, subject to the following conditions:
+ *
+ *  The above copyright notice and this permission notice shall be included in all
+ *  copies or substantial portions of the Software.
+ *
+ *  THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ *  IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ *  FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ *  LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ *  OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package me.lucko.luckperms.common.webeditor;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link Writer} which escapes everything written to it so that it can be
+ * embedded inside a JSON string literal in the delegate writer.
+ *
+ * <p>Used to stream a nested JSON document into the "content" field of a gist
+ * without first building it as a string.</p>
+ */
+final class JsonStringWriter extends Writer {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Writer delegate;
+
+    JsonStringWriter(Writer delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        int start = off;
+        for (int i = off; i < end; i++) {
+            String replacement = replacement(cbuf[i]);
+            if (replacement == null) {
+                continue;
+            }
+            if (i > start) {
+                this.delegate.write(cbuf, start, i - start);
+            }
+            this.delegate.write(replacement);
+            start = i + 1;
+        }
+        if (end > start) {
+            this.delegate.write(cbuf, start, end - start);
+        }
+    }
+
+    private static String replacement(char c) {
+        switch (c) {
+            case '"':
+                return "\\\"";
+            case '\\':
+                return "\\\\";
+            case '\n':
+                return "\\n";
+            case '\r':
+                return "\\r";
+            case '\t':
+                return "\\t";
+            case '\b':
+                return "\\b";
+            case '\f':
+                return "\\f";
+            case '\u2028':
+                return "\\u2028";
+            case '\u2029':
+                return "\\u2029";
+            default:
+                if (c < 0x20) {
+                    return "\\u00" + HEX[c >> 4] + HEX[c & 0xF];
+                }
+                return null;
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.delegate.flush();
+    }
+
+    @Override
+    public void close() {
+        // the delegate is owned by the caller
+    }
+}
@@ -25,10 +25,10 @@
 
 package me.lucko.luckperms.common.webeditor;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import me.lucko.luckperms.api.context.ImmutableContextSet;
@@ -41,18 +41,18 @@ import me.lucko.luckperms.common.model.PermissionHolder;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.node.NodeModel;
 import me.lucko.luckperms.common.plugin.LuckPermsPlugin;
+import me.lucko.luckperms.common.utils.HttpUtils;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.io.StringWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.HttpURLConnection;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -61,7 +61,6 @@ import java.util.stream.Stream;
 public final class WebEditorUtils {
 
     private static final String FILE_NAME = "luckperms-data.json";
-    private static final String GIST_API_URL = "https://api.github.com/gists";
 
     private static final String USER_ID_PATTERN = "user/";
     private static final String GROUP_ID_PATTERN = "group/";
@@ -103,40 +102,41 @@ public final class WebEditorUtils {
         }
     }
 
-    public static String postToGist(String content) {
+    /**
+     * Uploads a payload to gist, streaming it directly onto the connection.
+     *
+     * @param payload the payload writer
+     * @return the id of the created gist, or null if the upload failed
+     */
+    public static String postToGist(PayloadWriter payload) {
         HttpURLConnection connection = null;
         try {
-            connection = (HttpURLConnection) new URL(GIST_API_URL).openConnection();
-            connection.addRequestProperty("User-Agent", "luckperms");
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-
-            try (OutputStream os = connection.getOutputStream()) {
-                StringWriter sw = new StringWriter();
-                new JsonWriter(sw).beginObject()
-                        .name("description").value("LuckPerms Web Permissions Editor Data")
-                        .name("public").value(false)
-                        .name("files")
-                        .beginObject().name(FILE_NAME)
-                        .beginObject().name("content").value(content)
-                        .endObject()
-                        .endObject()
-                        .endObject();
-
-                os.write(sw.toString().getBytes(StandardCharsets.UTF_8));
-            }
+            connection = HttpUtils.open(HttpUtils.GIST_API_URL, "POST");
+
+            try (Writer writer = HttpUtils.openJsonBody(connection)) {
+                writer.write("{\"description\":\"LuckPerms Web Permissions Editor Data\",\"public\":false,\"files\":{\"" + FILE_NAME + "\":{\"content\":\"");
 
-            if (connection.getResponseCode() >= 400) {
-                throw new RuntimeException("Connection returned response code: " + connection.getResponseCode() + " - " + connection.getResponseMessage());
+                // the payload is itself a json document, embedded as a string inside the gist request
+                JsonWriter content = new JsonWriter(new JsonStringWriter(writer));
+                content.setIndent("  ");
+                payload.write(content);
+                content.flush();
+
+                writer.write("\"}}}");
             }
 
-            try (InputStream inputStream = connection.getInputStream()) {
-                try (InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-                    try (BufferedReader reader = new BufferedReader(inputStreamReader)) {
-                        JsonObject response = new Gson().fromJson(reader, JsonObject.class);
-                        return response.get("id").getAsString();
+            try (JsonReader reader = new JsonReader(HttpUtils.openResponse(connection))) {
+                String id = null;
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    if (reader.nextName().equals("id") && id == null) {
+                        id = reader.nextString();
+                    } else {
+                        reader.skipValue();
                     }
                 }
+                reader.endObject();
+                return id;
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -152,41 +152,41 @@ public final class WebEditorUtils {
         }
     }
 
-    public static JsonObject getDataFromGist(String id) {
+    /**
+     * Reads the editor payload stored in the given gist.
+     *
+     * <p>The payload is parsed as a stream - the file content is decoded directly from
+     * the api response, or from the raw url if it was truncated, and the (potentially
+     * very large) list of known permissions is skipped over without being materialised.</p>
+     *
+     * @param id the gist id
+     * @return the payload, or null if it could not be read
+     */
+    public static WebEditorPayload getPayloadFromGist(String id) {
         HttpURLConnection connection = null;
         try {
-            connection = (HttpURLConnection) new URL(GIST_API_URL + "/" + id).openConnection();
-            connection.addRequestProperty("User-Agent", "luckperms");
-            connection.setRequestMethod("GET");
+            connection = HttpUtils.open(HttpUtils.GIST_API_URL + "/" + id, "GET");
 
-            if (connection.getResponseCode() >= 400) {
-                throw new RuntimeException("Connection returned response code: " + connection.getResponseCode() + " - " + connection.getResponseMessage());
+            GistFile file;
+            try (Reader in = HttpUtils.openResponse(connection)) {
+                file = readGistFile(new JsonScanner(in));
             }
 
-            try (InputStream inputStream = connection.getInputStream()) {
-                try (InputStreamReader inputStreamReader = new InputStreamReader(inputStream, StandardCharsets.UTF_8)) {
-                    try (BufferedReader reader = new BufferedReader(inputStreamReader)) {
-                        JsonObject response = new Gson().fromJson(reader, JsonObject.class);
-                        JsonObject files = response.get("files").getAsJsonObject();
-                        JsonObject permsFile = files.get(FILE_NAME).getAsJsonObject();
-
-                        // uh..
-                        if (permsFile.get("truncated").getAsBoolean()) {
-                            String rawUrlStr = permsFile.get("raw_url").getAsString();
-                            URL rawUrl = new URL(rawUrlStr);
-                            try (InputStream rawInputStream = rawUrl.openStream()) {
-                                try (InputStreamReader rawInputStreamReader = new InputStreamReader(rawInputStream, StandardCharsets.UTF_8)) {
-                                    try (BufferedReader rawReader = new BufferedReader(rawInputStreamReader)) {
-                                        return new Gson().fromJson(rawReader, JsonObject.class);
-                                    }
-                                }
-                            }
-                        } else {
-                            String content = permsFile.get("content").getAsString();
-                            return new Gson().fromJson(content, JsonObject.class);
-                        }
-                    }
-                }
+            connection.disconnect();
+            connection = null;
+
+            if (file.payload != null) {
+                return file.payload;
+            }
+
+            if (file.rawUrl == null) {
+                return null;
+            }
+
+            // the content is too large to be included in the api response, so stream it from the raw url
+            connection = HttpUtils.open(file.rawUrl, "GET");
+            try (JsonReader reader = new JsonReader(HttpUtils.openResponse(connection))) {
+                return readPayload(reader);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -202,73 +202,204 @@ public final class WebEditorUtils {
         }
     }
 
-    public static JsonArray serializePermissions(Stream<NodeModel> nodes) {
-        JsonArray arr = new JsonArray();
-        nodes.forEach(node -> {
-            JsonObject attributes = new JsonObject();
-            attributes.addProperty("permission", node.getPermission());
-            attributes.addProperty("value", node.getValue());
+    private static GistFile readGistFile(JsonScanner scanner) throws IOException {
+        GistFile file = new GistFile();
+
+        scanner.beginObject();
+        while (scanner.hasNext()) {
+            if (!scanner.nextName().equals("files")) {
+                scanner.skipValue();
+                continue;
+            }
+
+            scanner.beginObject();
+            while (scanner.hasNext()) {
+                if (!scanner.nextName().equals(FILE_NAME)) {
+                    scanner.skipValue();
+                    continue;
+                }
+
+                scanner.beginObject();
+                while (scanner.hasNext()) {
+                    String name = scanner.nextName();
+                    switch (name) {
+                        case "truncated":
+                            file.truncated = Boolean.parseBoolean(scanner.nextLiteral());
+                            break;
+                        case "raw_url":
+                            if (scanner.peekString()) {
+                                file.rawUrl = scanner.nextString();
+                            } else {
+                                scanner.skipValue();
+                            }
+                            break;
+                        case "content":
+                            if (!file.truncated && scanner.peekString()) {
+                                // parse the content in place - the rest of the response isn't needed
+                                try (JsonReader reader = new JsonReader(scanner.openString())) {
+                                    file.payload = readPayload(reader);
+                                } catch (IOException | IllegalStateException e) {
+                                    // the content was incomplete, fall back to the raw url
+                                }
+                                return file;
+                            }
+                            scanner.skipValue();
+                            break;
+                        default:
+                            scanner.skipValue();
+                            break;
+                    }
+                }
+                scanner.endObject();
+            }
+            scanner.endObject();
+        }
+        scanner.endObject();
+
+        return file;
+    }
+
+    private static final class GistFile {
+        private String rawUrl = null;
+        private boolean truncated = false;
+        private WebEditorPayload payload = null;
+    }
+
+    private static WebEditorPayload readPayload(JsonReader reader) throws IOException {
+        String who = null;
+        Set<NodeModel> nodes = new HashSet<>();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("who") && reader.peek() == JsonToken.STRING) {
+                who = reader.nextString();
+            } else if (name.equals("nodes") && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                readPermissions(reader, nodes);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        return new WebEditorPayload(who, nodes);
+    }
+
+    public static void writePermissions(JsonWriter writer, Stream<NodeModel> nodes) throws IOException {
+        writer.beginArray();
+        for (Iterator<NodeModel> it = nodes.iterator(); it.hasNext(); ) {
+            NodeModel node = it.next();
+
+            writer.beginObject();
+            writer.name("permission").value(node.getPermission());
+            writer.name("value").value(node.getValue());
 
             if (!node.getServer().equals("global")) {
-                attributes.addProperty("server", node.getServer());
+                writer.name("server").value(node.getServer());
             }
 
             if (!node.getWorld().equals("global")) {
-                attributes.addProperty("world", node.getWorld());
+                writer.name("world").value(node.getWorld());
             }
 
             if (node.getExpiry() != 0L) {
-                attributes.addProperty("expiry", node.getExpiry());
+                writer.name("expiry").value(node.getExpiry());
             }
 
             if (!node.getContexts().isEmpty()) {
-                attributes.add("context", ContextSetJsonSerializer.serializeContextSet(node.getContexts()));
+                writer.name("context");
+                ContextSetJsonSerializer.writeContextSet(writer, node.getContexts());
             }
 
-            arr.add(attributes);
-        });
-        return arr;
+            writer.endObject();
+        }
+        writer.endArray();
     }
 
-    public static Set<NodeModel> deserializePermissions(JsonArray permissionsSection) {
-        Set<NodeModel> nodes = new HashSet<>();
-
-        for (JsonElement ent : permissionsSection) {
-            if (!ent.isJsonObject()) {
+    public static void readPermissions(JsonReader reader, Set<NodeModel> nodes) throws IOException {
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
                 continue;
             }
 
-            JsonObject data = ent.getAsJsonObject();
-
-            String permission = data.get("permission").getAsString();
+            String permission = null;
             boolean value = true;
             String server = "global";
             String world = "global";
             long expiry = 0L;
             ImmutableContextSet context = ImmutableContextSet.empty();
 
-            if (data.has("value")) {
-                value = data.get("value").getAsBoolean();
-            }
-            if (data.has("server")) {
-                server = data.get("server").getAsString();
-            }
-            if (data.has("world")) {
-                world = data.get("world").getAsString();
-            }
-            if (data.has("expiry")) {
-                expiry = data.get("expiry").getAsLong();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                switch (name) {
+                    case "permission":
+                        permission = reader.nextString();
+                        break;
+                    case "value":
+                        value = reader.nextBoolean();
+                        break;
+                    case "server":
+                        server = reader.nextString();
+                        break;
+                    case "world":
+                        world = reader.nextString();
+                        break;
+                    case "expiry":
+                        expiry = reader.nextLong();
+                        break;
+                    case "context":
+                        if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+                            context = ContextSetJsonSerializer.readContextSet(reader).makeImmutable();
+                        } else {
+                            reader.skipValue();
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                        break;
+                }
             }
+            reader.endObject();
 
-            if (data.has("context") && data.get("context").isJsonObject()) {
-                JsonObject contexts = data.get("context").getAsJsonObject();
-                context = ContextSetJsonSerializer.deserializeContextSet(contexts).makeImmutable();
+            if (permission != null) {
+                nodes.add(NodeModel.of(permission, value, server, world, expiry, context));
             }
+        }
+        reader.endArray();
+    }
 
-            nodes.add(NodeModel.of(permission, value, server, world, expiry, context));
+    // adapts the streaming methods above for use with json trees, so the node schema is only defined once
+    private static final TypeAdapter<Collection<NodeModel>> PERMISSIONS_ADAPTER = new TypeAdapter<Collection<NodeModel>>() {
+        @Override
+        public void write(JsonWriter out, Collection<NodeModel> nodes) throws IOException {
+            writePermissions(out, nodes.stream());
         }
 
-        return nodes;
+        @Override
+        public Collection<NodeModel> read(JsonReader in) throws IOException {
+            Set<NodeModel> nodes = new HashSet<>();
+            readPermissions(in, nodes);
+            return nodes;
+        }
+    };
+
+    public static JsonArray serializePermissions(Stream<NodeModel> nodes) {
+        return PERMISSIONS_ADAPTER.toJsonTree(nodes.collect(Collectors.toList())).getAsJsonArray();
+    }
+
+    public static Set<NodeModel> deserializePermissions(JsonArray permissionsSection) {
+        return (Set<NodeModel>) PERMISSIONS_ADAPTER.fromJsonTree(permissionsSection);
+    }
+
+    /**
+     * Writes a payload to a {@link JsonWriter}.
+     */
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(JsonWriter writer) throws IOException;
     }
 
     private WebEditorUtils() {}
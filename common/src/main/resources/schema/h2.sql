@@ -37,7 +37,8 @@ CREATE TABLE `{prefix}players` (
 CREATE INDEX ON `{prefix}players` (`username`);
 
 CREATE TABLE `{prefix}groups` (
-  `name` VARCHAR(36) NOT NULL,
+  `name`    VARCHAR(36) NOT NULL,
+  `version` BIGINT      NOT NULL DEFAULT 0,
   PRIMARY KEY (`name`)
 );
 
@@ -52,9 +53,14 @@ CREATE TABLE `{prefix}actions` (
   `action`     VARCHAR(300)       NOT NULL,
   PRIMARY KEY (`id`)
 );
+CREATE INDEX `{prefix}actions_time` ON `{prefix}actions` (`time`);
+CREATE INDEX `{prefix}actions_actor_uuid` ON `{prefix}actions` (`actor_uuid`, `time`);
+CREATE INDEX `{prefix}actions_acted_uuid` ON `{prefix}actions` (`acted_uuid`, `time`);
+CREATE INDEX `{prefix}actions_acted_name` ON `{prefix}actions` (`acted_name`, `time`);
 
 CREATE TABLE `{prefix}tracks` (
-  `name`   VARCHAR(36) NOT NULL,
-  `groups` TEXT        NOT NULL,
+  `name`    VARCHAR(36) NOT NULL,
+  `groups`  TEXT        NOT NULL,
+  `version` BIGINT      NOT NULL DEFAULT 0,
   PRIMARY KEY (`name`)
 );
\ No newline at end of file
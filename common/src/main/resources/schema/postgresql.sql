@@ -34,7 +34,8 @@ CREATE TABLE "{prefix}players" (
 CREATE INDEX "{prefix}players_username" ON "{prefix}players" ("username");
 
 CREATE TABLE "{prefix}groups" (
-  "name" VARCHAR(36) PRIMARY KEY NOT NULL
+  "name"    VARCHAR(36) PRIMARY KEY NOT NULL,
+  "version" BIGINT                  NOT NULL DEFAULT 0
 );
 
 CREATE TABLE "{prefix}actions" (
@@ -47,8 +48,13 @@ CREATE TABLE "{prefix}actions" (
   "acted_name" VARCHAR(36)              NOT NULL,
   "action"     VARCHAR(300)             NOT NULL
 );
+CREATE INDEX "{prefix}actions_time" ON "{prefix}actions" ("time");
+CREATE INDEX "{prefix}actions_actor_uuid" ON "{prefix}actions" ("actor_uuid", "time");
+CREATE INDEX "{prefix}actions_acted_uuid" ON "{prefix}actions" ("acted_uuid", "time");
+CREATE INDEX "{prefix}actions_acted_name" ON "{prefix}actions" ("acted_name", "time");
 
 CREATE TABLE "{prefix}tracks" (
-  "name"   VARCHAR(36) PRIMARY KEY NOT NULL,
-  "groups" TEXT                    NOT NULL
+  "name"    VARCHAR(36) PRIMARY KEY NOT NULL,
+  "groups"  TEXT                    NOT NULL,
+  "version" BIGINT                  NOT NULL DEFAULT 0
 );
\ No newline at end of file
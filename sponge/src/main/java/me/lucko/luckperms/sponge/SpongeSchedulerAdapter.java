@@ -25,10 +25,13 @@
 
 package me.lucko.luckperms.sponge;
 
+import me.lucko.luckperms.common.plugin.RecalculationQueue;
 import me.lucko.luckperms.common.plugin.SchedulerAdapter;
+import me.lucko.luckperms.common.plugin.WorkloadExecutors;
 
 import org.spongepowered.api.scheduler.Task;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
@@ -36,9 +39,11 @@ import java.util.concurrent.Executor;
 public class SpongeSchedulerAdapter implements SchedulerAdapter {
     private final LPSpongePlugin plugin;
     private final Set<Task> tasks = ConcurrentHashMap.newKeySet();
+    private final WorkloadExecutors workloads;
 
     public SpongeSchedulerAdapter(LPSpongePlugin plugin) {
         this.plugin = plugin;
+        this.workloads = new WorkloadExecutors();
     }
 
     @Override
@@ -51,6 +56,41 @@ public class SpongeSchedulerAdapter implements SchedulerAdapter {
         return this.plugin.getSyncExecutorService();
     }
 
+    @Override
+    public Executor storage() {
+        return this.workloads.storage();
+    }
+
+    @Override
+    public Executor calculation() {
+        return this.workloads.calculation();
+    }
+
+    @Override
+    public Executor messaging() {
+        return this.workloads.messaging();
+    }
+
+    @Override
+    public Executor background() {
+        return this.workloads.background();
+    }
+
+    @Override
+    public RecalculationQueue recalculationQueue() {
+        return this.workloads.recalculationQueue();
+    }
+
+    @Override
+    public void setCalculationThreads(int threads) {
+        this.workloads.setCalculationThreads(threads);
+    }
+
+    @Override
+    public Map<String, String> getExecutorStats() {
+        return this.workloads.getStats();
+    }
+
     @Override
     public void doAsync(Runnable runnable) {
         this.plugin.getSpongeScheduler().createTaskBuilder().async().execute(runnable).submit(this.plugin);
@@ -86,5 +126,6 @@ public class SpongeSchedulerAdapter implements SchedulerAdapter {
     @Override
     public void shutdown() {
         this.tasks.forEach(Task::cancel);
+        this.workloads.shutdown();
     }
 }
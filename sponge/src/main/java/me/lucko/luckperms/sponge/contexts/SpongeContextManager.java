@@ -27,10 +27,12 @@ package me.lucko.luckperms.sponge.contexts;
 
 import me.lucko.luckperms.api.Contexts;
 import me.lucko.luckperms.api.context.ImmutableContextSet;
+import me.lucko.luckperms.api.context.MutableContextSet;
 import me.lucko.luckperms.common.config.ConfigKeys;
 import me.lucko.luckperms.common.contexts.AbstractContextManager;
 import me.lucko.luckperms.sponge.LPSpongePlugin;
 
+import org.spongepowered.api.Sponge;
 import org.spongepowered.api.service.permission.Subject;
 
 public class SpongeContextManager extends AbstractContextManager<Subject> {
@@ -38,6 +40,24 @@ public class SpongeContextManager extends AbstractContextManager<Subject> {
         super(plugin, Subject.class);
     }
 
+    @Override
+    public ImmutableContextSet getLoginContext() {
+        // players join into the default world, unless another plugin moves them
+        if (!Sponge.isServerAvailable()) {
+            return getStaticContext();
+        }
+
+        String world = Sponge.getServer().getDefaultWorldName().toLowerCase();
+
+        // apply world rewrites in the same way as the WorldCalculator
+        MutableContextSet contextSet = MutableContextSet.fromSet(getStaticContext());
+        while (!contextSet.has(Contexts.WORLD_KEY, world)) {
+            contextSet.add(Contexts.WORLD_KEY, world);
+            world = this.plugin.getConfiguration().get(ConfigKeys.WORLD_REWRITES).getOrDefault(world, world).toLowerCase();
+        }
+        return contextSet.makeImmutable();
+    }
+
     @Override
     public Contexts formContexts(Subject subject, ImmutableContextSet contextSet) {
         return new Contexts(
@@ -80,7 +80,7 @@ public class SpongeConnectionListener {
            - creating a user instance in the UserManager for this connection.
            - setting up cached data. */
         try {
-            User user = LoginHelper.loadUser(this.plugin, p.getUniqueId(), username, false);
+            User user = LoginHelper.loadUser(this.plugin, p.getUniqueId(), username);
             this.plugin.getEventFactory().handleUserLoginProcess(p.getUniqueId(), username, user);
         } catch (Exception ex) {
             this.plugin.getLog().severe("Exception occured whilst loading data for " + p.getUniqueId() + " - " + p.getName());
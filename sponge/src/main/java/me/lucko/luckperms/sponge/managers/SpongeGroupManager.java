@@ -36,6 +36,7 @@ import me.lucko.luckperms.api.HeldPermission;
 import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.api.context.ImmutableContextSet;
 import me.lucko.luckperms.api.event.cause.CreationCause;
+import me.lucko.luckperms.common.managers.GroupIndex;
 import me.lucko.luckperms.common.managers.GroupManager;
 import me.lucko.luckperms.common.model.Group;
 import me.lucko.luckperms.common.storage.DataConstraints;
@@ -52,6 +53,7 @@ import me.lucko.luckperms.sponge.service.model.SubjectReferenceFactory;
 import org.spongepowered.api.service.permission.PermissionService;
 import org.spongepowered.api.service.permission.SubjectCollection;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -70,6 +72,8 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
     private final LoadingCache<String, SpongeGroup> objects = Caffeine.newBuilder()
             .build(this::apply);
 
+    private final GroupIndex index = new GroupIndex(() -> this.objects.asMap().values());
+
     private final LoadingCache<String, LPSubject> subjectLoadingCache = Caffeine.newBuilder()
             .expireAfterWrite(1, TimeUnit.MINUTES)
             .build(s -> {
@@ -101,7 +105,9 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
 
     @Override
     public SpongeGroup apply(String name) {
-        return new SpongeGroup(name, this.plugin);
+        SpongeGroup group = new SpongeGroup(name, this.plugin);
+        this.index.track(group);
+        return group;
     }
 
     /* ------------------------------------------
@@ -110,12 +116,18 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
 
     @Override
     public Map<String, SpongeGroup> getAll() {
-        return ImmutableMap.copyOf(this.objects.asMap());
+        return Collections.unmodifiableMap(this.objects.asMap());
     }
 
     @Override
     public SpongeGroup getOrMake(String id) {
-        return this.objects.get(id.toLowerCase());
+        SpongeGroup group = this.objects.getIfPresent(id.toLowerCase());
+        if (group == null) {
+            group = this.objects.get(id.toLowerCase());
+            // invalidate once the group is in the map, so a concurrent rebuild can't miss it
+            this.index.invalidate();
+        }
+        return group;
     }
 
     @Override
@@ -132,6 +144,7 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
     public void unload(String id) {
         if (id != null) {
             this.objects.invalidate(id.toLowerCase());
+            this.index.invalidate();
         }
     }
 
@@ -145,6 +158,7 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
     @Override
     public void unloadAll() {
         this.objects.invalidateAll();
+        this.index.invalidate();
     }
 
     /* ------------------------------------------
@@ -290,21 +304,13 @@ public class SpongeGroupManager implements GroupManager, LPSubjectCollection {
             return g;
         }
 
-        // then try exact display name matches
-        for (Group group : getAll().values()) {
-            if (group.getDisplayName().isPresent() && group.getDisplayName().get().equals(name)) {
-                return group;
-            }
-        }
-
-        // then try case insensitive name matches
-        for (Group group : getAll().values()) {
-            if (group.getDisplayName().isPresent() && group.getDisplayName().get().equalsIgnoreCase(name)) {
-                return group;
-            }
-        }
+        // then try display name matches
+        return this.index.getByDisplayName(name);
+    }
 
-        return null;
+    @Override
+    public List<Group> getByWeight() {
+        return this.index.getByWeight();
     }
 
     public LPSpongePlugin getPlugin() {
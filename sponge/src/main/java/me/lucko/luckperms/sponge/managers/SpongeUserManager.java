@@ -37,6 +37,7 @@ import me.lucko.luckperms.api.Tristate;
 import me.lucko.luckperms.api.context.ImmutableContextSet;
 import me.lucko.luckperms.common.managers.GenericUserManager;
 import me.lucko.luckperms.common.managers.UserManager;
+import me.lucko.luckperms.common.managers.UsernameIndex;
 import me.lucko.luckperms.common.model.User;
 import me.lucko.luckperms.common.references.UserIdentifier;
 import me.lucko.luckperms.common.utils.ImmutableCollectors;
@@ -52,6 +53,7 @@ import me.lucko.luckperms.sponge.service.model.SubjectReferenceFactory;
 import org.spongepowered.api.service.permission.PermissionService;
 import org.spongepowered.api.service.permission.SubjectCollection;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -61,6 +63,7 @@ import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 public class SpongeUserManager implements UserManager, LPSubjectCollection {
 
@@ -71,6 +74,8 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
     private final LoadingCache<UserIdentifier, SpongeUser> objects = Caffeine.newBuilder()
             .build(this::apply);
 
+    private final UsernameIndex<SpongeUser> usernameIndex = new UsernameIndex<>(user -> this.objects.getIfPresent(user.getId()) == user);
+
     private final LoadingCache<UUID, LPSubject> subjectLoadingCache = Caffeine.<UUID, LPSubject>newBuilder()
             .expireAfterWrite(1, TimeUnit.MINUTES)
             .build(u -> {
@@ -116,7 +121,7 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
 
     @Override
     public Map<UserIdentifier, SpongeUser> getAll() {
-        return ImmutableMap.copyOf(this.objects.asMap());
+        return Collections.unmodifiableMap(this.objects.asMap());
     }
 
     @Override
@@ -125,6 +130,7 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
         if (id.getUsername().isPresent()) {
             ret.setName(id.getUsername().get(), false);
         }
+        this.usernameIndex.add(ret);
         return ret;
     }
 
@@ -141,7 +147,11 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
     @Override
     public void unload(UserIdentifier id) {
         if (id != null) {
+            SpongeUser user = this.objects.getIfPresent(id);
             this.objects.invalidate(id);
+            if (user != null) {
+                this.usernameIndex.remove(user);
+            }
         }
     }
 
@@ -155,6 +165,7 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
     @Override
     public void unloadAll() {
         this.objects.invalidateAll();
+        this.usernameIndex.clear();
     }
 
     /* ------------------------------------------
@@ -163,13 +174,15 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
 
     @Override
     public SpongeUser getByUsername(String name) {
-        for (SpongeUser user : getAll().values()) {
-            Optional<String> n = user.getName();
-            if (n.isPresent() && n.get().equalsIgnoreCase(name)) {
-                return user;
-            }
+        return this.usernameIndex.get(name);
+    }
+
+    @Override
+    public void updateUsernameIndex(User user, String previousName) {
+        SpongeUser loaded = this.objects.getIfPresent(user.getId());
+        if (loaded == user) {
+            this.usernameIndex.update(loaded, previousName);
         }
-        return null;
     }
 
     @Override
@@ -195,12 +208,12 @@ public class SpongeUserManager implements UserManager, LPSubjectCollection {
 
     @Override
     public CompletableFuture<Void> updateAllUsers() {
-        return CompletableFuture.runAsync(
+        return CompletableFuture.supplyAsync(
                 () -> this.plugin.getOnlinePlayers()
                         .map(u -> this.plugin.getUuidCache().getUUID(u))
-                        .forEach(u -> this.plugin.getStorage().loadUser(u, null).join()),
+                        .collect(Collectors.toSet()),
                 this.plugin.getScheduler().async()
-        );
+        ).thenCompose(uuids -> this.plugin.getStorage().loadUsers(uuids));
     }
 
     /* ------------------------------------------